@@ -0,0 +1,102 @@
+package com.flipkartclone.ecommercebackend.benchmark;
+
+import com.flipkartclone.ecommercebackend.model.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cart/order totals and their JSON rendering: the previous BigDecimal path against long minor units.
+ * Run with -prof gc to compare allocation per operation as well as time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    @Param({"3", "20"})
+    private int lines;
+
+    private BigDecimal[] decimalPrices;
+    private long[] minorPrices;
+    private int[] quantities;
+    private char[] buffer;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        decimalPrices = new BigDecimal[lines];
+        minorPrices = new long[lines];
+        quantities = new int[lines];
+        for (int i = 0; i < lines; i++) {
+            long minor = random.nextLong(100, 10_000_000);
+            minorPrices[i] = minor;
+            // Scale 2, as loaded from the old NUMERIC(38, 2) columns.
+            decimalPrices[i] = BigDecimal.valueOf(minor, 2);
+            quantities[i] = 1 + random.nextInt(5);
+        }
+        buffer = new char[Money.MAX_CHARS];
+    }
+
+    @Benchmark
+    public BigDecimal totalBigDecimal() {
+        BigDecimal total = BigDecimal.ZERO;
+        for (int i = 0; i < lines; i++) {
+            total = total.add(decimalPrices[i].multiply(BigDecimal.valueOf(quantities[i])));
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long totalMinorUnits() {
+        long total = 0;
+        for (int i = 0; i < lines; i++) {
+            total = Money.plus(total, Money.times(minorPrices[i], quantities[i]));
+        }
+        return total;
+    }
+
+    @Benchmark
+    public void renderBigDecimal(Blackhole blackhole) {
+        for (int i = 0; i < lines; i++) {
+            BigDecimal lineTotal = decimalPrices[i].multiply(BigDecimal.valueOf(quantities[i]));
+            blackhole.consume(decimalPrices[i].toString());
+            blackhole.consume(lineTotal.toString());
+        }
+    }
+
+    @Benchmark
+    public void renderMinorUnits(Blackhole blackhole) {
+        for (int i = 0; i < lines; i++) {
+            long lineTotal = Money.times(minorPrices[i], quantities[i]);
+            blackhole.consume(Money.format(minorPrices[i], buffer));
+            blackhole.consume(Money.format(lineTotal, buffer));
+        }
+    }
+
+    @Benchmark
+    public long paymentAmountBigDecimal() {
+        return totalBigDecimal().multiply(BigDecimal.valueOf(100)).longValue();
+    }
+
+    @Benchmark
+    public long paymentAmountMinorUnits() {
+        return totalMinorUnits();
+    }
+}
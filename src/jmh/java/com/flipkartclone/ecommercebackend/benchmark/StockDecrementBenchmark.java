@@ -0,0 +1,108 @@
+package com.flipkartclone.ecommercebackend.benchmark;
+
+import com.flipkartclone.ecommercebackend.service.InventoryService;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Concurrent orders for one hot product: a conditional UPDATE of products.stock_quantity against a reservation in
+ * the sharded stock ledger, with the compactor folding the ledger in the background. Needs a migrated Postgres;
+ * connection settings come from -Dbenchmark.db.url / .user / .password (defaults match application.properties):
+ *   mvn -Pjmh test-compile exec:java -Dexec.args="StockDecrementBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Threads(32)
+@Fork(1)
+public class StockDecrementBenchmark {
+
+    // Large enough that neither variant runs out of stock during a run.
+    private static final int STOCK = 1_000_000_000;
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private InventoryService inventoryService;
+    private long categoryId;
+    private long productId;
+    private Thread compactor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(System.getProperty("benchmark.db.url", "jdbc:postgresql://localhost:5432/flipkart_clone_db"));
+        config.setUsername(System.getProperty("benchmark.db.user", "postgres"));
+        config.setPassword(System.getProperty("benchmark.db.password", "abcd"));
+        config.setMaximumPoolSize(40);
+        dataSource = new HikariDataSource(config);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        inventoryService = new InventoryService(jdbcTemplate);
+
+        String name = "stock-benchmark-" + UUID.randomUUID();
+        categoryId = jdbcTemplate.queryForObject("INSERT INTO categories (name) VALUES (?) RETURNING id", Long.class, name);
+        productId = jdbcTemplate.queryForObject("INSERT INTO products (name, price_minor, stock_quantity, category_id) " +
+                "VALUES (?, 100, ?, ?) RETURNING id", Long.class, name, STOCK, categoryId);
+        transactionTemplate.executeWithoutResult(status -> inventoryService.setAvailable(Map.of(productId, STOCK)));
+
+        compactor = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    Thread.sleep(1000);
+                    transactionTemplate.executeWithoutResult(status -> inventoryService.fold(List.of(productId)));
+                } catch (InterruptedException e) {
+                    return;
+                } catch (Exception e) {
+                    System.out.println("Stock compaction failed during benchmark: " + e.getMessage());
+                }
+            }
+        }, "stock-benchmark-compactor");
+        compactor.setDaemon(true);
+        compactor.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        compactor.interrupt();
+        compactor.join();
+        jdbcTemplate.update("DELETE FROM stock_dirty WHERE product_id = ?", productId);
+        jdbcTemplate.update("DELETE FROM products WHERE id = ?", productId);
+        jdbcTemplate.update("DELETE FROM categories WHERE id = ?", categoryId);
+        dataSource.close();
+    }
+
+    @Benchmark
+    public boolean hotRow() {
+        return transactionTemplate.execute(status -> jdbcTemplate.update(
+                "UPDATE products SET stock_quantity = stock_quantity - 1 WHERE id = ? AND stock_quantity >= 1", productId) == 1);
+    }
+
+    @Benchmark
+    public boolean ledger() {
+        return transactionTemplate.execute(status -> inventoryService.reserve(productId, 1, null));
+    }
+}
@@ -0,0 +1,253 @@
+package com.flipkartclone.ecommercebackend.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The user journeys driven against the real HTTP endpoints. Every request is recorded under its step name;
+ * a failed step ends the journey, as a real user would give up.
+ */
+final class Journeys {
+
+    private static final String[] QUERIES = {"ph", "sam", "lap", "sho", "wat", "ear", "tv", "boo"};
+
+    private final LoadConfig config;
+    private final HttpClient http;
+    private final ObjectMapper json = new ObjectMapper();
+    private final Map<String, StepStats> steps = new ConcurrentHashMap<>();
+    private final AtomicLong userSequence = new AtomicLong();
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private volatile List<Long> productIds = List.of();
+
+    Journeys(LoadConfig config) {
+        this.config = config;
+        this.http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    }
+
+    Map<String, StepStats> steps() {
+        return steps;
+    }
+
+    /**
+     * Loads the product IDs journeys pick from, creating a category and products first if the catalog is too small.
+     */
+    void prepareCatalog() throws Exception {
+        JsonNode products = json.readTree(send("GET", "/api/products", null).body());
+        int missing = config.seedProducts - products.size();
+        if (missing > 0) {
+            ObjectNode category = json.createObjectNode()
+                    .put("name", "Load test " + runId)
+                    .put("description", "Created by the load generator");
+            long categoryId = json.readTree(send("POST", "/api/categories", category).body()).get("id").asLong();
+            for (int i = 0; i < missing; i++) {
+                ObjectNode product = json.createObjectNode()
+                        .put("name", "Load test product " + runId + "-" + i)
+                        .put("description", "Synthetic product")
+                        .put("price", 100 + ThreadLocalRandom.current().nextInt(50_000) / 100.0)
+                        .put("stockQuantity", 1_000_000)
+                        .put("categoryId", categoryId);
+                send("POST", "/api/products", product);
+            }
+            products = json.readTree(send("GET", "/api/products", null).body());
+        }
+        List<Long> ids = new ArrayList<>();
+        products.forEach(product -> ids.add(product.get("id").asLong()));
+        productIds = ids;
+        System.out.println("Catalog ready: " + productIds.size() + " products");
+    }
+
+    void run(String journey) {
+        try {
+            switch (journey) {
+                case "browse" -> browse();
+                case "checkout" -> checkout();
+                case "express-checkout" -> expressCheckout();
+                case "catalog" -> catalog("catalog", "/api");
+                case "reactive-catalog" -> catalog("reactive-catalog", "/api/reactive");
+                default -> throw new IllegalArgumentException("Unknown journey: " + journey);
+            }
+        } catch (StepFailed e) {
+            // already counted against the step
+        } catch (Exception e) {
+            step("unexpected-error").record(System.nanoTime(), false);
+        }
+    }
+
+    private void browse() throws Exception {
+        call("browse.list", "GET", "/api/products", null);
+        long productId = randomProduct();
+        call("browse.product", "GET", "/api/products/" + productId, null);
+        call("browse.typeahead", "GET", "/api/search/typeahead?q=" + QUERIES[ThreadLocalRandom.current().nextInt(QUERIES.length)], null);
+        call("browse.related", "GET", "/api/products/" + productId + "/related", null);
+    }
+
+    // Catalog reads only, against either the blocking endpoints or their R2DBC twins, for comparing resource use.
+    private void catalog(String stepPrefix, String basePath) throws Exception {
+        call(stepPrefix + ".products", "GET", basePath + "/products", null);
+        call(stepPrefix + ".product", "GET", basePath + "/products/" + randomProduct(), null);
+        call(stepPrefix + ".categories", "GET", basePath + "/categories", null);
+    }
+
+    private void checkout() throws Exception {
+        long userId = registerAndFillCart("checkout");
+
+        JsonNode order = call("checkout.place-order", "POST", "/api/orders",
+                json.createObjectNode().put("userId", userId).put("shippingAddress", "1 Test Street"));
+        long orderId = order.get("id").asLong();
+        String receipt = "order_receipt_" + orderId;
+
+        ObjectNode payment = json.createObjectNode()
+                .put("orderId", orderId)
+                .put("userId", userId)
+                .put("currency", "INR")
+                .put("receipt", receipt);
+        payment.set("amount", order.get("totalAmount"));
+        JsonNode gatewayOrder = call("checkout.create-payment", "POST", "/api/payment/create-order", payment);
+
+        sendWebhook("checkout", gatewayOrder, receipt);
+
+        call("checkout.order-status", "GET", "/api/orders/" + orderId, null);
+    }
+
+    // Same journey as checkout, but order and gateway order come from the single /api/checkout call.
+    private void expressCheckout() throws Exception {
+        long userId = registerAndFillCart("express-checkout");
+
+        JsonNode checkout = call("express-checkout.checkout", "POST", "/api/checkout",
+                json.createObjectNode().put("userId", userId).put("shippingAddress", "1 Test Street").put("currency", "INR"));
+        long orderId = checkout.get("orderId").asLong();
+        JsonNode gatewayOrder = checkout.get("payment");
+        if (gatewayOrder == null || gatewayOrder.isNull()) {
+            step("express-checkout.gateway-missing").record(System.nanoTime(), false);
+            throw new StepFailed();
+        }
+
+        sendWebhook("express-checkout", gatewayOrder, gatewayOrder.get("receipt").asText());
+
+        call("express-checkout.order-status", "GET", "/api/orders/" + orderId, null);
+    }
+
+    private long registerAndFillCart(String stepPrefix) throws Exception {
+        String email = "loadtest-" + runId + "-" + userSequence.incrementAndGet() + "@example.com";
+        ObjectNode user = json.createObjectNode()
+                .put("email", email)
+                .put("password", "loadtest")
+                .put("firstName", "Load")
+                .put("lastName", "Test")
+                .put("address", "1 Test Street");
+        long userId = call(stepPrefix + ".register", "POST", "/api/users/register", user).get("id").asLong();
+        call(stepPrefix + ".login", "POST", "/api/users/login", json.createObjectNode().put("email", email).put("password", "loadtest"));
+
+        int lines = 1 + ThreadLocalRandom.current().nextInt(3);
+        for (int i = 0; i < lines; i++) {
+            ObjectNode item = json.createObjectNode()
+                    .put("productId", randomProduct())
+                    .put("quantity", 1 + ThreadLocalRandom.current().nextInt(2));
+            call(stepPrefix + ".add-to-cart", "POST", "/api/cart/" + userId + "/items", item);
+        }
+        call(stepPrefix + ".view-cart", "GET", "/api/cart/" + userId, null);
+        return userId;
+    }
+
+    private void sendWebhook(String stepPrefix, JsonNode gatewayOrder, String receipt) throws Exception {
+        if (ThreadLocalRandom.current().nextDouble() < config.lostWebhookRatio) {
+            step(stepPrefix + ".webhook-dropped").record(System.nanoTime(), true);
+            return;
+        }
+        String webhook = json.writeValueAsString(webhookPayload(gatewayOrder, receipt));
+        long started = System.nanoTime();
+        HttpResponse<String> response = http.send(request("/api/payment/webhook")
+                .header("Content-Type", "application/json")
+                .header("X-Razorpay-Signature", sign(webhook))
+                .POST(HttpRequest.BodyPublishers.ofString(webhook))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        finish(stepPrefix + ".webhook", started, response);
+    }
+
+    // Shape read by PaymentService.handleWebhook for a captured payment.
+    private ObjectNode webhookPayload(JsonNode gatewayOrder, String receipt) {
+        ObjectNode entity = json.createObjectNode()
+                .put("id", "pay_loadtest_" + userSequence.get())
+                .put("order_id", gatewayOrder.get("id").asText())
+                .put("status", "captured")
+                .put("receipt", receipt)
+                .put("amount", gatewayOrder.get("amount").asLong());
+        ObjectNode root = json.createObjectNode().put("event", "payment.captured");
+        root.putObject("payload").putObject("payment").set("entity", entity);
+        return root;
+    }
+
+    private String sign(String payload) throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(config.webhookSecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        return HexFormat.of().formatHex(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private JsonNode call(String stepName, String method, String path, JsonNode body) throws Exception {
+        long started = System.nanoTime();
+        HttpResponse<String> response;
+        try {
+            response = send(method, path, body);
+        } catch (Exception e) {
+            step(stepName).record(started, false);
+            throw new StepFailed();
+        }
+        finish(stepName, started, response);
+        return response.body().isEmpty() ? json.nullNode() : json.readTree(response.body());
+    }
+
+    private void finish(String stepName, long started, HttpResponse<String> response) {
+        boolean ok = response.statusCode() < 400;
+        step(stepName).record(started, ok);
+        if (!ok) {
+            throw new StepFailed();
+        }
+    }
+
+    private HttpResponse<String> send(String method, String path, JsonNode body) throws Exception {
+        HttpRequest.Builder builder = request(path);
+        if (body != null) {
+            builder.header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofString(json.writeValueAsString(body)));
+        } else {
+            builder.method(method, HttpRequest.BodyPublishers.noBody());
+        }
+        return http.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(config.baseUrl + path)).timeout(Duration.ofSeconds(30));
+    }
+
+    private long randomProduct() {
+        List<Long> ids = productIds;
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+    StepStats step(String name) {
+        return steps.computeIfAbsent(name, StepStats::new);
+    }
+
+    private static final class StepFailed extends RuntimeException {
+        StepFailed() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.flipkartclone.ecommercebackend.loadtest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Load generator settings, read from system properties (-Dloadgen.*) with defaults suited to a laptop run.
+ */
+final class LoadConfig {
+
+    final String baseUrl = property("loadgen.base-url", "http://localhost:8080");
+    /** Journey starts per second; arrivals are Poisson, independent of how fast the server responds. */
+    final double arrivalRate = Double.parseDouble(property("loadgen.rate", "20"));
+    final int warmupSeconds = Integer.parseInt(property("loadgen.warmup-seconds", "30"));
+    final int durationSeconds = Integer.parseInt(property("loadgen.duration-seconds", "120"));
+    /** Upper bound on journeys in flight; arrivals beyond it are counted as dropped rather than queued. */
+    final int maxConcurrency = Integer.parseInt(property("loadgen.max-concurrency", "2000"));
+    /**
+     * Relative journey weights, e.g. browse:80,checkout:20 or browse:80,express-checkout:20.
+     * catalog and reactive-catalog run the same reads against the blocking and R2DBC endpoints.
+     */
+    final Map<String, Integer> mix = parseMix(property("loadgen.mix", "browse:80,checkout:20"));
+    final int seedProducts = Integer.parseInt(property("loadgen.seed-products", "200"));
+    /** Must match payment.stub.webhook-secret in the application's loadtest profile. */
+    final String webhookSecret = property("loadgen.webhook-secret", "loadtest-webhook-secret");
+    /**
+     * Fraction of checkouts whose payment webhook is never sent, leaving the order to payment reconciliation
+     * (the stub gateway reports every order it created as paid).
+     */
+    final double lostWebhookRatio = Double.parseDouble(property("loadgen.lost-webhook-ratio", "0"));
+    /** Port for the SMTP sink; 0 to not start one. */
+    final int smtpPort = Integer.parseInt(property("loadgen.smtp-port", "2525"));
+    final String reportDir = property("loadgen.report-dir", "target/loadtest");
+    /** How often server gauges (connections, threads) are sampled from /actuator/metrics; 0 to disable. */
+    final int serverSampleMillis = Integer.parseInt(property("loadgen.server-sample-ms", "1000"));
+
+    private static String property(String name, String defaultValue) {
+        return System.getProperty(name, defaultValue);
+    }
+
+    private static Map<String, Integer> parseMix(String value) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String part : value.split(",")) {
+            String[] pair = part.trim().split(":");
+            weights.put(pair[0], pair.length > 1 ? Integer.parseInt(pair[1]) : 1);
+        }
+        return weights;
+    }
+
+    @Override
+    public String toString() {
+        return "baseUrl=" + baseUrl + ", rate=" + arrivalRate + "/s, warmup=" + warmupSeconds + "s, duration="
+                + durationSeconds + "s, mix=" + mix + ", maxConcurrency=" + maxConcurrency;
+    }
+}
@@ -0,0 +1,174 @@
+package com.flipkartclone.ecommercebackend.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator for the browse -> cart -> checkout -> webhook flow.
+ * <p>
+ * Journeys start on a Poisson schedule at the configured rate whether or not earlier ones have finished,
+ * so a slow server shows up as growing latency instead of silently lowering the offered load. The delay
+ * between a journey's scheduled and actual start is recorded as "schedule-lag" to make generator
+ * saturation visible.
+ * <p>
+ * Usage (application started with --spring.profiles.active=loadtest):
+ * <pre>mvn -Ploadtest test-compile exec:java -Dloadgen.rate=50 -Dloadgen.duration-seconds=300</pre>
+ * Per-step summaries are printed and full HDR percentile distributions are written to loadgen.report-dir.
+ * Peak server connections and threads are also sampled. Compare blocking and reactive catalog reads with two runs:
+ * <pre>-Dloadgen.mix=catalog:1  vs  -Dloadgen.mix=reactive-catalog:1</pre>
+ */
+public final class LoadGenerator {
+
+    private LoadGenerator() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadConfig config = new LoadConfig();
+        System.out.println("Load generator: " + config);
+
+        SmtpSink smtpSink = config.smtpPort > 0 ? new SmtpSink(config.smtpPort) : null;
+        ServerResourceSampler sampler = null;
+        try {
+            awaitHealthy(config.baseUrl);
+            Journeys journeys = new Journeys(config);
+            journeys.prepareCatalog();
+            if (config.serverSampleMillis > 0) {
+                sampler = new ServerResourceSampler(config.baseUrl, config.serverSampleMillis);
+            }
+            run(config, journeys, sampler);
+            report(config, journeys, smtpSink, sampler);
+        } finally {
+            if (sampler != null) {
+                sampler.close();
+            }
+            if (smtpSink != null) {
+                smtpSink.close();
+            }
+        }
+    }
+
+    private static void run(LoadConfig config, Journeys journeys, ServerResourceSampler sampler) throws InterruptedException {
+        ExecutorService workers = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "journey");
+            thread.setDaemon(true);
+            return thread;
+        });
+        Semaphore inFlight = new Semaphore(config.maxConcurrency);
+        StepStats scheduleLag = journeys.step("schedule-lag");
+        AtomicLong dropped = new AtomicLong();
+        List<String> journeyNames = new ArrayList<>(config.mix.keySet());
+        int totalWeight = config.mix.values().stream().mapToInt(Integer::intValue).sum();
+
+        long start = System.nanoTime();
+        long warmupEnd = start + TimeUnit.SECONDS.toNanos(config.warmupSeconds);
+        long end = warmupEnd + TimeUnit.SECONDS.toNanos(config.durationSeconds);
+        boolean measuring = false;
+        long next = start;
+
+        while (next < end) {
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (!measuring && next >= warmupEnd) {
+                journeys.steps().values().forEach(StepStats::reset);
+                if (sampler != null) {
+                    sampler.reset();
+                }
+                dropped.set(0);
+                measuring = true;
+                System.out.println("Warm-up done, measuring for " + config.durationSeconds + "s");
+            }
+
+            String journey = pick(journeyNames, config.mix, totalWeight);
+            long scheduled = next;
+            if (inFlight.tryAcquire()) {
+                workers.execute(() -> {
+                    try {
+                        scheduleLag.record(scheduled, true);
+                        journeys.run(journey);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            } else {
+                dropped.incrementAndGet();
+            }
+
+            // Exponential inter-arrival times give a Poisson arrival process.
+            double u = ThreadLocalRandom.current().nextDouble();
+            next += (long) (-Math.log(1.0 - u) / config.arrivalRate * 1_000_000_000L);
+        }
+
+        workers.shutdown();
+        workers.awaitTermination(60, TimeUnit.SECONDS);
+        if (dropped.get() > 0) {
+            System.out.println("WARNING: " + dropped.get() + " journeys dropped at max concurrency " + config.maxConcurrency);
+        }
+    }
+
+    private static String pick(List<String> names, Map<String, Integer> weights, int totalWeight) {
+        int roll = ThreadLocalRandom.current().nextInt(totalWeight);
+        for (String name : names) {
+            roll -= weights.get(name);
+            if (roll < 0) {
+                return name;
+            }
+        }
+        return names.get(names.size() - 1);
+    }
+
+    private static void report(LoadConfig config, Journeys journeys, SmtpSink smtpSink, ServerResourceSampler sampler) throws Exception {
+        Path directory = Paths.get(config.reportDir);
+        Files.createDirectories(directory);
+        System.out.println();
+        System.out.println(String.format("%-22s %9s %7s %9s %9s %9s %9s %9s %9s",
+                "step", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        List<StepStats> steps = new ArrayList<>(journeys.steps().values());
+        steps.sort(Comparator.comparing(stats -> stats.name));
+        for (StepStats stats : steps) {
+            System.out.println(stats.summaryLine(config.durationSeconds));
+            stats.writePercentiles(directory);
+        }
+        if (sampler != null) {
+            long requests = steps.stream().filter(stats -> !stats.name.equals("schedule-lag")).mapToLong(StepStats::count).sum();
+            sampler.report(requests, config.durationSeconds);
+        }
+        if (smtpSink != null) {
+            System.out.println("SMTP sink received " + smtpSink.messageCount() + " messages");
+        }
+        System.out.println("HDR percentile distributions written to " + directory.toAbsolutePath());
+    }
+
+    private static void awaitHealthy(String baseUrl) throws InterruptedException {
+        HttpClient http = HttpClient.newHttpClient();
+        HttpRequest health = HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/health")).build();
+        for (int attempt = 0; attempt < 120; attempt++) {
+            try {
+                if (http.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (Exception e) {
+                // not up yet
+            }
+            Thread.sleep(1000);
+        }
+        throw new IllegalStateException("Application at " + baseUrl + " did not become healthy");
+    }
+}
@@ -0,0 +1,143 @@
+package com.flipkartclone.ecommercebackend.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Samples the server's connection and thread gauges from /actuator/metrics while the load runs and reports
+ * their peaks normalised to 10k requests per second, so the blocking and reactive catalog paths can be
+ * compared on resources rather than only latency. The scaling is linear, so it is only an estimate unless the
+ * run itself was near 10k req/s. Peak heap used and the longest GC pause are reported as they are, e.g. to compare
+ * the off-heap catalog snapshot against entity caching. Server CPU time is read at the start and end of the window and reported per
+ * request, which is what serialization changes show up in. Metrics the server does not expose are reported as n/a.
+ */
+final class ServerResourceSampler implements AutoCloseable {
+
+    private static final String[] GAUGES = {
+            "hikaricp.connections.active",
+            "r2dbc.pool.acquired",
+            "tomcat.threads.busy",
+            "jvm.threads.live"
+    };
+
+    // Reported as plain peaks: heap used in bytes and the longest GC pause in seconds (the timer's MAX).
+    private static final String HEAP_USED = "jvm.memory.used?tag=area:heap";
+    private static final String GC_PAUSE = "jvm.gc.pause";
+    private static final String[] SAMPLED = {GAUGES[0], GAUGES[1], GAUGES[2], GAUGES[3], HEAP_USED, GC_PAUSE};
+
+    private static final String CPU_TIME = "process.cpu.time";
+
+    private final String baseUrl;
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build();
+    private final ObjectMapper json = new ObjectMapper();
+    private final Map<String, Double> peaks = new LinkedHashMap<>();
+    private Double cpuNanosAtReset;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "server-sampler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    ServerResourceSampler(String baseUrl, int intervalMillis) {
+        this.baseUrl = baseUrl;
+        scheduler.scheduleAtFixedRate(this::sample, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    synchronized void reset() {
+        peaks.clear();
+        cpuNanosAtReset = cpuNanos();
+    }
+
+    private void sample() {
+        for (String gauge : SAMPLED) {
+            JsonNode metric = fetch(gauge);
+            if (metric == null) {
+                continue;
+            }
+            for (JsonNode measurement : metric.path("measurements")) {
+                String statistic = measurement.path("statistic").asText();
+                if ("VALUE".equals(statistic) || "MAX".equals(statistic)) {
+                    double value = measurement.path("value").asDouble();
+                    synchronized (this) {
+                        peaks.merge(gauge, value, Math::max);
+                    }
+                }
+            }
+        }
+    }
+
+    // Total server process CPU time in nanoseconds, or null if the server doesn't expose it.
+    private Double cpuNanos() {
+        JsonNode metric = fetch(CPU_TIME);
+        if (metric == null) {
+            return null;
+        }
+        double scale = "seconds".equals(metric.path("baseUnit").asText()) ? 1e9 : 1;
+        for (JsonNode measurement : metric.path("measurements")) {
+            if ("COUNT".equals(measurement.path("statistic").asText())) {
+                return measurement.path("value").asDouble() * scale;
+            }
+        }
+        return null;
+    }
+
+    private JsonNode fetch(String metric) {
+        try {
+            HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create(baseUrl + "/actuator/metrics/" + metric))
+                    .timeout(Duration.ofSeconds(2)).build(), HttpResponse.BodyHandlers.ofString());
+            return response.statusCode() == 200 ? json.readTree(response.body()) : null;
+        } catch (Exception e) {
+            // the metric is reported as n/a
+            return null;
+        }
+    }
+
+    /**
+     * @param requests HTTP requests completed in the measurement window.
+     * @param durationSeconds Length of the measurement window.
+     */
+    synchronized void report(long requests, int durationSeconds) {
+        double requestsPerSecond = requests / (double) durationSeconds;
+        System.out.println();
+        System.out.println(String.format("%-30s %9s %16s   (at %.1f req/s)", "server gauge", "peak", "per 10k req/s", requestsPerSecond));
+        for (String gauge : GAUGES) {
+            Double peak = peaks.get(gauge);
+            if (peak == null) {
+                System.out.println(String.format("%-30s %9s %16s", gauge, "n/a", "n/a"));
+            } else {
+                double per10k = requestsPerSecond > 0 ? peak * 10_000 / requestsPerSecond : 0;
+                System.out.println(String.format("%-30s %9.0f %16.1f", gauge, peak, per10k));
+            }
+        }
+
+        Double heapPeak = peaks.get(HEAP_USED);
+        Double gcPausePeak = peaks.get(GC_PAUSE);
+        System.out.println(String.format("%-30s %9s", "server heap used peak (MB)",
+                heapPeak == null ? "n/a" : String.format("%.0f", heapPeak / (1024 * 1024))));
+        System.out.println(String.format("%-30s %9s", "server longest gc pause (ms)",
+                gcPausePeak == null ? "n/a" : String.format("%.1f", gcPausePeak * 1_000)));
+
+        Double cpuNanosNow = cpuNanos();
+        if (cpuNanosAtReset == null || cpuNanosNow == null || requests <= 0) {
+            System.out.println(String.format("%-30s %9s", "server cpu per request (us)", "n/a"));
+        } else {
+            System.out.println(String.format("%-30s %9.1f", "server cpu per request (us)", (cpuNanosNow - cpuNanosAtReset) / requests / 1_000));
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
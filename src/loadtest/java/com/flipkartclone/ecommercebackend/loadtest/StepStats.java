@@ -0,0 +1,59 @@
+package com.flipkartclone.ecommercebackend.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency histogram (microseconds, 3 significant digits, up to 1 minute) and error count for one journey step.
+ */
+final class StepStats {
+
+    private static final long MAX_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    final String name;
+    private final Histogram histogram = new ConcurrentHistogram(MAX_MICROS, 3);
+    private final AtomicLong errors = new AtomicLong();
+
+    StepStats(String name) {
+        this.name = name;
+    }
+
+    void record(long startNanos, boolean ok) {
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+        histogram.recordValue(Math.min(Math.max(micros, 0), MAX_MICROS));
+        if (!ok) {
+            errors.incrementAndGet();
+        }
+    }
+
+    long count() {
+        return histogram.getTotalCount();
+    }
+
+    void reset() {
+        histogram.reset();
+        errors.set(0);
+    }
+
+    String summaryLine(double seconds) {
+        return String.format("%-22s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f", name, histogram.getTotalCount(), errors.get(),
+                histogram.getTotalCount() / seconds, ms(50), ms(90), ms(99), ms(99.9), histogram.getMaxValue() / 1000.0);
+    }
+
+    void writePercentiles(Path directory) throws IOException {
+        try (PrintStream out = new PrintStream(new FileOutputStream(directory.resolve(name + ".hgrm").toFile()))) {
+            histogram.outputPercentileDistribution(out, 1000.0); // report in milliseconds
+        }
+    }
+
+    private double ms(double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
@@ -0,0 +1,95 @@
+package com.flipkartclone.ecommercebackend;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The JDBC DataSource, declared here rather than left to DataSourceAutoConfiguration: that backs off as soon as
+ * the R2DBC starter (see ReactiveDataConfig) contributes an io.r2dbc.spi.ConnectionFactory, which would leave the
+ * application without JDBC, JPA repositories and Flyway.
+ * <p>
+ * When app.datasource.replicas.urls is set, read-only transactions are served by the replicas, while writes (and
+ * reads inside read-write transactions, e.g. the cart re-fetch after an update) stay on the primary configured in
+ * spring.datasource.*. Otherwise the DataSource is the primary pool alone.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties dataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "app.datasource.replicas", name = "urls")
+    public ReplicaLagMonitor replicaLagMonitor(DataSourceProperties primaryProperties,
+                                               @Value("${app.datasource.replicas.urls}") List<String> replicaUrls,
+                                               @Value("${app.datasource.replicas.username:}") String username,
+                                               @Value("${app.datasource.replicas.password:}") String password,
+                                               @Value("${app.datasource.replicas.max-lag-ms:5000}") long maxLagMillis,
+                                               MeterRegistry meterRegistry) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            HikariDataSource replica = primaryProperties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(replicaUrls.get(i).trim())
+                    .username(username.isEmpty() ? primaryProperties.getUsername() : username)
+                    .password(password.isEmpty() ? primaryProperties.getPassword() : password)
+                    .build();
+            replica.setPoolName("replica-" + i);
+            replica.setReadOnly(true);
+            pools.add(replica);
+            replicas.put("replica-" + i, replica);
+        }
+        return new ReplicaLagMonitor(replicas, maxLagMillis, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties primaryProperties, ObjectProvider<ReplicaLagMonitor> replicaLagMonitorProvider) {
+        HikariDataSource primary = primaryProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+        pools.add(primary);
+        ReplicaLagMonitor replicaLagMonitor = replicaLagMonitorProvider.getIfAvailable();
+        if (replicaLagMonitor == null) {
+            return primary;
+        }
+
+        Map<Object, Object> targets = new HashMap<>(replicaLagMonitor.getReplicas());
+        targets.put(ReplicaRoutingDataSource.PRIMARY_KEY, primary);
+
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(
+                new ArrayList<>(replicaLagMonitor.getReplicas().keySet()), replicaLagMonitor);
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(primary);
+        routing.afterPropertiesSet();
+
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @PreDestroy
+    public void closePools() {
+        pools.forEach(HikariDataSource::close);
+    }
+}
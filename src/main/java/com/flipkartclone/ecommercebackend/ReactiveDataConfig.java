@@ -0,0 +1,24 @@
+package com.flipkartclone.ecommercebackend;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * R2DBC sits next to JPA only for the reactive catalog reads. Its auto-configured ReactiveTransactionManager
+ * would otherwise stop Boot from creating the JPA transaction manager, so that one is declared here and made
+ * primary: every @Transactional in the application keeps running on JPA. Its ConnectionFactory likewise makes
+ * DataSourceAutoConfiguration back off, which is why DataSourceConfig always declares the JDBC DataSource.
+ */
+@Configuration
+public class ReactiveDataConfig {
+
+    @Bean
+    @Primary
+    public PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+        return new JpaTransactionManager(entityManagerFactory);
+    }
+}
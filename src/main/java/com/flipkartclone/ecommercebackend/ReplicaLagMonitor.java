@@ -0,0 +1,78 @@
+package com.flipkartclone.ecommercebackend;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Periodically measures replay lag on every replica. A replica that cannot be reached, is not streaming from the
+ * primary, or is further behind than max-lag-ms is taken out of rotation until a later check finds it healthy again.
+ */
+public class ReplicaLagMonitor {
+
+    // NULL unless the server is a standby whose WAL receiver is streaming: a disconnected replica has replayed
+    // everything it received and would otherwise report zero lag while falling further behind. Reading the receiver
+    // status needs pg_read_all_stats (e.g. via pg_monitor); without it the replica is never used. Otherwise zero
+    // when the replica has replayed everything it received, else the age of the last replayed transaction.
+    private static final String LAG_QUERY = "SELECT CASE WHEN NOT pg_is_in_recovery() " +
+            "OR NOT EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE status = 'streaming') THEN NULL " +
+            "WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+            "ELSE COALESCE(EXTRACT(EPOCH FROM (now() - pg_last_xact_replay_timestamp())) * 1000, 0) END";
+
+    private static final long UNREACHABLE = -1L;
+    private static final long NOT_STREAMING = -2L;
+
+    private final Map<String, DataSource> replicas;
+    private final long maxLagMillis;
+    private final Map<String, Long> lagMillis = new ConcurrentHashMap<>();
+
+    public ReplicaLagMonitor(Map<String, DataSource> replicas, long maxLagMillis, MeterRegistry meterRegistry) {
+        this.replicas = replicas;
+        this.maxLagMillis = maxLagMillis;
+        for (String key : replicas.keySet()) {
+            lagMillis.put(key, UNREACHABLE);
+            Gauge.builder("datasource.replica.lag.ms", lagMillis, lags -> lags.getOrDefault(key, UNREACHABLE))
+                    .tag("replica", key)
+                    .register(meterRegistry);
+        }
+    }
+
+    public Map<String, DataSource> getReplicas() {
+        return replicas;
+    }
+
+    public boolean isUsable(String replicaKey) {
+        long lag = lagMillis.getOrDefault(replicaKey, UNREACHABLE);
+        return lag >= 0 && lag <= maxLagMillis;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replicas.check-interval-ms:2000}")
+    public void checkLag() {
+        replicas.forEach((key, dataSource) -> {
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(LAG_QUERY)) {
+                resultSet.next();
+                long lag = resultSet.getLong(1);
+                if (resultSet.wasNull()) {
+                    if (lagMillis.put(key, NOT_STREAMING) != NOT_STREAMING) {
+                        System.out.println("Replica " + key + " taken out of rotation: not streaming from the primary");
+                    }
+                } else {
+                    lagMillis.put(key, lag);
+                }
+            } catch (Exception e) {
+                if (lagMillis.put(key, UNREACHABLE) != UNREACHABLE) {
+                    System.out.println("Replica " + key + " taken out of rotation: " + e.getMessage());
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,127 @@
+package com.flipkartclone.ecommercebackend;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * JDBC work done on the current thread while a capture is open: statement count, rows read or written,
+ * time spent in the driver, and how often each statement shape ran.
+ * <p>
+ * SqlStatsFilter opens one capture per HTTP request. Tests can open their own around a call to assert a
+ * statement budget; captures nest, and each one sees everything executed while it is open:
+ * <pre>
+ * try (SqlStats stats = SqlStats.open()) {
+ *     mockMvc.perform(get("/api/cart/1"));
+ *     stats.assertStatementsAtMost(3);
+ * }
+ * </pre>
+ * Captures are per thread, so work handed to another thread (an executor, an async CompletableFuture stage) is not
+ * counted. Request paths keep their SQL on the request thread; CheckoutService only moves the gateway call off it,
+ * and that issues no SQL.
+ */
+public final class SqlStats implements AutoCloseable {
+
+    private static final ThreadLocal<SqlStats> CURRENT = new ThreadLocal<>();
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final SqlStats parent;
+    private int statements;
+    private long rows;
+    private long nanos;
+    private final Map<String, Integer> countsByShape = new HashMap<>();
+
+    private SqlStats(SqlStats parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Starts capturing on the current thread. Must be closed on the same thread.
+     * @return The new capture.
+     */
+    public static SqlStats open() {
+        SqlStats stats = new SqlStats(CURRENT.get());
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    @Override
+    public void close() {
+        if (parent == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(parent);
+        }
+    }
+
+    static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    static void recordStatement(String sql, long elapsedNanos, long affectedRows) {
+        String shape = sql != null ? shapeOf(sql) : "<batch>";
+        for (SqlStats stats = CURRENT.get(); stats != null; stats = stats.parent) {
+            stats.statements++;
+            stats.nanos += elapsedNanos;
+            stats.rows += Math.max(0, affectedRows);
+            stats.countsByShape.merge(shape, 1, Integer::sum);
+        }
+    }
+
+    static void recordRows(long count) {
+        for (SqlStats stats = CURRENT.get(); stats != null; stats = stats.parent) {
+            stats.rows += count;
+        }
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public double getDbMillis() {
+        return nanos / 1_000_000.0;
+    }
+
+    /**
+     * @param threshold Minimum executions of one shape to report.
+     * @return Statement shapes executed at least {@code threshold} times, the usual signature of an N+1 query.
+     */
+    public List<String> repeatedShapes(int threshold) {
+        List<String> repeated = new ArrayList<>();
+        countsByShape.forEach((shape, count) -> {
+            if (count >= threshold) {
+                repeated.add(count + "x " + shape);
+            }
+        });
+        return repeated;
+    }
+
+    /**
+     * @param budget Maximum number of statements allowed.
+     * @throws AssertionError if more statements were executed.
+     */
+    public void assertStatementsAtMost(int budget) {
+        if (statements > budget) {
+            throw new AssertionError("Expected at most " + budget + " SQL statements but " + statements
+                    + " were executed: " + countsByShape);
+        }
+    }
+
+    // Literals and expanded IN lists are folded so the same query with different arguments has one shape.
+    static String shapeOf(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("(?)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+}
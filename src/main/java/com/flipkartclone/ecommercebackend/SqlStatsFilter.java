@@ -0,0 +1,211 @@
+package com.flipkartclone.ecommercebackend;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Captures {@link SqlStats} for each API request. The totals are sent in a Server-Timing header
+ * ({@code db;dur=<ms>;desc="<n> statements, <n> rows"}), recorded as http.sql.* metrics per endpoint, and
+ * statement shapes repeated at least sql-stats.n-plus-one-threshold times are logged as likely N+1 queries.
+ * <p>
+ * The header reflects the statements run before the response starts streaming, which for these
+ * controllers is all of them since open-in-view is off.
+ */
+@Component
+public class SqlStatsFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+    private final int nPlusOneThreshold;
+
+    @Autowired
+    public SqlStatsFilter(MeterRegistry meterRegistry, @Value("${sql-stats.n-plus-one-threshold:5}") int nPlusOneThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.nPlusOneThreshold = nPlusOneThreshold;
+    }
+
+    // Images are served by sendfile and never touch the database; the reactive reads go through R2DBC, not JDBC.
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/") || request.getRequestURI().startsWith("/api/reactive/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try (SqlStats stats = SqlStats.open()) {
+            ServerTimingResponse timingResponse = new ServerTimingResponse(response, stats);
+            try {
+                filterChain.doFilter(request, timingResponse);
+            } finally {
+                timingResponse.beforeCommit();
+                record(request, stats);
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, SqlStats stats) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNMATCHED";
+        String method = request.getMethod();
+
+        DistributionSummary.builder("http.sql.statements").tags("uri", uri, "method", method)
+                .register(meterRegistry).record(stats.getStatements());
+        DistributionSummary.builder("http.sql.rows").tags("uri", uri, "method", method)
+                .register(meterRegistry).record(stats.getRows());
+        Timer.builder("http.sql.time").tags("uri", uri, "method", method)
+                .register(meterRegistry).record((long) (stats.getDbMillis() * 1_000_000), TimeUnit.NANOSECONDS);
+
+        List<String> repeated = stats.repeatedShapes(nPlusOneThreshold);
+        if (!repeated.isEmpty()) {
+            Counter.builder("http.sql.n_plus_one").tags("uri", uri, "method", method)
+                    .register(meterRegistry).increment();
+            System.out.println("Possible N+1 in " + method + " " + uri + " (" + stats.getStatements()
+                    + " statements): " + repeated);
+        }
+    }
+
+    /**
+     * Adds the Server-Timing header just before the response is committed, i.e. on the first body write,
+     * flush, error or redirect, or when the request completes without a body.
+     */
+    private static final class ServerTimingResponse extends HttpServletResponseWrapper {
+        private final SqlStats stats;
+        private boolean headerWritten;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+
+        ServerTimingResponse(HttpServletResponse response, SqlStats stats) {
+            super(response);
+            this.stats = stats;
+        }
+
+        void beforeCommit() {
+            if (headerWritten || isCommitted()) {
+                return;
+            }
+            headerWritten = true;
+            addHeader("Server-Timing", String.format(Locale.ROOT, "db;dur=%.2f;desc=\"%d statements, %d rows\"",
+                    stats.getDbMillis(), stats.getStatements(), stats.getRows()));
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                ServletOutputStream delegate = super.getOutputStream();
+                outputStream = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        beforeCommit();
+                        delegate.write(b);
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        beforeCommit();
+                        delegate.write(b, off, len);
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        beforeCommit();
+                        delegate.flush();
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        beforeCommit();
+                        delegate.close();
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return delegate.isReady();
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener writeListener) {
+                        delegate.setWriteListener(writeListener);
+                    }
+                };
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                PrintWriter delegate = super.getWriter();
+                writer = new PrintWriter(delegate) {
+                    @Override
+                    public void write(int c) {
+                        beforeCommit();
+                        super.write(c);
+                    }
+
+                    @Override
+                    public void write(char[] buf, int off, int len) {
+                        beforeCommit();
+                        super.write(buf, off, len);
+                    }
+
+                    @Override
+                    public void write(String s, int off, int len) {
+                        beforeCommit();
+                        super.write(s, off, len);
+                    }
+
+                    @Override
+                    public void flush() {
+                        beforeCommit();
+                        super.flush();
+                    }
+                };
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            beforeCommit();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            beforeCommit();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            beforeCommit();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            beforeCommit();
+            super.sendRedirect(location);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.flipkartclone.ecommercebackend;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Logs JVM uptime when the application is ready and when the first request completes, so startup
+ * settings (AOT, CDS, profiles) can be compared on the same machine.
+ */
+@Component
+public class StartupTimingFilter extends OncePerRequestFilter {
+
+    private final AtomicBoolean firstRequestSeen = new AtomicBoolean();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        System.out.println("Startup: ready after " + ManagementFactory.getRuntimeMXBean().getUptime() + " ms of JVM uptime");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        filterChain.doFilter(request, response);
+        if (!firstRequestSeen.get() && firstRequestSeen.compareAndSet(false, true)) {
+            System.out.println("Startup: first request (" + request.getRequestURI() + ") completed after "
+                    + ManagementFactory.getRuntimeMXBean().getUptime() + " ms of JVM uptime");
+        }
+    }
+}
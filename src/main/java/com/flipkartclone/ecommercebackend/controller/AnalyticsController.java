@@ -0,0 +1,69 @@
+package com.flipkartclone.ecommercebackend.controller;
+
+import com.flipkartclone.ecommercebackend.dto.SalesBucketResponse;
+import com.flipkartclone.ecommercebackend.service.SalesAnalyticsService;
+import com.flipkartclone.ecommercebackend.service.SalesGranularity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/analytics")
+public class AnalyticsController {
+
+    private final SalesAnalyticsService salesAnalyticsService;
+
+    @Autowired
+    public AnalyticsController(SalesAnalyticsService salesAnalyticsService) {
+        this.salesAnalyticsService = salesAnalyticsService;
+    }
+
+    /**
+     * Endpoint to get revenue and units sold for a product.
+     * GET /api/analytics/products/{productId}?granularity=HOUR&from=...&to=...
+     * @param productId The ID of the product.
+     * @param granularity HOUR (default) or DAY.
+     * @param from Start of the range; defaults to 24 hours (HOUR) or 30 days (DAY) before {@code to}.
+     * @param to End of the range; defaults to now.
+     * @return Sales buckets in ascending time order.
+     */
+    @GetMapping("/products/{productId}")
+    public ResponseEntity<List<SalesBucketResponse>> getProductSales(
+            @PathVariable Long productId,
+            @RequestParam(defaultValue = "HOUR") SalesGranularity granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : defaultStart(granularity, end);
+        return new ResponseEntity<>(salesAnalyticsService.getProductSales(productId, granularity, start, end), HttpStatus.OK);
+    }
+
+    /**
+     * Endpoint to get revenue and units sold for a category.
+     * GET /api/analytics/categories/{categoryId}?granularity=DAY&from=...&to=...
+     * @param categoryId The ID of the category.
+     * @param granularity HOUR (default) or DAY.
+     * @param from Start of the range; defaults to 24 hours (HOUR) or 30 days (DAY) before {@code to}.
+     * @param to End of the range; defaults to now.
+     * @return Sales buckets in ascending time order.
+     */
+    @GetMapping("/categories/{categoryId}")
+    public ResponseEntity<List<SalesBucketResponse>> getCategorySales(
+            @PathVariable Long categoryId,
+            @RequestParam(defaultValue = "HOUR") SalesGranularity granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : defaultStart(granularity, end);
+        return new ResponseEntity<>(salesAnalyticsService.getCategorySales(categoryId, granularity, start, end), HttpStatus.OK);
+    }
+
+    private LocalDateTime defaultStart(SalesGranularity granularity, LocalDateTime end) {
+        return granularity == SalesGranularity.HOUR ? end.minusHours(24) : end.minusDays(30);
+    }
+}
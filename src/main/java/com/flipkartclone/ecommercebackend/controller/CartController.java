@@ -2,6 +2,7 @@ package com.flipkartclone.ecommercebackend.controller;
 
 import com.flipkartclone.ecommercebackend.model.Cart; // <-- Ensure this is present
 import com.flipkartclone.ecommercebackend.model.CartItem; // <-- Ensure this is present (used by helper method)
+import com.flipkartclone.ecommercebackend.model.Money;
 import com.flipkartclone.ecommercebackend.service.CartService; // <-- Ensure this is present
 import com.flipkartclone.ecommercebackend.dto.CartItemRequest; // <-- Ensure this is present
 import com.flipkartclone.ecommercebackend.dto.CartResponse; // <-- Ensure this is present
@@ -12,7 +13,6 @@ import org.springframework.http.ResponseEntity; // <-- Ensure this is present
 import org.springframework.http.HttpStatus; // <-- Ensure this is present
 import org.springframework.web.bind.annotation.*; // <-- Ensure this is present (wildcard import for @RestController, @RequestMapping, etc.)
 
-import java.math.BigDecimal; // <-- Ensure this is present
 import java.util.List; // <-- Ensure this is present
 import java.util.stream.Collectors; // <-- Ensure this is present
 
@@ -35,8 +35,8 @@ public class CartController {
                 cartItem.getProduct().getName(),
                 cartItem.getProduct().getImageUrl(),
                 cartItem.getQuantity(),
-                cartItem.getPriceAtPurchase(),
-                cartItem.getPriceAtPurchase().multiply(BigDecimal.valueOf(cartItem.getQuantity()))
+                cartItem.getPriceAtPurchaseMinor(),
+                Money.times(cartItem.getPriceAtPurchaseMinor(), cartItem.getQuantity())
         );
     }
 
@@ -46,9 +46,10 @@ public class CartController {
                 .map(this::toDto)
                 .collect(Collectors.toList());
 
-        BigDecimal total = items.stream()
-                .map(CartItemResponse::getItemTotalPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        long total = 0;
+        for (CartItemResponse item : items) {
+            total = Money.plus(total, item.getItemTotalPrice());
+        }
 
         return new CartResponse(cart.getId(), cart.getUser().getId(), items, total);
     }
@@ -1,13 +1,14 @@
 package com.flipkartclone.ecommercebackend.controller;
 
 import com.flipkartclone.ecommercebackend.model.Category; // <-- CORRECTED IMPORT PATH
+import com.flipkartclone.ecommercebackend.service.CatalogJsonCache;
 import com.flipkartclone.ecommercebackend.service.CategoryService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
 import java.util.Optional;
 
 @RestController
@@ -15,10 +16,12 @@ import java.util.Optional;
 public class CategoryController {
 
     private final CategoryService categoryService;
+    private final CatalogJsonCache catalogJsonCache;
 
     @Autowired
-    public CategoryController(CategoryService categoryService) {
+    public CategoryController(CategoryService categoryService, CatalogJsonCache catalogJsonCache) {
         this.categoryService = categoryService;
+        this.catalogJsonCache = catalogJsonCache;
     }
 
     /**
@@ -38,24 +41,23 @@ public class CategoryController {
     }
 
     /**
-     * Endpoint to get all categories.
-     * @return ResponseEntity with a list of all categories and HTTP status 200 (OK).
+     * Endpoint to get all categories, written from pre-encoded JSON (see CatalogJsonCache).
+     * @return ResponseEntity with a JSON array of all categories and HTTP status 200 (OK).
      */
     @GetMapping
-    public ResponseEntity<List<Category>> getAllCategories() {
-        List<Category> categories = categoryService.getAllCategories();
-        return new ResponseEntity<>(categories, HttpStatus.OK);
+    public ResponseEntity<byte[]> getAllCategories() {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(catalogJsonCache.categoryListJson());
     }
 
     /**
-     * Endpoint to get a category by its ID.
+     * Endpoint to get a category by its ID, written from pre-encoded JSON (see CatalogJsonCache).
      * @param id The ID of the category.
-     * @return ResponseEntity with the Category and HTTP status 200 (OK) or 404 (Not Found).
+     * @return ResponseEntity with the category JSON and HTTP status 200 (OK) or 404 (Not Found).
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Category> getCategoryById(@PathVariable Long id) {
-        Optional<Category> category = categoryService.getCategoryById(id);
-        return category.map(value -> new ResponseEntity<>(value, HttpStatus.OK))
+    public ResponseEntity<byte[]> getCategoryById(@PathVariable Long id) {
+        return catalogJsonCache.categoryJson(id)
+                .map(json -> ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(json))
                 .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
@@ -0,0 +1,54 @@
+package com.flipkartclone.ecommercebackend.controller;
+
+import com.flipkartclone.ecommercebackend.dto.CheckoutRequest;
+import com.flipkartclone.ecommercebackend.dto.CheckoutResponse;
+import com.flipkartclone.ecommercebackend.service.CheckoutService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/checkout")
+public class CheckoutController {
+
+    private final CheckoutService checkoutService;
+
+    @Autowired
+    public CheckoutController(CheckoutService checkoutService) {
+        this.checkoutService = checkoutService;
+    }
+
+    /**
+     * Endpoint to place an order from the user's cart and create its payment order in one call.
+     * POST /api/checkout
+     * @param request The CheckoutRequest DTO (userId, shippingAddress, currency).
+     * @return 201 with the order and gateway order, or 202 with only the order if the gateway call failed
+     *         (the client retries payment via /api/payment/create-order).
+     */
+    @PostMapping
+    public ResponseEntity<CheckoutResponse> checkout(@RequestBody CheckoutRequest request) {
+        try {
+            String currency = request.getCurrency() != null ? request.getCurrency() : "INR";
+            CheckoutResponse response = checkoutService.checkout(request.getUserId(), request.getShippingAddress(), currency);
+            return new ResponseEntity<>(response, response.getPayment() != null ? HttpStatus.CREATED : HttpStatus.ACCEPTED);
+        } catch (RuntimeException e) {
+            if (e.getMessage() == null) {
+                return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+            }
+            if (e.getMessage().contains("User not found")) {
+                return new ResponseEntity<>(null, HttpStatus.NOT_FOUND); // 404
+            }
+            if (e.getMessage().contains("Cart not found") || e.getMessage().contains("empty cart")) {
+                return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST); // 400
+            }
+            if (e.getMessage().contains("Insufficient stock")) {
+                return new ResponseEntity<>(null, HttpStatus.CONFLICT); // 409
+            }
+            if (e.getMessage().contains("Stock is contended")) {
+                return new ResponseEntity<>(null, HttpStatus.SERVICE_UNAVAILABLE); // 503, the client can retry
+            }
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR); // Generic 500
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.flipkartclone.ecommercebackend.controller;
+
+import com.flipkartclone.ecommercebackend.dto.CartItemRequest;
+import com.flipkartclone.ecommercebackend.dto.GuestCartResponse;
+import com.flipkartclone.ecommercebackend.service.GuestCartService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * Cart endpoints for visitors who are not logged in. The cart is carried in the X-Guest-Cart header;
+ * every response returns the updated token in the same header and in the body.
+ */
+@RestController
+@RequestMapping("/api/cart/guest")
+public class GuestCartController {
+
+    private static final String TOKEN_HEADER = "X-Guest-Cart";
+
+    private final GuestCartService guestCartService;
+
+    @Autowired
+    public GuestCartController(GuestCartService guestCartService) {
+        this.guestCartService = guestCartService;
+    }
+
+    /**
+     * Endpoint to view a guest cart with current prices.
+     * GET /api/cart/guest
+     * @param token The guest cart token, if any.
+     * @return The cart, or 400 (Bad Request) if the token is invalid or expired.
+     */
+    @GetMapping
+    public ResponseEntity<GuestCartResponse> getCart(@RequestHeader(value = TOKEN_HEADER, required = false) String token) {
+        try {
+            return respond(guestCartService.getCart(token), HttpStatus.OK);
+        } catch (RuntimeException e) {
+            return errorResponse(e);
+        }
+    }
+
+    /**
+     * Endpoint to add a product to a guest cart.
+     * POST /api/cart/guest/items
+     * @param token The guest cart token, if any.
+     * @param request The product and quantity to add.
+     * @return The updated cart, 404 (Not Found) if the product doesn't exist, or 400 (Bad Request).
+     */
+    @PostMapping("/items")
+    public ResponseEntity<GuestCartResponse> addItem(@RequestHeader(value = TOKEN_HEADER, required = false) String token,
+                                                     @RequestBody CartItemRequest request) {
+        try {
+            return respond(guestCartService.addItem(token, request.getProductId(), request.getQuantity()), HttpStatus.OK);
+        } catch (RuntimeException e) {
+            return errorResponse(e);
+        }
+    }
+
+    /**
+     * Endpoint to change the quantity of a product in a guest cart.
+     * PUT /api/cart/guest/items/{productId}?newQuantity=2
+     */
+    @PutMapping("/items/{productId}")
+    public ResponseEntity<GuestCartResponse> updateItem(@RequestHeader(value = TOKEN_HEADER, required = false) String token,
+                                                        @PathVariable Long productId,
+                                                        @RequestParam Integer newQuantity) {
+        try {
+            return respond(guestCartService.updateItemQuantity(token, productId, newQuantity), HttpStatus.OK);
+        } catch (RuntimeException e) {
+            return errorResponse(e);
+        }
+    }
+
+    /**
+     * Endpoint to remove a product from a guest cart.
+     * DELETE /api/cart/guest/items/{productId}
+     */
+    @DeleteMapping("/items/{productId}")
+    public ResponseEntity<GuestCartResponse> removeItem(@RequestHeader(value = TOKEN_HEADER, required = false) String token,
+                                                        @PathVariable Long productId) {
+        try {
+            return respond(guestCartService.removeItem(token, productId), HttpStatus.OK);
+        } catch (RuntimeException e) {
+            return errorResponse(e);
+        }
+    }
+
+    private ResponseEntity<GuestCartResponse> respond(GuestCartResponse cart, HttpStatus status) {
+        return ResponseEntity.status(status).header(TOKEN_HEADER, cart.getToken()).body(cart);
+    }
+
+    private ResponseEntity<GuestCartResponse> errorResponse(RuntimeException e) {
+        if (e.getMessage() != null && e.getMessage().contains("not found")) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+    }
+}
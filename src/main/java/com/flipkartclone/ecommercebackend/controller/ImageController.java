@@ -0,0 +1,84 @@
+package com.flipkartclone.ecommercebackend.controller;
+
+import com.flipkartclone.ecommercebackend.service.ImageService;
+import com.flipkartclone.ecommercebackend.service.ImageVariant;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+
+@RestController
+@RequestMapping("/images")
+public class ImageController {
+
+    // Tomcat's sendfile contract: when the connector advertises support, setting these request attributes
+    // (and writing no body) makes it transfer the file straight from the page cache to the socket.
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+    // A variant that is still rendering is served as the original; keep that short-lived.
+    private static final String PROVISIONAL = "public, max-age=60";
+
+    private final ImageService imageService;
+    private final boolean sendfileEnabled;
+
+    @Autowired
+    public ImageController(ImageService imageService, @Value("${images.sendfile-enabled:true}") boolean sendfileEnabled) {
+        this.imageService = imageService;
+        this.sendfileEnabled = sendfileEnabled;
+    }
+
+    /**
+     * Endpoint to serve a stored product image variant.
+     * GET /images/{contentHash}/{variant} where variant is thumbnail, medium or original.
+     * @param contentHash Hex SHA-256 of the original upload.
+     * @param variant The variant name.
+     * Responds 200 with the image, 304 if the client's copy is current, or 404 if unknown.
+     */
+    @GetMapping("/{contentHash}/{variant}")
+    public void serveImage(@PathVariable String contentHash, @PathVariable String variant,
+                           HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ImageVariant imageVariant = ImageVariant.fromPathSegment(variant);
+        ImageService.StoredImage image = imageVariant != null ? imageService.resolve(contentHash, imageVariant) : null;
+        if (image == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        String etag = "\"" + contentHash + "-" + imageVariant.pathSegment() + (image.exact() ? "" : "-original") + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, image.exact() ? IMMUTABLE : PROVISIONAL);
+        if (etag.equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long length = Files.size(image.path());
+        response.setContentType(image.contentType());
+        response.setContentLengthLong(length);
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+
+        if (sendfileEnabled && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, image.path().toRealPath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, length);
+            return;
+        }
+
+        // Fallback for connectors without sendfile (or when disabled for comparison): copy through a heap buffer.
+        try (InputStream input = Files.newInputStream(image.path())) {
+            input.transferTo(response.getOutputStream());
+        }
+    }
+}
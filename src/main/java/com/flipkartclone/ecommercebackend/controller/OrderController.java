@@ -1,6 +1,7 @@
 package com.flipkartclone.ecommercebackend.controller;
 
 import com.flipkartclone.ecommercebackend.model.Order;
+import com.flipkartclone.ecommercebackend.model.Money;
 import com.flipkartclone.ecommercebackend.model.OrderItem;
 import com.flipkartclone.ecommercebackend.service.OrderService; // Import OrderService
 import com.flipkartclone.ecommercebackend.dto.OrderRequest; // Import OrderRequest DTO
@@ -12,7 +13,6 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -36,8 +36,8 @@ public class OrderController {
         dto.setProductName(orderItem.getProduct().getName());
         dto.setProductImageUrl(orderItem.getProduct().getImageUrl());
         dto.setQuantity(orderItem.getQuantity());
-        dto.setPriceAtOrder(orderItem.getPriceAtOrder());
-        dto.setItemTotalPrice(orderItem.getPriceAtOrder().multiply(BigDecimal.valueOf(orderItem.getQuantity())));
+        dto.setPriceAtOrder(orderItem.getPriceAtOrderMinor());
+        dto.setItemTotalPrice(Money.times(orderItem.getPriceAtOrderMinor(), orderItem.getQuantity()));
         return dto;
     }
 
@@ -47,8 +47,8 @@ public class OrderController {
         dto.setId(order.getId());
         dto.setUserId(order.getUser().getId());
         dto.setOrderDate(order.getOrderDate());
-        dto.setTotalAmount(order.getTotalAmount());
-        dto.setStatus(order.getStatus());
+        dto.setTotalAmount(order.getTotalAmountMinor());
+        dto.setStatus(order.getStatus().name());
         dto.setShippingAddress(order.getShippingAddress());
 
         List<OrderItemResponse> itemDtos = order.getOrderItems().stream()
@@ -77,6 +77,12 @@ public class OrderController {
             if (e.getMessage().contains("Cart not found") || e.getMessage().contains("empty cart")) {
                 return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST); // 400
             }
+            if (e.getMessage().contains("Insufficient stock")) {
+                return new ResponseEntity<>(null, HttpStatus.CONFLICT); // 409
+            }
+            if (e.getMessage().contains("Stock is contended")) {
+                return new ResponseEntity<>(null, HttpStatus.SERVICE_UNAVAILABLE); // 503, the client can retry
+            }
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR); // Generic 500
         }
     }
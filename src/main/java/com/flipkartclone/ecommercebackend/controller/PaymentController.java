@@ -32,7 +32,8 @@ public class PaymentController {
             PaymentOrderResponse razorpayOrder = paymentService.createRazorpayOrder(request);
             return new ResponseEntity<>(razorpayOrder, HttpStatus.CREATED);
         } catch (RuntimeException e) {
-            if (e.getMessage().contains("Order not found") || e.getMessage().contains("User not found") || e.getMessage().contains("Amount mismatch")) {
+            if (e.getMessage().contains("Order not found") || e.getMessage().contains("User not found") || e.getMessage().contains("Amount mismatch")
+                    || e.getMessage().contains("not payable")) {
                 return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
             }
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
@@ -1,50 +1,62 @@
 package com.flipkartclone.ecommercebackend.controller;
 
 import com.flipkartclone.ecommercebackend.model.product.Product;
+import com.flipkartclone.ecommercebackend.service.CatalogJsonCache;
+import com.flipkartclone.ecommercebackend.service.CoOccurrenceService;
+import com.flipkartclone.ecommercebackend.service.ImageService;
+import com.flipkartclone.ecommercebackend.service.ImageVariant;
+import com.flipkartclone.ecommercebackend.service.ProductFacetService;
 import com.flipkartclone.ecommercebackend.service.ProductService;
+import com.flipkartclone.ecommercebackend.dto.BulkProductUpdateRequest;
+import com.flipkartclone.ecommercebackend.dto.BulkProductUpdateResponse;
+import com.flipkartclone.ecommercebackend.dto.CoOccurrenceStatsResponse;
+import com.flipkartclone.ecommercebackend.dto.FacetSearchResponse;
 import com.flipkartclone.ecommercebackend.dto.ProductRequest;
 import com.flipkartclone.ecommercebackend.dto.ProductResponse;
+import com.flipkartclone.ecommercebackend.dto.RelatedProductResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/products")
 public class ProductController {
 
     private final ProductService productService;
+    private final CoOccurrenceService coOccurrenceService;
+    private final ProductFacetService productFacetService;
+    private final ImageService imageService;
+    private final CatalogJsonCache catalogJsonCache;
 
     @Autowired
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, CoOccurrenceService coOccurrenceService,
+                             ProductFacetService productFacetService, ImageService imageService,
+                             CatalogJsonCache catalogJsonCache) {
         this.productService = productService;
+        this.coOccurrenceService = coOccurrenceService;
+        this.productFacetService = productFacetService;
+        this.imageService = imageService;
+        this.catalogJsonCache = catalogJsonCache;
     }
 
     // Helper method to convert Product entity to ProductResponse DTO
     private ProductResponse convertToDto(Product product) {
-        ProductResponse dto = new ProductResponse();
-        dto.setId(product.getId());
-        dto.setName(product.getName());
-        dto.setDescription(product.getDescription());
-        dto.setPrice(product.getPrice());
-        dto.setStockQuantity(product.getStockQuantity());
-        dto.setImageUrl(product.getImageUrl());
-        if (product.getCategory() != null) {
-            dto.setCategoryId(product.getCategory().getId());
-            dto.setCategoryName(product.getCategory().getName());
-        }
-        return dto;
+        return catalogJsonCache.toResponse(product);
     }
 
     /**
      * Endpoint to add a new product using ProductRequest DTO.
      * @param request The ProductRequest DTO sent in the request body.
      * @return ResponseEntity with the added ProductResponse and HTTP status 201 (Created)
-     * or 409 (Conflict) if a product with the same name exists, or 400 if category not found.
+     * or 409 (Conflict) if a product with the same name exists, or 400 if category not found or price invalid.
      */
     @PostMapping
     public ResponseEntity<ProductResponse> addProduct(@RequestBody ProductRequest request) {
@@ -52,7 +64,7 @@ public class ProductController {
             Product newProduct = productService.addProduct(request);
             return new ResponseEntity<>(convertToDto(newProduct), HttpStatus.CREATED);
         } catch (RuntimeException e) {
-            if (e.getMessage().contains("Category not found")) {
+            if (e.getMessage().contains("Category not found") || e.getMessage().contains("Invalid price")) {
                 return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
             }
             return new ResponseEntity<>(null, HttpStatus.CONFLICT);
@@ -60,37 +72,117 @@ public class ProductController {
     }
 
     /**
-     * Endpoint to get all products.
-     * @return ResponseEntity with a list of all ProductResponse DTOs and HTTP status 200 (OK).
+     * Endpoint to get all products, written from pre-encoded JSON (see CatalogJsonCache).
+     * @return ResponseEntity with a JSON array of all products (ProductResponse shape) and HTTP status 200 (OK).
      */
     @GetMapping
-    public ResponseEntity<List<ProductResponse>> getAllProducts() {
-        // CORRECTED: Call getAllProducts() from productService
-        List<Product> products = productService.getAllProducts();
-        List<ProductResponse> dtos = products.stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
-        return new ResponseEntity<>(dtos, HttpStatus.OK);
+    public ResponseEntity<byte[]> getAllProducts() {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(catalogJsonCache.productListJson());
     }
 
     /**
-     * Endpoint to get a product by its ID.
+     * Endpoint to get a product by its ID, written from pre-encoded JSON (see CatalogJsonCache).
      * @param id The ID of the product.
-     * @return ResponseEntity with the ProductResponse DTO and HTTP status 200 (OK) or 404 (Not Found).
+     * @return ResponseEntity with the product JSON (ProductResponse shape) and HTTP status 200 (OK) or 404 (Not Found).
      */
     @GetMapping("/{id}")
-    public ResponseEntity<ProductResponse> getProductById(@PathVariable Long id) {
-        Optional<Product> productOptional = productService.getProductById(id);
-        return productOptional.map(product -> new ResponseEntity<>(convertToDto(product), HttpStatus.OK))
+    public ResponseEntity<byte[]> getProductById(@PathVariable Long id) {
+        return catalogJsonCache.productJson(id)
+                .map(json -> ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(json))
                 .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
+    /**
+     * Endpoint for filtered category pages: matching product IDs plus live counts for every facet value.
+     * Served from the in-memory facet index.
+     * GET /api/products/facets?categoryId=3&categoryId=7&priceBucket=1&inStock=true&page=0&size=24
+     * @param categoryId Categories to include (repeatable); omit for all.
+     * @param priceBucket Price bucket indexes to include (repeatable); omit for all.
+     * @param inStock True to only include products with stock.
+     * @param page Zero-based page of product IDs.
+     * @param size Page size (at most 100).
+     * @return ResponseEntity with the matching page of product IDs and facet counts, and HTTP status 200 (OK).
+     */
+    @GetMapping("/facets")
+    public ResponseEntity<FacetSearchResponse> searchFacets(@RequestParam(required = false) List<Long> categoryId,
+                                                            @RequestParam(required = false) List<Integer> priceBucket,
+                                                            @RequestParam(required = false) Boolean inStock,
+                                                            @RequestParam(defaultValue = "0") int page,
+                                                            @RequestParam(defaultValue = "24") int size) {
+        FacetSearchResponse response = productFacetService.search(
+                categoryId != null ? categoryId : List.of(),
+                priceBucket != null ? priceBucket : List.of(),
+                inStock, page, Math.min(size, 100));
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    /**
+     * Endpoint to get products frequently bought together with a product. Served from memory.
+     * GET /api/products/{id}/related?limit=10
+     * @param id The ID of the product.
+     * @param limit Maximum number of related products (at most 20).
+     * @return ResponseEntity with related product IDs, strongest first, and HTTP status 200 (OK).
+     */
+    @GetMapping("/{id}/related")
+    public ResponseEntity<List<RelatedProductResponse>> getRelatedProducts(@PathVariable Long id,
+                                                                          @RequestParam(defaultValue = "10") int limit) {
+        return new ResponseEntity<>(coOccurrenceService.getRelatedProducts(id, limit), HttpStatus.OK);
+    }
+
+    /**
+     * Endpoint to inspect the size and memory footprint of the related-products index.
+     * GET /api/products/related/stats
+     * @return ResponseEntity with index statistics and HTTP status 200 (OK).
+     */
+    @GetMapping("/related/stats")
+    public ResponseEntity<CoOccurrenceStatsResponse> getRelatedProductsStats() {
+        return new ResponseEntity<>(coOccurrenceService.getStats(), HttpStatus.OK);
+    }
+
+    /**
+     * Endpoint to trigger a full rebuild of the related-products index.
+     * POST /api/products/related/rebuild
+     * @return HTTP status 202 (Accepted) when started, or 409 (Conflict) if a rebuild is already running.
+     */
+    @PostMapping("/related/rebuild")
+    public ResponseEntity<Void> rebuildRelatedProducts() {
+        boolean started = coOccurrenceService.startRebuild();
+        return new ResponseEntity<>(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT);
+    }
+
+    /**
+     * Endpoint to upload a product image. Thumbnail and medium variants are rendered in the background.
+     * POST /api/products/{id}/image (multipart, field "file")
+     * @param id The ID of the product.
+     * @param file The image (JPEG, PNG, GIF or BMP).
+     * @return ResponseEntity with the variant URLs and HTTP status 201 (Created),
+     * 404 (Not Found) if the product doesn't exist, or 400 if the file is not a supported image.
+     */
+    @PostMapping("/{id}/image")
+    public ResponseEntity<Map<String, String>> uploadImage(@PathVariable Long id, @RequestParam("file") MultipartFile file) {
+        try {
+            String contentHash = imageService.storeProductImage(id, file.getBytes());
+            return new ResponseEntity<>(ImageVariant.urlsFor(contentHash), HttpStatus.CREATED);
+        } catch (IOException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (RuntimeException e) {
+            if (e.getMessage() != null && e.getMessage().contains("Product not found")) {
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            }
+            if (e.getMessage() != null && (e.getMessage().contains("Unsupported image") || e.getMessage().contains("too large"))) {
+                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            }
+            e.printStackTrace();
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
     /**
      * Endpoint to update an existing product using ProductRequest DTO.
      * @param id The ID of the product to update.
      * @param request The ProductRequest DTO with updated details and categoryId.
      * @return ResponseEntity with the updated ProductResponse DTO and HTTP status 200 (OK)
-     * or 404 (Not Found) or 400 if category not found.
+     * or 404 (Not Found) or 400 if category not found or price invalid.
      */
     @PutMapping("/{id}")
     public ResponseEntity<ProductResponse> updateProduct(@PathVariable Long id, @RequestBody ProductRequest request) {
@@ -99,7 +191,26 @@ public class ProductController {
             return updatedProductOptional.map(updatedProduct -> new ResponseEntity<>(convertToDto(updatedProduct), HttpStatus.OK))
                     .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
         } catch (RuntimeException e) {
-            if (e.getMessage().contains("Category not found")) {
+            if (e.getMessage().contains("Category not found") || e.getMessage().contains("Invalid price")) {
+                return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Endpoint to update prices and/or stock of many products in one request.
+     * POST /api/products/bulk-update
+     * @param request The list of (productId, price, stockQuantity) updates; null fields are left unchanged.
+     * @return ResponseEntity with update counts and the new catalog price version and HTTP status 200 (OK),
+     * or 400 (Bad Request) if an update is invalid.
+     */
+    @PostMapping("/bulk-update")
+    public ResponseEntity<BulkProductUpdateResponse> bulkUpdateProducts(@RequestBody BulkProductUpdateRequest request) {
+        try {
+            return new ResponseEntity<>(productService.bulkUpdate(request), HttpStatus.OK);
+        } catch (RuntimeException e) {
+            if (e.getMessage() != null && e.getMessage().contains("Invalid bulk update")) {
                 return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
             }
             throw e;
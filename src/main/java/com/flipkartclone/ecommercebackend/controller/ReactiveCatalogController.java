@@ -0,0 +1,61 @@
+package com.flipkartclone.ecommercebackend.controller;
+
+import com.flipkartclone.ecommercebackend.dto.ProductResponse;
+import com.flipkartclone.ecommercebackend.model.Category;
+import com.flipkartclone.ecommercebackend.service.ReactiveCatalogService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking twins of the catalog read endpoints, served by the same MVC stack: returning a Flux/Mono
+ * releases the servlet thread until the R2DBC query completes. With Accept: application/x-ndjson lists are
+ * streamed one product per line as rows arrive; plain JSON is written as an array once the query finishes.
+ */
+@RestController
+@RequestMapping("/api/reactive")
+public class ReactiveCatalogController {
+
+    private final ReactiveCatalogService reactiveCatalogService;
+
+    @Autowired
+    public ReactiveCatalogController(ReactiveCatalogService reactiveCatalogService) {
+        this.reactiveCatalogService = reactiveCatalogService;
+    }
+
+    /**
+     * Endpoint to get all products.
+     * GET /api/reactive/products
+     * @return All ProductResponse DTOs, as a JSON array or newline-delimited JSON.
+     */
+    @GetMapping(value = "/products", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<ProductResponse> getAllProducts() {
+        return reactiveCatalogService.getAllProducts();
+    }
+
+    /**
+     * Endpoint to get a product by its ID.
+     * GET /api/reactive/products/{id}
+     * @param id The ID of the product.
+     * @return The ProductResponse DTO with 200 (OK), or 404 (Not Found).
+     */
+    @GetMapping("/products/{id}")
+    public Mono<ResponseEntity<ProductResponse>> getProductById(@PathVariable Long id) {
+        return reactiveCatalogService.getProductById(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Endpoint to get all categories.
+     * GET /api/reactive/categories
+     * @return All categories, as a JSON array or newline-delimited JSON.
+     */
+    @GetMapping(value = "/categories", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Category> getAllCategories() {
+        return reactiveCatalogService.getAllCategories();
+    }
+}
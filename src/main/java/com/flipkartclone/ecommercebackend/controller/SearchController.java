@@ -0,0 +1,46 @@
+package com.flipkartclone.ecommercebackend.controller;
+
+import com.flipkartclone.ecommercebackend.dto.TypeaheadStatsResponse;
+import com.flipkartclone.ecommercebackend.dto.TypeaheadSuggestion;
+import com.flipkartclone.ecommercebackend.service.TypeaheadService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/search")
+public class SearchController {
+
+    private final TypeaheadService typeaheadService;
+
+    @Autowired
+    public SearchController(TypeaheadService typeaheadService) {
+        this.typeaheadService = typeaheadService;
+    }
+
+    /**
+     * Endpoint for search-as-you-type suggestions over product and category names.
+     * GET /api/search/typeahead?q=iph&limit=10
+     * @param q The text typed so far.
+     * @param limit Maximum number of suggestions (default 10, at most 50).
+     * @return Matching products and categories, most popular first.
+     */
+    @GetMapping("/typeahead")
+    public ResponseEntity<List<TypeaheadSuggestion>> typeahead(@RequestParam String q,
+                                                               @RequestParam(defaultValue = "10") int limit) {
+        return new ResponseEntity<>(typeaheadService.suggest(q, limit), HttpStatus.OK);
+    }
+
+    /**
+     * Endpoint to inspect the size and memory footprint of the typeahead index.
+     * GET /api/search/typeahead/stats
+     * @return Index statistics.
+     */
+    @GetMapping("/typeahead/stats")
+    public ResponseEntity<TypeaheadStatsResponse> stats() {
+        return new ResponseEntity<>(typeaheadService.getStats(), HttpStatus.OK);
+    }
+}
@@ -2,7 +2,10 @@ package com.flipkartclone.ecommercebackend.controller;
 
 import com.flipkartclone.ecommercebackend.model.User; // Import the User entity
 import com.flipkartclone.ecommercebackend.service.UserService; // Import the UserService
+import com.flipkartclone.ecommercebackend.service.GuestCartService;
+import com.flipkartclone.ecommercebackend.service.OrderSummaryService;
 import com.flipkartclone.ecommercebackend.dto.LoginRequest; // Import the LoginRequest DTO
+import com.flipkartclone.ecommercebackend.dto.UserOrderSummaryResponse;
 import org.springframework.beans.factory.annotation.Autowired; // For dependency injection
 import org.springframework.http.HttpStatus; // For HTTP status codes
 import org.springframework.http.ResponseEntity; // For building HTTP responses
@@ -15,11 +18,16 @@ import java.util.Optional; // Needed for Optional return types
 public class UserController {
 
     private final UserService userService; // Declare an instance of UserService
+    private final GuestCartService guestCartService;
+    private final OrderSummaryService orderSummaryService;
 
     // Constructor for dependency injection of UserService
     @Autowired // Spring will automatically inject UserService here
-    public UserController(UserService userService) {
+    public UserController(UserService userService, GuestCartService guestCartService,
+                          OrderSummaryService orderSummaryService) {
         this.userService = userService;
+        this.guestCartService = guestCartService;
+        this.orderSummaryService = orderSummaryService;
     }
 
     /**
@@ -46,16 +54,28 @@ public class UserController {
      * Endpoint to authenticate a user (login).
      *
      * @param loginRequest DTO containing email and password.
+     * @param guestCartToken Optional guest cart token; its items are merged into the user's cart, once.
      * @return ResponseEntity with the authenticated User (or a token in real app)
-     * and HTTP status 200 (OK) or 401 (Unauthorized).
+     * and HTTP status 200 (OK) or 401 (Unauthorized). After a merge the X-Guest-Cart header comes back empty,
+     * telling the client to drop the guest cart.
      */
     @PostMapping("/login") // Maps HTTP POST requests to /api/users/login
-    public ResponseEntity<User> loginUser(@RequestBody LoginRequest loginRequest) {
+    public ResponseEntity<User> loginUser(@RequestBody LoginRequest loginRequest,
+                                          @RequestHeader(value = "X-Guest-Cart", required = false) String guestCartToken) {
         Optional<User> authenticatedUser = userService.authenticateUser(
                 loginRequest.getEmail(), loginRequest.getPassword()
         );
 
         if (authenticatedUser.isPresent()) {
+            if (guestCartToken != null && !guestCartToken.isBlank()) {
+                // A bad or expired guest cart must not block the login itself.
+                try {
+                    guestCartService.mergeIntoUserCart(authenticatedUser.get().getId(), guestCartToken);
+                    return ResponseEntity.ok().header("X-Guest-Cart", "").body(authenticatedUser.get());
+                } catch (RuntimeException e) {
+                    System.out.println("Guest cart not merged for user " + authenticatedUser.get().getId() + ": " + e.getMessage());
+                }
+            }
             // In a real application, you would generate and return a JWT token here
             return new ResponseEntity<>(authenticatedUser.get(), HttpStatus.OK);
         } else {
@@ -81,5 +101,30 @@ public class UserController {
         }
     }
 
+    /**
+     * Endpoint to get a user's order count, lifetime spend and last order date for the account page.
+     * Served from the maintained per-user summary, not by loading the order history.
+     * GET /api/users/{id}/order-summary
+     * @param id The ID of the user.
+     * @return ResponseEntity with the summary and HTTP status 200 (OK), or 404 (Not Found).
+     */
+    @GetMapping("/{id}/order-summary")
+    public ResponseEntity<UserOrderSummaryResponse> getOrderSummary(@PathVariable Long id) {
+        return orderSummaryService.getSummary(id)
+                .map(summary -> new ResponseEntity<>(summary, HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    /**
+     * Endpoint to recompute all users' order summaries from the order tables, e.g. to backfill them.
+     * POST /api/users/order-summaries/rebuild
+     * @return HTTP status 202 (Accepted) when started, or 409 (Conflict) if a rebuild is already running.
+     */
+    @PostMapping("/order-summaries/rebuild")
+    public ResponseEntity<Void> rebuildOrderSummaries() {
+        boolean started = orderSummaryService.startRebuild();
+        return new ResponseEntity<>(started ? HttpStatus.ACCEPTED : HttpStatus.CONFLICT);
+    }
+
     // We will add more endpoints here later for profile update, etc.
 }
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.flipkartclone.ecommercebackend.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkProductUpdateRequest {
+    private List<Item> updates = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private Long productId;
+        @MinorUnits
+        private Long price; // null leaves the price unchanged
+        private Integer stockQuantity; // null leaves the stock unchanged
+    }
+}
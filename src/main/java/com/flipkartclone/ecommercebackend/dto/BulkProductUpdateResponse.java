@@ -0,0 +1,14 @@
+package com.flipkartclone.ecommercebackend.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkProductUpdateResponse {
+    private int requested;
+    private int updated;
+    private long priceVersion;
+}
@@ -3,7 +3,6 @@ package com.flipkartclone.ecommercebackend.dto;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
-import java.math.BigDecimal;
 import java.util.List;
 import java.util.ArrayList;
 
@@ -14,5 +13,6 @@ public class CartResponse {
     private Long id;
     private Long userId;
     private List<CartItemResponse> cartItems = new ArrayList<>();
-    private BigDecimal totalCartPrice;
+    @MinorUnits
+    private long totalCartPrice;
 }
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.flipkartclone.ecommercebackend.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckoutRequest {
+    private Long userId;
+    private String shippingAddress;
+    private String currency = "INR";
+}
@@ -0,0 +1,16 @@
+package com.flipkartclone.ecommercebackend.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CheckoutResponse {
+    private Long orderId;
+    @MinorUnits
+    private long totalAmount;
+    private String status;
+    private PaymentOrderResponse payment; // Null if the gateway call failed; retry via /api/payment/create-order
+}
@@ -0,0 +1,18 @@
+package com.flipkartclone.ecommercebackend.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CoOccurrenceStatsResponse {
+    private int products;
+    private long pairs;
+    private long estimatedHeapBytes;
+    private long lastRebuildMillis;
+    private LocalDateTime lastRebuildAt;
+    private boolean rebuilding;
+}
@@ -0,0 +1,18 @@
+package com.flipkartclone.ecommercebackend.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetSearchResponse {
+    private int totalMatches;
+    private List<Long> productIds;
+    private List<FacetCount> categories;
+    private List<FacetCount> priceBuckets;
+    private List<FacetCount> availability;
+}
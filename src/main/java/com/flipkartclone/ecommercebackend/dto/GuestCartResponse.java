@@ -0,0 +1,18 @@
+package com.flipkartclone.ecommercebackend.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GuestCartResponse {
+    private String token; // Send back in the X-Guest-Cart header on the next request
+    private List<CartItemResponse> cartItems = new ArrayList<>();
+    @MinorUnits
+    private long totalCartPrice;
+}
@@ -0,0 +1,21 @@
+package com.flipkartclone.ecommercebackend.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.flipkartclone.ecommercebackend.model.Money;
+
+import java.io.IOException;
+
+public class MinorUnitsSerializer extends StdSerializer<Long> {
+
+    public MinorUnitsSerializer() {
+        super(Long.class);
+    }
+
+    @Override
+    public void serialize(Long value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        char[] buffer = new char[Money.MAX_CHARS];
+        gen.writeNumber(buffer, 0, Money.format(value, buffer));
+    }
+}
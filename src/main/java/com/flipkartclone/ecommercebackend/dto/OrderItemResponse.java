@@ -3,7 +3,6 @@ package com.flipkartclone.ecommercebackend.dto;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
-import java.math.BigDecimal;
 
 @Data
 @NoArgsConstructor
@@ -14,6 +13,8 @@ public class OrderItemResponse {
     private String productName;
     private String productImageUrl;
     private Integer quantity;
-    private BigDecimal priceAtOrder;
-    private BigDecimal itemTotalPrice;
+    @MinorUnits
+    private long priceAtOrder;
+    @MinorUnits
+    private long itemTotalPrice;
 }
\ No newline at end of file
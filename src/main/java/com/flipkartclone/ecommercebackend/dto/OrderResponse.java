@@ -3,7 +3,6 @@ package com.flipkartclone.ecommercebackend.dto;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.ArrayList;
@@ -15,7 +14,8 @@ public class OrderResponse {
     private Long id;
     private Long userId;
     private LocalDateTime orderDate;
-    private BigDecimal totalAmount;
+    @MinorUnits
+    private long totalAmount;
     private String status;
     private String shippingAddress;
     private List<OrderItemResponse> orderItems = new ArrayList<>();
@@ -3,7 +3,6 @@ package com.flipkartclone.ecommercebackend.dto;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
-import java.math.BigDecimal;
 
 @Data
 @NoArgsConstructor
@@ -11,7 +10,8 @@ import java.math.BigDecimal;
 public class PaymentOrderRequest {
     private Long orderId;
     private Long userId;
-    private BigDecimal amount;
+    @MinorUnits
+    private Long amount;
     private String currency;
     private String receipt;
 }
\ No newline at end of file
@@ -4,8 +4,6 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
-import java.math.BigDecimal;
-
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -13,7 +11,8 @@ public class ProductRequest {
 
     private String name;
     private String description;
-    private BigDecimal price;
+    @MinorUnits
+    private Long price;
     private Integer stockQuantity;
     private String imageUrl;
     private Long categoryId;
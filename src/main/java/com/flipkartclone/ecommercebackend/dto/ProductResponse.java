@@ -4,7 +4,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
-import java.math.BigDecimal;
+import java.util.Map;
 
 @Data
 @NoArgsConstructor
@@ -14,9 +14,11 @@ public class ProductResponse {
     private Long id;
     private String name;
     private String description;
-    private BigDecimal price;
+    @MinorUnits
+    private long price;
     private Integer stockQuantity;
     private String imageUrl;
+    private Map<String, String> imageVariants;
     private Long categoryId;
     private String categoryName;
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.flipkartclone.ecommercebackend.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesBucketResponse {
+    private LocalDateTime bucketStart;
+    @MinorUnits
+    private long revenue;
+    private long units;
+}
@@ -0,0 +1,18 @@
+package com.flipkartclone.ecommercebackend.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TypeaheadStatsResponse {
+    private int names;
+    private int indexedPrefixes;
+    private long estimatedHeapBytes;
+    private int pendingChanges;
+    private long lastBuildMillis;
+    private LocalDateTime lastBuildAt;
+}
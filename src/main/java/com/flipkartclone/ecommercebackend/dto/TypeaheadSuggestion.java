@@ -0,0 +1,15 @@
+package com.flipkartclone.ecommercebackend.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TypeaheadSuggestion {
+    private String type; // "PRODUCT" or "CATEGORY"
+    private Long id;
+    private String name;
+    private int weight;
+}
@@ -0,0 +1,18 @@
+package com.flipkartclone.ecommercebackend.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserOrderSummaryResponse {
+    private Long userId;
+    private long orderCount;
+    private long paidOrderCount;
+    @MinorUnits
+    private long lifetimeSpend;
+    private LocalDateTime lastOrderAt;
+}
@@ -0,0 +1,26 @@
+package com.flipkartclone.ecommercebackend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+
+/**
+ * Single-row table holding catalog-wide counters. priceVersion is bumped whenever any product price changes,
+ * letting carts detect stale prices with one comparison.
+ */
+@Entity
+@Table(name = "catalog_state")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogState {
+
+    public static final Long SINGLETON_ID = 1L;
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private Long priceVersion;
+}
@@ -0,0 +1,143 @@
+package com.flipkartclone.ecommercebackend.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Money as a primitive long count of minor units (paise for INR), the unit the payment gateway already uses.
+ * Prices, line totals and order totals are plain long arithmetic with no per-line allocation; overflow
+ * throws instead of wrapping. Every amount in the system has exactly two decimal places.
+ */
+public final class Money {
+
+    public static final int SCALE = 2;
+    /** Upper bound on the characters {@link #format} writes: sign, 19 digits and the decimal point. */
+    public static final int MAX_CHARS = 21;
+    private static final long MINOR_PER_MAJOR = 100;
+
+    private Money() {
+    }
+
+    /**
+     * @param unitMinor Price of one unit in minor units.
+     * @param quantity Number of units.
+     * @return The line total in minor units.
+     * @throws ArithmeticException on overflow.
+     */
+    public static long times(long unitMinor, int quantity) {
+        return Math.multiplyExact(unitMinor, (long) quantity);
+    }
+
+    /**
+     * @param a Minor units.
+     * @param b Minor units.
+     * @return The sum in minor units.
+     * @throws ArithmeticException on overflow.
+     */
+    public static long plus(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    /**
+     * Parses a decimal amount such as "199", "199.5" or "-0.99" into minor units without going through BigDecimal.
+     * Nothing is rounded: digits past the second decimal place must be zeros.
+     * @param text The amount in major units with at most two decimal places.
+     * @return The amount in minor units.
+     * @throws NumberFormatException if the text is not such an amount or does not fit in a long.
+     */
+    public static long parse(CharSequence text) {
+        int length = text.length();
+        int i = 0;
+        boolean negative = false;
+        if (length > 0 && (text.charAt(0) == '-' || text.charAt(0) == '+')) {
+            negative = text.charAt(0) == '-';
+            i++;
+        }
+        // Accumulated as a negative value so that Long.MIN_VALUE, which format() can write, parses back.
+        long total = 0;
+        int majorDigits = 0;
+        int fractionDigits = 0;
+        try {
+            for (; i < length && text.charAt(i) != '.'; i++) {
+                total = Math.subtractExact(Math.multiplyExact(total, 10L), digit(text, i));
+                majorDigits++;
+            }
+            total = Math.multiplyExact(total, MINOR_PER_MAJOR);
+            long minor = 0;
+            if (i < length) {
+                for (i++; i < length; i++, fractionDigits++) {
+                    int d = digit(text, i);
+                    if (fractionDigits >= SCALE) {
+                        if (d != 0) {
+                            throw new NumberFormatException("Amount has more than " + SCALE + " decimal places: " + text);
+                        }
+                        continue;
+                    }
+                    minor = minor * 10 + d;
+                }
+            }
+            for (int pad = Math.min(fractionDigits, SCALE); pad < SCALE; pad++) {
+                minor *= 10;
+            }
+            total = Math.subtractExact(total, minor);
+            if (majorDigits == 0 && fractionDigits == 0) {
+                throw new NumberFormatException("Not an amount: " + text);
+            }
+            return negative ? total : Math.negateExact(total);
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Amount out of range: " + text);
+        }
+    }
+
+    /**
+     * @param amount An amount in major units, e.g. from configuration.
+     * @return The amount in minor units.
+     * @throws ArithmeticException if it has more than two decimal places or does not fit in a long.
+     */
+    public static long of(BigDecimal amount) {
+        return amount.movePointRight(SCALE).longValueExact();
+    }
+
+    /**
+     * Writes the amount as a plain decimal with two decimal places, e.g. 19999 -> "199.99".
+     * @param minor Minor units.
+     * @param buffer Destination, at least {@link #MAX_CHARS} long.
+     * @return The number of characters written from index 0.
+     */
+    public static int format(long minor, char[] buffer) {
+        // Digits are produced from the negative value because Long.MIN_VALUE has no positive counterpart.
+        long negated = minor > 0 ? -minor : minor;
+        int pos = MAX_CHARS;
+        for (int digits = 0; digits < SCALE; digits++) {
+            buffer[--pos] = (char) ('0' - negated % 10);
+            negated /= 10;
+        }
+        buffer[--pos] = '.';
+        do {
+            buffer[--pos] = (char) ('0' - negated % 10);
+            negated /= 10;
+        } while (negated != 0);
+        if (minor < 0) {
+            buffer[--pos] = '-';
+        }
+        int length = MAX_CHARS - pos;
+        System.arraycopy(buffer, pos, buffer, 0, length);
+        return length;
+    }
+
+    /**
+     * @param minor Minor units.
+     * @return The amount as a plain decimal string, e.g. "199.99".
+     */
+    public static String toString(long minor) {
+        char[] buffer = new char[MAX_CHARS];
+        return new String(buffer, 0, format(minor, buffer));
+    }
+
+    private static int digit(CharSequence text, int index) {
+        char c = text.charAt(index);
+        if (c < '0' || c > '9') {
+            throw new NumberFormatException("Not an amount: " + text);
+        }
+        return c - '0';
+    }
+}
@@ -4,14 +4,15 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_user_date", columnList = "user_id, order_date")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -30,13 +31,30 @@ public class Order {
     private LocalDateTime orderDate;
 
     @Column(nullable = false)
-    private BigDecimal totalAmount;
+    private long totalAmountMinor;
 
-    @Column(nullable = false)
-    private String status;
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private OrderStatus status;
 
     private String shippingAddress;
 
+    // The payment gateway's order ID once one has been created; webhooks are matched on it.
+    @Column(length = 64, unique = true)
+    private String gatewayOrderId;
+
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<OrderItem> orderItems = new ArrayList<>();
+
+    /**
+     * Moves the order to a new status, enforcing the allowed lifecycle transitions.
+     * @param next The target status.
+     * @throws RuntimeException if the transition is not allowed.
+     */
+    public void transitionTo(OrderStatus next) {
+        if (!status.canTransitionTo(next)) {
+            throw new RuntimeException("Invalid order status transition for order ID " + id + ": " + status + " -> " + next);
+        }
+        this.status = next;
+    }
 }
\ No newline at end of file
@@ -4,7 +4,6 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
-import java.math.BigDecimal;
 import com.flipkartclone.ecommercebackend.model.product.Product;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
@@ -32,5 +31,5 @@ public class OrderItem {
     private Integer quantity;
 
     @Column(nullable = false)
-    private BigDecimal priceAtOrder;
+    private long priceAtOrderMinor;
 }
\ No newline at end of file
@@ -0,0 +1,53 @@
+package com.flipkartclone.ecommercebackend.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lifecycle of an order. PENDING and FAILED orders still hold their stock reservation and can be paid;
+ * PAID, EXPIRED and CANCELLED are terminal.
+ */
+public enum OrderStatus {
+    PENDING,
+    PAID,
+    FAILED,
+    EXPIRED,
+    CANCELLED;
+
+    public boolean isUnpaid() {
+        return this == PENDING || this == FAILED;
+    }
+
+    /**
+     * @return True for orders closed without payment; their stock has been released.
+     */
+    public boolean isClosedUnpaid() {
+        return this == EXPIRED || this == CANCELLED;
+    }
+
+    /**
+     * @param next The target status.
+     * @return The statuses from which an order may move to the target, for conditional status updates.
+     */
+    public static List<OrderStatus> sourcesOf(OrderStatus next) {
+        List<OrderStatus> sources = new ArrayList<>();
+        for (OrderStatus status : values()) {
+            if (status.canTransitionTo(next)) {
+                sources.add(status);
+            }
+        }
+        return sources;
+    }
+
+    public boolean canTransitionTo(OrderStatus next) {
+        switch (this) {
+            case PENDING:
+                return next == PAID || next == FAILED || next == EXPIRED || next == CANCELLED;
+            case FAILED:
+                // Razorpay lets the customer retry a failed payment on the same gateway order.
+                return next == PAID || next == EXPIRED || next == CANCELLED;
+            default:
+                return false;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.flipkartclone.ecommercebackend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Revenue and units for a product or category per hour/day, mirrored by the in-memory sales rollups.
+ * Incremented by SalesAnalyticsService as paid orders are relayed, and only read back at startup.
+ */
+@Entity
+@Table(name = "sales_rollups")
+@IdClass(SalesRollupBucket.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesRollupBucket {
+
+    @Id
+    @Column(length = 16)
+    private String dimension;
+
+    @Id
+    private Long dimensionId;
+
+    @Id
+    @Column(length = 8)
+    private String granularity;
+
+    @Id
+    private LocalDateTime bucketStart;
+
+    @Column(nullable = false)
+    private Long revenueMinor;
+
+    @Column(nullable = false)
+    private Long units;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String dimension;
+        private Long dimensionId;
+        private String granularity;
+        private LocalDateTime bucketStart;
+    }
+}
@@ -4,9 +4,11 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
 @Table(name = "carts")
@@ -26,4 +28,16 @@ public class Cart {
 
     @OneToMany(mappedBy = "cart", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<CartItem> cartItems = new ArrayList<>();
+
+    // Catalog price version the item prices were last refreshed against; see CatalogVersionService.
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private Long priceVersion = 0L;
+
+    // Last change to the cart's lines; CartService resets reminderSentAt with it so a later idle spell is reminded again.
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Set when CartReminderJob claims the cart for an abandoned-cart email.
+    private LocalDateTime reminderSentAt;
 }
\ No newline at end of file
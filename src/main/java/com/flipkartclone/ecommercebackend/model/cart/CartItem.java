@@ -4,11 +4,12 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
-import java.math.BigDecimal;
 import com.flipkartclone.ecommercebackend.model.product.Product;
 
 @Entity
-@Table(name = "cart_items")
+@Table(name = "cart_items", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_cart_items_cart_product", columnNames = {"cart_id", "product_id"})
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -30,5 +31,5 @@ public class CartItem {
     private Integer quantity;
 
     @Column(nullable = false)
-    private BigDecimal priceAtPurchase;
+    private long priceAtPurchaseMinor;
 }
\ No newline at end of file
@@ -4,7 +4,6 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
-import java.math.BigDecimal;
 import com.flipkartclone.ecommercebackend.model.Category; // Corrected import
 
 @Entity
@@ -25,13 +24,17 @@ public class Product {
     private String description;
 
     @Column(nullable = false)
-    private BigDecimal price;
+    private long priceMinor; // Minor units, see Money
 
     @Column(nullable = false)
     private Integer stockQuantity;
 
     private String imageUrl; // This field is present
 
+    // SHA-256 of the uploaded image; variant URLs are derived from it. Null for external image URLs.
+    @Column(length = 64)
+    private String imageHash;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id", nullable = false)
     private Category category;
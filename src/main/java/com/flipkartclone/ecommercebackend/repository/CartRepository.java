@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.List;
 
@@ -14,4 +15,32 @@ public interface CartRepository extends JpaRepository<Cart, Long> {
 
     @Query("SELECT c FROM Cart c LEFT JOIN FETCH c.cartItems ci LEFT JOIN FETCH ci.product WHERE c.user.id = :userId")
     Optional<Cart> findByUserIdWithItems(Long userId);
-}
\ No newline at end of file
+
+    // One row (email, cart ID or NULL, line count, total at current prices) if the user exists, none otherwise.
+    // Used to size the gateway order before the order itself is placed.
+    @Query(value = "SELECT u.email, c.id, COUNT(ci.id), COALESCE(SUM(p.price_minor * ci.quantity), 0) FROM users u " +
+            "LEFT JOIN carts c ON c.user_id = u.id LEFT JOIN cart_items ci ON ci.cart_id = c.id " +
+            "LEFT JOIN products p ON p.id = ci.product_id WHERE u.id = :userId GROUP BY u.email, c.id", nativeQuery = true)
+    List<Object[]> findCheckoutQuote(Long userId);
+
+    @Query(value = "SELECT id FROM carts WHERE id > :afterId ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<Long> findIdsAfter(long afterId, int limit);
+
+    // Carts being changed are skipped rather than waited on; idleness and emptiness are checked under the row lock.
+    @Query(value = "DELETE FROM carts c WHERE c.id IN (SELECT id FROM carts WHERE id IN (:cartIds) " +
+            "AND updated_at < :idleBefore FOR UPDATE SKIP LOCKED) " +
+            "AND NOT EXISTS (SELECT 1 FROM cart_items ci WHERE ci.cart_id = c.id) RETURNING c.id", nativeQuery = true)
+    List<Long> deleteEmptyIdleCarts(List<Long> cartIds, LocalDateTime idleBefore);
+
+    // Keyset page over the partial idx_carts_reminder_pending index.
+    @Query(value = "SELECT id FROM carts WHERE reminder_sent_at IS NULL AND id > :afterId ORDER BY id LIMIT :limit",
+            nativeQuery = true)
+    List<Long> findUnremindedIdsAfter(long afterId, int limit);
+
+    // Marks idle, non-empty carts as reminded before any email goes out, so a reminder is sent at most once
+    // per idle spell even if two runs overlap or the send fails.
+    @Query(value = "UPDATE carts c SET reminder_sent_at = now() WHERE c.id IN (:cartIds) AND c.reminder_sent_at IS NULL " +
+            "AND c.updated_at < :idleBefore AND EXISTS (SELECT 1 FROM cart_items ci WHERE ci.cart_id = c.id) " +
+            "RETURNING c.id", nativeQuery = true)
+    List<Long> claimIdleCartsForReminder(List<Long> cartIds, LocalDateTime idleBefore);
+}
@@ -0,0 +1,13 @@
+package com.flipkartclone.ecommercebackend.repository;
+
+import com.flipkartclone.ecommercebackend.model.CatalogState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CatalogStateRepository extends JpaRepository<CatalogState, Long> {
+
+    @Query(value = "UPDATE catalog_state SET price_version = price_version + 1 WHERE id = 1 RETURNING price_version", nativeQuery = true)
+    Long incrementPriceVersion();
+}
@@ -1,10 +1,15 @@
 package com.flipkartclone.ecommercebackend.repository;
 
 import com.flipkartclone.ecommercebackend.model.Order;
+import com.flipkartclone.ecommercebackend.model.OrderStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,6 +20,71 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @Query("SELECT o FROM Order o JOIN FETCH o.orderItems oi JOIN FETCH oi.product WHERE o.id = :orderId")
     Optional<Order> findByIdWithItems(Long orderId);
 
+    @Query("SELECT o FROM Order o JOIN FETCH o.orderItems oi JOIN FETCH oi.product WHERE o.gatewayOrderId = :gatewayOrderId")
+    Optional<Order> findByGatewayOrderIdWithItems(String gatewayOrderId);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Order o SET o.gatewayOrderId = :gatewayOrderId WHERE o.id = :orderId")
+    int setGatewayOrderId(Long orderId, String gatewayOrderId);
+
     @Query("SELECT o FROM Order o JOIN FETCH o.orderItems oi JOIN FETCH oi.product WHERE o.user.id = :userId")
     List<Order> findByUserIdWithItems(Long userId);
-}
\ No newline at end of file
+
+    // Keyset page over the partial idx_orders_unpaid index; no locks are taken here. Orders with a gateway order are
+    // only due once payment reconciliation has checked them after their deadline (cutoff + pendingTtlMinutes), or
+    // once they were placed before unreconciledCutoff, so a gateway outage can't hold their stock forever.
+    @Query(value = "SELECT id FROM orders WHERE status IN ('PENDING', 'FAILED') AND id > :afterId AND order_date < :cutoff " +
+            "AND (gateway_order_id IS NULL OR payment_checked_at >= order_date + make_interval(mins => :pendingTtlMinutes) " +
+            "OR order_date < :unreconciledCutoff) ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<Long> findUnpaidOrderIdsBefore(LocalDateTime cutoff, int pendingTtlMinutes, LocalDateTime unreconciledCutoff,
+                                        Long afterId, int limit);
+
+    // Re-checks status, deadline and reconciliation so orders paid since the scan are left alone; returns the IDs
+    // actually expired.
+    @Query(value = "UPDATE orders SET status = 'EXPIRED' WHERE id IN (:orderIds) AND status IN ('PENDING', 'FAILED') " +
+            "AND order_date < :cutoff " +
+            "AND (gateway_order_id IS NULL OR payment_checked_at >= order_date + make_interval(mins => :pendingTtlMinutes) " +
+            "OR order_date < :unreconciledCutoff) RETURNING id", nativeQuery = true)
+    List<Long> expireUnpaidOrders(List<Long> orderIds, LocalDateTime cutoff, int pendingTtlMinutes,
+                                  LocalDateTime unreconciledCutoff);
+
+    // Plain primary-key keyset page; the archiver filters on status and age when it moves the rows.
+    @Query(value = "SELECT id FROM orders WHERE id > :afterId ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<Long> findIdsAfter(long afterId, int limit);
+
+    // Keyset page over the partial idx_orders_unpaid index: unpaid orders that already have a gateway order and are
+    // due a check, i.e. never checked, last checked before checkedBefore, or past their deadline (placed before
+    // deadlineCutoff) without a check since. IDs follow order_date, so the closest to expiry come first.
+    @Query(value = "SELECT id, gateway_order_id FROM orders WHERE status IN ('PENDING', 'FAILED') " +
+            "AND gateway_order_id IS NOT NULL AND id > :afterId AND order_date < :placedBefore " +
+            "AND (payment_checked_at IS NULL OR payment_checked_at < :checkedBefore OR (order_date < :deadlineCutoff " +
+            "AND payment_checked_at < order_date + make_interval(mins => :pendingTtlMinutes))) " +
+            "ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<Object[]> findPendingGatewayOrdersAfter(long afterId, LocalDateTime placedBefore, LocalDateTime checkedBefore,
+                                                 LocalDateTime deadlineCutoff, int pendingTtlMinutes, int limit);
+
+    // Records that the gateway still reported these orders as unpaid (or settled them) at checkedAt.
+    @Modifying
+    @Query(value = "UPDATE orders SET payment_checked_at = :checkedAt WHERE id IN (:orderIds)", nativeQuery = true)
+    int markPaymentChecked(Collection<Long> orderIds, LocalDateTime checkedAt);
+
+    // Bulk transitions for payment reconciliation; the status guards mirror OrderStatus.canTransitionTo.
+    @Query(value = "UPDATE orders SET status = 'PAID' WHERE id IN (:orderIds) AND status IN ('PENDING', 'FAILED') RETURNING id",
+            nativeQuery = true)
+    List<Long> markPaid(Collection<Long> orderIds);
+
+    @Query(value = "UPDATE orders SET status = 'FAILED' WHERE id IN (:orderIds) AND status = 'PENDING' RETURNING id",
+            nativeQuery = true)
+    List<Long> markFailed(Collection<Long> orderIds);
+
+    // Conditional single-order transition for webhooks: applies only if no one else moved the order since it was read.
+    // Clears the persistence context, so callers re-load the order afterwards.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.status = :next WHERE o.id = :orderId AND o.status IN :from")
+    int transitionStatus(Long orderId, Collection<OrderStatus> from, OrderStatus next);
+
+    @Query("SELECT DISTINCT o FROM Order o JOIN FETCH o.user JOIN FETCH o.orderItems oi JOIN FETCH oi.product " +
+            "WHERE o.id IN :orderIds")
+    List<Order> findAllByIdWithItems(Collection<Long> orderIds);
+}
@@ -0,0 +1,51 @@
+package com.flipkartclone.ecommercebackend.repository;
+
+import com.flipkartclone.ecommercebackend.model.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Claims due events. Rows locked by another relay are skipped instead of waited on, so several nodes can drain the
+    // outbox in parallel; the claimed rows are leased until leaseUntil so they stay skipped while they are dispatched
+    // after this transaction commits.
+    @Query(value = "UPDATE outbox_events SET next_attempt_at = :leaseUntil WHERE id IN (" +
+            "SELECT id FROM outbox_events WHERE processed_at IS NULL AND attempts < :maxAttempts AND next_attempt_at <= :now " +
+            "ORDER BY id LIMIT :batchSize FOR UPDATE SKIP LOCKED) RETURNING *", nativeQuery = true)
+    List<OutboxEvent> claimNextBatch(int batchSize, int maxAttempts, LocalDateTime now, LocalDateTime leaseUntil);
+
+    // Skips events already marked, e.g. by another relay that re-claimed them after the claim timeout.
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.processedAt = :processedAt, e.lastError = null " +
+            "WHERE e.id IN :eventIds AND e.processedAt IS NULL")
+    int markProcessed(Collection<Long> eventIds, LocalDateTime processedAt);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.attempts = e.attempts + 1, e.lastError = :lastError, e.nextAttemptAt = :nextAttemptAt " +
+            "WHERE e.id = :eventId")
+    int markFailed(Long eventId, String lastError, LocalDateTime nextAttemptAt);
+
+    boolean existsByEventTypeAndAggregateId(String eventType, Long aggregateId);
+
+    // Dead events (out of attempts) are left out so that they don't pin the lag; they are counted separately.
+    @Query("SELECT MIN(e.createdAt) FROM OutboxEvent e WHERE e.processedAt IS NULL AND e.attempts < :maxAttempts")
+    Optional<LocalDateTime> findOldestPendingCreatedAt(int maxAttempts);
+
+    @Query("SELECT COUNT(e) FROM OutboxEvent e WHERE e.processedAt IS NULL AND e.attempts >= :maxAttempts")
+    long countDead(int maxAttempts);
+
+    @Query(value = "SELECT id FROM outbox_events WHERE id > :afterId ORDER BY id LIMIT :limit", nativeQuery = true)
+    List<Long> findIdsAfter(long afterId, int limit);
+
+    @Query(value = "DELETE FROM outbox_events WHERE id IN (:eventIds) AND processed_at < :processedBefore RETURNING id",
+            nativeQuery = true)
+    List<Long> deleteProcessedBefore(List<Long> eventIds, LocalDateTime processedBefore);
+}
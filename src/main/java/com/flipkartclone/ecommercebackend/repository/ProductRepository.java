@@ -2,10 +2,15 @@ package com.flipkartclone.ecommercebackend.repository;
 
 import com.flipkartclone.ecommercebackend.model.product.Product;
 import com.flipkartclone.ecommercebackend.model.Category; // Corrected import
+import com.flipkartclone.ecommercebackend.service.InventoryService;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,9 +18,44 @@ import java.util.Optional;
 public interface ProductRepository extends JpaRepository<Product, Long> {
     Optional<Product> findByName(String name);
 
+    // Not read-only (query methods default to it), so it runs on the primary: it fills the products cache outside
+    // any transaction, and a row read from a lagging replica would stay cached until the next change.
+    @Transactional
     @Query("SELECT p FROM Product p JOIN FETCH p.category WHERE p.id = :id")
     Optional<Product> findByIdWithCategory(Long id);
 
     @Query("SELECT p FROM Product p JOIN FETCH p.category")
     List<Product> findAllWithCategory();
-}
\ No newline at end of file
+
+    @Query("SELECT p FROM Product p JOIN FETCH p.category WHERE p.id IN :productIds")
+    List<Product> findAllByIdWithCategory(Collection<Long> productIds);
+
+    @Query("SELECT p.id FROM Product p ORDER BY p.id")
+    List<Long> findAllIds();
+
+    @Modifying
+    @Query("UPDATE Product p SET p.imageHash = :imageHash, p.imageUrl = :imageUrl WHERE p.id = :productId")
+    int updateImage(Long productId, String imageHash, String imageUrl);
+
+    // Scalar projection so loading the facet index doesn't materialize every Product entity. Stock is the live
+    // ledger availability; products.stock_quantity only moves when compaction runs.
+    @Query(value = "SELECT p.id, p.category_id, p.price_minor, " + InventoryService.PRODUCT_AVAILABLE_SQL + "::int " +
+            "FROM products p", nativeQuery = true)
+    List<Object[]> findFacetRows();
+
+    // Facet values plus name for products changed on another node (see CacheInvalidationService).
+    @Query(value = "SELECT p.id, p.category_id, p.price_minor, " + InventoryService.PRODUCT_AVAILABLE_SQL + "::int, " +
+            "p.name FROM products p WHERE p.id IN :productIds", nativeQuery = true)
+    List<Object[]> findCatalogRowsByIds(Collection<Long> productIds);
+
+    // Keyset page of everything the catalog snapshot stores, category name included.
+    @Query(value = "SELECT p.id, p.category_id, p.price_minor, p.stock_quantity, p.name, p.description, p.image_url, " +
+            "p.image_hash, c.name FROM products p JOIN categories c ON c.id = p.category_id " +
+            "WHERE p.id > :afterId ORDER BY p.id LIMIT :limit", nativeQuery = true)
+    List<Object[]> findSnapshotRowsAfter(long afterId, int limit);
+
+    // updated_at and product_tombstones are maintained by triggers (see V8).
+    @Query(value = "SELECT id FROM products WHERE updated_at > :since " +
+            "UNION SELECT product_id FROM product_tombstones WHERE deleted_at > :since", nativeQuery = true)
+    List<Long> findIdsChangedSince(LocalDateTime since);
+}
@@ -0,0 +1,13 @@
+package com.flipkartclone.ecommercebackend.repository;
+
+import com.flipkartclone.ecommercebackend.model.SalesRollupBucket;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface SalesRollupBucketRepository extends JpaRepository<SalesRollupBucket, SalesRollupBucket.Key> {
+    List<SalesRollupBucket> findByGranularityAndBucketStartGreaterThanEqual(String granularity, LocalDateTime bucketStart);
+}
@@ -0,0 +1,40 @@
+package com.flipkartclone.ecommercebackend.service;
+
+/**
+ * A maintenance job run by the JobScheduler. Work is done in chunks keyed by an ascending ID: each call gets the
+ * last key of the previous chunk, and the scheduler checkpoints that key so a run cut short by its time budget
+ * (or by a crash) resumes where it stopped, on whichever node holds the job's lock next.
+ */
+public interface BackgroundJob {
+
+    /**
+     * @return Stable job name, used for the advisory lock, the checkpoint row and metric tags.
+     */
+    String name();
+
+    /**
+     * @return Delay between the end of one run and the start of the next, in milliseconds.
+     */
+    long intervalMillis();
+
+    /**
+     * @return Maximum number of rows scanned per chunk.
+     */
+    int chunkSize();
+
+    /**
+     * Processes the next chunk. Each call should be its own short transaction.
+     * @param afterKey Last key of the previous chunk, or 0 at the start of a pass.
+     * @param limit Maximum number of rows to scan.
+     * @return What was scanned and processed.
+     */
+    Chunk processChunk(long afterKey, int limit);
+
+    /**
+     * @param scanned Rows looked at; fewer than the limit ends the pass.
+     * @param lastKey Highest key scanned, where the next chunk starts.
+     * @param processed Rows actually changed, reported as the job's rows-processed metric.
+     */
+    record Chunk(int scanned, long lastKey, int processed) {
+    }
+}
@@ -0,0 +1,471 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import com.flipkartclone.ecommercebackend.model.Category;
+import com.flipkartclone.ecommercebackend.repository.CategoryRepository;
+import com.flipkartclone.ecommercebackend.repository.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps node-local catalog state coherent across nodes: the products/categories caches, the catalog snapshot
+ * overlay, the facet index, typeahead names and the catalog price version.
+ * <p>
+ * Writers report what they changed. Changes are collected per transaction and sent as one compact message
+ * ({@code <node>|p:1,2,3|c:4|s:5,6|v:42}) that other nodes only see if the transaction commits; the local caches
+ * are evicted after commit. A change touching more than 100 products or categories is sent as a wildcard
+ * ({@code p:*}) instead. Receiving nodes merge each burst of messages and re-read the changed
+ * rows once; after the channel reconnects they flush everything, since messages may have been missed.
+ * <p>
+ * Stock moved by orders and expiries is reported separately ({@code s:}). Only the in-stock facet and the product
+ * JSON carry live stock, so those are all it refreshes; the entity caches, snapshot overlay and typeahead names
+ * stay as they are under order traffic.
+ */
+@Service
+public class CacheInvalidationService implements InvalidationTransport.Receiver {
+
+    public static final String PRODUCTS_CACHE = "products";
+    public static final String CATEGORIES_CACHE = "categories";
+    public static final String ALL_CATEGORIES_KEY = "all";
+    // Pre-encoded response JSON, see CatalogJsonCache; keyed like the entity caches, plus ALL_PRODUCTS_KEY for the ID list.
+    public static final String PRODUCT_JSON_CACHE = "productJson";
+    public static final String CATEGORY_JSON_CACHE = "categoryJson";
+    public static final String ALL_PRODUCTS_KEY = "all";
+
+    static final int MAX_IDS = 100;
+
+    private final InvalidationTransport transport;
+    private final CacheManager cacheManager;
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final ProductFacetService productFacetService;
+    private final TypeaheadService typeaheadService;
+    private final CatalogVersionService catalogVersionService;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final InventoryService inventoryService;
+    // Not read-only, so refills run on the primary: a replica may not have replayed the change being announced yet.
+    private final TransactionTemplate primaryTransaction;
+    // Per JSON cache, bumped before every eviction so CatalogJsonCache can drop fills that raced one.
+    private final Map<String, FillGenerations> fillGenerations = Map.of(
+            PRODUCT_JSON_CACHE, new FillGenerations(), CATEGORY_JSON_CACHE, new FillGenerations());
+    private final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+    private final Counter sentMessages;
+    private final Counter receivedMessages;
+    private final Counter fullFlushes;
+
+    @Autowired
+    public CacheInvalidationService(InvalidationTransport transport, CacheManager cacheManager,
+                                    ProductRepository productRepository, CategoryRepository categoryRepository,
+                                    ProductFacetService productFacetService, TypeaheadService typeaheadService,
+                                    CatalogVersionService catalogVersionService,
+                                    CatalogSnapshotService catalogSnapshotService, InventoryService inventoryService,
+                                    PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.transport = transport;
+        this.cacheManager = cacheManager;
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.productFacetService = productFacetService;
+        this.typeaheadService = typeaheadService;
+        this.catalogVersionService = catalogVersionService;
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.inventoryService = inventoryService;
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+        this.sentMessages = meterRegistry.counter("cache.invalidation.sent");
+        this.receivedMessages = meterRegistry.counter("cache.invalidation.received");
+        this.fullFlushes = meterRegistry.counter("cache.invalidation.full_flushes");
+    }
+
+    // Listening starts before the facet and typeahead indexes load, so no change falls between the two.
+    @PostConstruct
+    public void start() {
+        transport.start(this);
+    }
+
+    /**
+     * Reports products whose name, price, stock, image or category changed, or that were created or deleted.
+     * @param productIds The IDs of the products.
+     */
+    public void productsChanged(Collection<Long> productIds) {
+        if (!productIds.isEmpty()) {
+            record(changes -> changes.addProducts(productIds));
+        }
+    }
+
+    /**
+     * Reports products whose available stock moved and nothing else, e.g. by an order or an expiry. The caller
+     * updates this node's facet index itself.
+     * @param productIds The IDs of the products.
+     */
+    public void stockChanged(Collection<Long> productIds) {
+        if (!productIds.isEmpty()) {
+            record(changes -> changes.addStock(productIds));
+        }
+    }
+
+    /**
+     * Reports a change to products whose IDs are not known, e.g. a category delete cascading to its products.
+     */
+    public void allProductsChanged() {
+        record(changes -> {
+            changes.allProducts = true;
+            changes.productIds.clear();
+        });
+    }
+
+    /**
+     * Reports categories that were created, renamed or deleted.
+     * @param categoryIds The IDs of the categories.
+     */
+    public void categoriesChanged(Collection<Long> categoryIds) {
+        if (!categoryIds.isEmpty()) {
+            record(changes -> changes.addCategories(categoryIds));
+        }
+    }
+
+    /**
+     * Reports a new catalog price version so other nodes reprice carts without waiting for a restart.
+     * @param priceVersion The version written by the current transaction.
+     */
+    public void priceVersionChanged(long priceVersion) {
+        record(changes -> changes.priceVersion = Math.max(changes.priceVersion, priceVersion));
+    }
+
+    private void record(Consumer<Changes> change) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            Changes changes = new Changes();
+            change.accept(changes);
+            send(changes);
+            evictLocal(changes);
+            return;
+        }
+        Changes changes = (Changes) TransactionSynchronizationManager.getResource(this);
+        if (changes == null) {
+            Changes pending = new Changes();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    send(pending);
+                }
+
+                @Override
+                public void afterCommit() {
+                    evictLocal(pending);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CacheInvalidationService.this);
+                }
+            });
+            changes = pending;
+        }
+        change.accept(changes);
+    }
+
+    private void send(Changes changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        try {
+            transport.send(changes.encode(nodeId));
+            sentMessages.increment();
+        } catch (RuntimeException e) {
+            // Never fail the business write over a lost invalidation; other nodes converge on their next flush.
+            e.printStackTrace();
+        }
+    }
+
+    // This node's facet index, typeahead overlay and price version are already updated by the writers themselves.
+    private void evictLocal(Changes changes) {
+        boolean categoriesChanged = changes.allCategories || !changes.categoryIds.isEmpty();
+        // Cached products carry their category, so a renamed category invalidates all of them. The snapshot is
+        // marked first so that a re-read after the eviction goes to the database.
+        catalogSnapshotService.productsChanged(changes.allProducts || categoriesChanged, changes.productIds);
+        evict(PRODUCTS_CACHE, changes.allProducts || categoriesChanged, changes.productIds);
+        evict(CATEGORIES_CACHE, changes.allCategories, changes.categoryIds);
+        if (categoriesChanged) {
+            cache(CATEGORIES_CACHE).evict(ALL_CATEGORIES_KEY);
+        }
+
+        // Evicted after the entity caches so a re-encode on a miss reads the fresh entities.
+        evict(PRODUCT_JSON_CACHE, changes.allProducts || categoriesChanged, changes.productIds);
+        if (!changes.productIds.isEmpty()) {
+            evictKey(PRODUCT_JSON_CACHE, ALL_PRODUCTS_KEY);
+        }
+        if (categoriesChanged) {
+            // Before the fragments: the list's generation also guards fragments filled along with it.
+            evictKey(CATEGORY_JSON_CACHE, ALL_CATEGORIES_KEY);
+        }
+        evict(CATEGORY_JSON_CACHE, changes.allCategories, changes.categoryIds);
+        // Stock-only changes: the cached product JSON is the only cache holding live stock.
+        evict(PRODUCT_JSON_CACHE, changes.allStock, changes.stockProductIds);
+    }
+
+    @Override
+    public void received(List<String> messages) {
+        Changes merged = new Changes();
+        for (String message : messages) {
+            if (!message.startsWith(nodeId + "|")) {
+                merged.decodeAndMerge(message);
+                receivedMessages.increment();
+            }
+        }
+        if (merged.isEmpty()) {
+            return;
+        }
+        if (merged.priceVersion > 0) {
+            catalogVersionService.advanceTo(merged.priceVersion);
+        }
+        evictLocal(merged);
+        primaryTransaction.executeWithoutResult(status -> {
+            refreshProducts(merged);
+            refreshStock(merged);
+            refreshCategories(merged);
+        });
+    }
+
+    @Override
+    public void reconnected() {
+        fullFlushes.increment();
+        catalogSnapshotService.productsChanged(true, Set.of());
+        cache(PRODUCTS_CACHE).clear();
+        cache(CATEGORIES_CACHE).clear();
+        evict(PRODUCT_JSON_CACHE, true, Set.of());
+        evict(CATEGORY_JSON_CACHE, true, Set.of());
+        catalogVersionService.load();
+        productFacetService.load();
+        typeaheadService.requestRebuild();
+    }
+
+    private void refreshProducts(Changes changes) {
+        if (changes.allProducts) {
+            productFacetService.load();
+            typeaheadService.requestRebuild();
+            return;
+        }
+        if (changes.productIds.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = productRepository.findCatalogRowsByIds(changes.productIds);
+        List<Object[]> facetRows = new ArrayList<>(rows.size());
+        Set<Long> deleted = new TreeSet<>(changes.productIds);
+        for (Object[] row : rows) {
+            Long productId = (Long) row[0];
+            deleted.remove(productId);
+            facetRows.add(new Object[]{productId, row[1], row[2], row[3]});
+            typeaheadService.productChanged(productId, (String) row[4]);
+        }
+        productFacetService.productsChanged(facetRows);
+        for (Long productId : deleted) {
+            productFacetService.productDeleted(productId);
+            typeaheadService.productDeleted(productId);
+        }
+    }
+
+    private void refreshStock(Changes changes) {
+        if (changes.allProducts) {
+            return;
+        }
+        if (changes.allStock) {
+            productFacetService.load();
+            return;
+        }
+        // Products re-read by refreshProducts already got their live stock.
+        Set<Long> productIds = new TreeSet<>(changes.stockProductIds);
+        productIds.removeAll(changes.productIds);
+        productFacetService.stockChanged(inventoryService.findAvailableStock(productIds));
+    }
+
+    private void refreshCategories(Changes changes) {
+        if (changes.allCategories) {
+            typeaheadService.requestRebuild();
+            return;
+        }
+        if (changes.categoryIds.isEmpty()) {
+            return;
+        }
+        Map<Long, Category> categories = categoryRepository.findAllById(changes.categoryIds).stream()
+                .collect(Collectors.toMap(Category::getId, Function.identity()));
+        for (Long categoryId : changes.categoryIds) {
+            Category category = categories.get(categoryId);
+            if (category != null) {
+                typeaheadService.categoryChanged(categoryId, category.getName());
+            } else {
+                typeaheadService.categoryDeleted(categoryId);
+            }
+        }
+    }
+
+    /**
+     * For fills of the JSON caches: read before loading what is put, and compared after the put (see FillGenerations).
+     * @param cacheName PRODUCT_JSON_CACHE or CATEGORY_JSON_CACHE.
+     * @param key The cache key.
+     * @return The key's current fill generation.
+     */
+    public long fillGeneration(String cacheName, Object key) {
+        return fillGenerations.get(cacheName).of(key);
+    }
+
+    private void evict(String cacheName, boolean all, Set<Long> ids) {
+        Cache cache = cache(cacheName);
+        FillGenerations generations = fillGenerations.get(cacheName);
+        if (all) {
+            if (generations != null) {
+                generations.invalidateAll();
+            }
+            cache.clear();
+        } else {
+            for (Long id : ids) {
+                if (generations != null) {
+                    generations.invalidate(id);
+                }
+                cache.evict(id);
+            }
+        }
+    }
+
+    private void evictKey(String cacheName, Object key) {
+        fillGenerations.get(cacheName).invalidate(key);
+        cache(cacheName).evict(key);
+    }
+
+    private Cache cache(String name) {
+        Cache cache = cacheManager.getCache(name);
+        if (cache == null) {
+            throw new IllegalStateException("Cache not configured: " + name);
+        }
+        return cache;
+    }
+
+    /** One transaction's (or one received burst's) worth of changes. */
+    static final class Changes {
+        final Set<Long> productIds = new TreeSet<>();
+        final Set<Long> categoryIds = new TreeSet<>();
+        final Set<Long> stockProductIds = new TreeSet<>();
+        boolean allProducts;
+        boolean allCategories;
+        boolean allStock;
+        long priceVersion;
+
+        void addProducts(Collection<Long> ids) {
+            if (!allProducts) {
+                productIds.addAll(ids);
+                if (productIds.size() > MAX_IDS) {
+                    allProducts = true;
+                    productIds.clear();
+                }
+            }
+        }
+
+        void addCategories(Collection<Long> ids) {
+            if (!allCategories) {
+                categoryIds.addAll(ids);
+                if (categoryIds.size() > MAX_IDS) {
+                    allCategories = true;
+                    categoryIds.clear();
+                }
+            }
+        }
+
+        void addStock(Collection<Long> ids) {
+            if (!allStock) {
+                stockProductIds.addAll(ids);
+                if (stockProductIds.size() > MAX_IDS) {
+                    allStock = true;
+                    stockProductIds.clear();
+                }
+            }
+        }
+
+        boolean isEmpty() {
+            return !allProducts && !allCategories && !allStock && productIds.isEmpty() && categoryIds.isEmpty()
+                    && stockProductIds.isEmpty() && priceVersion == 0;
+        }
+
+        // MAX_IDS product, category and stock IDs of up to 20 characters each stay under
+        // InvalidationTransport.MAX_MESSAGE_BYTES.
+        String encode(String nodeId) {
+            StringBuilder message = new StringBuilder(nodeId);
+            appendIds(message, "p", allProducts, productIds);
+            appendIds(message, "c", allCategories, categoryIds);
+            appendIds(message, "s", allStock, stockProductIds);
+            if (priceVersion > 0) {
+                message.append("|v:").append(priceVersion);
+            }
+            return message.toString();
+        }
+
+        void decodeAndMerge(String message) {
+            String[] segments = message.split("\\|");
+            for (int i = 1; i < segments.length; i++) {
+                String segment = segments[i];
+                String value = segment.substring(2);
+                switch (segment.charAt(0)) {
+                    case 'p' -> {
+                        if (value.equals("*")) {
+                            allProducts = true;
+                            productIds.clear();
+                        } else {
+                            addProducts(parseIds(value));
+                        }
+                    }
+                    case 'c' -> {
+                        if (value.equals("*")) {
+                            allCategories = true;
+                            categoryIds.clear();
+                        } else {
+                            addCategories(parseIds(value));
+                        }
+                    }
+                    case 's' -> {
+                        if (value.equals("*")) {
+                            allStock = true;
+                            stockProductIds.clear();
+                        } else {
+                            addStock(parseIds(value));
+                        }
+                    }
+                    case 'v' -> priceVersion = Math.max(priceVersion, Long.parseLong(value));
+                    default -> System.out.println("Ignoring unknown invalidation segment: " + segment);
+                }
+            }
+        }
+
+        private static void appendIds(StringBuilder message, String kind, boolean all, Set<Long> ids) {
+            if (all) {
+                message.append('|').append(kind).append(":*");
+            } else if (!ids.isEmpty()) {
+                message.append('|').append(kind).append(':');
+                message.append(ids.stream().map(String::valueOf).collect(Collectors.joining(",")));
+            }
+        }
+
+        private static List<Long> parseIds(String value) {
+            List<Long> ids = new ArrayList<>();
+            for (String id : value.split(",")) {
+                ids.add(Long.parseLong(id));
+            }
+            return ids;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import com.flipkartclone.ecommercebackend.repository.CartRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Deletes empty carts that haven't changed for a while. Viewing the cart creates one for every user, so most of
+ * them never hold an item; a user who comes back simply gets a new one.
+ */
+@Component
+public class CartCleanupJob implements BackgroundJob {
+
+    private final CartRepository cartRepository;
+    private final long emptyIdleHours;
+    private final int chunkSize;
+    private final long intervalMillis;
+
+    @Autowired
+    public CartCleanupJob(CartRepository cartRepository,
+                          @Value("${jobs.cart-cleanup.empty-idle-hours:24}") long emptyIdleHours,
+                          @Value("${jobs.cart-cleanup.chunk-size:1000}") int chunkSize,
+                          @Value("${jobs.cart-cleanup.interval-ms:3600000}") long intervalMillis) {
+        this.cartRepository = cartRepository;
+        this.emptyIdleHours = emptyIdleHours;
+        this.chunkSize = chunkSize;
+        this.intervalMillis = intervalMillis;
+    }
+
+    @Override
+    public String name() {
+        return "cart-cleanup";
+    }
+
+    @Override
+    public long intervalMillis() {
+        return intervalMillis;
+    }
+
+    @Override
+    public int chunkSize() {
+        return chunkSize;
+    }
+
+    @Override
+    @Transactional
+    public Chunk processChunk(long afterKey, int limit) {
+        List<Long> scanned = cartRepository.findIdsAfter(afterKey, limit);
+        if (scanned.isEmpty()) {
+            return new Chunk(0, afterKey, 0);
+        }
+        int deleted = cartRepository.deleteEmptyIdleCarts(scanned, LocalDateTime.now().minusHours(emptyIdleHours)).size();
+        return new Chunk(scanned.size(), scanned.get(scanned.size() - 1), deleted);
+    }
+}
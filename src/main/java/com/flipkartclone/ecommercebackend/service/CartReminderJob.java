@@ -0,0 +1,176 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import com.flipkartclone.ecommercebackend.model.Money;
+import com.flipkartclone.ecommercebackend.repository.CartRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Emails users whose cart has held items untouched for the configured number of hours. Each chunk first claims
+ * its carts (sets reminder_sent_at) in a short transaction and only then renders and sends, in paced batches over
+ * one SMTP connection each, so a cart is reminded at most once per idle spell. Changing the cart clears the claim.
+ */
+@Component
+public class CartReminderJob implements BackgroundJob {
+
+    private static final int MAX_LINES_LISTED = 5;
+
+    private static final String REMINDER_LINES_SQL =
+            "SELECT c.id, u.email, u.first_name, p.name, ci.quantity, ci.price_at_purchase_minor " +
+            "FROM carts c JOIN users u ON u.id = c.user_id " +
+            "JOIN cart_items ci ON ci.cart_id = c.id JOIN products p ON p.id = ci.product_id " +
+            "WHERE c.id = ANY(?) ORDER BY c.id, ci.id";
+
+    private final CartRepository cartRepository;
+    private final EmailService emailService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter sentCounter;
+    private final Counter failedCounter;
+    private final long idleHours;
+    private final int chunkSize;
+    private final long intervalMillis;
+    private final int sendBatchSize;
+    private final int maxPerSecond;
+
+    // Only touched by the job thread holding the job's lock.
+    private long nextSendAtNanos = System.nanoTime();
+
+    @Autowired
+    public CartReminderJob(CartRepository cartRepository, EmailService emailService, JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                           @Value("${jobs.cart-reminders.idle-hours:24}") long idleHours,
+                           @Value("${jobs.cart-reminders.chunk-size:1000}") int chunkSize,
+                           @Value("${jobs.cart-reminders.interval-ms:900000}") long intervalMillis,
+                           @Value("${jobs.cart-reminders.send-batch-size:50}") int sendBatchSize,
+                           @Value("${jobs.cart-reminders.max-per-second:20}") int maxPerSecond) {
+        this.cartRepository = cartRepository;
+        this.emailService = emailService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sentCounter = Counter.builder("cart.reminders.sent").register(meterRegistry);
+        this.failedCounter = Counter.builder("cart.reminders.failed").register(meterRegistry);
+        this.idleHours = idleHours;
+        this.chunkSize = chunkSize;
+        this.intervalMillis = intervalMillis;
+        this.sendBatchSize = sendBatchSize;
+        this.maxPerSecond = maxPerSecond;
+    }
+
+    @Override
+    public String name() {
+        return "cart-reminders";
+    }
+
+    @Override
+    public long intervalMillis() {
+        return intervalMillis;
+    }
+
+    @Override
+    public int chunkSize() {
+        return chunkSize;
+    }
+
+    @Override
+    public Chunk processChunk(long afterKey, int limit) {
+        List<Long> scanned = cartRepository.findUnremindedIdsAfter(afterKey, limit);
+        if (scanned.isEmpty()) {
+            return new Chunk(0, afterKey, 0);
+        }
+        LocalDateTime idleBefore = LocalDateTime.now().minusHours(idleHours);
+        List<Long> claimed = transactionTemplate.execute(status -> cartRepository.claimIdleCartsForReminder(scanned, idleBefore));
+
+        int sent = 0;
+        if (claimed != null && !claimed.isEmpty()) {
+            sent = send(render(claimed));
+        }
+        return new Chunk(scanned.size(), scanned.get(scanned.size() - 1), sent);
+    }
+
+    private List<SimpleMailMessage> render(List<Long> cartIds) {
+        List<SimpleMailMessage> messages = new ArrayList<>(cartIds.size());
+        StringBuilder body = new StringBuilder();
+        long[] currentCart = {-1L};
+        String[] recipient = new String[1];
+        int[] lines = new int[1];
+        long[] total = new long[1];
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(REMINDER_LINES_SQL);
+            statement.setArray(1, connection.createArrayOf("bigint", cartIds.toArray(new Long[0])));
+            return statement;
+        }, rs -> {
+            long cartId = rs.getLong(1);
+            if (cartId != currentCart[0]) {
+                if (recipient[0] != null) {
+                    messages.add(finish(recipient[0], body, lines[0], total[0]));
+                }
+                currentCart[0] = cartId;
+                recipient[0] = rs.getString(2);
+                lines[0] = 0;
+                total[0] = 0;
+                body.setLength(0);
+                body.append("Hi ").append(rs.getString(3)).append(",\n\nYou left these items in your cart:\n");
+            }
+            int quantity = rs.getInt(5);
+            long lineTotal = Money.times(rs.getLong(6), quantity);
+            total[0] = Money.plus(total[0], lineTotal);
+            if (++lines[0] <= MAX_LINES_LISTED) {
+                body.append("  ").append(rs.getString(4)).append(" x ").append(quantity)
+                        .append(" - Rs. ").append(Money.toString(lineTotal)).append('\n');
+            }
+        });
+        if (recipient[0] != null) {
+            messages.add(finish(recipient[0], body, lines[0], total[0]));
+        }
+        return messages;
+    }
+
+    private SimpleMailMessage finish(String to, StringBuilder body, int lines, long total) {
+        if (lines > MAX_LINES_LISTED) {
+            body.append("  and ").append(lines - MAX_LINES_LISTED).append(" more\n");
+        }
+        body.append("\nCart total: Rs. ").append(Money.toString(total))
+                .append("\n\nPrices and stock may change, so complete your order soon.");
+        return emailService.message(to, "You left something in your cart", body.toString());
+    }
+
+    // Sends in batches of send-batch-size, waiting before each batch as needed to stay under max-per-second.
+    private int send(List<SimpleMailMessage> messages) {
+        int sent = 0;
+        for (int from = 0; from < messages.size(); from += sendBatchSize) {
+            List<SimpleMailMessage> batch = messages.subList(from, Math.min(from + sendBatchSize, messages.size()));
+            try {
+                long waitNanos = nextSendAtNanos - System.nanoTime();
+                if (waitNanos > 0) {
+                    TimeUnit.NANOSECONDS.sleep(waitNanos);
+                }
+            } catch (InterruptedException e) {
+                // Claimed carts that weren't sent are not retried, as for any other failed send.
+                Thread.currentThread().interrupt();
+                break;
+            }
+            nextSendAtNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(batch.size()) / maxPerSecond;
+
+            int accepted = emailService.sendBatch(batch);
+            sent += accepted;
+            sentCounter.increment(accepted);
+            failedCounter.increment(batch.size() - accepted);
+        }
+        return sent;
+    }
+}
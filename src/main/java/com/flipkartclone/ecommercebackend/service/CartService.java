@@ -11,13 +11,16 @@ import com.flipkartclone.ecommercebackend.repository.CartRepository;
 import com.flipkartclone.ecommercebackend.repository.ProductRepository;
 import com.flipkartclone.ecommercebackend.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.sql.PreparedStatement;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -27,14 +30,46 @@ public class CartService {
     private final CartItemRepository cartItemRepository;
     private final UserRepository userRepository;
     private final ProductRepository productRepository;
+    private final CatalogVersionService catalogVersionService;
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxMergedQuantity;
+    private final int mergeRetentionDays;
+
+    // Claims the guest cart, creates the user's cart if needed and upserts every guest line in one statement. A guest
+    // cart that was already claimed inserts nothing. Quantities of products already in the cart are summed, capped at
+    // the maximum quantity and the available stock but never below what the user already had; products that no
+    // longer exist or are out of stock are skipped. A few expired claims are purged on the way.
+    private static final String MERGE_GUEST_CART_SQL =
+            "WITH claim AS (INSERT INTO guest_cart_merges (guest_cart_id, user_id, merged_at) VALUES (?, ?, now()) " +
+            "ON CONFLICT DO NOTHING RETURNING guest_cart_id), " +
+            "purge AS (DELETE FROM guest_cart_merges WHERE guest_cart_id IN (SELECT guest_cart_id FROM guest_cart_merges " +
+            "WHERE merged_at < now() - make_interval(days => ?) LIMIT 100 FOR UPDATE SKIP LOCKED)), " +
+            "cart AS (INSERT INTO carts (user_id, price_version, updated_at) SELECT ?, ?, now() FROM claim " +
+            "ON CONFLICT (user_id) DO UPDATE SET updated_at = now(), reminder_sent_at = NULL RETURNING id) " +
+            "INSERT INTO cart_items (cart_id, product_id, quantity, price_at_purchase_minor) " +
+            "SELECT cart.id, p.id, LEAST(g.quantity, ?, a.available), p.price_minor FROM cart " +
+            "CROSS JOIN unnest(?::bigint[], ?::integer[]) AS g(product_id, quantity) " +
+            "JOIN products p ON p.id = g.product_id " +
+            "CROSS JOIN LATERAL (SELECT " + InventoryService.PRODUCT_AVAILABLE_SQL + " AS available) a " +
+            "WHERE a.available > 0 " +
+            "ON CONFLICT (cart_id, product_id) DO UPDATE SET quantity = GREATEST(cart_items.quantity, " +
+            "LEAST(cart_items.quantity + EXCLUDED.quantity, ?, " +
+            "(SELECT " + InventoryService.PRODUCT_AVAILABLE_SQL + " FROM products p WHERE p.id = EXCLUDED.product_id)))";
 
     @Autowired
     public CartService(CartRepository cartRepository, CartItemRepository cartItemRepository,
-                       UserRepository userRepository, ProductRepository productRepository) {
+                       UserRepository userRepository, ProductRepository productRepository,
+                       CatalogVersionService catalogVersionService, JdbcTemplate jdbcTemplate,
+                       @Value("${guest-cart.max-quantity:99}") int maxMergedQuantity,
+                       @Value("${guest-cart.max-age-days:30}") int mergeRetentionDays) {
         this.cartRepository = cartRepository;
         this.cartItemRepository = cartItemRepository;
         this.userRepository = userRepository;
         this.productRepository = productRepository;
+        this.catalogVersionService = catalogVersionService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxMergedQuantity = maxMergedQuantity;
+        this.mergeRetentionDays = mergeRetentionDays;
     }
 
     @Transactional
@@ -44,12 +79,49 @@ public class CartService {
 
         Optional<Cart> existingCartWithItems = cartRepository.findByUserIdWithItems(userId);
 
-        return existingCartWithItems
-                .orElseGet(() -> {
-                    Cart newCart = new Cart();
-                    newCart.setUser(user);
-                    return cartRepository.save(newCart);
-                });
+        if (existingCartWithItems.isPresent()) {
+            Cart cart = existingCartWithItems.get();
+            repriceIfStale(cart);
+            return cart;
+        }
+
+        Cart newCart = new Cart();
+        newCart.setUser(user);
+        newCart.setPriceVersion(catalogVersionService.getPriceVersion());
+        newCart.setUpdatedAt(LocalDateTime.now());
+        return cartRepository.save(newCart);
+    }
+
+    /**
+     * Refreshes item prices only when some catalog price changed since the cart was last priced.
+     * Products are already join-fetched with the cart, so repricing issues no extra reads.
+     */
+    private void repriceIfStale(Cart cart) {
+        long currentVersion = catalogVersionService.getPriceVersion();
+        if (cart.getPriceVersion() >= currentVersion) {
+            return;
+        }
+        reprice(cart);
+        cart.setPriceVersion(currentVersion);
+    }
+
+    /**
+     * Sets every line to its product's current price, whatever the cart's price version. The local price version
+     * can trail a change made on another node, so prices that are charged must not rely on it.
+     * @param cart A cart loaded with its products in the caller's transaction.
+     */
+    public void reprice(Cart cart) {
+        for (CartItem cartItem : cart.getCartItems()) {
+            if (cartItem.getPriceAtPurchaseMinor() != cartItem.getProduct().getPriceMinor()) {
+                cartItem.setPriceAtPurchaseMinor(cartItem.getProduct().getPriceMinor());
+            }
+        }
+    }
+
+    // Marks the cart as changed by the user; the update is flushed with the cart line change.
+    private void touch(Cart cart) {
+        cart.setUpdatedAt(LocalDateTime.now());
+        cart.setReminderSentAt(null);
     }
 
     @Transactional
@@ -74,10 +146,11 @@ public class CartService {
             cartItem.setCart(cart);
             cartItem.setProduct(product);
             cartItem.setQuantity(quantity);
-            cartItem.setPriceAtPurchase(product.getPrice());
+            cartItem.setPriceAtPurchaseMinor(product.getPriceMinor());
             cart.getCartItems().add(cartItem);
         }
 
+        touch(cart);
         return cartItemRepository.save(cartItem);
     }
 
@@ -94,6 +167,7 @@ public class CartService {
         if (cartItemOptional.isPresent()) {
             CartItem cartItem = cartItemOptional.get();
             cartItem.setQuantity(newQuantity);
+            touch(cart);
             return Optional.of(cartItemRepository.save(cartItem));
         }
         return Optional.empty();
@@ -109,8 +183,41 @@ public class CartService {
             CartItem cartItem = cartItemOptional.get();
             cart.getCartItems().remove(cartItem);
             cartItemRepository.delete(cartItem);
+            touch(cart);
             return true;
         }
         return false;
     }
-}
\ No newline at end of file
+
+    /**
+     * Merges a guest cart into the user's persistent cart with a single batched upsert, unless that guest cart was
+     * already merged.
+     * @param userId The ID of the user who just logged in.
+     * @param guestCartId The guest cart's ID from its token.
+     * @param guestItems Product ID to quantity from the guest cart token.
+     * @return The number of cart lines inserted or updated; 0 if the guest cart was already merged.
+     */
+    @Transactional
+    public int mergeGuestCart(Long userId, long guestCartId, Map<Long, Integer> guestItems) {
+        if (guestItems.isEmpty()) {
+            return 0;
+        }
+        Long[] productIds = guestItems.keySet().toArray(new Long[0]);
+        Integer[] quantities = guestItems.values().toArray(new Integer[0]);
+        long priceVersion = catalogVersionService.getPriceVersion();
+
+        return jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(MERGE_GUEST_CART_SQL);
+            statement.setLong(1, guestCartId);
+            statement.setLong(2, userId);
+            statement.setInt(3, mergeRetentionDays);
+            statement.setLong(4, userId);
+            statement.setLong(5, priceVersion);
+            statement.setInt(6, maxMergedQuantity);
+            statement.setArray(7, connection.createArrayOf("bigint", productIds));
+            statement.setArray(8, connection.createArrayOf("integer", quantities));
+            statement.setInt(9, maxMergedQuantity);
+            return statement;
+        });
+    }
+}
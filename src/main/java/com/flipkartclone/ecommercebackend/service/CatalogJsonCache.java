@@ -0,0 +1,235 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flipkartclone.ecommercebackend.dto.ProductResponse;
+import com.flipkartclone.ecommercebackend.model.Category;
+import com.flipkartclone.ecommercebackend.model.product.Product;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Product and category JSON, encoded once and served as UTF-8 bytes so catalog reads skip DTO mapping and
+ * Jackson. Each product and category is cached as its own fragment; list responses are built by concatenating
+ * fragments, so one changed product only re-encodes that product. Entries are evicted by CacheInvalidationService
+ * together with the entity caches they are built from. Every fill reads the key's fill generation before loading and
+ * drops its entry again if an eviction happened meanwhile, so a read that loaded the old row can't cache it after
+ * the writer's eviction.
+ */
+@Service
+public class CatalogJsonCache {
+
+    private static final byte[] EMPTY_ARRAY = {'[', ']'};
+
+    private final ProductService productService;
+    private final CategoryService categoryService;
+    private final InventoryService inventoryService;
+    private final CacheInvalidationService cacheInvalidationService;
+    private final ObjectMapper objectMapper;
+    private final Cache productJson;
+    private final Cache categoryJson;
+
+    @Autowired
+    public CatalogJsonCache(ProductService productService, CategoryService categoryService, InventoryService inventoryService,
+                            CacheInvalidationService cacheInvalidationService, ObjectMapper objectMapper,
+                            CacheManager cacheManager) {
+        this.productService = productService;
+        this.categoryService = categoryService;
+        this.inventoryService = inventoryService;
+        this.cacheInvalidationService = cacheInvalidationService;
+        this.objectMapper = objectMapper;
+        this.productJson = cacheManager.getCache(CacheInvalidationService.PRODUCT_JSON_CACHE);
+        this.categoryJson = cacheManager.getCache(CacheInvalidationService.CATEGORY_JSON_CACHE);
+    }
+
+    /**
+     * Maps a product to the API representation that the cached JSON is encoded from.
+     * @param product The product, with its category loaded.
+     * @return The response DTO.
+     */
+    public ProductResponse toResponse(Product product) {
+        ProductResponse dto = new ProductResponse();
+        dto.setId(product.getId());
+        dto.setName(product.getName());
+        dto.setDescription(product.getDescription());
+        dto.setPrice(product.getPriceMinor());
+        dto.setStockQuantity(product.getStockQuantity());
+        dto.setImageUrl(product.getImageUrl());
+        if (product.getImageHash() != null) {
+            dto.setImageVariants(ImageVariant.urlsFor(product.getImageHash()));
+        }
+        if (product.getCategory() != null) {
+            dto.setCategoryId(product.getCategory().getId());
+            dto.setCategoryName(product.getCategory().getName());
+        }
+        return dto;
+    }
+
+    /**
+     * @param id The ID of the product.
+     * @return The product's JSON, or empty if it doesn't exist.
+     */
+    public Optional<byte[]> productJson(Long id) {
+        byte[] json = productJson.get(id, byte[].class);
+        if (json != null) {
+            return Optional.of(json);
+        }
+        long generation = productGeneration(id);
+        return productService.getProductById(id)
+                .map(product -> encodeProduct(product, inventoryService.availableQuantities(List.of(id)), generation));
+    }
+
+    /**
+     * @return The JSON array of all products in ID order. Only products missing from the cache are loaded,
+     * in one query.
+     */
+    public byte[] productListJson() {
+        List<Long> ids = productIds();
+        byte[][] fragments = new byte[ids.size()][];
+        Map<Long, Integer> missing = new HashMap<>();
+        Map<Long, Long> generations = new HashMap<>();
+        for (int i = 0; i < fragments.length; i++) {
+            fragments[i] = productJson.get(ids.get(i), byte[].class);
+            if (fragments[i] == null) {
+                missing.put(ids.get(i), i);
+                generations.put(ids.get(i), productGeneration(ids.get(i)));
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            Map<Long, Integer> available = inventoryService.availableQuantities(missing.keySet());
+            for (Product product : productService.getProductsByIds(missing.keySet())) {
+                fragments[missing.get(product.getId())] = encodeProduct(product, available, generations.get(product.getId()));
+            }
+        }
+        return concat(fragments);
+    }
+
+    /**
+     * @param id The ID of the category.
+     * @return The category's JSON, or empty if it doesn't exist.
+     */
+    public Optional<byte[]> categoryJson(Long id) {
+        byte[] json = categoryJson.get(id, byte[].class);
+        if (json != null) {
+            return Optional.of(json);
+        }
+        long generation = categoryGeneration(id);
+        return categoryService.getCategoryById(id).map(category -> encodeCategory(category, id, generation));
+    }
+
+    /**
+     * @return The JSON array of all categories, assembled from the per-category fragments and cached whole.
+     */
+    public byte[] categoryListJson() {
+        byte[] json = categoryJson.get(CacheInvalidationService.ALL_CATEGORIES_KEY, byte[].class);
+        if (json != null) {
+            return json;
+        }
+        // Every category change also evicts the list, so its generation guards the fragments loaded with it.
+        long generation = categoryGeneration(CacheInvalidationService.ALL_CATEGORIES_KEY);
+        List<Category> categories = categoryService.getAllCategories();
+        byte[][] fragments = new byte[categories.size()][];
+        for (int i = 0; i < fragments.length; i++) {
+            Category category = categories.get(i);
+            fragments[i] = categoryJson.get(category.getId(), byte[].class);
+            if (fragments[i] == null) {
+                fragments[i] = encodeCategory(category, CacheInvalidationService.ALL_CATEGORIES_KEY, generation);
+            }
+        }
+        json = concat(fragments);
+        fill(categoryJson, CacheInvalidationService.CATEGORY_JSON_CACHE, CacheInvalidationService.ALL_CATEGORIES_KEY, json,
+                CacheInvalidationService.ALL_CATEGORIES_KEY, generation);
+        return json;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Long> productIds() {
+        List<Long> ids = productJson.get(CacheInvalidationService.ALL_PRODUCTS_KEY, List.class);
+        if (ids == null) {
+            long generation = productGeneration(CacheInvalidationService.ALL_PRODUCTS_KEY);
+            ids = List.copyOf(productService.getAllProductIds());
+            fill(productJson, CacheInvalidationService.PRODUCT_JSON_CACHE, CacheInvalidationService.ALL_PRODUCTS_KEY, ids,
+                    CacheInvalidationService.ALL_PRODUCTS_KEY, generation);
+        }
+        return ids;
+    }
+
+    // Stock comes from the inventory ledger: the entity's stock_quantity only changes when the ledger is compacted.
+    private byte[] encodeProduct(Product product, Map<Long, Integer> available, long generation) {
+        ProductResponse dto = toResponse(product);
+        dto.setStockQuantity(available.getOrDefault(product.getId(), product.getStockQuantity()));
+        byte[] json = encode(dto);
+        fill(productJson, CacheInvalidationService.PRODUCT_JSON_CACHE, product.getId(), json, product.getId(), generation);
+        return json;
+    }
+
+    private byte[] encodeCategory(Category category, Object guardKey, long generation) {
+        byte[] json = encode(category);
+        fill(categoryJson, CacheInvalidationService.CATEGORY_JSON_CACHE, category.getId(), json, guardKey, generation);
+        return json;
+    }
+
+    private long productGeneration(Object key) {
+        return cacheInvalidationService.fillGeneration(CacheInvalidationService.PRODUCT_JSON_CACHE, key);
+    }
+
+    private long categoryGeneration(Object key) {
+        return cacheInvalidationService.fillGeneration(CacheInvalidationService.CATEGORY_JSON_CACHE, key);
+    }
+
+    // Puts the entry, then takes it out again if guardKey's generation moved since the entry's source was loaded.
+    private void fill(Cache cache, String cacheName, Object key, Object value, Object guardKey, long generation) {
+        cache.put(key, value);
+        if (cacheInvalidationService.fillGeneration(cacheName, guardKey) != generation) {
+            cache.evict(key);
+        }
+    }
+
+    private byte[] encode(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to encode catalog JSON: " + e.getMessage(), e);
+        }
+    }
+
+    // One exactly sized copy: '[' fragment (',' fragment)* ']'. Null fragments (deleted meanwhile) are skipped.
+    private static byte[] concat(byte[][] fragments) {
+        int length = 2;
+        int count = 0;
+        for (byte[] fragment : fragments) {
+            if (fragment != null) {
+                length += fragment.length;
+                count++;
+            }
+        }
+        if (count == 0) {
+            return EMPTY_ARRAY.clone();
+        }
+        length += count - 1;
+
+        byte[] json = new byte[length];
+        int position = 0;
+        json[position++] = '[';
+        for (byte[] fragment : fragments) {
+            if (fragment == null) {
+                continue;
+            }
+            if (position > 1) {
+                json[position++] = ',';
+            }
+            System.arraycopy(fragment, 0, json, position, fragment.length);
+            position += fragment.length;
+        }
+        json[position] = ']';
+        return json;
+    }
+}
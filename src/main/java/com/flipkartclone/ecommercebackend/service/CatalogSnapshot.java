@@ -0,0 +1,276 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import com.flipkartclone.ecommercebackend.model.Category;
+import com.flipkartclone.ecommercebackend.model.product.Product;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+/**
+ * Immutable product catalog read from a memory-mapped snapshot file, so the catalog lives off-heap.
+ * <p>
+ * Layout: a 32-byte header, a string arena, then one fixed-width record per product sorted by ID. A record holds
+ * the numeric fields plus the arena offset and UTF-8 lengths of the product's strings (name, description, image URL,
+ * image hash, category name), which are stored back to back. Lookups binary-search the records, and only the
+ * product being read is materialized on the heap. The arena is mapped in 1 GB segments; the writer never lets one
+ * product's strings straddle two.
+ */
+final class CatalogSnapshot {
+
+    private static final int MAGIC = 0x43415453; // "CATS"
+    private static final int FORMAT = 1;
+    private static final int HEADER_BYTES = 32;
+
+    private static final int RECORD_BYTES = 56;
+    private static final int MAX_RECORDS = Integer.MAX_VALUE / RECORD_BYTES;
+    private static final int STRING_COUNT = 5;
+
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_BYTES = 1L << SEGMENT_SHIFT;
+
+    private final long version;
+    private final int count;
+    private final long fileBytes;
+    private final MappedByteBuffer records;
+    private final MappedByteBuffer[] arena;
+
+    private CatalogSnapshot(long version, int count, long fileBytes, MappedByteBuffer records, MappedByteBuffer[] arena) {
+        this.version = version;
+        this.count = count;
+        this.fileBytes = fileBytes;
+        this.records = records;
+        this.arena = arena;
+    }
+
+    /**
+     * Maps a snapshot file. The mapping stays valid after the file is replaced by a newer snapshot.
+     * @param path The snapshot file.
+     * @return The mapped snapshot.
+     * @throws IOException if the file can't be read or isn't a complete snapshot.
+     */
+    static CatalogSnapshot open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IOException("Not a catalog snapshot: " + path);
+            }
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            if (header.getInt(0) != MAGIC || header.getInt(4) != FORMAT) {
+                throw new IOException("Not a catalog snapshot: " + path);
+            }
+            long version = header.getLong(8);
+            long recordsOffset = header.getLong(16);
+            int count = header.getInt(24);
+            long recordBytes = (long) count * RECORD_BYTES;
+            if (count < 0 || count > MAX_RECORDS || recordsOffset < HEADER_BYTES || recordsOffset + recordBytes != channel.size()) {
+                throw new IOException("Truncated catalog snapshot: " + path);
+            }
+
+            MappedByteBuffer records = channel.map(FileChannel.MapMode.READ_ONLY, recordsOffset, recordBytes);
+            long arenaBytes = recordsOffset - HEADER_BYTES;
+            MappedByteBuffer[] arena = new MappedByteBuffer[(int) ((arenaBytes + SEGMENT_BYTES - 1) >>> SEGMENT_SHIFT)];
+            for (int i = 0; i < arena.length; i++) {
+                long start = (long) i << SEGMENT_SHIFT;
+                arena[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES + start, Math.min(SEGMENT_BYTES, arenaBytes - start));
+            }
+            return new CatalogSnapshot(version, count, channel.size(), records, arena);
+        }
+    }
+
+    /**
+     * @return Database time (epoch millis) at which the scan that wrote this snapshot started.
+     */
+    long version() {
+        return version;
+    }
+
+    int size() {
+        return count;
+    }
+
+    long fileBytes() {
+        return fileBytes;
+    }
+
+    /**
+     * @param id The ID of the product.
+     * @return A detached product, with a category carrying only ID and name, or empty if it's not in the snapshot.
+     */
+    Optional<Product> find(long id) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long midId = records.getLong(mid * RECORD_BYTES);
+            if (midId < id) {
+                low = mid + 1;
+            } else if (midId > id) {
+                high = mid - 1;
+            } else {
+                return Optional.of(materialize(mid * RECORD_BYTES));
+            }
+        }
+        return Optional.empty();
+    }
+
+    private Product materialize(int base) {
+        long offset = records.getLong(base + 24);
+        MappedByteBuffer segment = arena[(int) (offset >>> SEGMENT_SHIFT)];
+        int position = (int) (offset & (SEGMENT_BYTES - 1));
+        String[] strings = new String[STRING_COUNT];
+        for (int i = 0; i < STRING_COUNT; i++) {
+            int length = records.getInt(base + 36 + 4 * i);
+            if (length >= 0) {
+                byte[] bytes = new byte[length];
+                segment.get(position, bytes);
+                strings[i] = new String(bytes, StandardCharsets.UTF_8);
+                position += length;
+            }
+        }
+
+        Category category = new Category();
+        category.setId(records.getLong(base + 8));
+        category.setName(strings[4]);
+        Product product = new Product();
+        product.setId(records.getLong(base));
+        product.setPriceMinor(records.getLong(base + 16));
+        product.setStockQuantity(records.getInt(base + 32));
+        product.setName(strings[0]);
+        product.setDescription(strings[1]);
+        product.setImageUrl(strings[2]);
+        product.setImageHash(strings[3]);
+        product.setCategory(category);
+        return product;
+    }
+
+    /**
+     * Streams products into a new snapshot file. The arena goes straight into a temp file next to the target and
+     * the records into a second one that is appended at the end; the finished file then replaces the target in
+     * one atomic move, so readers only ever see complete snapshots. The temp files get unique names, so instances
+     * sharing a snapshot directory can write at the same time; the last one to finish wins.
+     */
+    static final class Writer implements Closeable {
+
+        private final Path target;
+        private final Path arenaFile;
+        private final Path recordsFile;
+        private final DataOutputStream arenaOut;
+        private final DataOutputStream recordsOut;
+        private long arenaPosition;
+        private int count;
+        private long lastId = Long.MIN_VALUE;
+        private boolean finished;
+
+        Writer(Path target) throws IOException {
+            this.target = target;
+            Path directory = target.toAbsolutePath().getParent();
+            String prefix = target.getFileName() + ".";
+            this.arenaFile = Files.createTempFile(directory, prefix, ".tmp");
+            try {
+                this.recordsFile = Files.createTempFile(directory, prefix, ".records.tmp");
+            } catch (IOException e) {
+                Files.deleteIfExists(arenaFile);
+                throw e;
+            }
+            this.arenaOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(arenaFile), 1 << 16));
+            this.recordsOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(recordsFile), 1 << 16));
+            arenaOut.write(new byte[HEADER_BYTES]); // written for real by finish()
+        }
+
+        /**
+         * Adds a product; products must be added in ascending ID order.
+         */
+        void add(long id, long categoryId, long priceMinor, int stockQuantity, String name, String description,
+                 String imageUrl, String imageHash, String categoryName) throws IOException {
+            if (id <= lastId) {
+                throw new IllegalArgumentException("Products must be added in ascending ID order, got " + id + " after " + lastId);
+            }
+            if (count == MAX_RECORDS) {
+                throw new IOException("Too many products for one catalog snapshot");
+            }
+            byte[][] strings = {utf8(name), utf8(description), utf8(imageUrl), utf8(imageHash), utf8(categoryName)};
+            long length = 0;
+            for (byte[] string : strings) {
+                length += string == null ? 0 : string.length;
+            }
+            if (length > SEGMENT_BYTES) {
+                throw new IOException("Product " + id + " has more text than fits in a snapshot arena segment");
+            }
+            long used = arenaPosition & (SEGMENT_BYTES - 1);
+            if (used + length > SEGMENT_BYTES) {
+                int padding = (int) (SEGMENT_BYTES - used);
+                arenaOut.write(new byte[padding]);
+                arenaPosition += padding;
+            }
+
+            recordsOut.writeLong(id);
+            recordsOut.writeLong(categoryId);
+            recordsOut.writeLong(priceMinor);
+            recordsOut.writeLong(arenaPosition);
+            recordsOut.writeInt(stockQuantity);
+            for (byte[] string : strings) {
+                recordsOut.writeInt(string == null ? -1 : string.length);
+                if (string != null) {
+                    arenaOut.write(string);
+                }
+            }
+            arenaPosition += length;
+            count++;
+            lastId = id;
+        }
+
+        int count() {
+            return count;
+        }
+
+        /**
+         * Completes the file and moves it into place.
+         * @param version Database time (epoch millis) at which the scan started.
+         */
+        void finish(long version) throws IOException {
+            arenaOut.close();
+            recordsOut.close();
+            long recordsOffset = HEADER_BYTES + arenaPosition;
+            try (FileChannel channel = FileChannel.open(arenaFile, StandardOpenOption.WRITE);
+                 FileChannel records = FileChannel.open(recordsFile, StandardOpenOption.READ)) {
+                long size = records.size();
+                long copied = 0;
+                while (copied < size) {
+                    copied += channel.transferFrom(records, recordsOffset + copied, size - copied);
+                }
+
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                header.putInt(MAGIC).putInt(FORMAT).putLong(version).putLong(recordsOffset).putInt(count).putInt(0);
+                header.flip();
+                channel.write(header, 0);
+                channel.force(true);
+            }
+            Files.move(arenaFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            finished = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            arenaOut.close();
+            recordsOut.close();
+            Files.deleteIfExists(recordsFile);
+            if (!finished) {
+                Files.deleteIfExists(arenaFile);
+            }
+        }
+
+        private static byte[] utf8(String value) {
+            return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import com.flipkartclone.ecommercebackend.model.product.Product;
+import com.flipkartclone.ecommercebackend.repository.ProductRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serves product reads from a memory-mapped CatalogSnapshot instead of on-heap entity caching.
+ * <p>
+ * Each node periodically writes its own snapshot file from ProductRepository and maps it; on restart it maps the
+ * existing file and only asks the database which products were updated or deleted since, so a warm start doesn't
+ * re-read the catalog. Products changed after a snapshot's scan started (reported through CacheInvalidationService)
+ * are kept in a small overlay and read from the database until the next snapshot covers them.
+ */
+@Service
+public class CatalogSnapshotService {
+
+    private static final String NOW_SQL = "SELECT localtimestamp";
+
+    private final ProductRepository productRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final Path path;
+    private final int pageSize;
+    private final long deltaMarginMillis;
+    private final int overlayRewriteThreshold;
+    private final Timer loadTimer;
+    private final Timer writeTimer;
+
+    private volatile Mapped mapped;
+    // Product ID -> change sequence, for products whose snapshot entry may be stale.
+    private final Map<Long, Long> overlay = new ConcurrentHashMap<>();
+    private final AtomicLong changeSequence = new AtomicLong();
+    private volatile long allChangedSequence;
+
+    private final ExecutorService writeExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "catalog-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean writeQueued = new AtomicBoolean();
+
+    @Autowired
+    public CatalogSnapshotService(ProductRepository productRepository, JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+                                  @Value("${catalog.snapshot.enabled:true}") boolean enabled,
+                                  @Value("${catalog.snapshot.path:data/catalog.snapshot}") String path,
+                                  @Value("${catalog.snapshot.page-size:5000}") int pageSize,
+                                  @Value("${catalog.snapshot.delta-margin-ms:300000}") long deltaMarginMillis,
+                                  @Value("${catalog.snapshot.overlay-rewrite-threshold:100000}") int overlayRewriteThreshold) {
+        this.productRepository = productRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.path = Paths.get(path).toAbsolutePath();
+        this.pageSize = pageSize;
+        this.deltaMarginMillis = deltaMarginMillis;
+        this.overlayRewriteThreshold = overlayRewriteThreshold;
+        this.loadTimer = Timer.builder("catalog.snapshot.load").register(meterRegistry);
+        this.writeTimer = Timer.builder("catalog.snapshot.write").register(meterRegistry);
+        Gauge.builder("catalog.snapshot.products", this, service -> service.mapped == null ? 0 : service.mapped.snapshot.size())
+                .register(meterRegistry);
+        Gauge.builder("catalog.snapshot.bytes", this, service -> service.mapped == null ? 0 : service.mapped.snapshot.fileBytes())
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("catalog.snapshot.overlay", overlay, Map::size).register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writeExecutor.shutdownNow();
+    }
+
+    /**
+     * @param id The ID of the product.
+     * @return True if reads of this product are answered by the snapshot (including "doesn't exist").
+     */
+    public boolean serves(Long id) {
+        Mapped current = mapped;
+        return current != null && allChangedSequence <= current.coveredSequence && !overlay.containsKey(id);
+    }
+
+    /**
+     * @param id The ID of the product.
+     * @return A detached product from the snapshot, or empty if the snapshot doesn't serve this ID or has no such product.
+     */
+    public Optional<Product> findProduct(Long id) {
+        Mapped current = mapped;
+        if (current == null || !serves(id)) {
+            return Optional.empty();
+        }
+        return current.snapshot.find(id);
+    }
+
+    /**
+     * Marks products as changed, so they are read from the database until a newer snapshot covers them.
+     * @param all True if the changed products aren't known, e.g. after a category rename or a missed notification.
+     * @param productIds The IDs of the changed products.
+     */
+    public void productsChanged(boolean all, Collection<Long> productIds) {
+        if (!enabled) {
+            return;
+        }
+        long sequence = changeSequence.incrementAndGet();
+        if (all) {
+            allChangedSequence = sequence;
+            requestWrite();
+            return;
+        }
+        for (Long productId : productIds) {
+            overlay.put(productId, sequence);
+        }
+        if (overlay.size() >= overlayRewriteThreshold) {
+            requestWrite();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        if (!enabled) {
+            return;
+        }
+        if (!Files.exists(path)) {
+            System.out.println("No catalog snapshot at " + path + ", writing one");
+            requestWrite();
+            return;
+        }
+        long started = System.nanoTime();
+        try {
+            long coveredSequence = changeSequence.get();
+            CatalogSnapshot snapshot = CatalogSnapshot.open(path);
+            // A transaction that began before the scan but committed during it stamps an earlier updated_at; the margin covers it.
+            List<Long> changed = productRepository.findIdsChangedSince(
+                    new Timestamp(snapshot.version() - deltaMarginMillis).toLocalDateTime());
+            long sequence = changeSequence.incrementAndGet();
+            for (Long productId : changed) {
+                overlay.put(productId, sequence);
+            }
+            mapped = new Mapped(snapshot, coveredSequence);
+
+            long elapsedNanos = System.nanoTime() - started;
+            loadTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+            System.out.println("Catalog snapshot mapped: " + snapshot.size() + " products, "
+                    + snapshot.fileBytes() / (1024 * 1024) + " MB off-heap, " + changed.size()
+                    + " changed since it was written, in " + TimeUnit.NANOSECONDS.toMillis(elapsedNanos) + " ms");
+            if (overlay.size() >= overlayRewriteThreshold) {
+                requestWrite();
+            }
+        } catch (Exception e) {
+            System.out.println("Failed to map catalog snapshot " + path + ", writing a new one: " + e.getMessage());
+            requestWrite();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${catalog.snapshot.interval-ms:3600000}", initialDelayString = "${catalog.snapshot.interval-ms:3600000}")
+    public void scheduledWrite() {
+        if (enabled) {
+            requestWrite();
+        }
+    }
+
+    /**
+     * Queues a snapshot write on the background thread; requests made while one is queued are coalesced.
+     */
+    public void requestWrite() {
+        if (writeQueued.compareAndSet(false, true)) {
+            writeExecutor.execute(this::write);
+        }
+    }
+
+    private void write() {
+        writeQueued.set(false);
+        long started = System.nanoTime();
+        long sequenceAtStart = changeSequence.get();
+        try {
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            CatalogSnapshot snapshot;
+            try (CatalogSnapshot.Writer writer = new CatalogSnapshot.Writer(path)) {
+                long version = jdbcTemplate.queryForObject(NOW_SQL, Timestamp.class).getTime();
+                long afterId = 0;
+                List<Object[]> page;
+                do {
+                    page = productRepository.findSnapshotRowsAfter(afterId, pageSize);
+                    for (Object[] row : page) {
+                        writer.add(((Number) row[0]).longValue(), ((Number) row[1]).longValue(),
+                                ((Number) row[2]).longValue(), ((Number) row[3]).intValue(), (String) row[4],
+                                (String) row[5], (String) row[6], (String) row[7], (String) row[8]);
+                    }
+                    if (!page.isEmpty()) {
+                        afterId = ((Number) page.get(page.size() - 1)[0]).longValue();
+                    }
+                } while (page.size() == pageSize);
+                writer.finish(version);
+                snapshot = CatalogSnapshot.open(path);
+            }
+
+            mapped = new Mapped(snapshot, sequenceAtStart);
+            // Changes recorded after the scan started may be missing from the new snapshot, so they stay.
+            overlay.values().removeIf(sequence -> sequence <= sequenceAtStart);
+
+            long elapsedNanos = System.nanoTime() - started;
+            writeTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+            System.out.println("Catalog snapshot written: " + snapshot.size() + " products, "
+                    + snapshot.fileBytes() / (1024 * 1024) + " MB in " + TimeUnit.NANOSECONDS.toMillis(elapsedNanos) + " ms");
+        } catch (Exception e) {
+            System.out.println("Failed to write catalog snapshot " + path + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /** A mapped snapshot and the last change sequence its scan is known to include. */
+    private record Mapped(CatalogSnapshot snapshot, long coveredSequence) {
+    }
+}
@@ -0,0 +1,64 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import com.flipkartclone.ecommercebackend.model.CatalogState;
+import com.flipkartclone.ecommercebackend.repository.CatalogStateRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the catalog price version in memory so that reading a cart costs a single comparison.
+ * The in-memory value only moves forward after the price change that bumped it has committed.
+ */
+@Service
+public class CatalogVersionService {
+
+    private final CatalogStateRepository catalogStateRepository;
+    private final AtomicLong priceVersion = new AtomicLong();
+
+    @Autowired
+    public CatalogVersionService(CatalogStateRepository catalogStateRepository) {
+        this.catalogStateRepository = catalogStateRepository;
+    }
+
+    @PostConstruct
+    public void load() {
+        CatalogState state = catalogStateRepository.findById(CatalogState.SINGLETON_ID)
+                .orElseGet(() -> catalogStateRepository.save(new CatalogState(CatalogState.SINGLETON_ID, 1L)));
+        priceVersion.set(state.getPriceVersion());
+    }
+
+    public long getPriceVersion() {
+        return priceVersion.get();
+    }
+
+    /**
+     * Bumps the persisted price version in the caller's transaction and publishes it locally after commit.
+     * @return The new price version.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long bumpPriceVersion() {
+        long newVersion = catalogStateRepository.incrementPriceVersion();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                advanceTo(newVersion);
+            }
+        });
+        return newVersion;
+    }
+
+    /**
+     * Moves the in-memory version forward (never backwards), e.g. when another node reports a newer one.
+     * @param version The version known to be committed.
+     */
+    public void advanceTo(long version) {
+        priceVersion.accumulateAndGet(version, Math::max);
+    }
+}
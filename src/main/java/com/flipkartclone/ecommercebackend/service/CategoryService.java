@@ -3,7 +3,9 @@ package com.flipkartclone.ecommercebackend.service;
 import com.flipkartclone.ecommercebackend.model.Category;
 import com.flipkartclone.ecommercebackend.repository.CategoryRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -12,10 +14,15 @@ import java.util.Optional;
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final TypeaheadService typeaheadService;
+    private final CacheInvalidationService cacheInvalidationService;
 
     @Autowired
-    public CategoryService(CategoryRepository categoryRepository) {
+    public CategoryService(CategoryRepository categoryRepository, TypeaheadService typeaheadService,
+                           CacheInvalidationService cacheInvalidationService) {
         this.categoryRepository = categoryRepository;
+        this.typeaheadService = typeaheadService;
+        this.cacheInvalidationService = cacheInvalidationService;
     }
 
     /**
@@ -28,22 +35,30 @@ public class CategoryService {
         if (categoryRepository.findByName(category.getName()).isPresent()) {
             throw new RuntimeException("Category with this name already exists.");
         }
-        return categoryRepository.save(category);
+        Category saved = categoryRepository.save(category);
+        typeaheadService.categoryChanged(saved.getId(), saved.getName());
+        cacheInvalidationService.categoriesChanged(List.of(saved.getId()));
+        return saved;
     }
 
     /**
-     * Retrieves a category by its ID.
+     * Retrieves a category by its ID. Fills the categories cache, so it reads the primary (not read-only): a value
+     * read from a lagging replica would stay cached until the next change.
      * @param id The ID of the category.
      * @return An Optional containing the Category if found, or empty otherwise.
      */
+    @Transactional
+    @Cacheable(cacheNames = CacheInvalidationService.CATEGORIES_CACHE, key = "#id", unless = "#result == null")
     public Optional<Category> getCategoryById(Long id) {
         return categoryRepository.findById(id);
     }
 
     /**
-     * Retrieves all categories.
+     * Retrieves all categories. Reads the primary for the same reason as {@link #getCategoryById}.
      * @return A list of all categories.
      */
+    @Transactional
+    @Cacheable(cacheNames = CacheInvalidationService.CATEGORIES_CACHE, key = "'" + CacheInvalidationService.ALL_CATEGORIES_KEY + "'")
     public List<Category> getAllCategories() {
         return categoryRepository.findAll();
     }
@@ -62,7 +77,10 @@ public class CategoryService {
             existingCategory.setName(updatedCategory.getName());
             existingCategory.setDescription(updatedCategory.getDescription());
 
-            return Optional.of(categoryRepository.save(existingCategory));
+            Category saved = categoryRepository.save(existingCategory);
+            typeaheadService.categoryChanged(saved.getId(), saved.getName());
+            cacheInvalidationService.categoriesChanged(List.of(saved.getId()));
+            return Optional.of(saved);
         }
         return Optional.empty();
     }
@@ -75,6 +93,10 @@ public class CategoryService {
     public boolean deleteCategory(Long id) {
         if (categoryRepository.existsById(id)) {
             categoryRepository.deleteById(id);
+            typeaheadService.categoryDeleted(id);
+            // The delete cascades to the category's products, whose IDs aren't known here.
+            cacheInvalidationService.categoriesChanged(List.of(id));
+            cacheInvalidationService.allProductsChanged();
             return true;
         }
         return false;
@@ -0,0 +1,164 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import com.flipkartclone.ecommercebackend.dto.CheckoutResponse;
+import com.flipkartclone.ecommercebackend.dto.PaymentOrderResponse;
+import com.flipkartclone.ecommercebackend.model.Order;
+import com.flipkartclone.ecommercebackend.repository.CartRepository;
+import com.flipkartclone.ecommercebackend.repository.OrderRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Places an order and creates its payment-gateway order in one call.
+ * <p>
+ * One aggregate query prices the cart at current catalog prices. The gateway order for that amount is then
+ * requested on the bounded gateway pool while the order itself is placed in its own short transaction on the
+ * request thread, so the slow gateway round trip overlaps the database work instead of following it (and never
+ * holds a connection or row locks). The gateway order is matched to the order by a random receipt and, once both
+ * are done, its ID is stored on the order with a single UPDATE. If the cart changed in between and the amounts
+ * differ, a gateway order for the correct amount is created before returning.
+ * <p>
+ * The gateway pool has checkout.gateway-threads threads and a queue of checkout.gateway-queue-size; when both
+ * are full the gateway call runs on the request thread instead. A gateway call that takes longer than
+ * checkout.gateway-timeout-ms is abandoned and the order is returned without payment.
+ */
+@Service
+public class CheckoutService {
+
+    private final CartRepository cartRepository;
+    private final OrderRepository orderRepository;
+    private final OrderService orderService;
+    private final PaymentGateway paymentGateway;
+    private final ThreadPoolExecutor gatewayExecutor;
+    private final long gatewayTimeoutMillis;
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public CheckoutService(CartRepository cartRepository, OrderRepository orderRepository,
+                           OrderService orderService, PaymentGateway paymentGateway, MeterRegistry meterRegistry,
+                           @Value("${checkout.gateway-threads:32}") int gatewayThreads,
+                           @Value("${checkout.gateway-queue-size:64}") int gatewayQueueSize,
+                           @Value("${checkout.gateway-timeout-ms:10000}") long gatewayTimeoutMillis) {
+        this.cartRepository = cartRepository;
+        this.orderRepository = orderRepository;
+        this.orderService = orderService;
+        this.paymentGateway = paymentGateway;
+        this.gatewayTimeoutMillis = gatewayTimeoutMillis;
+        this.meterRegistry = meterRegistry;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.gatewayExecutor = new ThreadPoolExecutor(gatewayThreads, gatewayThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(gatewayQueueSize), runnable -> {
+                    Thread thread = new Thread(runnable, "checkout-gateway-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        gatewayExecutor.shutdown();
+    }
+
+    /**
+     * Places an order from the user's cart and creates the matching gateway order.
+     * @param userId The ID of the user.
+     * @param shippingAddress The shipping address.
+     * @param currency ISO currency code for the gateway order.
+     * @return The placed order with its gateway order; payment is null if only the gateway call failed.
+     * @throws RuntimeException if the user or cart is missing, the cart is empty or stock is insufficient.
+     */
+    public CheckoutResponse checkout(Long userId, String shippingAddress, String currency) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            List<Object[]> quote = cartRepository.findCheckoutQuote(userId);
+            if (quote.isEmpty()) {
+                throw new RuntimeException("User not found with ID: " + userId);
+            }
+            Object[] row = quote.get(0);
+            if (row[1] == null) {
+                throw new RuntimeException("Cart not found for user ID: " + userId);
+            }
+            if (((Number) row[2]).longValue() == 0) {
+                throw new RuntimeException("Cannot place order with an empty cart.");
+            }
+            String email = (String) row[0];
+            long expectedTotal = ((Number) row[3]).longValue();
+
+            String receipt = "co_" + UUID.randomUUID().toString().replace("-", "");
+            CompletableFuture<PaymentOrderResponse> gatewayOrder = CompletableFuture.supplyAsync(
+                    () -> paymentGateway.createOrder(expectedTotal, currency, receipt, notes(email, receipt)), gatewayExecutor)
+                    .orTimeout(gatewayTimeoutMillis, TimeUnit.MILLISECONDS);
+
+            Order order;
+            try {
+                order = orderService.placeOrder(userId, shippingAddress);
+            } catch (RuntimeException e) {
+                // The unused gateway order is never paid and expires on the gateway side.
+                gatewayOrder.cancel(false);
+                throw e;
+            }
+
+            PaymentOrderResponse payment;
+            try {
+                payment = join(gatewayOrder);
+                if (payment.getAmount() != order.getTotalAmountMinor()) {
+                    outcome = "repriced";
+                    payment = paymentGateway.createOrder(order.getTotalAmountMinor(), currency, receipt, notes(email, receipt));
+                }
+                orderRepository.setGatewayOrderId(order.getId(), payment.getId());
+                if (!"repriced".equals(outcome)) {
+                    outcome = "success";
+                }
+            } catch (RuntimeException e) {
+                System.out.println("Checkout: gateway order for order " + order.getId() + " failed, client retries payment: "
+                        + e.getMessage());
+                outcome = "gateway_error";
+                payment = null;
+            }
+            return new CheckoutResponse(order.getId(), order.getTotalAmountMinor(), order.getStatus().name(), payment);
+        } finally {
+            sample.stop(Timer.builder("checkout.latency")
+                    .tag("outcome", outcome)
+                    .publishPercentiles(0.5, 0.99)
+                    .register(meterRegistry));
+        }
+    }
+
+    private static Map<String, String> notes(String email, String receipt) {
+        Map<String, String> notes = new LinkedHashMap<>();
+        notes.put("checkout_receipt", receipt);
+        notes.put("user_email", email);
+        return notes;
+    }
+
+    private <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof TimeoutException) {
+                throw new RuntimeException("Gateway call timed out after " + gatewayTimeoutMillis + " ms", e);
+            }
+            throw e;
+        }
+    }
+}
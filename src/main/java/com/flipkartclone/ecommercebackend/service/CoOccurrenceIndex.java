@@ -0,0 +1,125 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import com.flipkartclone.ecommercebackend.util.LongIntHashMap;
+import com.flipkartclone.ecommercebackend.util.LongObjectHashMap;
+
+/**
+ * Symmetric "bought in the same order" counts: product -> (partner product -> number of shared orders).
+ * Not thread-safe; CoOccurrenceService guards it with a read/write lock.
+ */
+final class CoOccurrenceIndex {
+
+    static final int MAX_TOP = 20;
+
+    // Very large orders add O(k^2) pairs and say little about affinity, so only the first items are paired.
+    private static final int MAX_ITEMS_PER_ORDER = 50;
+
+    private final LongObjectHashMap<Partners> products;
+    private long pairCount;
+
+    CoOccurrenceIndex() {
+        this(1024);
+    }
+
+    CoOccurrenceIndex(int expectedProducts) {
+        this.products = new LongObjectHashMap<>(expectedProducts);
+    }
+
+    void addOrder(long[] productIds, int length) {
+        int n = Math.min(length, MAX_ITEMS_PER_ORDER);
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                if (productIds[i] != productIds[j]) {
+                    addPair(productIds[i], productIds[j], 1);
+                    addPair(productIds[j], productIds[i], 1);
+                }
+            }
+        }
+    }
+
+    void merge(CoOccurrenceIndex other) {
+        other.products.forEach((productId, partners) ->
+                partners.counts.forEach((partnerId, count) -> addPair(productId, partnerId, count)));
+    }
+
+    /**
+     * @return Up to {@code limit} partners as flattened (partnerId, count) pairs, strongest first.
+     */
+    long[] topPartners(long productId, int limit) {
+        Partners partners = products.get(productId);
+        if (partners == null) {
+            return new long[0];
+        }
+        long[] top = partners.top;
+        if (top == null) {
+            top = partners.computeTop();
+            partners.top = top;
+        }
+        int pairs = Math.min(limit, top.length / 2);
+        long[] result = new long[pairs * 2];
+        System.arraycopy(top, 0, result, 0, result.length);
+        return result;
+    }
+
+    int productCount() {
+        return products.size();
+    }
+
+    long pairCount() {
+        return pairCount;
+    }
+
+    long estimatedBytes() {
+        long[] bytes = {products.estimatedBytes()};
+        products.forEach((productId, partners) -> bytes[0] += 32L + partners.counts.estimatedBytes()
+                + (partners.top != null ? 16L + partners.top.length * 8L : 0L));
+        return bytes[0];
+    }
+
+    private void addPair(long productId, long partnerId, int delta) {
+        Partners partners = products.computeIfAbsent(productId, id -> new Partners());
+        if (partners.counts.addTo(partnerId, delta) == delta) {
+            pairCount++;
+        }
+        partners.top = null;
+    }
+
+    private static final class Partners {
+        final LongIntHashMap counts = new LongIntHashMap(4);
+        volatile long[] top;
+
+        long[] computeTop() {
+            int capacity = Math.min(MAX_TOP, counts.size());
+            long[] ids = new long[capacity];
+            int[] scores = new int[capacity];
+            int[] size = {0};
+
+            // Insertion into a small sorted array beats a heap for n <= 20.
+            counts.forEach((partnerId, count) -> {
+                int n = size[0];
+                if (n == capacity && (count < scores[n - 1] || (count == scores[n - 1] && partnerId > ids[n - 1]))) {
+                    return;
+                }
+                int position = n == capacity ? n - 1 : n;
+                while (position > 0 && (scores[position - 1] < count
+                        || (scores[position - 1] == count && ids[position - 1] > partnerId))) {
+                    ids[position] = ids[position - 1];
+                    scores[position] = scores[position - 1];
+                    position--;
+                }
+                ids[position] = partnerId;
+                scores[position] = count;
+                if (n < capacity) {
+                    size[0]++;
+                }
+            });
+
+            long[] top = new long[size[0] * 2];
+            for (int i = 0; i < size[0]; i++) {
+                top[i * 2] = ids[i];
+                top[i * 2 + 1] = scores[i];
+            }
+            return top;
+        }
+    }
+}
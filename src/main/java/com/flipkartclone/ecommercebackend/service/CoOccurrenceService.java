@@ -0,0 +1,244 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.flipkartclone.ecommercebackend.dto.CoOccurrenceStatsResponse;
+import com.flipkartclone.ecommercebackend.dto.RelatedProductResponse;
+import com.flipkartclone.ecommercebackend.model.OutboxEvent;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * "Frequently bought together" recommendations. Pair counts are built from order_items grouped by order,
+ * kept current from ORDER_PLACED outbox events and fully rebuilt (in parallel over order ID ranges) at
+ * startup, nightly and on demand. Counts are approximate between rebuilds: a redelivered event counts twice.
+ */
+@Service
+public class CoOccurrenceService implements OutboxSubscriber {
+
+    private static final String ORDER_ID_RANGE_SQL = "SELECT COALESCE(MIN(id), 0), COALESCE(MAX(id), 0) FROM orders";
+    private static final String ORDER_ITEMS_SQL = "SELECT order_id, product_id FROM order_items " +
+            "WHERE order_id >= ? AND order_id < ? ORDER BY order_id";
+
+    private final OutboxService outboxService;
+    private final JdbcTemplate jdbcTemplate;
+    private final ForkJoinPool rebuildPool;
+    private final long ordersPerTask;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private CoOccurrenceIndex index = new CoOccurrenceIndex();
+
+    // Orders placed while a rebuild is scanning; replayed onto the new index before it is swapped in.
+    private final List<long[]> ordersDuringRebuild = new ArrayList<>();
+    private volatile long rebuildHighWatermark;
+
+    private volatile long lastRebuildMillis;
+    private volatile LocalDateTime lastRebuildAt;
+
+    @Autowired
+    public CoOccurrenceService(OutboxService outboxService, JdbcTemplate jdbcTemplate,
+                               @Value("${recommendations.rebuild-parallelism:4}") int parallelism,
+                               @Value("${recommendations.rebuild-orders-per-task:50000}") long ordersPerTask) {
+        this.outboxService = outboxService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.rebuildPool = new ForkJoinPool(parallelism);
+        this.ordersPerTask = ordersPerTask;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildPool.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        startRebuild();
+    }
+
+    /**
+     * Starts a full rebuild on the rebuild pool without waiting for it.
+     * @return False if a rebuild is already running.
+     */
+    public boolean startRebuild() {
+        if (rebuilding.get()) {
+            return false;
+        }
+        CompletableFuture.runAsync(this::rebuild, rebuildPool).exceptionally(e -> {
+            System.out.println("Co-occurrence index rebuild failed: " + e.getMessage());
+            return null;
+        });
+        return true;
+    }
+
+    // Only hands the rebuild to the rebuild pool: the scan takes minutes and would hold a scheduler thread.
+    @Scheduled(cron = "${recommendations.rebuild-cron:0 0 3 * * *}")
+    public void scheduledRebuild() {
+        startRebuild();
+    }
+
+    @Override
+    public boolean supports(String eventType) {
+        return OutboxService.ORDER_PLACED.equals(eventType);
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        JsonNode payload = outboxService.readPayload(event);
+        JsonNode items = payload.path("items");
+        long[] productIds = new long[items.size()];
+        for (int i = 0; i < productIds.length; i++) {
+            productIds[i] = items.get(i).path("productId").asLong();
+        }
+
+        lock.writeLock().lock();
+        try {
+            index.addOrder(productIds, productIds.length);
+            if (rebuilding.get() && payload.path("orderId").asLong() > rebuildHighWatermark) {
+                ordersDuringRebuild.add(productIds);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retrieves the products most often bought together with the given product.
+     * @param productId The ID of the product.
+     * @param limit Maximum number of partners to return (capped at 20).
+     * @return Related products, strongest first.
+     */
+    public List<RelatedProductResponse> getRelatedProducts(Long productId, int limit) {
+        long[] top;
+        lock.readLock().lock();
+        try {
+            top = index.topPartners(productId, Math.min(limit, CoOccurrenceIndex.MAX_TOP));
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<RelatedProductResponse> related = new ArrayList<>(top.length / 2);
+        for (int i = 0; i < top.length; i += 2) {
+            related.add(new RelatedProductResponse(top[i], top[i + 1]));
+        }
+        return related;
+    }
+
+    /**
+     * @return Size and approximate heap footprint of the current index.
+     */
+    public CoOccurrenceStatsResponse getStats() {
+        lock.readLock().lock();
+        try {
+            return new CoOccurrenceStatsResponse(index.productCount(), index.pairCount(), index.estimatedBytes(),
+                    lastRebuildMillis, lastRebuildAt, rebuilding.get());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rebuilds the index from order_items using fork/join over order ID ranges, then swaps it in.
+     * @return False if a rebuild was already running.
+     */
+    public boolean rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            long started = System.currentTimeMillis();
+            long[] range = jdbcTemplate.queryForObject(ORDER_ID_RANGE_SQL, (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2)});
+            rebuildHighWatermark = range[1];
+
+            CoOccurrenceIndex rebuilt = range[1] == 0L
+                    ? new CoOccurrenceIndex()
+                    : rebuildPool.invoke(new RangeTask(range[0], range[1] + 1));
+
+            lock.writeLock().lock();
+            try {
+                for (long[] productIds : ordersDuringRebuild) {
+                    rebuilt.addOrder(productIds, productIds.length);
+                }
+                ordersDuringRebuild.clear();
+                index = rebuilt;
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            lastRebuildMillis = System.currentTimeMillis() - started;
+            lastRebuildAt = LocalDateTime.now();
+            System.out.println("Co-occurrence index rebuilt: " + rebuilt.productCount() + " products, "
+                    + rebuilt.pairCount() + " pairs in " + lastRebuildMillis + " ms");
+            return true;
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+
+    private final class RangeTask extends RecursiveTask<CoOccurrenceIndex> {
+        private final long fromOrderId;
+        private final long toOrderId;
+
+        RangeTask(long fromOrderId, long toOrderId) {
+            this.fromOrderId = fromOrderId;
+            this.toOrderId = toOrderId;
+        }
+
+        @Override
+        protected CoOccurrenceIndex compute() {
+            if (toOrderId - fromOrderId <= ordersPerTask) {
+                return load();
+            }
+            long middle = fromOrderId + (toOrderId - fromOrderId) / 2;
+            RangeTask left = new RangeTask(fromOrderId, middle);
+            left.fork();
+            CoOccurrenceIndex right = new RangeTask(middle, toOrderId).compute();
+            CoOccurrenceIndex leftResult = left.join();
+
+            // Fold the smaller index into the larger one.
+            if (leftResult.pairCount() >= right.pairCount()) {
+                leftResult.merge(right);
+                return leftResult;
+            }
+            right.merge(leftResult);
+            return right;
+        }
+
+        private CoOccurrenceIndex load() {
+            CoOccurrenceIndex partial = new CoOccurrenceIndex();
+            long[] currentOrder = {0L};
+            long[][] buffer = {new long[16]};
+            int[] length = {0};
+
+            jdbcTemplate.query(ORDER_ITEMS_SQL, rs -> {
+                long orderId = rs.getLong(1);
+                if (orderId != currentOrder[0]) {
+                    partial.addOrder(buffer[0], length[0]);
+                    currentOrder[0] = orderId;
+                    length[0] = 0;
+                }
+                if (length[0] == buffer[0].length) {
+                    buffer[0] = Arrays.copyOf(buffer[0], length[0] * 2);
+                }
+                buffer[0][length[0]++] = rs.getLong(2);
+            }, fromOrderId, toOrderId);
+            partial.addOrder(buffer[0], length[0]);
+            return partial;
+        }
+    }
+}
@@ -1,10 +1,14 @@
 package com.flipkartclone.ecommercebackend.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Service
 public class EmailService {
 
@@ -12,11 +16,38 @@ public class EmailService {
     private JavaMailSender emailSender;
 
     public void sendSimpleMessage(String to, String subject, String text) {
+        emailSender.send(message(to, subject, text));
+    }
+
+    public SimpleMailMessage message(String to, String subject, String text) {
         SimpleMailMessage message = new SimpleMailMessage();
         message.setFrom("noreply@flipkartclone.com"); // This can be anything, Gmail will override it
         message.setTo(to);
         message.setSubject(subject);
         message.setText(text);
-        emailSender.send(message);
+        return message;
+    }
+
+    /**
+     * Sends several messages over a single SMTP connection instead of one connection per message.
+     * @param messages Messages to send.
+     * @return The number of messages the server accepted; failures are logged, not thrown.
+     */
+    public int sendBatch(List<SimpleMailMessage> messages) {
+        if (messages.isEmpty()) {
+            return 0;
+        }
+        try {
+            emailSender.send(messages.toArray(new SimpleMailMessage[0]));
+            return messages.size();
+        } catch (MailSendException e) {
+            // Thrown after the whole batch was attempted; only the listed messages failed.
+            System.out.println("Email batch: " + e.getFailedMessages().size() + " of " + messages.size()
+                    + " messages failed: " + e.getMessage());
+            return messages.size() - e.getFailedMessages().size();
+        } catch (MailException e) {
+            System.out.println("Email batch of " + messages.size() + " messages failed: " + e.getMessage());
+            return 0;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,39 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Generation counters that let a cache fill detect an eviction that raced it. An evictor bumps the key's generation
+ * before evicting; a filler reads the generation before loading, puts, and evicts its own entry again if the
+ * generation moved in the meantime. Either the eviction comes after the put and removes it, or the filler sees the
+ * bump. Keys share striped counters, so an unrelated eviction occasionally costs a fill, never correctness.
+ */
+final class FillGenerations {
+
+    private static final int STRIPES = 1024;
+
+    private final AtomicLongArray stripes = new AtomicLongArray(STRIPES);
+    private final AtomicLong all = new AtomicLong();
+
+    /**
+     * @param key The cache key.
+     * @return A value that changes whenever the key, or the whole cache, is invalidated.
+     */
+    long of(Object key) {
+        return all.get() + stripes.get(stripe(key));
+    }
+
+    void invalidate(Object key) {
+        stripes.incrementAndGet(stripe(key));
+    }
+
+    void invalidateAll() {
+        all.incrementAndGet();
+    }
+
+    private static int stripe(Object key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (STRIPES - 1);
+    }
+}
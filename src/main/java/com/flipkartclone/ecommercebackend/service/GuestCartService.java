@@ -0,0 +1,162 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import com.flipkartclone.ecommercebackend.dto.CartItemResponse;
+import com.flipkartclone.ecommercebackend.dto.GuestCartResponse;
+import com.flipkartclone.ecommercebackend.model.Money;
+import com.flipkartclone.ecommercebackend.model.product.Product;
+import com.flipkartclone.ecommercebackend.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Carts for visitors who haven't logged in. The cart lives entirely in a signed token held by the client
+ * (X-Guest-Cart header), so browsing and adding to cart never write to the database. Prices are always
+ * read fresh from the catalog; the cart is merged into the user's persistent cart at login, once.
+ */
+@Service
+public class GuestCartService {
+
+    private final ProductRepository productRepository;
+    private final CartService cartService;
+    private final GuestCartTokenCodec codec;
+    private final Duration maxAge;
+    private final int maxItems;
+    private final int maxQuantity;
+
+    @Autowired
+    public GuestCartService(ProductRepository productRepository, CartService cartService,
+                            @Value("${guest-cart.secret:}") String secret,
+                            @Value("${guest-cart.max-age-days:30}") int maxAgeDays,
+                            @Value("${guest-cart.max-items:50}") int maxItems,
+                            @Value("${guest-cart.max-quantity:99}") int maxQuantity) {
+        this.productRepository = productRepository;
+        this.cartService = cartService;
+        if (secret.isEmpty()) {
+            // Tokens then only survive until restart and aren't valid across instances.
+            System.out.println("guest-cart.secret is not set; using a random key for guest cart tokens.");
+            secret = GuestCartTokenCodec.randomSecret();
+        }
+        this.codec = new GuestCartTokenCodec(secret.getBytes(StandardCharsets.UTF_8));
+        this.maxAge = Duration.ofDays(maxAgeDays);
+        this.maxItems = maxItems;
+        this.maxQuantity = maxQuantity;
+    }
+
+    /**
+     * Reads a guest cart token.
+     * @param token The token, or null/blank for a new, empty cart.
+     * @return The cart's ID and its product ID to quantity map, in the order items were added.
+     * @throws RuntimeException if the token is malformed, tampered with or expired.
+     */
+    GuestCartTokenCodec.Decoded decode(String token) {
+        if (token == null || token.isBlank()) {
+            return new GuestCartTokenCodec.Decoded(Instant.now().getEpochSecond(), GuestCartTokenCodec.randomCartId(),
+                    new LinkedHashMap<>());
+        }
+        GuestCartTokenCodec.Decoded decoded = codec.decode(token.trim());
+        if (decoded == null) {
+            throw new RuntimeException("Invalid guest cart token.");
+        }
+        if (Instant.ofEpochSecond(decoded.issuedAt).plus(maxAge).isBefore(Instant.now())) {
+            throw new RuntimeException("Invalid guest cart token: expired.");
+        }
+        return decoded;
+    }
+
+    /**
+     * Merges a guest cart into the user's persistent cart. Each guest cart is merged at most once, so replaying
+     * its token (or a later token of the same cart) at another login adds nothing.
+     * @param userId The ID of the user who just logged in.
+     * @param token The guest cart token.
+     * @return The number of cart lines inserted or updated.
+     * @throws RuntimeException if the token is malformed, tampered with or expired.
+     */
+    public int mergeIntoUserCart(Long userId, String token) {
+        GuestCartTokenCodec.Decoded cart = decode(token);
+        return cartService.mergeGuestCart(userId, cart.cartId, cart.items);
+    }
+
+    @Transactional(readOnly = true)
+    public GuestCartResponse getCart(String token) {
+        return toResponse(decode(token));
+    }
+
+    /**
+     * Adds a product to a guest cart, summing with any existing quantity.
+     * @return The updated cart and its new token.
+     * @throws RuntimeException if the token is invalid, the product doesn't exist, or a limit is exceeded.
+     */
+    @Transactional(readOnly = true)
+    public GuestCartResponse addItem(String token, Long productId, Integer quantity) {
+        if (quantity == null || quantity <= 0) {
+            throw new RuntimeException("Quantity must be positive.");
+        }
+        if (!productRepository.existsById(productId)) {
+            throw new RuntimeException("Product not found with ID: " + productId);
+        }
+        GuestCartTokenCodec.Decoded cart = decode(token);
+        cart.items.merge(productId, quantity, Integer::sum);
+        return toResponse(cart);
+    }
+
+    @Transactional(readOnly = true)
+    public GuestCartResponse updateItemQuantity(String token, Long productId, Integer newQuantity) {
+        if (newQuantity == null || newQuantity <= 0) {
+            throw new RuntimeException("New quantity must be positive. Use removeCartItem to delete.");
+        }
+        GuestCartTokenCodec.Decoded cart = decode(token);
+        if (!cart.items.containsKey(productId)) {
+            throw new RuntimeException("Cart item not found for product ID: " + productId);
+        }
+        cart.items.put(productId, newQuantity);
+        return toResponse(cart);
+    }
+
+    @Transactional(readOnly = true)
+    public GuestCartResponse removeItem(String token, Long productId) {
+        GuestCartTokenCodec.Decoded cart = decode(token);
+        if (cart.items.remove(productId) == null) {
+            throw new RuntimeException("Cart item not found for product ID: " + productId);
+        }
+        return toResponse(cart);
+    }
+
+    // One IN query prices the whole cart; products deleted since they were added are silently dropped.
+    private GuestCartResponse toResponse(GuestCartTokenCodec.Decoded cart) {
+        Map<Long, Integer> items = cart.items;
+        if (items.size() > maxItems) {
+            throw new RuntimeException("Guest cart is limited to " + maxItems + " items.");
+        }
+        Map<Long, Product> products = items.isEmpty() ? Map.of() : productRepository.findAllById(items.keySet()).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        Map<Long, Integer> kept = new LinkedHashMap<>();
+        List<CartItemResponse> responses = new ArrayList<>();
+        long total = 0;
+        for (Map.Entry<Long, Integer> item : items.entrySet()) {
+            Product product = products.get(item.getKey());
+            if (product == null) {
+                continue;
+            }
+            int quantity = Math.min(item.getValue(), maxQuantity);
+            kept.put(product.getId(), quantity);
+            long itemTotal = Money.times(product.getPriceMinor(), quantity);
+            responses.add(new CartItemResponse(null, product.getId(), product.getName(), product.getImageUrl(),
+                    quantity, product.getPriceMinor(), itemTotal));
+            total = Money.plus(total, itemTotal);
+        }
+        return new GuestCartResponse(codec.encode(cart.cartId, kept, Instant.now().getEpochSecond()), responses, total);
+    }
+}
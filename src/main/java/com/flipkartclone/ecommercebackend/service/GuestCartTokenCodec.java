@@ -0,0 +1,141 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Compact signed encoding of a guest cart: base64url(payload) "." base64url(first 16 bytes of HMAC-SHA256).
+ * The payload is a version byte, the issue time in epoch seconds, the cart's ID, then (product ID, quantity) pairs,
+ * all as unsigned varints, so a typical 3-item cart is well under 100 characters. The cart ID stays the same
+ * across every token issued for one cart, so a cart can be recognized once it has been merged.
+ */
+final class GuestCartTokenCodec {
+
+    private static final int VERSION = 1;
+    private static final int MAC_BYTES = 16;
+
+    private final byte[] secret;
+
+    GuestCartTokenCodec(byte[] secret) {
+        this.secret = secret.clone();
+    }
+
+    String encode(long cartId, Map<Long, Integer> items, long issuedAtEpochSeconds) {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(32 + items.size() * 6);
+        payload.write(VERSION);
+        writeVarLong(payload, issuedAtEpochSeconds);
+        writeVarLong(payload, cartId);
+        items.forEach((productId, quantity) -> {
+            writeVarLong(payload, productId);
+            writeVarLong(payload, quantity);
+        });
+        byte[] bytes = payload.toByteArray();
+        Base64.Encoder base64 = Base64.getUrlEncoder().withoutPadding();
+        return base64.encodeToString(bytes) + "." + base64.encodeToString(mac(bytes));
+    }
+
+    /**
+     * @return The issue time, cart ID and items, or null if the token is malformed or its signature is wrong.
+     */
+    Decoded decode(String token) {
+        int dot = token.indexOf('.');
+        if (dot <= 0) {
+            return null;
+        }
+        byte[] bytes;
+        byte[] signature;
+        try {
+            Base64.Decoder base64 = Base64.getUrlDecoder();
+            bytes = base64.decode(token.substring(0, dot));
+            signature = base64.decode(token.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (!MessageDigest.isEqual(mac(bytes), signature) || bytes.length == 0 || bytes[0] != VERSION) {
+            return null;
+        }
+
+        int[] position = {1};
+        long issuedAt = readVarLong(bytes, position);
+        long cartId = readVarLong(bytes, position);
+        if (issuedAt < 0 || cartId <= 0) {
+            return null;
+        }
+        Map<Long, Integer> items = new LinkedHashMap<>();
+        while (position[0] < bytes.length) {
+            long productId = readVarLong(bytes, position);
+            long quantity = readVarLong(bytes, position);
+            if (productId < 0 || quantity < 0 || quantity > Integer.MAX_VALUE) {
+                return null;
+            }
+            items.merge(productId, (int) quantity, Integer::sum);
+        }
+        return new Decoded(issuedAt, cartId, items);
+    }
+
+    private byte[] mac(byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret, "HmacSHA256"));
+            return Arrays.copyOf(mac.doFinal(payload), MAC_BYTES);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    // Returns -1 for a truncated or over-long varint; callers treat negatives as malformed.
+    private static long readVarLong(byte[] bytes, int[] position) {
+        long value = 0;
+        for (int shift = 0; shift < 63; shift += 7) {
+            if (position[0] >= bytes.length) {
+                return -1;
+            }
+            byte b = bytes[position[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        return -1;
+    }
+
+    static long randomCartId() {
+        return ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+    }
+
+    static String randomSecret() {
+        byte[] bytes = new byte[32];
+        new SecureRandom().nextBytes(bytes);
+        return new String(Base64.getEncoder().encode(bytes), StandardCharsets.US_ASCII);
+    }
+
+    static final class Decoded {
+        final long issuedAt;
+        final long cartId;
+        final Map<Long, Integer> items;
+
+        Decoded(long issuedAt, long cartId, Map<Long, Integer> items) {
+            this.issuedAt = issuedAt;
+            this.cartId = cartId;
+            this.items = items;
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import com.flipkartclone.ecommercebackend.repository.ProductRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed product image store on local disk.
+ * <p>
+ * Uploads are stored under their SHA-256, so a URL always denotes the same bytes and can be cached forever.
+ * Resized variants are rendered on a small background pool; until a variant exists, requests for it are
+ * answered with the original and a short cache lifetime.
+ */
+@Service
+public class ImageService {
+
+    private static final Pattern CONTENT_HASH = Pattern.compile("[0-9a-f]{64}");
+
+    private static final Map<String, String> CONTENT_TYPES = Map.of(
+            "jpeg", "image/jpeg",
+            "png", "image/png",
+            "gif", "image/gif",
+            "bmp", "image/bmp");
+
+    private final ProductRepository productRepository;
+    private final CacheInvalidationService cacheInvalidationService;
+    private final Path storageRoot;
+    private final long maxPixels;
+    private final ExecutorService resizeExecutor;
+
+    @Autowired
+    public ImageService(ProductRepository productRepository, CacheInvalidationService cacheInvalidationService,
+                        @Value("${images.storage-dir:./data/images}") String storageDir,
+                        @Value("${images.max-pixels:40000000}") long maxPixels,
+                        @Value("${images.resize-threads:2}") int resizeThreads) {
+        this.productRepository = productRepository;
+        this.cacheInvalidationService = cacheInvalidationService;
+        this.storageRoot = Paths.get(storageDir).toAbsolutePath().normalize();
+        this.maxPixels = maxPixels;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.resizeExecutor = Executors.newFixedThreadPool(resizeThreads, runnable -> {
+            Thread thread = new Thread(runnable, "image-resize-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        resizeExecutor.shutdown();
+    }
+
+    /**
+     * Stores an uploaded image for a product and schedules its resized variants.
+     * @param productId The ID of the product.
+     * @param content The uploaded bytes.
+     * @return The content hash identifying the stored image.
+     * @throws RuntimeException if the product doesn't exist or the upload is not a supported image.
+     */
+    @Transactional
+    public String storeProductImage(Long productId, byte[] content) {
+        if (!productRepository.existsById(productId)) {
+            throw new RuntimeException("Product not found with ID: " + productId);
+        }
+        String format = detectFormat(content);
+        String contentHash = sha256(content);
+        Path directory = directoryOf(contentHash);
+
+        try {
+            Files.createDirectories(directory);
+            Path original = directory.resolve(ImageVariant.ORIGINAL.pathSegment() + "." + format);
+            if (!Files.exists(original)) {
+                writeAtomically(original, content);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not store image for product ID: " + productId, e);
+        }
+
+        productRepository.updateImage(productId, contentHash, ImageVariant.urlOf(contentHash, ImageVariant.ORIGINAL));
+        cacheInvalidationService.productsChanged(List.of(productId));
+        resizeExecutor.execute(() -> renderVariants(contentHash, content));
+        return contentHash;
+    }
+
+    /**
+     * Locates the file to serve for a variant.
+     * @param contentHash Hex SHA-256 from the URL.
+     * @param variant The requested variant.
+     * @return The file and whether it is the requested variant (false when falling back to the original), or null if unknown.
+     */
+    public StoredImage resolve(String contentHash, ImageVariant variant) {
+        if (!CONTENT_HASH.matcher(contentHash).matches()) {
+            return null;
+        }
+        Path directory = directoryOf(contentHash);
+        if (variant.isResized()) {
+            Path file = directory.resolve(variant.pathSegment() + ".jpg");
+            if (Files.isRegularFile(file)) {
+                return new StoredImage(file, "image/jpeg", true);
+            }
+        }
+        Path original = findOriginal(directory);
+        if (original == null) {
+            return null;
+        }
+        String name = original.getFileName().toString();
+        String format = name.substring(name.lastIndexOf('.') + 1);
+        return new StoredImage(original, CONTENT_TYPES.getOrDefault(format, "application/octet-stream"),
+                variant == ImageVariant.ORIGINAL);
+    }
+
+    private void renderVariants(String contentHash, byte[] content) {
+        try {
+            BufferedImage source = ImageIO.read(new ByteArrayInputStream(content));
+            Path directory = directoryOf(contentHash);
+            for (ImageVariant variant : ImageVariant.values()) {
+                if (!variant.isResized()) {
+                    continue;
+                }
+                Path target = directory.resolve(variant.pathSegment() + ".jpg");
+                if (Files.exists(target)) {
+                    continue;
+                }
+                BufferedImage resized = resize(source, variant.getMaxDimension());
+                Path temp = Files.createTempFile(directory, variant.pathSegment(), ".tmp");
+                ImageIO.write(resized, "jpg", temp.toFile());
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to render image variants for " + contentHash + ": " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    // Halves the image until it is within 2x of the target, then does one bilinear pass; this keeps
+    // downscales of large photos sharp without the cost of an area-averaging filter.
+    private static BufferedImage resize(BufferedImage source, int maxDimension) {
+        double scale = Math.min(1.0, (double) maxDimension / Math.max(source.getWidth(), source.getHeight()));
+        int targetWidth = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int targetHeight = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage step = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = step.createGraphics();
+            try {
+                // JPEG has no alpha channel, so transparent areas are flattened onto white.
+                graphics.setColor(Color.WHITE);
+                graphics.fillRect(0, 0, width, height);
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = step;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    // Reads only the header, so oversized or non-image uploads are rejected before any pixels are decoded.
+    private String detectFormat(byte[] content) {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(content))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new RuntimeException("Unsupported image format.");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input);
+                String format = reader.getFormatName().toLowerCase(Locale.ROOT);
+                if (format.equals("jpg")) {
+                    format = "jpeg";
+                }
+                if (!CONTENT_TYPES.containsKey(format)) {
+                    throw new RuntimeException("Unsupported image format: " + format);
+                }
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > maxPixels) {
+                    throw new RuntimeException("Image is too large.");
+                }
+                return format;
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Unsupported image format.");
+        }
+    }
+
+    private Path findOriginal(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return null;
+        }
+        try (DirectoryStream<Path> matches = Files.newDirectoryStream(directory, ImageVariant.ORIGINAL.pathSegment() + ".*")) {
+            for (Path match : matches) {
+                return match;
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    // Two-level fan-out keeps directory sizes small with many images.
+    private Path directoryOf(String contentHash) {
+        return storageRoot.resolve(contentHash.substring(0, 2)).resolve(contentHash);
+    }
+
+    private static void writeAtomically(Path target, byte[] content) throws IOException {
+        Path temp = Files.createTempFile(target.getParent(), "upload", ".tmp");
+        try {
+            Files.write(temp, content);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * A file ready to be served.
+     * @param path Location on disk.
+     * @param contentType MIME type of the file.
+     * @param exact False when the requested variant isn't rendered yet and the original is served instead.
+     */
+    public record StoredImage(Path path, String contentType, boolean exact) {
+    }
+}
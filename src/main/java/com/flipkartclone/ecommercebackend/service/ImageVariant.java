@@ -0,0 +1,59 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Stored renditions of a product image. Resized variants fit within a square box and are always JPEG;
+ * the original is kept byte-for-byte in its uploaded format.
+ */
+public enum ImageVariant {
+    THUMBNAIL(200),
+    MEDIUM(800),
+    ORIGINAL(0);
+
+    private final int maxDimension;
+
+    ImageVariant(int maxDimension) {
+        this.maxDimension = maxDimension;
+    }
+
+    public int getMaxDimension() {
+        return maxDimension;
+    }
+
+    public boolean isResized() {
+        return maxDimension > 0;
+    }
+
+    // Locale.ROOT: under a Turkish default locale "THUMBNAIL" would lower-case to "thumbnaıl".
+    public String pathSegment() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    public static ImageVariant fromPathSegment(String segment) {
+        for (ImageVariant variant : values()) {
+            if (variant.pathSegment().equals(segment)) {
+                return variant;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param contentHash Hex SHA-256 of the original upload.
+     * @return Public URL of every variant, keyed by path segment. URLs embed the content hash, so they never change meaning.
+     */
+    public static Map<String, String> urlsFor(String contentHash) {
+        Map<String, String> urls = new LinkedHashMap<>();
+        for (ImageVariant variant : values()) {
+            urls.put(variant.pathSegment(), urlOf(contentHash, variant));
+        }
+        return urls;
+    }
+
+    public static String urlOf(String contentHash, ImageVariant variant) {
+        return "/images/" + contentHash + "/" + variant.pathSegment();
+    }
+}
@@ -0,0 +1,38 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import java.util.List;
+
+/**
+ * Carries cache invalidation messages between application nodes. Postgres LISTEN/NOTIFY by default;
+ * a local stand-in (invalidation.transport=local) for single-node runs.
+ */
+public interface InvalidationTransport {
+
+    /**
+     * Sends a message to the other nodes. Inside a transaction the message is only delivered if it commits.
+     * @param message At most {@link #MAX_MESSAGE_BYTES} bytes.
+     */
+    void send(String message);
+
+    /**
+     * Starts delivering messages from other nodes.
+     * @param receiver Callback, invoked on the transport's own thread.
+     */
+    void start(Receiver receiver);
+
+    /** Postgres rejects NOTIFY payloads of 8000 bytes or more. */
+    int MAX_MESSAGE_BYTES = 7900;
+
+    interface Receiver {
+
+        /**
+         * @param messages Messages that arrived close together, oldest first.
+         */
+        void received(List<String> messages);
+
+        /**
+         * Called after the channel was re-established; messages sent while it was down are lost.
+         */
+        void reconnected();
+    }
+}
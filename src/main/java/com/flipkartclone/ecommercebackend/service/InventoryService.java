@@ -0,0 +1,371 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Product stock kept as an append-only ledger (stock_movements) instead of in-place updates of products.stock_quantity.
+ * <p>
+ * Each product's stock is split over {@link #SHARDS} rows in stock_shards and every movement is appended to one
+ * shard's stream. A shard's availability is its materialized {@code available} plus the movements appended after
+ * {@code folded_through}; StockCompactionJob folds those tails in, spreads the product's stock evenly over its shards
+ * again and refreshes products.stock_quantity as the materialized total.
+ * <p>
+ * Appending needs the shard row's lock, but only compaction ever writes the row. A decrement locks one shard that
+ * looks like it has enough (skipping shards locked by others) and re-checks it in a fresh statement, so concurrent
+ * orders for one product spread over the shards instead of queueing on one hot row; increments only take FOR SHARE.
+ * Compaction locks all of a product's shards, so no append is in flight while a tail is folded.
+ * <p>
+ * Every statement that waits for shard locks takes them in (product ID, shard) order, and orders reserve their
+ * products in ascending ID order, so waits cannot form a cycle. The one exception is a reservation that already holds
+ * some of the product's shards when it needs all of them; it doesn't wait but fails with a
+ * PessimisticLockingFailureException, and the caller retries the transaction.
+ */
+@Service
+public class InventoryService {
+
+    /** Shards per product, as created by V9. */
+    public static final int SHARDS = 8;
+
+    public static final String ORDER = "ORDER";
+    public static final String RELEASE = "RELEASE";
+    public static final String ADJUST = "ADJUST";
+
+    // Availability of shard row s: materialized value plus the unfolded tail of its stream.
+    private static final String SHARD_AVAILABLE = "s.available + COALESCE((SELECT SUM(t.quantity) FROM stock_movements t " +
+            "WHERE t.product_id = s.product_id AND t.shard = s.shard AND t.id > s.folded_through), 0)";
+
+    /** Live availability of product p, for queries that read products directly. */
+    public static final String PRODUCT_AVAILABLE_SQL = "COALESCE((SELECT SUM(" + SHARD_AVAILABLE + ") " +
+            "FROM stock_shards s WHERE s.product_id = p.id), 0)";
+
+    // Only a hint which shard to lock: this statement's snapshot may predate the previous lock holder's commit.
+    private static final String PICK_SHARD_SQL = "SELECT s.shard FROM stock_shards s " +
+            "WHERE s.product_id = ? AND s.shard <> ALL(?) AND " + SHARD_AVAILABLE + " >= ? " +
+            "ORDER BY (s.shard + ?) % " + SHARDS + " LIMIT 1 FOR UPDATE OF s SKIP LOCKED";
+    // Appends one movement if the shard stays non-negative, re-checked under the lock, and queues the shard for compaction.
+    private static final String APPEND_SQL = "WITH m AS (" +
+            "INSERT INTO stock_movements (product_id, shard, quantity, reason, order_id, created_at) " +
+            "SELECT s.product_id, s.shard, ?::integer, ?::varchar, ?::bigint, now() FROM stock_shards s " +
+            "WHERE s.product_id = ? AND s.shard = ? AND " + SHARD_AVAILABLE + " + ? >= 0 RETURNING product_id, shard), " +
+            "d AS (INSERT INTO stock_dirty (product_id, shard) SELECT product_id, shard FROM m ON CONFLICT DO NOTHING) " +
+            "SELECT count(*) FROM m";
+    private static final String SHARD_AVAILABILITY_SQL = "SELECT s.shard, " + SHARD_AVAILABLE + " FROM stock_shards s " +
+            "WHERE s.product_id = ? ORDER BY s.shard";
+    private static final String LOCK_PRODUCTS_SQL = "SELECT s.product_id FROM stock_shards s WHERE s.product_id = ANY(?) " +
+            "ORDER BY s.product_id, s.shard FOR UPDATE";
+    private static final String LOCK_PRODUCTS_NOWAIT_SQL = LOCK_PRODUCTS_SQL + " NOWAIT";
+    private static final String AVAILABLE_SQL = "SELECT s.product_id, SUM(" + SHARD_AVAILABLE + ") FROM stock_shards s " +
+            "WHERE s.product_id = ANY(?) GROUP BY s.product_id";
+
+    // Releases go to shard (order ID mod SHARDS), so one expiry batch spreads over the shards.
+    private static final String RELEASE_SHARDS = "(SELECT DISTINCT product_id, (order_id % " + SHARDS + ")::int AS shard " +
+            "FROM order_items WHERE order_id = ANY(?))";
+    private static final String LOCK_RELEASE_SQL = "SELECT s.product_id FROM stock_shards s JOIN " + RELEASE_SHARDS + " r " +
+            "ON r.product_id = s.product_id AND r.shard = s.shard ORDER BY s.product_id, s.shard FOR SHARE OF s";
+    private static final String RELEASE_SQL = "WITH m AS (" +
+            "INSERT INTO stock_movements (product_id, shard, quantity, reason, order_id, created_at) " +
+            "SELECT product_id, (order_id % " + SHARDS + ")::int, SUM(quantity), '" + RELEASE + "', order_id, now() " +
+            "FROM order_items WHERE order_id = ANY(?) GROUP BY order_id, product_id RETURNING product_id, shard), " +
+            "d AS (INSERT INTO stock_dirty (product_id, shard) SELECT DISTINCT product_id, shard FROM m ON CONFLICT DO NOTHING) " +
+            "SELECT DISTINCT product_id FROM m ORDER BY product_id";
+
+    private static final String ENSURE_SHARDS_SQL = "INSERT INTO stock_shards (product_id, shard, available, folded_through) " +
+            "SELECT p.id, g.shard, 0, 0 FROM products p CROSS JOIN generate_series(0, " + (SHARDS - 1) + ") AS g(shard) " +
+            "WHERE p.id = ANY(?) ON CONFLICT DO NOTHING";
+    private static final String ADJUST_SQL = "INSERT INTO stock_movements (product_id, shard, quantity, reason, created_at) " +
+            "SELECT u.id, 0, u.quantity, '" + ADJUST + "', now() FROM unnest(?::bigint[], ?::integer[]) AS u(id, quantity)";
+
+    private static final String FOLD_READ_SQL = "SELECT s.product_id, s.shard, s.available + COALESCE(t.quantity, 0), " +
+            "t.last_id FROM stock_shards s LEFT JOIN LATERAL (SELECT SUM(m.quantity) AS quantity, MAX(m.id) AS last_id " +
+            "FROM stock_movements m WHERE m.product_id = s.product_id AND m.shard = s.shard AND m.id > s.folded_through) t ON true " +
+            "WHERE s.product_id = ANY(?) ORDER BY s.product_id, s.shard";
+    private static final String FOLD_WRITE_SQL = "UPDATE stock_shards s SET available = u.available, " +
+            "folded_through = GREATEST(s.folded_through, u.folded_through) " +
+            "FROM unnest(?::bigint[], ?::integer[], ?::integer[], ?::bigint[]) AS u(product_id, shard, available, folded_through) " +
+            "WHERE s.product_id = u.product_id AND s.shard = u.shard";
+    private static final String MATERIALIZE_SQL = "UPDATE products p SET stock_quantity = u.total " +
+            "FROM unnest(?::bigint[], ?::integer[]) AS u(id, total) WHERE p.id = u.id AND p.stock_quantity <> u.total";
+    private static final String CLEAR_DIRTY_SQL = "DELETE FROM stock_dirty WHERE product_id = ANY(?)";
+    private static final String DIRTY_AFTER_SQL = "SELECT DISTINCT product_id FROM stock_dirty WHERE product_id > ? " +
+            "ORDER BY product_id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public InventoryService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Takes stock for an order line. The shard locks are held until the surrounding transaction ends, so a
+     * transaction reserving several products must reserve each product once, in ascending product ID order.
+     * @param productId The ID of the product.
+     * @param quantity Units to take; must be positive.
+     * @param orderId The order the stock is reserved for, recorded on the movement.
+     * @return False if the product doesn't have enough stock.
+     * @throws org.springframework.dao.PessimisticLockingFailureException if the product's shards are contended;
+     *         the transaction must be rolled back and can be retried.
+     */
+    @Transactional
+    public boolean reserve(long productId, int quantity, Long orderId) {
+        if (quantity <= 0) {
+            throw new RuntimeException("Invalid stock reservation: quantity must be positive.");
+        }
+        List<Integer> tried = new ArrayList<>(SHARDS);
+        int rotation = ThreadLocalRandom.current().nextInt(SHARDS);
+        while (tried.size() < SHARDS) {
+            Integer[] excluded = tried.toArray(new Integer[0]);
+            List<Integer> picked = jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(PICK_SHARD_SQL);
+                statement.setLong(1, productId);
+                statement.setArray(2, connection.createArrayOf("integer", excluded));
+                statement.setInt(3, quantity);
+                statement.setInt(4, rotation);
+                return statement;
+            }, (rs, rowNum) -> rs.getInt(1));
+            if (picked.isEmpty()) {
+                break;
+            }
+            if (append(productId, picked.get(0), -quantity, ORDER, orderId)) {
+                return true;
+            }
+            tried.add(picked.get(0));
+        }
+
+        // No single unlocked shard has enough: the stock is spread thin or contended, so lock all of the shards.
+        // Waiting for them while holding shards from the loop above could deadlock with another order doing the
+        // same or with compaction, so in that case fail right away instead.
+        queryWithIds(tried.isEmpty() ? LOCK_PRODUCTS_SQL : LOCK_PRODUCTS_NOWAIT_SQL, new Long[]{productId});
+        List<int[]> shards = jdbcTemplate.query(SHARD_AVAILABILITY_SQL,
+                (rs, rowNum) -> new int[]{rs.getInt(1), rs.getInt(2)}, productId);
+        long total = 0;
+        for (int[] shard : shards) {
+            total += Math.max(0, shard[1]);
+        }
+        if (total < quantity) {
+            return false;
+        }
+        shards.sort(Comparator.comparingInt((int[] shard) -> shard[1]).reversed());
+        int remaining = quantity;
+        for (int[] shard : shards) {
+            int take = Math.min(remaining, shard[1]);
+            if (take > 0 && append(productId, shard[0], -take, ORDER, orderId)) {
+                remaining -= take;
+            }
+            if (remaining == 0) {
+                break;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the stock of the given orders' lines to the ledger.
+     * @param orderIds The IDs of orders whose reservations end (e.g. expired).
+     * @return The IDs of the products whose stock went up.
+     */
+    @Transactional
+    public List<Long> releaseForOrders(List<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return List.of();
+        }
+        Long[] ids = orderIds.toArray(new Long[0]);
+        queryWithIds(LOCK_RELEASE_SQL, ids);
+        return queryWithIds(RELEASE_SQL, ids);
+    }
+
+    /**
+     * Sets products' stock to absolute values (product create/update, bulk updates): appends the difference as an
+     * adjustment and folds the products right away, so products.stock_quantity matches when this returns.
+     * @param targets Product ID to new stock quantity; unknown product IDs are ignored.
+     */
+    @Transactional
+    public void setAvailable(Map<Long, Integer> targets) {
+        if (targets.isEmpty()) {
+            return;
+        }
+        Long[] ids = targets.keySet().toArray(new Long[0]);
+        Arrays.sort(ids);
+        updateWithIds(ENSURE_SHARDS_SQL, ids);
+        lockProducts(ids);
+
+        Map<Long, Integer> current = availableQuantities(Arrays.asList(ids));
+        List<Long> adjustedIds = new ArrayList<>(current.size());
+        List<Integer> adjustments = new ArrayList<>(current.size());
+        for (Map.Entry<Long, Integer> entry : current.entrySet()) {
+            int difference = targets.get(entry.getKey()) - entry.getValue();
+            if (difference != 0) {
+                adjustedIds.add(entry.getKey());
+                adjustments.add(difference);
+            }
+        }
+        if (!adjustedIds.isEmpty()) {
+            jdbcTemplate.update(connection -> {
+                PreparedStatement statement = connection.prepareStatement(ADJUST_SQL);
+                statement.setArray(1, connection.createArrayOf("bigint", adjustedIds.toArray()));
+                statement.setArray(2, connection.createArrayOf("integer", adjustments.toArray()));
+                return statement;
+            });
+            fold(adjustedIds);
+        }
+    }
+
+    /**
+     * @param productIds The IDs of the products.
+     * @return (product ID, available quantity) pairs, in the shape ProductFacetService#stockChanged takes.
+     */
+    @Transactional(readOnly = true)
+    public List<Object[]> findAvailableStock(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return List.of();
+        }
+        Long[] ids = productIds.toArray(new Long[0]);
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(AVAILABLE_SQL);
+            statement.setArray(1, connection.createArrayOf("bigint", ids));
+            return statement;
+        }, (rs, rowNum) -> new Object[]{rs.getLong(1), rs.getInt(2)});
+    }
+
+    /**
+     * @param productIds The IDs of the products.
+     * @return Product ID to available quantity (materialized value plus unfolded tail); unknown IDs are absent.
+     */
+    // Fills CatalogJsonCache, so it reads the primary rather than a replica that may not have the latest movements.
+    @Transactional
+    public Map<Long, Integer> availableQuantities(Collection<Long> productIds) {
+        Map<Long, Integer> available = new LinkedHashMap<>();
+        for (Object[] row : findAvailableStock(productIds)) {
+            available.put((Long) row[0], (Integer) row[1]);
+        }
+        return available;
+    }
+
+    /**
+     * Compaction: folds the unfolded tails of the products' shards into their materialized values, spreads each
+     * product's stock evenly over its shards again and refreshes products.stock_quantity.
+     * @param productIds The IDs of the products to fold.
+     * @return The number of products that had movements to fold.
+     */
+    @Transactional
+    public int fold(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return 0;
+        }
+        Long[] ids = productIds.toArray(new Long[0]);
+        Arrays.sort(ids);
+        lockProducts(ids);
+
+        // Read after the locks are granted, so every append to these shards has committed and is visible.
+        Map<Long, List<long[]>> shardsByProduct = new LinkedHashMap<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(FOLD_READ_SQL);
+            statement.setArray(1, connection.createArrayOf("bigint", ids));
+            return statement;
+        }, rs -> {
+            long lastId = rs.getLong(4);
+            long[] shard = {rs.getInt(2), rs.getLong(3), rs.wasNull() ? 0 : lastId};
+            shardsByProduct.computeIfAbsent(rs.getLong(1), id -> new ArrayList<>()).add(shard);
+        });
+
+        List<Long> shardProductIds = new ArrayList<>();
+        List<Integer> shardNumbers = new ArrayList<>();
+        List<Integer> shardAvailable = new ArrayList<>();
+        List<Long> shardFoldedThrough = new ArrayList<>();
+        List<Long> foldedIds = new ArrayList<>();
+        List<Integer> totals = new ArrayList<>();
+        for (Map.Entry<Long, List<long[]>> entry : shardsByProduct.entrySet()) {
+            List<long[]> shards = entry.getValue();
+            long total = 0;
+            boolean hasTail = false;
+            for (long[] shard : shards) {
+                total += shard[1];
+                hasTail |= shard[2] > 0;
+            }
+            if (!hasTail) {
+                continue;
+            }
+            // Never negative: decrements are checked per shard and adjustments target non-negative stock.
+            long share = total / shards.size();
+            long remainder = total % shards.size();
+            for (int i = 0; i < shards.size(); i++) {
+                long[] shard = shards.get(i);
+                shardProductIds.add(entry.getKey());
+                shardNumbers.add((int) shard[0]);
+                shardAvailable.add((int) (share + (i < remainder ? 1 : 0)));
+                shardFoldedThrough.add(shard[2]);
+            }
+            foldedIds.add(entry.getKey());
+            totals.add((int) total);
+        }
+
+        if (!foldedIds.isEmpty()) {
+            jdbcTemplate.update(connection -> {
+                PreparedStatement statement = connection.prepareStatement(FOLD_WRITE_SQL);
+                statement.setArray(1, connection.createArrayOf("bigint", shardProductIds.toArray()));
+                statement.setArray(2, connection.createArrayOf("integer", shardNumbers.toArray()));
+                statement.setArray(3, connection.createArrayOf("integer", shardAvailable.toArray()));
+                statement.setArray(4, connection.createArrayOf("bigint", shardFoldedThrough.toArray()));
+                return statement;
+            });
+            jdbcTemplate.update(connection -> {
+                PreparedStatement statement = connection.prepareStatement(MATERIALIZE_SQL);
+                statement.setArray(1, connection.createArrayOf("bigint", foldedIds.toArray()));
+                statement.setArray(2, connection.createArrayOf("integer", totals.toArray()));
+                return statement;
+            });
+        }
+        updateWithIds(CLEAR_DIRTY_SQL, ids);
+        return foldedIds.size();
+    }
+
+    /**
+     * Keyset page over the compaction queue.
+     * @param afterProductId Last product ID of the previous page, or 0.
+     * @param limit Maximum number of product IDs.
+     * @return IDs of products with unfolded movements, ascending.
+     */
+    @Transactional(readOnly = true)
+    public List<Long> findDirtyProductIdsAfter(long afterProductId, int limit) {
+        return jdbcTemplate.queryForList(DIRTY_AFTER_SQL, Long.class, afterProductId, limit);
+    }
+
+    private boolean append(long productId, int shard, int quantity, String reason, Long orderId) {
+        Integer appended = jdbcTemplate.queryForObject(APPEND_SQL, Integer.class,
+                quantity, reason, orderId, productId, shard, quantity);
+        return appended != null && appended > 0;
+    }
+
+    private void lockProducts(Long[] productIds) {
+        queryWithIds(LOCK_PRODUCTS_SQL, productIds);
+    }
+
+    private List<Long> queryWithIds(String sql, Long[] ids) {
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setArray(1, connection.createArrayOf("bigint", ids));
+            return statement;
+        }, (rs, rowNum) -> rs.getLong(1));
+    }
+
+    private void updateWithIds(String sql, Long[] ids) {
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setArray(1, connection.createArrayOf("bigint", ids));
+            return statement;
+        });
+    }
+}
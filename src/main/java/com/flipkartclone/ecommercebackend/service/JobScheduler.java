@@ -0,0 +1,160 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs every BackgroundJob on its own fixed delay, on one node at a time. Each run takes a Postgres session-level
+ * advisory lock for the job on a dedicated connection; nodes that don't get it skip the run. The leader then works
+ * through chunks until the pass is finished or the time budget is spent, checkpointing the last key after every
+ * chunk in job_checkpoints.
+ */
+@Service
+public class JobScheduler {
+
+    // First half of the two-key advisory lock, so job locks can't collide with other advisory locks in the database.
+    private static final int JOB_LOCK_CLASS = 43;
+
+    private static final String TRY_LOCK_SQL = "SELECT pg_try_advisory_lock(" + JOB_LOCK_CLASS + ", hashtext(?))";
+    private static final String UNLOCK_SQL = "SELECT pg_advisory_unlock(" + JOB_LOCK_CLASS + ", hashtext(?))";
+    private static final String LOAD_CHECKPOINT_SQL = "SELECT last_key FROM job_checkpoints WHERE job_name = ?";
+    private static final String SAVE_CHECKPOINT_SQL =
+            "INSERT INTO job_checkpoints (job_name, last_key, updated_at, last_pass_completed_at) " +
+            "VALUES (?, ?, now(), CASE WHEN ? THEN now() END) " +
+            "ON CONFLICT (job_name) DO UPDATE SET last_key = EXCLUDED.last_key, updated_at = EXCLUDED.updated_at, " +
+            "last_pass_completed_at = COALESCE(EXCLUDED.last_pass_completed_at, job_checkpoints.last_pass_completed_at)";
+
+    private final List<BackgroundJob> jobs;
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final long timeBudgetMillis;
+    private final ScheduledExecutorService executor;
+
+    @Autowired
+    public JobScheduler(List<BackgroundJob> jobs, DataSource dataSource, JdbcTemplate jdbcTemplate,
+                        MeterRegistry meterRegistry,
+                        @Value("${jobs.enabled:true}") boolean enabled,
+                        @Value("${jobs.threads:2}") int threads,
+                        @Value("${jobs.time-budget-ms:30000}") long timeBudgetMillis) {
+        this.jobs = jobs;
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.timeBudgetMillis = timeBudgetMillis;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = Executors.newScheduledThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "job-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            System.out.println("Background jobs disabled on this node");
+            return;
+        }
+        for (BackgroundJob job : jobs) {
+            executor.scheduleWithFixedDelay(() -> run(job), job.intervalMillis(), job.intervalMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Runs one job now if no other node is running it.
+     * @param job The job to run.
+     * @return False if another node holds the job's lock.
+     */
+    public boolean run(BackgroundJob job) {
+        try (Connection lockConnection = dataSource.getConnection()) {
+            if (!advisoryLock(lockConnection, TRY_LOCK_SQL, job.name())) {
+                meterRegistry.counter("jobs.lock.skipped", "job", job.name()).increment();
+                return false;
+            }
+            try {
+                runChunks(job);
+            } finally {
+                // Session locks outlive the borrow, so the lock must be released before the connection goes back to the pool.
+                advisoryLock(lockConnection, UNLOCK_SQL, job.name());
+            }
+            return true;
+        } catch (Exception e) {
+            meterRegistry.counter("jobs.failures", "job", job.name()).increment();
+            System.out.println("Background job " + job.name() + " failed: " + e.getMessage());
+            e.printStackTrace();
+            return true;
+        }
+    }
+
+    private void runChunks(BackgroundJob job) {
+        Counter rowsCounter = meterRegistry.counter("jobs.rows.processed", "job", job.name());
+        long startNanos = System.nanoTime();
+        long deadlineNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(timeBudgetMillis);
+        long afterKey = loadCheckpoint(job.name());
+        long processed = 0;
+        boolean passComplete;
+
+        try {
+            do {
+                BackgroundJob.Chunk chunk = job.processChunk(afterKey, job.chunkSize());
+                processed += chunk.processed();
+                rowsCounter.increment(chunk.processed());
+
+                passComplete = chunk.scanned() < job.chunkSize();
+                afterKey = passComplete ? 0L : chunk.lastKey();
+                jdbcTemplate.update(SAVE_CHECKPOINT_SQL, job.name(), afterKey, passComplete);
+            } while (!passComplete && System.nanoTime() < deadlineNanos);
+        } finally {
+            Timer.builder("jobs.run.duration")
+                    .tag("job", job.name())
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+
+        if (processed > 0 || !passComplete) {
+            System.out.println("Background job " + job.name() + ": " + processed + " rows processed"
+                    + (passComplete ? ", pass complete" : ", time budget spent, resuming after key " + afterKey));
+        }
+    }
+
+    private long loadCheckpoint(String jobName) {
+        List<Long> lastKey = jdbcTemplate.queryForList(LOAD_CHECKPOINT_SQL, Long.class, jobName);
+        return lastKey.isEmpty() ? 0L : lastKey.get(0);
+    }
+
+    private static boolean advisoryLock(Connection connection, String sql, String jobName) throws Exception {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setString(1, jobName);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() && resultSet.getBoolean(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * Single-node stand-in: there are no other nodes to tell, and local caches are already evicted by
+ * CacheInvalidationService itself after commit.
+ */
+@Service
+@ConditionalOnProperty(name = "invalidation.transport", havingValue = "local")
+public class LocalInvalidationTransport implements InvalidationTransport {
+
+    @Override
+    public void send(String message) {
+    }
+
+    @Override
+    public void start(Receiver receiver) {
+    }
+}
@@ -0,0 +1,59 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import com.flipkartclone.ecommercebackend.repository.OrderRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves settled orders older than the retention window into the order archive, one keyset chunk per transaction.
+ */
+@Component
+public class OrderArchiveJob implements BackgroundJob {
+
+    private final OrderRepository orderRepository;
+    private final OrderArchiveService orderArchiveService;
+    private final long retentionDays;
+    private final int chunkSize;
+    private final long intervalMillis;
+
+    @Autowired
+    public OrderArchiveJob(OrderRepository orderRepository, OrderArchiveService orderArchiveService,
+                           @Value("${jobs.order-archive.retention-days:365}") long retentionDays,
+                           @Value("${jobs.order-archive.chunk-size:500}") int chunkSize,
+                           @Value("${jobs.order-archive.interval-ms:3600000}") long intervalMillis) {
+        this.orderRepository = orderRepository;
+        this.orderArchiveService = orderArchiveService;
+        this.retentionDays = retentionDays;
+        this.chunkSize = chunkSize;
+        this.intervalMillis = intervalMillis;
+    }
+
+    @Override
+    public String name() {
+        return "order-archive";
+    }
+
+    @Override
+    public long intervalMillis() {
+        return intervalMillis;
+    }
+
+    @Override
+    public int chunkSize() {
+        return chunkSize;
+    }
+
+    @Override
+    public Chunk processChunk(long afterKey, int limit) {
+        List<Long> scanned = orderRepository.findIdsAfter(afterKey, limit);
+        if (scanned.isEmpty()) {
+            return new Chunk(0, afterKey, 0);
+        }
+        int archived = orderArchiveService.archiveOrders(scanned, LocalDateTime.now().minusDays(retentionDays));
+        return new Chunk(scanned.size(), scanned.get(scanned.size() - 1), archived);
+    }
+}
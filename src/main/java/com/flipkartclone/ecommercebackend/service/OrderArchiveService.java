@@ -0,0 +1,176 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import com.flipkartclone.ecommercebackend.model.Order;
+import com.flipkartclone.ecommercebackend.model.OrderItem;
+import com.flipkartclone.ecommercebackend.model.OrderStatus;
+import com.flipkartclone.ecommercebackend.model.User;
+import com.flipkartclone.ecommercebackend.model.product.Product;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Moves settled orders past the retention window from orders/order_items into the month-partitioned
+ * orders_archive/order_items_archive tables, and reads them back for OrderService when an order is no longer
+ * in the hot tables. Archived orders are returned as detached, read-only Order objects.
+ */
+@Service
+public class OrderArchiveService {
+
+    private static final String SETTLED = "status IN ('PAID', 'EXPIRED', 'CANCELLED')";
+
+    private static final String MONTHS_SQL = "SELECT DISTINCT date_trunc('month', order_date) FROM orders " +
+            "WHERE id = ANY(?) AND " + SETTLED + " AND order_date < ?";
+    private static final String PARTITION_SQL = "CREATE TABLE IF NOT EXISTS %s_p%s PARTITION OF %s " +
+            "FOR VALUES FROM ('%s') TO ('%s')";
+    private static final String ARCHIVE_ORDERS_SQL =
+            "INSERT INTO orders_archive (id, user_id, order_date, total_amount_minor, status, shipping_address, gateway_order_id) " +
+            "SELECT id, user_id, order_date, total_amount_minor, status, shipping_address, gateway_order_id FROM orders " +
+            "WHERE id = ANY(?) AND " + SETTLED + " AND order_date < ? RETURNING id";
+    private static final String ARCHIVE_ITEMS_SQL =
+            "INSERT INTO order_items_archive (id, order_id, order_date, product_id, product_name, quantity, price_at_order_minor) " +
+            "SELECT oi.id, oi.order_id, o.order_date, oi.product_id, p.name, oi.quantity, oi.price_at_order_minor " +
+            "FROM order_items oi JOIN orders o ON o.id = oi.order_id JOIN products p ON p.id = oi.product_id " +
+            "WHERE oi.order_id = ANY(?)";
+    private static final String DELETE_ITEMS_SQL = "DELETE FROM order_items WHERE order_id = ANY(?)";
+    private static final String DELETE_ORDERS_SQL = "DELETE FROM orders WHERE id = ANY(?)";
+
+    // Items are joined on order_date as well so each order's lines are read from its own partition only.
+    private static final String ARCHIVED_ORDERS_SQL =
+            "SELECT o.id, o.user_id, o.order_date, o.total_amount_minor, o.status, o.shipping_address, " +
+            "i.id, i.product_id, i.product_name, p.image_url, i.quantity, i.price_at_order_minor " +
+            "FROM orders_archive o JOIN order_items_archive i ON i.order_id = o.id AND i.order_date = o.order_date " +
+            "LEFT JOIN products p ON p.id = i.product_id WHERE %s ORDER BY o.order_date, o.id, i.id";
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public OrderArchiveService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Archives the given orders that are settled (paid, expired or cancelled) and were placed before the cutoff.
+     * Settled orders never change again, so no row locks are needed.
+     * @param orderIds Candidate order IDs.
+     * @param cutoff Orders placed before this instant are archived.
+     * @return The number of orders moved.
+     */
+    @Transactional
+    public int archiveOrders(List<Long> orderIds, LocalDateTime cutoff) {
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+        Long[] ids = orderIds.toArray(new Long[0]);
+
+        List<Timestamp> months = queryWithIds(MONTHS_SQL, ids, cutoff, (rs, rowNum) -> rs.getTimestamp(1));
+        for (Timestamp month : months) {
+            createPartitions(month.toLocalDateTime());
+        }
+
+        List<Long> moved = queryWithIds(ARCHIVE_ORDERS_SQL, ids, cutoff, (rs, rowNum) -> rs.getLong(1));
+        if (moved.isEmpty()) {
+            return 0;
+        }
+        Long[] movedIds = moved.toArray(new Long[0]);
+        updateWithIds(ARCHIVE_ITEMS_SQL, movedIds);
+        updateWithIds(DELETE_ITEMS_SQL, movedIds);
+        updateWithIds(DELETE_ORDERS_SQL, movedIds);
+        return moved.size();
+    }
+
+    /**
+     * @param orderId The ID of the order.
+     * @return The archived order with its items, if it was archived.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Order> findOrderById(Long orderId) {
+        return readOrders(String.format(ARCHIVED_ORDERS_SQL, "o.id = ?"), orderId).stream().findFirst();
+    }
+
+    /**
+     * @param userId The ID of the user.
+     * @return The user's archived orders, oldest first.
+     */
+    @Transactional(readOnly = true)
+    public List<Order> findOrdersByUserId(Long userId) {
+        return readOrders(String.format(ARCHIVED_ORDERS_SQL, "o.user_id = ?"), userId);
+    }
+
+    private void createPartitions(LocalDateTime month) {
+        String suffix = month.format(PARTITION_SUFFIX);
+        String from = month.toLocalDate().toString();
+        String to = month.toLocalDate().plusMonths(1).toString();
+        jdbcTemplate.execute(String.format(PARTITION_SQL, "orders_archive", suffix, "orders_archive", from, to));
+        jdbcTemplate.execute(String.format(PARTITION_SQL, "order_items_archive", suffix, "order_items_archive", from, to));
+    }
+
+    private List<Order> readOrders(String sql, Long key) {
+        Map<Long, Order> orders = new LinkedHashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            Order order = orders.computeIfAbsent(rs.getLong(1), id -> mapOrder(rs, id));
+            OrderItem item = new OrderItem();
+            item.setId(rs.getLong(7));
+            item.setOrder(order);
+            Product product = new Product();
+            product.setId(rs.getLong(8));
+            product.setName(rs.getString(9));
+            product.setImageUrl(rs.getString(10));
+            item.setProduct(product);
+            item.setQuantity(rs.getInt(11));
+            item.setPriceAtOrderMinor(rs.getLong(12));
+            order.getOrderItems().add(item);
+        }, key);
+        return new ArrayList<>(orders.values());
+    }
+
+    private static Order mapOrder(ResultSet rs, Long id) {
+        try {
+            Order order = new Order();
+            order.setId(id);
+            User user = new User();
+            user.setId(rs.getLong(2));
+            order.setUser(user);
+            order.setOrderDate(rs.getTimestamp(3).toLocalDateTime());
+            order.setTotalAmountMinor(rs.getLong(4));
+            order.setStatus(OrderStatus.valueOf(rs.getString(5)));
+            order.setShippingAddress(rs.getString(6));
+            return order;
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to read archived order " + id, e);
+        }
+    }
+
+    private <T> List<T> queryWithIds(String sql, Long[] ids, LocalDateTime cutoff, RowMapper<T> rowMapper) {
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setArray(1, connection.createArrayOf("bigint", ids));
+            statement.setTimestamp(2, Timestamp.valueOf(cutoff));
+            return statement;
+        }, rowMapper);
+    }
+
+    private void updateWithIds(String sql, Long[] ids) {
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setArray(1, connection.createArrayOf("bigint", ids));
+            return statement;
+        });
+    }
+}
@@ -0,0 +1,54 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.flipkartclone.ecommercebackend.model.OutboxEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sends order confirmation, payment failure and refund notice emails off the request path.
+ */
+@Component
+public class OrderEmailSubscriber implements OutboxSubscriber {
+
+    private final EmailService emailService;
+    private final OutboxService outboxService;
+
+    @Autowired
+    public OrderEmailSubscriber(EmailService emailService, OutboxService outboxService) {
+        this.emailService = emailService;
+        this.outboxService = outboxService;
+    }
+
+    @Override
+    public boolean supports(String eventType) {
+        return OutboxService.ORDER_PAID.equals(eventType) || OutboxService.ORDER_PAYMENT_FAILED.equals(eventType)
+                || OutboxService.ORDER_REFUND_REQUIRED.equals(eventType);
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        JsonNode payload = outboxService.readPayload(event);
+        String email = payload.path("userEmail").asText(null);
+        if (email == null) {
+            return;
+        }
+
+        long orderId = payload.path("orderId").asLong();
+        if (OutboxService.ORDER_PAID.equals(event.getEventType())) {
+            emailService.sendSimpleMessage(email,
+                    "Order #" + orderId + " confirmed",
+                    "We have received your payment of Rs. " + payload.path("totalAmount").asText()
+                            + " for order #" + orderId + ". We will notify you when it ships.");
+        } else if (OutboxService.ORDER_REFUND_REQUIRED.equals(event.getEventType())) {
+            emailService.sendSimpleMessage(email,
+                    "Refund for order #" + orderId,
+                    "Your payment of Rs. " + payload.path("totalAmount").asText() + " for order #" + orderId
+                            + " arrived after the order had been closed. The amount will be refunded to you.");
+        } else {
+            emailService.sendSimpleMessage(email,
+                    "Payment failed for order #" + orderId,
+                    "Your payment for order #" + orderId + " could not be completed. Please try again from your orders page.");
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import com.flipkartclone.ecommercebackend.repository.OrderRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Expires orders that stayed unpaid past the payment deadline, walking them in keyset chunks so that
+ * each chunk is a separate short transaction. Orders that have a gateway order wait until PaymentReconciliationJob
+ * has checked them after the deadline, for at most unreconciled-grace-minutes more.
+ */
+@Component
+public class OrderExpiryJob implements BackgroundJob {
+
+    private final OrderRepository orderRepository;
+    private final OrderService orderService;
+    private final long pendingTtlMinutes;
+    private final long unreconciledGraceMinutes;
+    private final int batchSize;
+    private final long intervalMillis;
+
+    @Autowired
+    public OrderExpiryJob(OrderRepository orderRepository, OrderService orderService,
+                          @Value("${orders.expiry.pending-ttl-minutes:30}") long pendingTtlMinutes,
+                          @Value("${orders.expiry.unreconciled-grace-minutes:60}") long unreconciledGraceMinutes,
+                          @Value("${orders.expiry.batch-size:500}") int batchSize,
+                          @Value("${orders.expiry.interval-ms:60000}") long intervalMillis) {
+        this.orderRepository = orderRepository;
+        this.orderService = orderService;
+        this.pendingTtlMinutes = pendingTtlMinutes;
+        this.unreconciledGraceMinutes = unreconciledGraceMinutes;
+        this.batchSize = batchSize;
+        this.intervalMillis = intervalMillis;
+    }
+
+    @Override
+    public String name() {
+        return "order-expiry";
+    }
+
+    @Override
+    public long intervalMillis() {
+        return intervalMillis;
+    }
+
+    @Override
+    public int chunkSize() {
+        return batchSize;
+    }
+
+    @Override
+    public Chunk processChunk(long afterKey, int limit) {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(pendingTtlMinutes);
+        LocalDateTime unreconciledCutoff = cutoff.minusMinutes(unreconciledGraceMinutes);
+        int ttlMinutes = Math.toIntExact(pendingTtlMinutes);
+        List<Long> batch = orderRepository.findUnpaidOrderIdsBefore(cutoff, ttlMinutes, unreconciledCutoff, afterKey, limit);
+        if (batch.isEmpty()) {
+            return new Chunk(0, afterKey, 0);
+        }
+        int expired = orderService.expireUnpaidOrders(batch, cutoff, ttlMinutes, unreconciledCutoff);
+        return new Chunk(batch.size(), batch.get(batch.size() - 1), expired);
+    }
+}
@@ -2,8 +2,10 @@ package com.flipkartclone.ecommercebackend.service;
 
 import com.flipkartclone.ecommercebackend.model.Cart;
 import com.flipkartclone.ecommercebackend.model.CartItem;
+import com.flipkartclone.ecommercebackend.model.Money;
 import com.flipkartclone.ecommercebackend.model.Order;
 import com.flipkartclone.ecommercebackend.model.OrderItem;
+import com.flipkartclone.ecommercebackend.model.OrderStatus;
 import com.flipkartclone.ecommercebackend.model.User;
 import com.flipkartclone.ecommercebackend.model.product.Product;
 import com.flipkartclone.ecommercebackend.repository.CartRepository;
@@ -11,14 +13,24 @@ import com.flipkartclone.ecommercebackend.repository.OrderRepository;
 import com.flipkartclone.ecommercebackend.repository.OrderItemRepository;
 import com.flipkartclone.ecommercebackend.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.PessimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Service
 public class OrderService {
@@ -27,14 +39,37 @@ public class OrderService {
     private final OrderItemRepository orderItemRepository;
     private final UserRepository userRepository;
     private final CartRepository cartRepository;
+    private final OutboxService outboxService;
+    private final ProductFacetService productFacetService;
+    private final CacheInvalidationService cacheInvalidationService;
+    private final OrderArchiveService orderArchiveService;
+    private final InventoryService inventoryService;
+    private final OrderSummaryService orderSummaryService;
+    private final CartService cartService;
+    private final TransactionTemplate transactionTemplate;
+    private final int placeMaxAttempts;
 
     @Autowired
     public OrderService(OrderRepository orderRepository, OrderItemRepository orderItemRepository,
-                        UserRepository userRepository, CartRepository cartRepository) {
+                        UserRepository userRepository, CartRepository cartRepository, OutboxService outboxService,
+                        ProductFacetService productFacetService, CacheInvalidationService cacheInvalidationService,
+                        OrderArchiveService orderArchiveService, InventoryService inventoryService,
+                        OrderSummaryService orderSummaryService, CartService cartService,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${orders.place.max-attempts:3}") int placeMaxAttempts) {
         this.orderRepository = orderRepository;
         this.orderItemRepository = orderItemRepository;
         this.userRepository = userRepository;
         this.cartRepository = cartRepository;
+        this.outboxService = outboxService;
+        this.productFacetService = productFacetService;
+        this.cacheInvalidationService = cacheInvalidationService;
+        this.orderArchiveService = orderArchiveService;
+        this.inventoryService = inventoryService;
+        this.orderSummaryService = orderSummaryService;
+        this.cartService = cartService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.placeMaxAttempts = placeMaxAttempts;
     }
 
     /**
@@ -42,10 +77,33 @@ public class OrderService {
      * @param userId The ID of the user placing the order.
      * @param shippingAddress The address for shipping.
      * @return The created Order entity.
-     * @throws RuntimeException if user not found, cart is empty, or cart not found.
+     * @throws RuntimeException if user not found, cart is empty, cart not found, a product is out of stock, or
+     *         stock stayed contended over all attempts.
      */
-    @Transactional
     public Order placeOrder(Long userId, String shippingAddress) {
+        // Inside a caller's transaction a lock failure has already doomed it, so only the outermost attempt retries.
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return placeOrderOnce(userId, shippingAddress);
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> placeOrderOnce(userId, shippingAddress));
+            } catch (PessimisticLockingFailureException e) {
+                if (attempt >= placeMaxAttempts) {
+                    throw new RuntimeException("Stock is contended, order not placed after " + attempt + " attempts.", e);
+                }
+                System.out.println("Placing order for user " + userId + " hit a lock conflict, retrying: " + e.getMessage());
+                try {
+                    Thread.sleep(ThreadLocalRandom.current().nextLong(10, 50) * attempt);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private Order placeOrderOnce(Long userId, String shippingAddress) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found with ID: " + userId));
 
@@ -55,14 +113,17 @@ public class OrderService {
         if (cart.getCartItems().isEmpty()) {
             throw new RuntimeException("Cannot place order with an empty cart.");
         }
+        // The products were just read in this transaction, so the order is charged at current prices even if
+        // the cart was last priced before a price change.
+        cartService.reprice(cart);
 
         Order order = new Order();
         order.setUser(user);
         order.setOrderDate(LocalDateTime.now());
-        order.setStatus("PENDING");
+        order.setStatus(OrderStatus.PENDING);
         order.setShippingAddress(shippingAddress);
 
-        BigDecimal totalOrderAmount = BigDecimal.ZERO;
+        long totalOrderAmount = 0;
         List<OrderItem> orderItems = new ArrayList<>();
 
         for (CartItem cartItem : cart.getCartItems()) {
@@ -70,40 +131,110 @@ public class OrderService {
             orderItem.setOrder(order);
             orderItem.setProduct(cartItem.getProduct());
             orderItem.setQuantity(cartItem.getQuantity());
-            orderItem.setPriceAtOrder(cartItem.getPriceAtPurchase());
+            orderItem.setPriceAtOrderMinor(cartItem.getPriceAtPurchaseMinor());
             orderItems.add(orderItem);
 
-            totalOrderAmount = totalOrderAmount.add(orderItem.getPriceAtOrder().multiply(BigDecimal.valueOf(orderItem.getQuantity())));
+            totalOrderAmount = Money.plus(totalOrderAmount, Money.times(orderItem.getPriceAtOrderMinor(), orderItem.getQuantity()));
         }
 
         order.setOrderItems(orderItems);
-        order.setTotalAmount(totalOrderAmount);
+        order.setTotalAmountMinor(totalOrderAmount);
 
+        // Saved first so the stock movements can reference the order; a failed reservation rolls both back.
         Order savedOrder = orderRepository.save(order);
 
+        // One reservation per product, in ascending product ID order (see InventoryService#reserve).
+        Map<Long, Integer> quantities = new TreeMap<>();
+        Map<Long, String> names = new HashMap<>();
+        for (OrderItem orderItem : orderItems) {
+            quantities.merge(orderItem.getProduct().getId(), orderItem.getQuantity(), Integer::sum);
+            names.put(orderItem.getProduct().getId(), orderItem.getProduct().getName());
+        }
+        List<Long> reservedProductIds = new ArrayList<>(quantities.size());
+        for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+            // Stock stays reserved while the order is unpaid and is released if it expires.
+            if (!inventoryService.reserve(line.getKey(), line.getValue(), savedOrder.getId())) {
+                throw new RuntimeException("Insufficient stock for product: " + names.get(line.getKey()));
+            }
+            reservedProductIds.add(line.getKey());
+        }
+
         cartRepository.delete(cart);
+        orderSummaryService.orderPlaced(userId, savedOrder.getOrderDate());
+
+        productFacetService.stockChanged(inventoryService.findAvailableStock(reservedProductIds));
+        cacheInvalidationService.stockChanged(reservedProductIds);
+        outboxService.publishOrderEvent(OutboxService.ORDER_PLACED, savedOrder);
 
         return savedOrder;
     }
 
+    /**
+     * Expires one keyset batch of unpaid orders placed before the cutoff and releases their reserved stock.
+     * Runs as its own short transaction so row locks are held only for the batch.
+     * @param orderIds Candidate order IDs from {@link OrderRepository#findUnpaidOrderIdsBefore}.
+     * @param cutoff Orders placed before this instant are considered abandoned.
+     * @param pendingTtlMinutes The payment deadline; orders with a gateway order also need a payment check after it.
+     * @param unreconciledCutoff Orders placed before this instant are expired even without that check.
+     * @return The number of orders actually expired.
+     */
+    @Transactional
+    public int expireUnpaidOrders(List<Long> orderIds, LocalDateTime cutoff, int pendingTtlMinutes,
+                                  LocalDateTime unreconciledCutoff) {
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> expiredIds = orderRepository.expireUnpaidOrders(orderIds, cutoff, pendingTtlMinutes, unreconciledCutoff);
+        if (!expiredIds.isEmpty()) {
+            List<Long> releasedProductIds = inventoryService.releaseForOrders(expiredIds);
+            productFacetService.stockChanged(inventoryService.findAvailableStock(releasedProductIds));
+            cacheInvalidationService.stockChanged(releasedProductIds);
+            for (Long expiredId : expiredIds) {
+                outboxService.publish(OutboxService.ORDER_EXPIRED, expiredId, Map.of("orderId", expiredId));
+            }
+        }
+        return expiredIds.size();
+    }
+
     /**
      * Retrieves all orders for a specific user.
      * @param userId The ID of the user.
      * @return A list of orders for the user.
      */
+    @Transactional(readOnly = true)
     public List<Order> getOrdersByUserId(Long userId) {
         userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found with ID: " + userId));
 
-        return orderRepository.findByUserIdWithItems(userId);
+        // The hot table is read first. Each statement sees its own snapshot, so an order archived after the first
+        // read is still found by the second; read the other way round it would be in neither. An order archived
+        // between the reads shows up in both, hence the de-duplication. Archived orders are all older than
+        // anything still in the hot table, so they come first.
+        List<Order> hotOrders = orderRepository.findByUserIdWithItems(userId);
+        Set<Long> hotIds = new HashSet<>();
+        for (Order order : hotOrders) {
+            hotIds.add(order.getId());
+        }
+        List<Order> orders = new ArrayList<>();
+        for (Order order : orderArchiveService.findOrdersByUserId(userId)) {
+            if (!hotIds.contains(order.getId())) {
+                orders.add(order);
+            }
+        }
+        orders.addAll(hotOrders);
+        return orders;
     }
 
     /**
-     * Retrieves a single order by its ID.
+     * Retrieves a single order by its ID, falling back to the order archive. Not read-only, so it runs on the
+     * primary: clients fetch an order right after placing or paying for it, and a replica may not have it yet.
      * @param orderId The ID of the order.
      * @return An Optional containing the Order if found, or empty otherwise.
      */
+    @Transactional
     public Optional<Order> getOrderById(Long orderId) {
-        return orderRepository.findByIdWithItems(orderId);
+        return orderRepository.findByIdWithItems(orderId)
+                .or(() -> orderArchiveService.findOrderById(orderId));
     }
 }
\ No newline at end of file
@@ -0,0 +1,196 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import com.flipkartclone.ecommercebackend.dto.UserOrderSummaryResponse;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Per-user order count, paid order count, lifetime spend and last order date, kept in user_order_summaries.
+ * <p>
+ * The row is bumped by OrderService#placeOrder and by PaymentService when orders become PAID, inside their
+ * transactions, so account pages read one row instead of loading the user's order history. PAID is terminal,
+ * so the counters only ever go up. A rebuild recomputes the rows from orders and orders_archive for backfills
+ * or after manual data fixes.
+ */
+@Service
+public class OrderSummaryService {
+
+    private static final String ORDER_PLACED_SQL = "INSERT INTO user_order_summaries (user_id, order_count, last_order_at) " +
+            "VALUES (?, 1, ?) ON CONFLICT (user_id) DO UPDATE SET order_count = user_order_summaries.order_count + 1, " +
+            "last_order_at = GREATEST(user_order_summaries.last_order_at, EXCLUDED.last_order_at)";
+    private static final String ORDERS_PAID_SQL =
+            "INSERT INTO user_order_summaries (user_id, paid_order_count, lifetime_spend_minor) " +
+            "SELECT user_id, COUNT(*), SUM(total_amount_minor) FROM orders WHERE id = ANY(?) GROUP BY user_id ORDER BY user_id " +
+            "ON CONFLICT (user_id) DO UPDATE SET " +
+            "paid_order_count = user_order_summaries.paid_order_count + EXCLUDED.paid_order_count, " +
+            "lifetime_spend_minor = user_order_summaries.lifetime_spend_minor + EXCLUDED.lifetime_spend_minor";
+
+    // Users without a row yet (no orders) get zeros; unknown users get no row at all.
+    private static final String SUMMARY_SQL = "SELECT u.id, COALESCE(s.order_count, 0), COALESCE(s.paid_order_count, 0), " +
+            "COALESCE(s.lifetime_spend_minor, 0), s.last_order_at " +
+            "FROM users u LEFT JOIN user_order_summaries s ON s.user_id = u.id WHERE u.id = ?";
+
+    private static final String USERS_AFTER_SQL = "SELECT id FROM users WHERE id > ? ORDER BY id LIMIT ?";
+    private static final String ENSURE_ROWS_SQL = "INSERT INTO user_order_summaries (user_id) " +
+            "SELECT unnest(?::bigint[]) ON CONFLICT DO NOTHING";
+    private static final String LOCK_ROWS_SQL = "SELECT user_id FROM user_order_summaries WHERE user_id = ANY(?) " +
+            "ORDER BY user_id FOR UPDATE";
+    // Runs after LOCK_ROWS_SQL in its own statement, so its snapshot includes every order whose transaction already
+    // bumped one of these rows; orders committing later bump the recomputed row themselves.
+    private static final String RECOMPUTE_SQL = "UPDATE user_order_summaries s SET order_count = COALESCE(a.order_count, 0), " +
+            "paid_order_count = COALESCE(a.paid_order_count, 0), lifetime_spend_minor = COALESCE(a.spend, 0), " +
+            "last_order_at = a.last_order_at " +
+            "FROM unnest(?::bigint[]) AS u(user_id) LEFT JOIN (" +
+            "SELECT user_id, COUNT(*) AS order_count, COUNT(*) FILTER (WHERE status = 'PAID') AS paid_order_count, " +
+            "SUM(total_amount_minor) FILTER (WHERE status = 'PAID') AS spend, MAX(order_date) AS last_order_at " +
+            "FROM (SELECT user_id, status, total_amount_minor, order_date FROM orders WHERE user_id = ANY(?) " +
+            "UNION ALL SELECT user_id, status, total_amount_minor, order_date FROM orders_archive WHERE user_id = ANY(?)) o " +
+            "GROUP BY user_id) a ON a.user_id = u.user_id WHERE s.user_id = u.user_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int rebuildChunkSize;
+
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "order-summary-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    @Autowired
+    public OrderSummaryService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                               @Value("${order-summary.rebuild-chunk-size:1000}") int rebuildChunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rebuildChunkSize = rebuildChunkSize;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    /**
+     * Counts a newly placed order. Must run in the transaction that inserts the order.
+     * @param userId The ID of the user who placed it.
+     * @param orderDate The order's date.
+     */
+    @Transactional
+    public void orderPlaced(Long userId, LocalDateTime orderDate) {
+        jdbcTemplate.update(ORDER_PLACED_SQL, userId, Timestamp.valueOf(orderDate));
+    }
+
+    /**
+     * Adds orders that just moved to PAID to their users' spend. Must run in the transaction that changes their
+     * status, and only for orders that actually changed, since webhooks and reconciliation can both report one.
+     * @param orderIds The IDs of the orders that became PAID.
+     */
+    @Transactional
+    public void ordersPaid(Collection<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return;
+        }
+        Long[] ids = orderIds.toArray(new Long[0]);
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(ORDERS_PAID_SQL);
+            statement.setArray(1, connection.createArrayOf("bigint", ids));
+            return statement;
+        });
+    }
+
+    /**
+     * @param userId The ID of the user.
+     * @return The user's order summary, or empty if the user doesn't exist.
+     */
+    @Transactional(readOnly = true)
+    public Optional<UserOrderSummaryResponse> getSummary(Long userId) {
+        return jdbcTemplate.query(SUMMARY_SQL, (rs, rowNum) -> {
+            Timestamp lastOrderAt = rs.getTimestamp(5);
+            return new UserOrderSummaryResponse(rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getLong(4),
+                    lastOrderAt == null ? null : lastOrderAt.toLocalDateTime());
+        }, userId).stream().findFirst();
+    }
+
+    /**
+     * Starts a rebuild of all summaries on the rebuild thread without waiting for it.
+     * @return False if a rebuild is already running.
+     */
+    public boolean startRebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return false;
+        }
+        rebuildExecutor.execute(() -> {
+            try {
+                rebuild();
+            } catch (Exception e) {
+                System.out.println("Order summary rebuild failed: " + e.getMessage());
+                e.printStackTrace();
+            } finally {
+                rebuilding.set(false);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Recomputes every user's summary from orders and orders_archive, one keyset chunk of users per transaction.
+     * Safe to run while orders are placed and paid.
+     * @return The number of users recomputed.
+     */
+    public long rebuild() {
+        long started = System.currentTimeMillis();
+        long afterUserId = 0;
+        long users = 0;
+        List<Long> chunk;
+        do {
+            chunk = jdbcTemplate.queryForList(USERS_AFTER_SQL, Long.class, afterUserId, rebuildChunkSize);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            Long[] ids = chunk.toArray(new Long[0]);
+            transactionTemplate.executeWithoutResult(status -> recompute(ids));
+            users += chunk.size();
+            afterUserId = chunk.get(chunk.size() - 1);
+        } while (chunk.size() == rebuildChunkSize);
+
+        System.out.println("Order summaries rebuilt for " + users + " users in " + (System.currentTimeMillis() - started) + " ms");
+        return users;
+    }
+
+    private void recompute(Long[] userIds) {
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(ENSURE_ROWS_SQL);
+            statement.setArray(1, connection.createArrayOf("bigint", userIds));
+            return statement;
+        });
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(LOCK_ROWS_SQL);
+            statement.setArray(1, connection.createArrayOf("bigint", userIds));
+            return statement;
+        }, (rs, rowNum) -> rs.getLong(1));
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(RECOMPUTE_SQL);
+            for (int i = 1; i <= 3; i++) {
+                statement.setArray(i, connection.createArrayOf("bigint", userIds));
+            }
+            return statement;
+        });
+    }
+}
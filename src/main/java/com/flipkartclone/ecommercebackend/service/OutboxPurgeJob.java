@@ -0,0 +1,60 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import com.flipkartclone.ecommercebackend.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Deletes outbox events that every subscriber handled more than the retention period ago. Undelivered events,
+ * including ones that ran out of attempts, are kept for inspection.
+ */
+@Component
+public class OutboxPurgeJob implements BackgroundJob {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final long retentionDays;
+    private final int chunkSize;
+    private final long intervalMillis;
+
+    @Autowired
+    public OutboxPurgeJob(OutboxEventRepository outboxEventRepository,
+                          @Value("${jobs.outbox-purge.retention-days:7}") long retentionDays,
+                          @Value("${jobs.outbox-purge.chunk-size:1000}") int chunkSize,
+                          @Value("${jobs.outbox-purge.interval-ms:3600000}") long intervalMillis) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.retentionDays = retentionDays;
+        this.chunkSize = chunkSize;
+        this.intervalMillis = intervalMillis;
+    }
+
+    @Override
+    public String name() {
+        return "outbox-purge";
+    }
+
+    @Override
+    public long intervalMillis() {
+        return intervalMillis;
+    }
+
+    @Override
+    public int chunkSize() {
+        return chunkSize;
+    }
+
+    @Override
+    @Transactional
+    public Chunk processChunk(long afterKey, int limit) {
+        List<Long> scanned = outboxEventRepository.findIdsAfter(afterKey, limit);
+        if (scanned.isEmpty()) {
+            return new Chunk(0, afterKey, 0);
+        }
+        int deleted = outboxEventRepository.deleteProcessedBefore(scanned, LocalDateTime.now().minusDays(retentionDays)).size();
+        return new Chunk(scanned.size(), scanned.get(scanned.size() - 1), deleted);
+    }
+}
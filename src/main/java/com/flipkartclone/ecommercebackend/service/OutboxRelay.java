@@ -0,0 +1,160 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import com.flipkartclone.ecommercebackend.model.OutboxEvent;
+import com.flipkartclone.ecommercebackend.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Polls the outbox in batches and hands each event to the matching subscribers.
+ * <p>
+ * A batch is claimed in a short transaction (leasing the rows for claim-timeout-ms) and dispatched after it
+ * commits, so subscribers never run under the relay's row locks. An event is marked processed only after all of
+ * its subscribers succeeded, in one transaction with its transactional subscribers; otherwise it is retried with
+ * exponential backoff until max-attempts is reached, after which it is counted as dead.
+ */
+@Component
+public class OutboxRelay {
+
+    private static final int MAX_ERROR_LENGTH = 2000;
+    private static final int MAX_BACKOFF_SHIFT = 30;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<OutboxSubscriber> subscribers;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long retryBaseMillis;
+    private final long retryMaxMillis;
+    private final long claimTimeoutMillis;
+
+    private final Counter dispatchedCounter;
+    private final Counter failedCounter;
+    private final Timer batchTimer;
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final AtomicLong deadEvents = new AtomicLong();
+
+    @Autowired
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, List<OutboxSubscriber> subscribers,
+                       PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                       @Value("${outbox.relay.batch-size:100}") int batchSize,
+                       @Value("${outbox.relay.max-attempts:10}") int maxAttempts,
+                       @Value("${outbox.relay.retry-base-ms:1000}") long retryBaseMillis,
+                       @Value("${outbox.relay.retry-max-ms:600000}") long retryMaxMillis,
+                       @Value("${outbox.relay.claim-timeout-ms:300000}") long claimTimeoutMillis) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.subscribers = subscribers;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryBaseMillis = retryBaseMillis;
+        this.retryMaxMillis = retryMaxMillis;
+        this.claimTimeoutMillis = claimTimeoutMillis;
+
+        this.dispatchedCounter = Counter.builder("outbox.events.dispatched").register(meterRegistry);
+        this.failedCounter = Counter.builder("outbox.events.failed").register(meterRegistry);
+        this.batchTimer = Timer.builder("outbox.relay.batch").register(meterRegistry);
+        Gauge.builder("outbox.lag.seconds", lagMillis, lag -> lag.get() / 1000.0).register(meterRegistry);
+        Gauge.builder("outbox.events.dead", deadEvents, AtomicLong::get).register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:1000}")
+    public void relay() {
+        int[] claimedAndFailed;
+        do {
+            claimedAndFailed = batchTimer.record(this::relayBatch);
+            // A batch with failures ends this poll: retrying now would only burn attempts (e.g. during an SMTP outage).
+        } while (claimedAndFailed[0] == batchSize && claimedAndFailed[1] == 0);
+
+        lagMillis.set(outboxEventRepository.findOldestPendingCreatedAt(maxAttempts)
+                .map(oldest -> Duration.between(oldest, LocalDateTime.now()).toMillis())
+                .orElse(0L));
+        deadEvents.set(outboxEventRepository.countDead(maxAttempts));
+    }
+
+    // Returns {claimed, failed}.
+    private int[] relayBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxEvent> batch = transactionTemplate.execute(status -> outboxEventRepository.claimNextBatch(
+                batchSize, maxAttempts, now, now.plus(Duration.ofMillis(claimTimeoutMillis))));
+        if (batch == null || batch.isEmpty()) {
+            return new int[]{0, 0};
+        }
+        batch.sort(Comparator.comparing(OutboxEvent::getId));
+
+        List<Long> processedIds = new ArrayList<>();
+        int failed = 0;
+        for (OutboxEvent event : batch) {
+            try {
+                List<OutboxSubscriber> transactional = new ArrayList<>();
+                for (OutboxSubscriber subscriber : subscribers) {
+                    if (!subscriber.supports(event.getEventType())) {
+                        continue;
+                    }
+                    if (subscriber.transactional()) {
+                        transactional.add(subscriber);
+                    } else {
+                        subscriber.handle(event);
+                    }
+                }
+                if (transactional.isEmpty()) {
+                    processedIds.add(event.getId());
+                } else {
+                    transactionTemplate.executeWithoutResult(status -> {
+                        for (OutboxSubscriber subscriber : transactional) {
+                            try {
+                                subscriber.handle(event);
+                            } catch (RuntimeException e) {
+                                throw e;
+                            } catch (Exception e) {
+                                throw new RuntimeException(e.getMessage(), e);
+                            }
+                        }
+                        // Already acknowledged by a relay that re-claimed it: undo this delivery's writes.
+                        if (outboxEventRepository.markProcessed(List.of(event.getId()), LocalDateTime.now()) == 0) {
+                            status.setRollbackOnly();
+                        }
+                    });
+                    dispatchedCounter.increment();
+                }
+            } catch (Exception e) {
+                failed++;
+                markFailed(event, e);
+            }
+        }
+
+        if (!processedIds.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status ->
+                    outboxEventRepository.markProcessed(processedIds, LocalDateTime.now()));
+            dispatchedCounter.increment(processedIds.size());
+        }
+        return new int[]{batch.size(), failed};
+    }
+
+    private void markFailed(OutboxEvent event, Exception e) {
+        int attempts = event.getAttempts() + 1;
+        String message = String.valueOf(e.getMessage());
+        String lastError = message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+        long backoffMillis = Math.min(retryMaxMillis, retryBaseMillis << Math.min(attempts - 1, MAX_BACKOFF_SHIFT));
+        transactionTemplate.executeWithoutResult(status -> outboxEventRepository.markFailed(
+                event.getId(), lastError, LocalDateTime.now().plus(Duration.ofMillis(backoffMillis))));
+        failedCounter.increment();
+        System.out.println("Outbox event " + event.getId() + " (" + event.getEventType() + ") failed on attempt "
+                + attempts + (attempts >= maxAttempts ? ", giving up: " : ", retrying in " + backoffMillis + " ms: ") + message);
+    }
+}
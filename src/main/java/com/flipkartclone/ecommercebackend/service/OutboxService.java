@@ -0,0 +1,116 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flipkartclone.ecommercebackend.model.Money;
+import com.flipkartclone.ecommercebackend.model.Order;
+import com.flipkartclone.ecommercebackend.model.OrderItem;
+import com.flipkartclone.ecommercebackend.model.OutboxEvent;
+import com.flipkartclone.ecommercebackend.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class OutboxService {
+
+    public static final String ORDER_PLACED = "ORDER_PLACED";
+    public static final String ORDER_PAID = "ORDER_PAID";
+    public static final String ORDER_PAYMENT_FAILED = "ORDER_PAYMENT_FAILED";
+    public static final String ORDER_EXPIRED = "ORDER_EXPIRED";
+    // A payment was captured for an order that had already expired or been cancelled; the money must go back.
+    public static final String ORDER_REFUND_REQUIRED = "ORDER_REFUND_REQUIRED";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public OutboxService(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Records an event in the caller's transaction. It becomes visible to the relay only if that transaction commits.
+     * @param eventType One of the event type constants of this class.
+     * @param aggregateId The ID of the entity the event is about (e.g. the order ID).
+     * @param payload Event data, serialized to JSON.
+     * @return The saved OutboxEvent.
+     * @throws RuntimeException if the payload cannot be serialized.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public OutboxEvent publish(String eventType, Long aggregateId, Map<String, Object> payload) {
+        OutboxEvent event = new OutboxEvent();
+        event.setEventType(eventType);
+        event.setAggregateId(aggregateId);
+        event.setCreatedAt(LocalDateTime.now());
+        event.setNextAttemptAt(event.getCreatedAt());
+        try {
+            event.setPayload(objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize outbox payload for " + eventType + ": " + e.getMessage(), e);
+        }
+        return outboxEventRepository.save(event);
+    }
+
+    /**
+     * Records an order lifecycle event carrying the order header and its line items.
+     * @param eventType One of the ORDER_* event type constants.
+     * @param order The order the event is about; its user and items must be loadable in the current transaction.
+     * @return The saved OutboxEvent.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public OutboxEvent publishOrderEvent(String eventType, Order order) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("orderId", order.getId());
+        payload.put("userId", order.getUser().getId());
+        payload.put("userEmail", order.getUser().getEmail());
+        payload.put("status", order.getStatus().name());
+        payload.put("totalAmount", Money.toString(order.getTotalAmountMinor()));
+        payload.put("orderDate", order.getOrderDate().toString());
+
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (OrderItem orderItem : order.getOrderItems()) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("productId", orderItem.getProduct().getId());
+            item.put("categoryId", orderItem.getProduct().getCategory().getId());
+            item.put("quantity", orderItem.getQuantity());
+            item.put("priceAtOrder", Money.toString(orderItem.getPriceAtOrderMinor()));
+            items.add(item);
+        }
+        payload.put("items", items);
+
+        return publish(eventType, order.getId(), payload);
+    }
+
+    /**
+     * @param eventType One of the event type constants of this class.
+     * @param aggregateId The ID of the entity the event is about.
+     * @return True if such an event was already recorded (and not yet purged).
+     */
+    public boolean wasPublished(String eventType, Long aggregateId) {
+        return outboxEventRepository.existsByEventTypeAndAggregateId(eventType, aggregateId);
+    }
+
+    /**
+     * Parses the JSON payload of an event.
+     * @param event The outbox event.
+     * @return The payload as a JsonNode.
+     * @throws RuntimeException if the payload is not valid JSON.
+     */
+    public JsonNode readPayload(OutboxEvent event) {
+        try {
+            return objectMapper.readTree(event.getPayload());
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Malformed outbox payload for event ID: " + event.getId(), e);
+        }
+    }
+}
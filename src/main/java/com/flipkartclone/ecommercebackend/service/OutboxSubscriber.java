@@ -0,0 +1,23 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import com.flipkartclone.ecommercebackend.model.OutboxEvent;
+
+/**
+ * In-process consumer of outbox events. Delivery is at-least-once, so handlers must be idempotent.
+ * By default handlers run after the relay has claimed the event and committed, outside any transaction, so
+ * slow side effects (e.g. SMTP) hold no locks. A subscriber that only writes to the database can instead ask to
+ * run in the transaction that marks the event processed, so its writes and the acknowledgement commit together.
+ */
+public interface OutboxSubscriber {
+
+    boolean supports(String eventType);
+
+    void handle(OutboxEvent event) throws Exception;
+
+    /**
+     * @return True to run {@link #handle} inside the transaction that marks the event processed.
+     */
+    default boolean transactional() {
+        return false;
+    }
+}
@@ -0,0 +1,39 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import com.flipkartclone.ecommercebackend.dto.PaymentOrderResponse;
+import com.flipkartclone.ecommercebackend.model.OrderStatus;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The external payment provider. Razorpay in production; a local stub (payment.gateway=stub) for load tests.
+ */
+public interface PaymentGateway {
+
+    /**
+     * Creates a payment order with the provider.
+     * @param amountMinor Amount in the smallest currency unit.
+     * @param currency ISO currency code.
+     * @param receipt Our receipt reference, echoed back in webhooks.
+     * @param notes Free-form key/values stored with the order.
+     * @return The provider's order.
+     * @throws RuntimeException if the provider call fails.
+     */
+    PaymentOrderResponse createOrder(long amountMinor, String currency, String receipt, Map<String, String> notes);
+
+    /**
+     * @param payload Raw webhook body.
+     * @param signature Value of the X-Razorpay-Signature header.
+     * @return True if the payload was signed with our webhook secret.
+     */
+    boolean verifyWebhookSignature(String payload, String signature);
+
+    /**
+     * Looks up the payment outcome of several provider orders, e.g. to recover from lost webhooks.
+     * @param gatewayOrderIds Provider order IDs.
+     * @return PAID or FAILED per provider order whose outcome is settled, PENDING per order still awaiting payment;
+     * orders whose lookup failed are left out.
+     */
+    Map<String, OrderStatus> fetchOrderOutcomes(List<String> gatewayOrderIds);
+}
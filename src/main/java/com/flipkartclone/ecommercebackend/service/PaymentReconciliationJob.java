@@ -0,0 +1,78 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import com.flipkartclone.ecommercebackend.repository.OrderRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Recovers from lost payment webhooks: unpaid orders that got a gateway order more than min-age-minutes ago are
+ * checked with the gateway through PaymentService and moved to PAID or FAILED. An order is checked again after
+ * recheck-minutes, and once more after its payment deadline, which OrderExpiryJob waits for before expiring it.
+ * Each pass starts at the oldest order, so the ones closest to expiry are checked first.
+ */
+@Component
+public class PaymentReconciliationJob implements BackgroundJob {
+
+    private final OrderRepository orderRepository;
+    private final PaymentService paymentService;
+    private final long minAgeMinutes;
+    private final long recheckMinutes;
+    private final long pendingTtlMinutes;
+    private final int chunkSize;
+    private final long intervalMillis;
+
+    @Autowired
+    public PaymentReconciliationJob(OrderRepository orderRepository, PaymentService paymentService,
+                                    @Value("${jobs.payment-reconciliation.min-age-minutes:5}") long minAgeMinutes,
+                                    @Value("${jobs.payment-reconciliation.recheck-minutes:10}") long recheckMinutes,
+                                    @Value("${orders.expiry.pending-ttl-minutes:30}") long pendingTtlMinutes,
+                                    @Value("${jobs.payment-reconciliation.chunk-size:500}") int chunkSize,
+                                    @Value("${jobs.payment-reconciliation.interval-ms:120000}") long intervalMillis) {
+        this.orderRepository = orderRepository;
+        this.paymentService = paymentService;
+        this.minAgeMinutes = minAgeMinutes;
+        this.recheckMinutes = recheckMinutes;
+        this.pendingTtlMinutes = pendingTtlMinutes;
+        this.chunkSize = chunkSize;
+        this.intervalMillis = intervalMillis;
+    }
+
+    @Override
+    public String name() {
+        return "payment-reconciliation";
+    }
+
+    @Override
+    public long intervalMillis() {
+        return intervalMillis;
+    }
+
+    @Override
+    public int chunkSize() {
+        return chunkSize;
+    }
+
+    @Override
+    public Chunk processChunk(long afterKey, int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = orderRepository.findPendingGatewayOrdersAfter(afterKey, now.minusMinutes(minAgeMinutes),
+                now.minusMinutes(recheckMinutes), now.minusMinutes(pendingTtlMinutes), Math.toIntExact(pendingTtlMinutes),
+                limit);
+        if (rows.isEmpty()) {
+            return new Chunk(0, afterKey, 0);
+        }
+
+        Map<Long, String> gatewayOrderIds = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            gatewayOrderIds.put(((Number) row[0]).longValue(), (String) row[1]);
+        }
+        int settled = paymentService.reconcilePendingOrders(gatewayOrderIds);
+        return new Chunk(rows.size(), ((Number) rows.get(rows.size() - 1)[0]).longValue(), settled);
+    }
+}
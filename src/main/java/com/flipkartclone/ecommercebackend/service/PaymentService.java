@@ -1,111 +1,124 @@
 package com.flipkartclone.ecommercebackend.service;
 
-import com.razorpay.Order;
-import com.razorpay.RazorpayClient;
-import com.razorpay.RazorpayException;
-import com.razorpay.Utils;
+import com.flipkartclone.ecommercebackend.model.OrderStatus;
 import com.flipkartclone.ecommercebackend.model.User;
 import com.flipkartclone.ecommercebackend.repository.OrderRepository;
 import com.flipkartclone.ecommercebackend.repository.UserRepository;
 import com.flipkartclone.ecommercebackend.dto.PaymentOrderRequest;
 import com.flipkartclone.ecommercebackend.dto.PaymentOrderResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value; // Still needed if you keep using @Value for other properties
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.math.BigDecimal;
-import java.util.Date;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-
-import com.flipkartclone.ecommercebackend.RazorpayConfig; // Import the custom config class
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 public class PaymentService {
 
-    // Removed @Value annotations, keys are now loaded from RazorpayConfig
-    // @Value("${razorpay.key.id}")
-    // private String razorpayKeyId;
-    // @Value("${razorpay.key.secret}")
-    // private String razorpayKeySecret;
-
     private final OrderRepository orderRepository;
     private final UserRepository userRepository;
+    private final OutboxService outboxService;
+    private final PaymentGateway paymentGateway;
+    private final OrderSummaryService orderSummaryService;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter reconciledPaidCounter;
+    private final Counter reconciledFailedCounter;
+    private final int reconciliationBatchSize;
+    private final int maxGatewayCallsPerSecond;
+    private final int reconciliationConcurrency;
+    private final long lookupTimeoutMillis;
+    private final ExecutorService reconciliationExecutor;
+
+    // Pacing for reconciliation lookups; guarded by the reconcilePendingOrders lock.
+    private long nextGatewayCallAtNanos = System.nanoTime();
 
     @Autowired
-    public PaymentService(OrderRepository orderRepository, UserRepository userRepository) {
+    public PaymentService(OrderRepository orderRepository, UserRepository userRepository, OutboxService outboxService,
+                          PaymentGateway paymentGateway, OrderSummaryService orderSummaryService,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry,
+                          @Value("${payment.reconciliation.batch-size:50}") int reconciliationBatchSize,
+                          @Value("${payment.reconciliation.max-calls-per-second:20}") int maxGatewayCallsPerSecond,
+                          @Value("${payment.reconciliation.concurrency:8}") int reconciliationConcurrency,
+                          @Value("${payment.reconciliation.lookup-timeout-ms:30000}") long lookupTimeoutMillis) {
         this.orderRepository = orderRepository;
         this.userRepository = userRepository;
+        this.outboxService = outboxService;
+        this.paymentGateway = paymentGateway;
+        this.orderSummaryService = orderSummaryService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.reconciledPaidCounter = Counter.builder("payment.reconciliation.orders").tag("outcome", "paid").register(meterRegistry);
+        this.reconciledFailedCounter = Counter.builder("payment.reconciliation.orders").tag("outcome", "failed").register(meterRegistry);
+        this.reconciliationBatchSize = reconciliationBatchSize;
+        this.maxGatewayCallsPerSecond = maxGatewayCallsPerSecond;
+        this.reconciliationConcurrency = reconciliationConcurrency;
+        this.lookupTimeoutMillis = lookupTimeoutMillis;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.reconciliationExecutor = Executors.newFixedThreadPool(reconciliationConcurrency, runnable -> {
+            Thread thread = new Thread(runnable, "payment-reconciliation-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reconciliationExecutor.shutdownNow();
     }
 
     /**
-     * Creates a new payment order with Razorpay.
+     * Creates a new payment order with the configured payment gateway (Razorpay unless stubbed).
      * @param request DTO containing order details.
-     * @return Razorpay Order object.
-     * @throws RuntimeException if Razorpay API call fails, or internal order/user not found.
+     * @return The gateway's order.
+     * @throws RuntimeException if the gateway call fails, or internal order/user not found.
      */
     @Transactional
     public PaymentOrderResponse createRazorpayOrder(PaymentOrderRequest request) {
         try {
-            // Use keys from RazorpayConfig
-            RazorpayClient razorpay = new RazorpayClient(RazorpayConfig.RAZORPAY_KEY_ID, RazorpayConfig.RAZORPAY_KEY_SECRET);
-
             com.flipkartclone.ecommercebackend.model.Order internalOrder = orderRepository.findById(request.getOrderId())
                     .orElseThrow(() -> new RuntimeException("Internal Order not found with ID: " + request.getOrderId()));
 
-            userRepository.findById(request.getUserId())
+            User user = userRepository.findById(request.getUserId())
                     .orElseThrow(() -> new RuntimeException("User not found with ID: " + request.getUserId()));
 
-            if (internalOrder.getTotalAmount().compareTo(request.getAmount()) != 0) {
+            if (!internalOrder.getStatus().isUnpaid()) {
+                throw new RuntimeException("Order is not payable in status " + internalOrder.getStatus() + ": " + request.getOrderId());
+            }
+
+            if (request.getAmount() == null || internalOrder.getTotalAmountMinor() != request.getAmount()) {
                 throw new RuntimeException("Amount mismatch for order ID: " + request.getOrderId());
             }
 
-            long amountInSmallestUnit = request.getAmount().multiply(BigDecimal.valueOf(100)).longValue();
+            long amountInSmallestUnit = request.getAmount();
             if (amountInSmallestUnit < 0) throw new RuntimeException("Amount cannot be negative.");
 
-            JSONObject orderRequest = new JSONObject();
-            orderRequest.put("amount", amountInSmallestUnit);
-            orderRequest.put("currency", request.getCurrency());
-            orderRequest.put("receipt", request.getReceipt());
-
-            JSONObject notes = new JSONObject();
+            Map<String, String> notes = new LinkedHashMap<>();
             notes.put("internal_order_id", request.getOrderId().toString());
-            Optional<User> userOptional = userRepository.findById(request.getUserId());
-            if (userOptional.isPresent()) {
-                notes.put("user_email", userOptional.get().getEmail());
-            } else {
-                notes.put("user_email", "unknown_user@example.com");
-            }
-            orderRequest.put("notes", notes);
-
-            Order razorpayOrder = razorpay.orders.create(orderRequest);
-
-            PaymentOrderResponse response = new PaymentOrderResponse();
-            response.setId(razorpayOrder.get("id"));
-            response.setEntity(razorpayOrder.get("entity"));
-            response.setAmount(razorpayOrder.get("amount"));
-            response.setAmount_paid(razorpayOrder.get("amount_paid"));
-            response.setAmount_due(razorpayOrder.get("amount_due"));
-            response.setCurrency(razorpayOrder.get("currency"));
-            response.setReceipt(razorpayOrder.get("receipt"));
-            response.setStatus(razorpayOrder.get("status"));
-            response.setAttempts(razorpayOrder.get("attempts")); // <-- This line was cut off
-
-            Object createdAtObj = razorpayOrder.get("created_at");
-            if (createdAtObj instanceof Number) {
-                response.setCreated_at(((Number) createdAtObj).longValue());
-            } else if (createdAtObj instanceof Date) {
-                response.setCreated_at(((Date) createdAtObj).getTime() / 1000);
-            } else {
-                throw new RuntimeException("Unexpected type for created_at from Razorpay: " + createdAtObj.getClass().getName());
-            }
+            notes.put("user_email", user.getEmail());
 
+            PaymentOrderResponse response = paymentGateway.createOrder(amountInSmallestUnit, request.getCurrency(), request.getReceipt(), notes);
+            internalOrder.setGatewayOrderId(response.getId());
             return response;
 
-        } catch (RazorpayException e) {
-            e.printStackTrace();
-            throw new RuntimeException("Failed to create Razorpay order: " + e.getMessage(), e);
         } catch (Exception e) {
             e.printStackTrace();
             throw new RuntimeException("An unexpected error occurred during payment order creation: " + e.getMessage(), e);
@@ -122,8 +135,7 @@ public class PaymentService {
     @Transactional
     public boolean handleWebhook(String payload, String signature) {
         try {
-            // Use secret from RazorpayConfig
-            boolean isValidSignature = Utils.verifyWebhookSignature(payload, signature, RazorpayConfig.RAZORPAY_KEY_SECRET);
+            boolean isValidSignature = paymentGateway.verifyWebhookSignature(payload, signature);
             if (!isValidSignature) {
                 throw new RuntimeException("Webhook signature verification failed.");
             }
@@ -133,32 +145,193 @@ public class PaymentService {
             JSONObject paymentEntity = webhookData.getJSONObject("payload").getJSONObject("payment").getJSONObject("entity");
             String razorpayOrderId = paymentEntity.getString("order_id");
             String paymentStatus = paymentEntity.getString("status");
-            String internalReceiptId = paymentEntity.getString("receipt");
-
-            Long internalOrderId = Long.parseLong(internalReceiptId.replace("order_receipt_", ""));
+            String internalReceiptId = paymentEntity.optString("receipt", "");
 
-            com.flipkartclone.ecommercebackend.model.Order internalOrder = orderRepository.findById(internalOrderId)
+            // Orders are matched on the gateway order ID; the receipt form predates it being stored.
+            com.flipkartclone.ecommercebackend.model.Order internalOrder = orderRepository.findByGatewayOrderIdWithItems(razorpayOrderId)
+                    .or(() -> internalReceiptId.startsWith("order_receipt_")
+                            ? orderRepository.findByIdWithItems(Long.parseLong(internalReceiptId.substring("order_receipt_".length())))
+                            : Optional.empty())
                     .orElseThrow(() -> new RuntimeException("Internal Order not found for Razorpay order ID: " + razorpayOrderId));
 
+            OrderStatus previousStatus = internalOrder.getStatus();
+            OrderStatus newStatus = previousStatus;
             if ("captured".equals(paymentStatus)) {
-                internalOrder.setStatus("PAID");
+                newStatus = OrderStatus.PAID;
             } else if ("failed".equals(paymentStatus)) {
-                internalOrder.setStatus("FAILED");
+                newStatus = OrderStatus.FAILED;
             } else if ("order.paid".equals(event)) {
-                internalOrder.setStatus("PAID");
+                newStatus = OrderStatus.PAID;
             }
 
-            orderRepository.save(internalOrder);
+            // Webhooks are retried by Razorpay, so only a real status change is applied and produces an event.
+            if (newStatus != previousStatus) {
+                if (!previousStatus.canTransitionTo(newStatus)) {
+                    if (newStatus == OrderStatus.PAID && previousStatus.isClosedUnpaid()) {
+                        requireRefund(internalOrder);
+                    } else {
+                        System.out.println("Webhook ignored: Order " + internalOrder.getId() + " cannot move from "
+                                + previousStatus + " to " + newStatus);
+                    }
+                    return true;
+                }
+
+                // The order was read without a lock: expiry or reconciliation may have moved it since, so the
+                // transition is a conditional UPDATE rather than a save of the stale entity.
+                Long orderId = internalOrder.getId();
+                boolean applied = orderRepository.transitionStatus(orderId, OrderStatus.sourcesOf(newStatus), newStatus) == 1;
+                internalOrder = orderRepository.findAllByIdWithItems(List.of(orderId)).get(0);
+
+                if (applied && newStatus == OrderStatus.PAID) {
+                    orderSummaryService.ordersPaid(List.of(orderId));
+                    outboxService.publishOrderEvent(OutboxService.ORDER_PAID, internalOrder);
+                } else if (applied && newStatus == OrderStatus.FAILED) {
+                    outboxService.publishOrderEvent(OutboxService.ORDER_PAYMENT_FAILED, internalOrder);
+                } else if (newStatus == OrderStatus.PAID && internalOrder.getStatus().isClosedUnpaid()) {
+                    requireRefund(internalOrder);
+                }
+            }
 
             System.out.println("Webhook processed: Order " + internalOrder.getId() + " updated to " + internalOrder.getStatus());
             return true;
 
-        } catch (RazorpayException e) {
-            e.printStackTrace();
-            throw new RuntimeException("Razorpay Webhook processing failed: " + e.getMessage(), e);
         } catch (Exception e) {
             e.printStackTrace();
             throw new RuntimeException("An unexpected error occurred during webhook processing: " + e.getMessage(), e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Settles unpaid orders whose webhook never arrived. Outcomes are looked up at the gateway in batches of
+     * payment.reconciliation.batch-size, each split across up to payment.reconciliation.concurrency concurrent
+     * lookups paced to max-calls-per-second, outside any transaction. Each batch's PAID/FAILED transitions are then
+     * applied with one bulk UPDATE per status, together with their outbox events, and every order the gateway
+     * answered for is marked as checked. Orders are looked up in the order given, so callers pass the closest to
+     * expiry first.
+     * @param gatewayOrderIdsByOrderId Unpaid orders to check: internal order ID to gateway order ID.
+     * @return The number of orders whose status changed.
+     */
+    public synchronized int reconcilePendingOrders(Map<Long, String> gatewayOrderIdsByOrderId) {
+        List<Map.Entry<Long, String>> pending = new ArrayList<>(gatewayOrderIdsByOrderId.entrySet());
+        int changed = 0;
+
+        for (int from = 0; from < pending.size() && !Thread.currentThread().isInterrupted(); from += reconciliationBatchSize) {
+            List<Map.Entry<Long, String>> batch = pending.subList(from, Math.min(from + reconciliationBatchSize, pending.size()));
+            Map<String, OrderStatus> outcomes = lookUpOutcomes(batch);
+
+            List<Long> paid = new ArrayList<>();
+            List<Long> failed = new ArrayList<>();
+            List<Long> checked = new ArrayList<>();
+            for (Map.Entry<Long, String> entry : batch) {
+                OrderStatus outcome = outcomes.get(entry.getValue());
+                if (outcome == null) {
+                    // Lookup failed: left unchecked; the next pass asks again.
+                    continue;
+                }
+                checked.add(entry.getKey());
+                if (outcome == OrderStatus.PAID) {
+                    paid.add(entry.getKey());
+                } else if (outcome == OrderStatus.FAILED) {
+                    failed.add(entry.getKey());
+                }
+            }
+            if (!checked.isEmpty()) {
+                LocalDateTime checkedAt = LocalDateTime.now();
+                Integer applied = transactionTemplate.execute(status -> applyOutcomes(paid, failed, checked, checkedAt));
+                changed += applied == null ? 0 : applied;
+            }
+        }
+        return changed;
+    }
+
+    // Splits the batch into one slice per lookup thread and waits for all of them. Each slice is paced before it is
+    // submitted, so concurrent lookups still add up to at most max-calls-per-second.
+    private Map<String, OrderStatus> lookUpOutcomes(List<Map.Entry<Long, String>> batch) {
+        int sliceSize = Math.max(1, (batch.size() + reconciliationConcurrency - 1) / reconciliationConcurrency);
+        List<CompletableFuture<Map<String, OrderStatus>>> lookups = new ArrayList<>();
+        for (int from = 0; from < batch.size(); from += sliceSize) {
+            List<String> gatewayOrderIds = new ArrayList<>(sliceSize);
+            for (Map.Entry<Long, String> entry : batch.subList(from, Math.min(from + sliceSize, batch.size()))) {
+                gatewayOrderIds.add(entry.getValue());
+            }
+            if (!awaitGatewayCalls(gatewayOrderIds.size())) {
+                break;
+            }
+            lookups.add(CompletableFuture.supplyAsync(() -> paymentGateway.fetchOrderOutcomes(gatewayOrderIds), reconciliationExecutor)
+                    .orTimeout(lookupTimeoutMillis, TimeUnit.MILLISECONDS)
+                    .exceptionally(e -> {
+                        System.out.println("Payment reconciliation: gateway lookup of " + gatewayOrderIds.size()
+                                + " orders failed: " + e.getMessage());
+                        return Map.of();
+                    }));
+        }
+
+        Map<String, OrderStatus> outcomes = new HashMap<>();
+        for (CompletableFuture<Map<String, OrderStatus>> lookup : lookups) {
+            outcomes.putAll(lookup.join());
+        }
+        return outcomes;
+    }
+
+    // The UPDATEs re-check the current status, so orders settled by a webhook in the meantime are left alone.
+    private int applyOutcomes(List<Long> paid, List<Long> failed, List<Long> checked, LocalDateTime checkedAt) {
+        List<Long> paidIds = paid.isEmpty() ? List.of() : orderRepository.markPaid(paid);
+        List<Long> failedIds = failed.isEmpty() ? List.of() : orderRepository.markFailed(failed);
+        orderRepository.markPaymentChecked(checked, checkedAt);
+
+        // Paid at the gateway but expired or cancelled since the lookup started: the payment has to be refunded.
+        List<Long> paidElsewhere = new ArrayList<>(paid);
+        paidElsewhere.removeAll(paidIds);
+        if (!paidElsewhere.isEmpty()) {
+            for (com.flipkartclone.ecommercebackend.model.Order order : orderRepository.findAllByIdWithItems(paidElsewhere)) {
+                if (order.getStatus().isClosedUnpaid()) {
+                    requireRefund(order);
+                }
+            }
+        }
+
+        List<Long> changedIds = new ArrayList<>(paidIds);
+        changedIds.addAll(failedIds);
+        if (changedIds.isEmpty()) {
+            return 0;
+        }
+        orderSummaryService.ordersPaid(paidIds);
+
+        for (com.flipkartclone.ecommercebackend.model.Order order : orderRepository.findAllByIdWithItems(changedIds)) {
+            outboxService.publishOrderEvent(order.getStatus() == OrderStatus.PAID
+                    ? OutboxService.ORDER_PAID : OutboxService.ORDER_PAYMENT_FAILED, order);
+        }
+        reconciledPaidCounter.increment(paidIds.size());
+        reconciledFailedCounter.increment(failedIds.size());
+        return changedIds.size();
+    }
+
+    // The customer paid for an order whose stock was already released: record it so the payment is refunded.
+    // Razorpay reports one payment as both payment.captured and order.paid, so it is recorded once per order.
+    private void requireRefund(com.flipkartclone.ecommercebackend.model.Order order) {
+        if (outboxService.wasPublished(OutboxService.ORDER_REFUND_REQUIRED, order.getId())) {
+            return;
+        }
+        System.out.println("Payment captured for " + order.getStatus() + " order " + order.getId()
+                + " (gateway order " + order.getGatewayOrderId() + "); refund required");
+        outboxService.publishOrderEvent(OutboxService.ORDER_REFUND_REQUIRED, order);
+    }
+
+    // Waits until `calls` more gateway calls fit under max-calls-per-second (0 disables pacing).
+    private boolean awaitGatewayCalls(int calls) {
+        if (maxGatewayCallsPerSecond <= 0) {
+            return true;
+        }
+        try {
+            long waitNanos = nextGatewayCallAtNanos - System.nanoTime();
+            if (waitNanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        nextGatewayCallAtNanos = System.nanoTime() + TimeUnit.SECONDS.toNanos(calls) / maxGatewayCallsPerSecond;
+        return true;
+    }
+}
@@ -0,0 +1,146 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Postgres LISTEN/NOTIFY transport. Sending is a pg_notify in the caller's transaction, so Postgres itself
+ * delivers the message only on commit and drops it on rollback. Receiving uses one dedicated connection
+ * outside the pool; notifications arriving within invalidation.coalesce-ms of each other are handed over
+ * as one batch. A connection that was silently dropped (server restart, failover, a NAT timeout) just looks
+ * quiet, so after every invalidation.keepalive-ms without notifications it runs SELECT 1 under a network timeout
+ * of the same length. If that fails, the connection is re-opened with backoff and the receiver is told to flush.
+ */
+@Service
+@ConditionalOnProperty(name = "invalidation.transport", havingValue = "postgres", matchIfMissing = true)
+public class PostgresInvalidationTransport implements InvalidationTransport {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final String channel;
+    private final int coalesceMillis;
+    private final int keepaliveMillis;
+    private volatile boolean running = true;
+    private volatile Connection listenConnection;
+
+    @Autowired
+    public PostgresInvalidationTransport(JdbcTemplate jdbcTemplate, DataSourceProperties dataSourceProperties,
+                                         @Value("${invalidation.channel:cache_invalidation}") String channel,
+                                         @Value("${invalidation.coalesce-ms:50}") int coalesceMillis,
+                                         @Value("${invalidation.keepalive-ms:10000}") int keepaliveMillis) {
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("Invalid invalidation.channel: " + channel);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataSourceProperties = dataSourceProperties;
+        this.channel = channel;
+        this.coalesceMillis = coalesceMillis;
+        this.keepaliveMillis = keepaliveMillis;
+    }
+
+    @Override
+    public void send(String message) {
+        jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", Object.class, channel, message);
+    }
+
+    @Override
+    public void start(Receiver receiver) {
+        Thread listener = new Thread(() -> listen(receiver), "invalidation-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        closeQuietly(listenConnection);
+    }
+
+    private void listen(Receiver receiver) {
+        boolean connectedBefore = false;
+        long backoffMillis = 1000;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                listenConnection = connection;
+                // Bounds the keepalive query; getNotifications applies its own timeout while waiting.
+                connection.setNetworkTimeout(Runnable::run, keepaliveMillis);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                if (connectedBefore) {
+                    System.out.println("Invalidation channel re-established; flushing local caches");
+                    receiver.reconnected();
+                }
+                connectedBefore = true;
+                backoffMillis = 1000;
+
+                PGConnection pg = connection.unwrap(PGConnection.class);
+                while (running) {
+                    List<String> batch = new ArrayList<>();
+                    collect(pg.getNotifications(keepaliveMillis), batch);
+                    if (batch.isEmpty()) {
+                        try (Statement statement = connection.createStatement()) {
+                            statement.execute("SELECT 1");
+                        }
+                        continue;
+                    }
+                    long deadline = System.currentTimeMillis() + coalesceMillis;
+                    long remaining;
+                    while ((remaining = deadline - System.currentTimeMillis()) > 0) {
+                        collect(pg.getNotifications((int) remaining), batch);
+                    }
+                    try {
+                        receiver.received(batch);
+                    } catch (Exception e) {
+                        e.printStackTrace();
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                System.out.println("Invalidation channel lost (" + e.getMessage() + "); retrying in " + backoffMillis + " ms");
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                backoffMillis = Math.min(backoffMillis * 2, 30_000);
+            }
+        }
+    }
+
+    private static void collect(PGNotification[] notifications, List<String> batch) {
+        if (notifications != null) {
+            for (PGNotification notification : notifications) {
+                batch.add(notification.getParameter());
+            }
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                // shutting down
+            }
+        }
+    }
+}
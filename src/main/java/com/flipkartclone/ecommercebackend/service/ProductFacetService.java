@@ -0,0 +1,347 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import com.flipkartclone.ecommercebackend.dto.FacetCount;
+import com.flipkartclone.ecommercebackend.dto.FacetSearchResponse;
+import com.flipkartclone.ecommercebackend.model.Money;
+import com.flipkartclone.ecommercebackend.repository.ProductRepository;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory facet index for category pages: one compressed bitmap of product IDs per category,
+ * per price bucket and for in-stock products.
+ * <p>
+ * A search ORs the selected values within each facet, ANDs the facets together for the result and,
+ * for every facet value, counts its intersection with the other facets' filters. Counts are therefore
+ * disjunctive: picking one category still shows how many products the other categories would add.
+ * <p>
+ * The index is loaded once at startup and kept current by ProductService, which reports the full
+ * facet state of every product it writes; changes are applied after commit.
+ */
+@Service
+public class ProductFacetService {
+
+    public static final String IN_STOCK = "IN_STOCK";
+    public static final String OUT_OF_STOCK = "OUT_OF_STOCK";
+
+    private final ProductRepository productRepository;
+    // Not read-only, so a reload (also run after cache invalidations) reads the primary rather than a lagging replica.
+    private final TransactionTemplate primaryTransaction;
+    private final long[] priceBucketBoundsMinor;
+    private final String[] priceBucketLabels;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final RoaringBitmap all = new RoaringBitmap();
+    private final RoaringBitmap inStock = new RoaringBitmap();
+    private final Map<Long, RoaringBitmap> byCategory = new TreeMap<>();
+    private final RoaringBitmap[] byPriceBucket;
+    private final Map<Integer, ProductFacets> facetsByProduct = new HashMap<>();
+
+    @Autowired
+    public ProductFacetService(ProductRepository productRepository, PlatformTransactionManager transactionManager,
+                               @Value("${facets.price-bucket-bounds:500,1000,5000,10000,50000}") BigDecimal[] priceBucketBounds) {
+        this.productRepository = productRepository;
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+        BigDecimal[] sortedBounds = priceBucketBounds.clone();
+        Arrays.sort(sortedBounds);
+        this.priceBucketBoundsMinor = new long[sortedBounds.length];
+        for (int i = 0; i < sortedBounds.length; i++) {
+            priceBucketBoundsMinor[i] = Money.of(sortedBounds[i]);
+        }
+        this.priceBucketLabels = new String[sortedBounds.length + 1];
+        this.byPriceBucket = new RoaringBitmap[priceBucketLabels.length];
+        for (int i = 0; i < priceBucketLabels.length; i++) {
+            String lower = i == 0 ? "0" : sortedBounds[i - 1].toPlainString();
+            priceBucketLabels[i] = i < sortedBounds.length
+                    ? lower + "-" + sortedBounds[i].toPlainString()
+                    : lower + "+";
+            byPriceBucket[i] = new RoaringBitmap();
+        }
+    }
+
+    /**
+     * Loads the index from the products table. Writes that commit while it runs are applied
+     * once the load releases the lock, so they are not lost.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long started = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            all.clear();
+            inStock.clear();
+            byCategory.clear();
+            for (RoaringBitmap bucket : byPriceBucket) {
+                bucket.clear();
+            }
+            facetsByProduct.clear();
+
+            primaryTransaction.executeWithoutResult(status -> {
+                for (Object[] row : productRepository.findFacetRows()) {
+                    apply((Long) row[0], (Long) row[1], (Long) row[2], (Integer) row[3]);
+                }
+            });
+            for (RoaringBitmap bitmap : byCategory.values()) {
+                bitmap.runOptimize();
+            }
+            for (RoaringBitmap bitmap : byPriceBucket) {
+                bitmap.runOptimize();
+            }
+            inStock.runOptimize();
+            all.runOptimize();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        System.out.println("Product facet index loaded: " + facetsByProduct.size() + " products in "
+                + (System.currentTimeMillis() - started) + " ms");
+    }
+
+    /**
+     * Records the current facet values of a created or updated product once the surrounding transaction commits.
+     * @param productId The ID of the product.
+     * @param categoryId Its category ID.
+     * @param priceMinor Its current price in minor units.
+     * @param stockQuantity Its current stock.
+     */
+    public void productChanged(Long productId, Long categoryId, long priceMinor, Integer stockQuantity) {
+        productsChanged(Collections.singletonList(new Object[]{productId, categoryId, priceMinor, stockQuantity}));
+    }
+
+    /**
+     * Batch form of {@link #productChanged} used by bulk updates.
+     * @param rows (product ID, category ID, price in minor units, stock quantity) tuples.
+     */
+    public void productsChanged(List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                for (Object[] row : rows) {
+                    apply((Long) row[0], (Long) row[1], (Long) row[2], (Integer) row[3]);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Updates in-stock flags after stock moved outside ProductService (order placement, expiry) once the
+     * surrounding transaction commits.
+     * @param rows (product ID, new stock quantity) pairs; the ID may be any Number.
+     */
+    public void stockChanged(List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                for (Object[] row : rows) {
+                    int ordinal = ordinalOf(((Number) row[0]).longValue());
+                    ProductFacets facets = facetsByProduct.get(ordinal);
+                    if (facets != null) {
+                        apply(ordinal, facets.categoryId, facets.priceBucket, ((Number) row[1]).intValue() > 0);
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Removes a deleted product from the index once the surrounding transaction commits.
+     * @param productId The ID of the product.
+     */
+    public void productDeleted(Long productId) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                remove(ordinalOf(productId));
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Filters products by facets and counts every facet value in one pass over the bitmaps.
+     * @param categoryIds Selected categories (OR); empty for no category filter.
+     * @param priceBuckets Selected price bucket indexes (OR); empty for no price filter.
+     * @param inStockOnly True to only match products with stock, null or false for no filter.
+     * @param page Zero-based page of product IDs to return.
+     * @param size Page size.
+     * @return Matching product IDs (ascending) and per-value counts for each facet.
+     */
+    public FacetSearchResponse search(Collection<Long> categoryIds, Collection<Integer> priceBuckets,
+                                      Boolean inStockOnly, int page, int size) {
+        boolean stockFilter = Boolean.TRUE.equals(inStockOnly);
+        lock.readLock().lock();
+        try {
+            RoaringBitmap categoryFilter = categoryIds.isEmpty() ? all : union(categoryBitmaps(categoryIds));
+            RoaringBitmap priceFilter = priceBuckets.isEmpty() ? all : union(priceBitmaps(priceBuckets));
+            RoaringBitmap stockFilterBitmap = stockFilter ? inStock : all;
+
+            // Each facet is counted against the other two filters, so its own selection doesn't zero out its siblings.
+            RoaringBitmap priceAndStock = RoaringBitmap.and(priceFilter, stockFilterBitmap);
+            RoaringBitmap categoryAndStock = RoaringBitmap.and(categoryFilter, stockFilterBitmap);
+            RoaringBitmap categoryAndPrice = RoaringBitmap.and(categoryFilter, priceFilter);
+            RoaringBitmap matches = RoaringBitmap.and(categoryAndPrice, stockFilterBitmap);
+
+            List<FacetCount> categories = new ArrayList<>(byCategory.size());
+            byCategory.forEach((categoryId, bitmap) -> categories.add(new FacetCount(String.valueOf(categoryId), null,
+                    RoaringBitmap.andCardinality(bitmap, priceAndStock), categoryIds.contains(categoryId))));
+
+            List<FacetCount> prices = new ArrayList<>(byPriceBucket.length);
+            for (int i = 0; i < byPriceBucket.length; i++) {
+                prices.add(new FacetCount(String.valueOf(i), priceBucketLabels[i],
+                        RoaringBitmap.andCardinality(byPriceBucket[i], categoryAndStock), priceBuckets.contains(i)));
+            }
+
+            int available = RoaringBitmap.andCardinality(inStock, categoryAndPrice);
+            List<FacetCount> availability = List.of(
+                    new FacetCount(IN_STOCK, null, available, stockFilter),
+                    new FacetCount(OUT_OF_STOCK, null, categoryAndPrice.getCardinality() - available, false));
+
+            return new FacetSearchResponse(matches.getCardinality(), page(matches, page, size), categories, prices, availability);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param priceMinor A product price in minor units.
+     * @return Index of the price bucket containing it.
+     */
+    public int priceBucketOf(long priceMinor) {
+        int bucket = 0;
+        while (bucket < priceBucketBoundsMinor.length && priceMinor >= priceBucketBoundsMinor[bucket]) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    private void apply(Long productId, Long categoryId, long priceMinor, Integer stockQuantity) {
+        apply(ordinalOf(productId), categoryId, priceBucketOf(priceMinor), stockQuantity != null && stockQuantity > 0);
+    }
+
+    private void apply(int ordinal, Long categoryId, int priceBucket, boolean available) {
+        remove(ordinal);
+        ProductFacets facets = new ProductFacets(categoryId, priceBucket, available);
+        all.add(ordinal);
+        byCategory.computeIfAbsent(categoryId, id -> new RoaringBitmap()).add(ordinal);
+        byPriceBucket[facets.priceBucket].add(ordinal);
+        if (facets.inStock) {
+            inStock.add(ordinal);
+        }
+        facetsByProduct.put(ordinal, facets);
+    }
+
+    private void remove(int ordinal) {
+        ProductFacets previous = facetsByProduct.remove(ordinal);
+        if (previous == null) {
+            return;
+        }
+        all.remove(ordinal);
+        RoaringBitmap category = byCategory.get(previous.categoryId);
+        category.remove(ordinal);
+        if (category.isEmpty()) {
+            byCategory.remove(previous.categoryId);
+        }
+        byPriceBucket[previous.priceBucket].remove(ordinal);
+        inStock.remove(ordinal);
+    }
+
+    private List<RoaringBitmap> categoryBitmaps(Collection<Long> categoryIds) {
+        List<RoaringBitmap> bitmaps = new ArrayList<>(categoryIds.size());
+        for (Long categoryId : categoryIds) {
+            RoaringBitmap bitmap = byCategory.get(categoryId);
+            if (bitmap != null) {
+                bitmaps.add(bitmap);
+            }
+        }
+        return bitmaps;
+    }
+
+    private List<RoaringBitmap> priceBitmaps(Collection<Integer> priceBuckets) {
+        List<RoaringBitmap> bitmaps = new ArrayList<>(priceBuckets.size());
+        for (Integer bucket : priceBuckets) {
+            if (bucket != null && bucket >= 0 && bucket < byPriceBucket.length) {
+                bitmaps.add(byPriceBucket[bucket]);
+            }
+        }
+        return bitmaps;
+    }
+
+    private static RoaringBitmap union(List<RoaringBitmap> bitmaps) {
+        return bitmaps.isEmpty() ? new RoaringBitmap() : RoaringBitmap.or(bitmaps.iterator());
+    }
+
+    private static List<Long> page(RoaringBitmap matches, int page, int size) {
+        List<Long> ids = new ArrayList<>(size);
+        long offset = (long) page * size;
+        if (page < 0 || size <= 0 || offset >= matches.getCardinality()) {
+            return ids;
+        }
+        PeekableIntIterator iterator = matches.getIntIterator();
+        iterator.advanceIfNeeded(matches.select((int) offset));
+        while (iterator.hasNext() && ids.size() < size) {
+            ids.add((long) iterator.next());
+        }
+        return ids;
+    }
+
+    // Product IDs double as bitmap ordinals; a catalog past 2^31 IDs would need a separate ordinal mapping.
+    private static int ordinalOf(long productId) {
+        return Math.toIntExact(productId);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static final class ProductFacets {
+        final Long categoryId;
+        final int priceBucket;
+        final boolean inStock;
+
+        ProductFacets(Long categoryId, int priceBucket, boolean inStock) {
+            this.categoryId = categoryId;
+            this.priceBucket = priceBucket;
+            this.inStock = inStock;
+        }
+    }
+}
@@ -4,13 +4,22 @@ import com.flipkartclone.ecommercebackend.model.product.Product;
 import com.flipkartclone.ecommercebackend.model.Category;
 import com.flipkartclone.ecommercebackend.repository.ProductRepository;
 import com.flipkartclone.ecommercebackend.repository.CategoryRepository;
+import com.flipkartclone.ecommercebackend.dto.BulkProductUpdateRequest;
+import com.flipkartclone.ecommercebackend.dto.BulkProductUpdateResponse;
 import com.flipkartclone.ecommercebackend.dto.ProductRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -18,15 +27,42 @@ public class ProductService {
 
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
+    private final CatalogVersionService catalogVersionService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TypeaheadService typeaheadService;
+    private final ProductFacetService productFacetService;
+    private final CacheInvalidationService cacheInvalidationService;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final InventoryService inventoryService;
+
+    // One set-based UPDATE per chunk: the chunk's rows are passed as parallel arrays and joined via unnest.
+    // Stock goes through the ledger first, so stock_quantity here is already the new materialized value.
+    private static final String BULK_UPDATE_SQL = "UPDATE products p SET price_minor = COALESCE(u.price_minor, p.price_minor) " +
+            "FROM unnest(?::bigint[], ?::bigint[]) AS u(id, price_minor) WHERE p.id = u.id " +
+            "RETURNING p.id, p.category_id, p.price_minor, p.stock_quantity";
+
+    private static final int BULK_UPDATE_CHUNK_SIZE = 1000;
 
     @Autowired
-    public ProductService(ProductRepository productRepository, CategoryRepository categoryRepository) {
+    public ProductService(ProductRepository productRepository, CategoryRepository categoryRepository,
+                          CatalogVersionService catalogVersionService, JdbcTemplate jdbcTemplate,
+                          TypeaheadService typeaheadService, ProductFacetService productFacetService,
+                          CacheInvalidationService cacheInvalidationService,
+                          CatalogSnapshotService catalogSnapshotService, InventoryService inventoryService) {
         this.productRepository = productRepository;
         this.categoryRepository = categoryRepository;
+        this.catalogVersionService = catalogVersionService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.typeaheadService = typeaheadService;
+        this.productFacetService = productFacetService;
+        this.cacheInvalidationService = cacheInvalidationService;
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.inventoryService = inventoryService;
     }
 
     @Transactional
     public Product addProduct(ProductRequest request) {
+        requireValidPrice(request);
         if (productRepository.findByName(request.getName()).isPresent()) {
             throw new RuntimeException("Product with this name already exists.");
         }
@@ -37,47 +73,175 @@ public class ProductService {
         Product product = new Product();
         product.setName(request.getName());
         product.setDescription(request.getDescription());
-        product.setPrice(request.getPrice());
+        product.setPriceMinor(request.getPrice());
         product.setStockQuantity(request.getStockQuantity());
         product.setImageUrl(request.getImageUrl());
         product.setCategory(category);
 
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        if (saved.getStockQuantity() != null) {
+            inventoryService.setAvailable(Map.of(saved.getId(), saved.getStockQuantity()));
+        }
+        typeaheadService.productChanged(saved.getId(), saved.getName());
+        productFacetService.productChanged(saved.getId(), category.getId(), saved.getPriceMinor(), saved.getStockQuantity());
+        cacheInvalidationService.productsChanged(List.of(saved.getId()));
+        return saved;
     }
 
+    /**
+     * Reads a product from the off-heap catalog snapshot when it covers the ID; only products changed since the
+     * snapshot are read from the database and kept in the entity cache.
+     * No surrounding transaction, so snapshot hits never borrow a connection; the repository query runs in its own.
+     * @param id The ID of the product.
+     * @return The product with its category, or empty if it doesn't exist.
+     */
+    @Cacheable(cacheNames = CacheInvalidationService.PRODUCTS_CACHE, key = "#id", unless = "#result == null",
+            condition = "!@catalogSnapshotService.serves(#id)")
     public Optional<Product> getProductById(Long id) {
-        return productRepository.findByIdWithCategory(id);
+        return catalogSnapshotService.findProduct(id).or(() -> productRepository.findByIdWithCategory(id));
     }
 
+    @Transactional(readOnly = true)
     public List<Product> getAllProducts() {
         return productRepository.findAllWithCategory();
     }
 
+    // Fills CatalogJsonCache, so it reads the primary rather than a replica that may not have the change yet.
+    @Transactional
+    public List<Long> getAllProductIds() {
+        return productRepository.findAllIds();
+    }
+
+    // Fills CatalogJsonCache, so it reads the primary rather than a replica that may not have the change yet.
+    @Transactional
+    public List<Product> getProductsByIds(Collection<Long> ids) {
+        return productRepository.findAllByIdWithCategory(ids);
+    }
+
     @Transactional
     public Optional<Product> updateProduct(Long id, ProductRequest request) {
+        requireValidPrice(request);
         Optional<Product> existingProductOptional = productRepository.findByIdWithCategory(id);
 
         if (existingProductOptional.isPresent()) {
             Product existingProduct = existingProductOptional.get();
 
-            Category category = categoryRepository.findById(request.getCategoryId())
-                    .orElseThrow(() -> new RuntimeException("Category not found with ID: " + request.getCategoryId()));
+            // The category is already join-fetched; only look it up when it actually changes.
+            Category category = existingProduct.getCategory();
+            if (!category.getId().equals(request.getCategoryId())) {
+                category = categoryRepository.findById(request.getCategoryId())
+                        .orElseThrow(() -> new RuntimeException("Category not found with ID: " + request.getCategoryId()));
+            }
+
+            if (existingProduct.getPriceMinor() != request.getPrice()) {
+                cacheInvalidationService.priceVersionChanged(catalogVersionService.bumpPriceVersion());
+            }
+
+            if (!existingProduct.getName().equals(request.getName())) {
+                typeaheadService.productChanged(id, request.getName());
+            }
 
             existingProduct.setName(request.getName());
             existingProduct.setDescription(request.getDescription());
-            existingProduct.setPrice(request.getPrice());
+            existingProduct.setPriceMinor(request.getPrice());
             existingProduct.setStockQuantity(request.getStockQuantity());
             existingProduct.setImageUrl(request.getImageUrl());
             existingProduct.setCategory(category);
+            // A restock is an adjustment in the stock ledger; the column write below then matches the fold.
+            if (request.getStockQuantity() != null) {
+                inventoryService.setAvailable(Map.of(id, request.getStockQuantity()));
+            }
 
+            productFacetService.productChanged(id, category.getId(), request.getPrice(), request.getStockQuantity());
+            cacheInvalidationService.productsChanged(List.of(id));
             return Optional.of(productRepository.save(existingProduct));
         }
         return Optional.empty();
     }
 
+    /**
+     * Applies price and/or stock changes to many products at once with chunked, set-based UPDATEs.
+     * Carts pick up new prices lazily via the catalog price version instead of being rewritten here.
+     * @param request The updates; a null price or stock leaves that field unchanged. Later duplicates win.
+     * @return Counts of requested and updated products, and the resulting catalog price version.
+     * @throws RuntimeException if an update has no product ID or a negative price/stock.
+     */
+    @Transactional
+    public BulkProductUpdateResponse bulkUpdate(BulkProductUpdateRequest request) {
+        Map<Long, BulkProductUpdateRequest.Item> updatesById = new LinkedHashMap<>();
+        boolean pricesChanged = false;
+        for (BulkProductUpdateRequest.Item item : request.getUpdates()) {
+            if (item.getProductId() == null) {
+                throw new RuntimeException("Invalid bulk update: product ID is required.");
+            }
+            if ((item.getPrice() != null && item.getPrice() < 0)
+                    || (item.getStockQuantity() != null && item.getStockQuantity() < 0)) {
+                throw new RuntimeException("Invalid bulk update: negative price or stock for product ID: " + item.getProductId());
+            }
+            pricesChanged |= item.getPrice() != null;
+            updatesById.put(item.getProductId(), item);
+        }
+
+        List<BulkProductUpdateRequest.Item> updates = new ArrayList<>(updatesById.values());
+        int updated = 0;
+        for (int from = 0; from < updates.size(); from += BULK_UPDATE_CHUNK_SIZE) {
+            updated += updateChunk(updates.subList(from, Math.min(updates.size(), from + BULK_UPDATE_CHUNK_SIZE)));
+        }
+
+        long priceVersion;
+        if (pricesChanged && updated > 0) {
+            priceVersion = catalogVersionService.bumpPriceVersion();
+            cacheInvalidationService.priceVersionChanged(priceVersion);
+        } else {
+            priceVersion = catalogVersionService.getPriceVersion();
+        }
+        return new BulkProductUpdateResponse(request.getUpdates().size(), updated, priceVersion);
+    }
+
+    private static void requireValidPrice(ProductRequest request) {
+        if (request.getPrice() == null || request.getPrice() < 0) {
+            throw new RuntimeException("Invalid price: a non-negative price is required.");
+        }
+    }
+
+    private int updateChunk(List<BulkProductUpdateRequest.Item> chunk) {
+        Long[] ids = new Long[chunk.size()];
+        Long[] prices = new Long[chunk.size()];
+        Map<Long, Integer> stockQuantities = new HashMap<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            ids[i] = chunk.get(i).getProductId();
+            prices[i] = chunk.get(i).getPrice();
+            if (chunk.get(i).getStockQuantity() != null) {
+                stockQuantities.put(ids[i], chunk.get(i).getStockQuantity());
+            }
+        }
+        inventoryService.setAvailable(stockQuantities);
+
+        // RETURNING hands back the post-update facet values, so the facet index is kept current without a re-read.
+        List<Object[]> changed = new ArrayList<>(chunk.size());
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(BULK_UPDATE_SQL);
+            statement.setArray(1, connection.createArrayOf("bigint", ids));
+            statement.setArray(2, connection.createArrayOf("bigint", prices));
+            return statement;
+        }, rs -> {
+            changed.add(new Object[]{rs.getLong(1), rs.getLong(2), rs.getLong(3), rs.getInt(4)});
+        });
+        productFacetService.productsChanged(changed);
+        List<Long> changedIds = new ArrayList<>(changed.size());
+        for (Object[] row : changed) {
+            changedIds.add((Long) row[0]);
+        }
+        cacheInvalidationService.productsChanged(changedIds);
+        return changed.size();
+    }
+
     public boolean deleteProduct(Long id) {
         if (productRepository.existsById(id)) {
             productRepository.deleteById(id);
+            typeaheadService.productDeleted(id);
+            productFacetService.productDeleted(id);
+            cacheInvalidationService.productsChanged(List.of(id));
             return true;
         }
         return false;
@@ -0,0 +1,118 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import com.flipkartclone.ecommercebackend.RazorpayConfig;
+import com.flipkartclone.ecommercebackend.dto.PaymentOrderResponse;
+import com.flipkartclone.ecommercebackend.model.OrderStatus;
+import com.razorpay.Order;
+import com.razorpay.Payment;
+import com.razorpay.RazorpayClient;
+import com.razorpay.RazorpayException;
+import com.razorpay.Utils;
+import org.json.JSONObject;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@ConditionalOnProperty(name = "payment.gateway", havingValue = "razorpay", matchIfMissing = true)
+public class RazorpayPaymentGateway implements PaymentGateway {
+
+    @Override
+    public PaymentOrderResponse createOrder(long amountMinor, String currency, String receipt, Map<String, String> notes) {
+        try {
+            // Use keys from RazorpayConfig
+            RazorpayClient razorpay = new RazorpayClient(RazorpayConfig.RAZORPAY_KEY_ID, RazorpayConfig.RAZORPAY_KEY_SECRET);
+
+            JSONObject orderRequest = new JSONObject();
+            orderRequest.put("amount", amountMinor);
+            orderRequest.put("currency", currency);
+            orderRequest.put("receipt", receipt);
+            orderRequest.put("notes", new JSONObject(notes));
+
+            Order razorpayOrder = razorpay.orders.create(orderRequest);
+
+            PaymentOrderResponse response = new PaymentOrderResponse();
+            response.setId(razorpayOrder.get("id"));
+            response.setEntity(razorpayOrder.get("entity"));
+            response.setAmount(razorpayOrder.get("amount"));
+            response.setAmount_paid(razorpayOrder.get("amount_paid"));
+            response.setAmount_due(razorpayOrder.get("amount_due"));
+            response.setCurrency(razorpayOrder.get("currency"));
+            response.setReceipt(razorpayOrder.get("receipt"));
+            response.setStatus(razorpayOrder.get("status"));
+            response.setAttempts(razorpayOrder.get("attempts"));
+
+            Object createdAtObj = razorpayOrder.get("created_at");
+            if (createdAtObj instanceof Number) {
+                response.setCreated_at(((Number) createdAtObj).longValue());
+            } else if (createdAtObj instanceof Date) {
+                response.setCreated_at(((Date) createdAtObj).getTime() / 1000);
+            } else {
+                throw new RuntimeException("Unexpected type for created_at from Razorpay: " + createdAtObj.getClass().getName());
+            }
+            return response;
+        } catch (RazorpayException e) {
+            e.printStackTrace();
+            throw new RuntimeException("Failed to create Razorpay order: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean verifyWebhookSignature(String payload, String signature) {
+        try {
+            return Utils.verifyWebhookSignature(payload, signature, RazorpayConfig.RAZORPAY_KEY_SECRET);
+        } catch (RazorpayException e) {
+            e.printStackTrace();
+            throw new RuntimeException("Razorpay Webhook processing failed: " + e.getMessage(), e);
+        }
+    }
+
+    // Razorpay has no bulk order lookup by ID, so this is one call per order (two for attempted orders), sharing one
+    // client per call; callers run several of these at once and pace them to stay within the API rate limit.
+    @Override
+    public Map<String, OrderStatus> fetchOrderOutcomes(List<String> gatewayOrderIds) {
+        Map<String, OrderStatus> outcomes = new HashMap<>();
+        RazorpayClient razorpay;
+        try {
+            razorpay = new RazorpayClient(RazorpayConfig.RAZORPAY_KEY_ID, RazorpayConfig.RAZORPAY_KEY_SECRET);
+        } catch (RazorpayException e) {
+            throw new RuntimeException("Failed to create Razorpay client: " + e.getMessage(), e);
+        }
+
+        for (String gatewayOrderId : gatewayOrderIds) {
+            try {
+                Order razorpayOrder = razorpay.orders.fetch(gatewayOrderId);
+                String status = razorpayOrder.get("status");
+                if ("paid".equals(status)) {
+                    outcomes.put(gatewayOrderId, OrderStatus.PAID);
+                } else if ("attempted".equals(status)) {
+                    // Attempted: paid if any payment was captured, failed once every attempt has failed.
+                    List<Payment> payments = razorpay.orders.fetchPayments(gatewayOrderId);
+                    boolean captured = false;
+                    boolean anyPending = false;
+                    for (Payment payment : payments) {
+                        String paymentStatus = payment.get("status");
+                        captured |= "captured".equals(paymentStatus);
+                        anyPending |= !"failed".equals(paymentStatus) && !"captured".equals(paymentStatus);
+                    }
+                    if (captured) {
+                        outcomes.put(gatewayOrderId, OrderStatus.PAID);
+                    } else if (!payments.isEmpty() && !anyPending) {
+                        outcomes.put(gatewayOrderId, OrderStatus.FAILED);
+                    } else {
+                        outcomes.put(gatewayOrderId, OrderStatus.PENDING);
+                    }
+                } else {
+                    outcomes.put(gatewayOrderId, OrderStatus.PENDING);
+                }
+            } catch (RazorpayException e) {
+                System.out.println("Razorpay lookup failed for order " + gatewayOrderId + ": " + e.getMessage());
+            }
+        }
+        return outcomes;
+    }
+}
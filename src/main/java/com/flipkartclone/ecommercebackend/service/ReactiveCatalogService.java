@@ -0,0 +1,79 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import com.flipkartclone.ecommercebackend.dto.ProductResponse;
+import com.flipkartclone.ecommercebackend.model.Category;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Catalog reads over R2DBC. No thread waits on the database: rows are mapped on the driver's event loop
+ * as they arrive, and a pooled connection is held only while its query is running.
+ * Responses are the same DTOs the blocking endpoints return.
+ */
+@Service
+public class ReactiveCatalogService {
+
+    // Stock is the live ledger availability, not the compaction-materialized column.
+    private static final String PRODUCT_SELECT = "SELECT p.id, p.name, p.description, p.price_minor, " +
+            InventoryService.PRODUCT_AVAILABLE_SQL + "::int AS stock_quantity, " +
+            "p.image_url, p.image_hash, c.id AS category_id, c.name AS category_name " +
+            "FROM products p JOIN categories c ON c.id = p.category_id";
+
+    private final DatabaseClient databaseClient;
+
+    @Autowired
+    public ReactiveCatalogService(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * @return All products with their category, in ID order.
+     */
+    public Flux<ProductResponse> getAllProducts() {
+        return databaseClient.sql(PRODUCT_SELECT + " ORDER BY p.id")
+                .map(ReactiveCatalogService::toProductResponse)
+                .all();
+    }
+
+    /**
+     * @param id The ID of the product.
+     * @return The product, or empty if it does not exist.
+     */
+    public Mono<ProductResponse> getProductById(Long id) {
+        return databaseClient.sql(PRODUCT_SELECT + " WHERE p.id = :id")
+                .bind("id", id)
+                .map(ReactiveCatalogService::toProductResponse)
+                .one();
+    }
+
+    /**
+     * @return All categories, in ID order.
+     */
+    public Flux<Category> getAllCategories() {
+        return databaseClient.sql("SELECT id, name, description FROM categories ORDER BY id")
+                .map(row -> new Category(row.get("id", Long.class), row.get("name", String.class),
+                        row.get("description", String.class), null))
+                .all();
+    }
+
+    private static ProductResponse toProductResponse(Readable row) {
+        ProductResponse dto = new ProductResponse();
+        dto.setId(row.get("id", Long.class));
+        dto.setName(row.get("name", String.class));
+        dto.setDescription(row.get("description", String.class));
+        dto.setPrice(row.get("price_minor", Long.class));
+        dto.setStockQuantity(row.get("stock_quantity", Integer.class));
+        dto.setImageUrl(row.get("image_url", String.class));
+        String imageHash = row.get("image_hash", String.class);
+        if (imageHash != null) {
+            dto.setImageVariants(ImageVariant.urlsFor(imageHash));
+        }
+        dto.setCategoryId(row.get("category_id", Long.class));
+        dto.setCategoryName(row.get("category_name", String.class));
+        return dto;
+    }
+}
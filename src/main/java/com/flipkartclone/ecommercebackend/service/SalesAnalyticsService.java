@@ -0,0 +1,229 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.flipkartclone.ecommercebackend.dto.SalesBucketResponse;
+import com.flipkartclone.ecommercebackend.model.Money;
+import com.flipkartclone.ecommercebackend.model.OutboxEvent;
+import com.flipkartclone.ecommercebackend.model.SalesRollupBucket;
+import com.flipkartclone.ecommercebackend.repository.SalesRollupBucketRepository;
+import com.flipkartclone.ecommercebackend.util.LongIntHashMap;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maintains revenue/units rollups per product and per category in memory, fed by ORDER_PAID outbox events.
+ * Reads never touch the order tables: a query costs one binary search plus the number of buckets returned.
+ * Each event's amounts are added to sales_rollups in the relay transaction that marks the event processed, so a
+ * paid order is counted exactly once, whichever node's relay claims it.
+ * <p>
+ * The in-memory rollups are loaded from sales_rollups on startup and then refreshed from the rows updated since the
+ * previous refresh, so every node converges on the same totals. Rows hold totals that only grow, so a bucket takes
+ * the larger of its current and read values, and the refresh window can overlap the previous one: it reaches back
+ * {@code analytics.refresh-overlap-seconds} to cover relay transactions that committed after stamping updated_at.
+ */
+@Service
+public class SalesAnalyticsService implements OutboxSubscriber {
+
+    static final String PRODUCT = "PRODUCT";
+    static final String CATEGORY = "CATEGORY";
+
+    private static final String INCREMENT_SQL = "INSERT INTO sales_rollups (dimension, dimension_id, granularity, bucket_start, revenue_minor, units) " +
+            "VALUES (?, ?, ?, ?, ?, ?) ON CONFLICT (dimension, dimension_id, granularity, bucket_start) " +
+            "DO UPDATE SET revenue_minor = sales_rollups.revenue_minor + EXCLUDED.revenue_minor, " +
+            "units = sales_rollups.units + EXCLUDED.units, updated_at = now()";
+    private static final String UPDATED_SINCE_SQL = "SELECT dimension, dimension_id, granularity, bucket_start, " +
+            "revenue_minor, units FROM sales_rollups WHERE updated_at >= ?";
+
+    // Rows are written in key order so concurrent relays lock shared category buckets in the same order.
+    private static final Comparator<Object[]> ROW_ORDER = Comparator.<Object[], String>comparing(row -> (String) row[0])
+            .thenComparing(row -> (Long) row[1])
+            .thenComparing(row -> (String) row[2])
+            .thenComparing(row -> (Timestamp) row[3]);
+
+    private final OutboxService outboxService;
+    private final SalesRollupBucketRepository rollupRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final long hourlyRetention;
+    private final long dailyRetention;
+    private final long refreshOverlapSeconds;
+    private volatile LocalDateTime lastRefreshStartedAt = LocalDateTime.now();
+
+    private final Map<Long, SalesRollup> productRollups = new ConcurrentHashMap<>();
+    private final Map<Long, SalesRollup> categoryRollups = new ConcurrentHashMap<>();
+
+    @Autowired
+    public SalesAnalyticsService(OutboxService outboxService, SalesRollupBucketRepository rollupRepository,
+                                 JdbcTemplate jdbcTemplate,
+                                 @Value("${analytics.hourly-retention-days:14}") long hourlyRetentionDays,
+                                 @Value("${analytics.daily-retention-days:730}") long dailyRetentionDays,
+                                 @Value("${analytics.refresh-overlap-seconds:300}") long refreshOverlapSeconds) {
+        this.outboxService = outboxService;
+        this.rollupRepository = rollupRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.hourlyRetention = hourlyRetentionDays * 24;
+        this.dailyRetention = dailyRetentionDays;
+        this.refreshOverlapSeconds = refreshOverlapSeconds;
+    }
+
+    @PostConstruct
+    public void loadPersistedRollups() {
+        LocalDateTime now = LocalDateTime.now();
+        load(SalesGranularity.HOUR, now.minusHours(hourlyRetention));
+        load(SalesGranularity.DAY, now.minusDays(dailyRetention));
+        lastRefreshStartedAt = now;
+    }
+
+    private void load(SalesGranularity granularity, LocalDateTime since) {
+        for (SalesRollupBucket row : rollupRepository.findByGranularityAndBucketStartGreaterThanEqual(granularity.name(), since)) {
+            merge(row.getDimension(), row.getDimensionId(), granularity, row.getBucketStart(), row.getRevenueMinor(),
+                    row.getUnits());
+        }
+    }
+
+    /**
+     * Merges the rollup rows updated since the previous refresh, by this node's relay or any other, into the
+     * in-memory rollups.
+     */
+    @Scheduled(fixedDelayString = "${analytics.refresh-interval-ms:10000}", initialDelayString = "${analytics.refresh-interval-ms:10000}")
+    public void refresh() {
+        LocalDateTime started = LocalDateTime.now();
+        jdbcTemplate.query(UPDATED_SINCE_SQL, (RowCallbackHandler) rs -> merge(rs.getString(1), rs.getLong(2),
+                        SalesGranularity.valueOf(rs.getString(3)), rs.getTimestamp(4).toLocalDateTime(), rs.getLong(5),
+                        rs.getLong(6)),
+                Timestamp.valueOf(lastRefreshStartedAt.minusSeconds(refreshOverlapSeconds)));
+        lastRefreshStartedAt = started;
+    }
+
+    private void merge(String dimension, long id, SalesGranularity granularity, LocalDateTime bucketStart,
+                       long revenueMinor, long units) {
+        Map<Long, SalesRollup> rollups = PRODUCT.equals(dimension) ? productRollups : categoryRollups;
+        rollups.computeIfAbsent(id, key -> new SalesRollup())
+                .series(granularity)
+                .raiseTo(granularity.bucketOf(bucketStart), revenueMinor, units);
+    }
+
+    @Override
+    public boolean supports(String eventType) {
+        return OutboxService.ORDER_PAID.equals(eventType);
+    }
+
+    // Runs in the relay transaction that acknowledges the event, so the increments and the ack commit together
+    // and a redelivered event is never counted twice. The in-memory rollups pick them up on the next refresh.
+    @Override
+    public boolean transactional() {
+        return true;
+    }
+
+    @Override
+    public void handle(OutboxEvent event) {
+        JsonNode payload = outboxService.readPayload(event);
+
+        // Revenue is booked when the payment is confirmed, not when the order was placed.
+        LocalDateTime paidAt = event.getCreatedAt();
+        List<Object[]> rows = new ArrayList<>();
+        for (JsonNode item : payload.path("items")) {
+            int quantity = item.path("quantity").asInt();
+            long revenueMinor = Money.times(Money.parse(item.path("priceAtOrder").asText()), quantity);
+
+            long productId = item.path("productId").asLong();
+            addRows(PRODUCT, productId, paidAt, revenueMinor, quantity, rows);
+            if (item.hasNonNull("categoryId")) {
+                long categoryId = item.path("categoryId").asLong();
+                addRows(CATEGORY, categoryId, paidAt, revenueMinor, quantity, rows);
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        rows.sort(ROW_ORDER);
+        jdbcTemplate.batchUpdate(INCREMENT_SQL, rows);
+    }
+
+    private static void addRows(String dimension, long id, LocalDateTime at, long revenueMinor, long quantity, List<Object[]> rows) {
+        for (SalesGranularity granularity : SalesGranularity.values()) {
+            rows.add(new Object[]{dimension, id, granularity.name(),
+                    Timestamp.valueOf(granularity.startOf(granularity.bucketOf(at))), revenueMinor, quantity});
+        }
+    }
+
+    /**
+     * Retrieves sales buckets for a product in the given time range.
+     * @param productId The ID of the product.
+     * @param granularity HOUR or DAY buckets.
+     * @param from Inclusive start of the range.
+     * @param to Inclusive end of the range.
+     * @return Non-empty buckets in ascending time order.
+     */
+    public List<SalesBucketResponse> getProductSales(Long productId, SalesGranularity granularity, LocalDateTime from, LocalDateTime to) {
+        return toResponses(productRollups.get(productId), granularity, from, to);
+    }
+
+    /**
+     * Retrieves sales buckets for a category in the given time range.
+     * @param categoryId The ID of the category.
+     * @param granularity HOUR or DAY buckets.
+     * @param from Inclusive start of the range.
+     * @param to Inclusive end of the range.
+     * @return Non-empty buckets in ascending time order.
+     */
+    public List<SalesBucketResponse> getCategorySales(Long categoryId, SalesGranularity granularity, LocalDateTime from, LocalDateTime to) {
+        return toResponses(categoryRollups.get(categoryId), granularity, from, to);
+    }
+
+    /**
+     * Sums units sold per product over the last {@code days} days from the daily rollups.
+     * @param days Size of the look-back window.
+     * @return Product ID to units sold (capped at Integer.MAX_VALUE).
+     */
+    public LongIntHashMap productUnitsSold(int days) {
+        LocalDateTime now = LocalDateTime.now();
+        long from = SalesGranularity.DAY.bucketOf(now.minusDays(days));
+        long to = SalesGranularity.DAY.bucketOf(now);
+        LongIntHashMap unitsByProduct = new LongIntHashMap(productRollups.size());
+        productRollups.forEach((productId, rollup) -> {
+            long[] triplets = rollup.daily.range(from, to);
+            long units = 0L;
+            for (int i = 2; i < triplets.length; i += 3) {
+                units += triplets[i];
+            }
+            if (units > 0) {
+                unitsByProduct.put(productId, (int) Math.min(units, Integer.MAX_VALUE));
+            }
+        });
+        return unitsByProduct;
+    }
+
+    private List<SalesBucketResponse> toResponses(SalesRollup rollup, SalesGranularity granularity, LocalDateTime from, LocalDateTime to) {
+        List<SalesBucketResponse> responses = new ArrayList<>();
+        if (rollup == null) {
+            return responses;
+        }
+        long[] triplets = rollup.series(granularity).range(granularity.bucketOf(from), granularity.bucketOf(to));
+        for (int i = 0; i < triplets.length; i += 3) {
+            responses.add(new SalesBucketResponse(granularity.startOf(triplets[i]), triplets[i + 1], triplets[i + 2]));
+        }
+        return responses;
+    }
+
+    private final class SalesRollup {
+        private final TimeBucketedSeries hourly = new TimeBucketedSeries(hourlyRetention);
+        private final TimeBucketedSeries daily = new TimeBucketedSeries(dailyRetention);
+
+        TimeBucketedSeries series(SalesGranularity granularity) {
+            return granularity == SalesGranularity.HOUR ? hourly : daily;
+        }
+    }
+}
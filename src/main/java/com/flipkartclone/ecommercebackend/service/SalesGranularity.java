@@ -0,0 +1,38 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Bucket sizes supported by the sales rollups. Buckets are numbered consecutively (epoch hour / epoch day
+ * of the local order time), so a time range maps to a contiguous range of bucket numbers.
+ */
+public enum SalesGranularity {
+    HOUR {
+        @Override
+        public long bucketOf(LocalDateTime time) {
+            return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 3600L);
+        }
+
+        @Override
+        public LocalDateTime startOf(long bucket) {
+            return LocalDateTime.ofEpochSecond(bucket * 3600L, 0, ZoneOffset.UTC);
+        }
+    },
+    DAY {
+        @Override
+        public long bucketOf(LocalDateTime time) {
+            return time.toLocalDate().toEpochDay();
+        }
+
+        @Override
+        public LocalDateTime startOf(long bucket) {
+            return LocalDate.ofEpochDay(bucket).atStartOfDay();
+        }
+    };
+
+    public abstract long bucketOf(LocalDateTime time);
+
+    public abstract LocalDateTime startOf(long bucket);
+}
@@ -0,0 +1,53 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Folds the stock ledger's unfolded movements into the materialized shard values (see InventoryService), one keyset
+ * chunk of products with pending movements per transaction. Keeping tails short keeps availability reads cheap.
+ */
+@Component
+public class StockCompactionJob implements BackgroundJob {
+
+    private final InventoryService inventoryService;
+    private final int chunkSize;
+    private final long intervalMillis;
+
+    @Autowired
+    public StockCompactionJob(InventoryService inventoryService,
+                              @Value("${jobs.stock-compaction.chunk-size:500}") int chunkSize,
+                              @Value("${jobs.stock-compaction.interval-ms:5000}") long intervalMillis) {
+        this.inventoryService = inventoryService;
+        this.chunkSize = chunkSize;
+        this.intervalMillis = intervalMillis;
+    }
+
+    @Override
+    public String name() {
+        return "stock-compaction";
+    }
+
+    @Override
+    public long intervalMillis() {
+        return intervalMillis;
+    }
+
+    @Override
+    public int chunkSize() {
+        return chunkSize;
+    }
+
+    @Override
+    public Chunk processChunk(long afterKey, int limit) {
+        List<Long> scanned = inventoryService.findDirtyProductIdsAfter(afterKey, limit);
+        if (scanned.isEmpty()) {
+            return new Chunk(0, afterKey, 0);
+        }
+        int folded = inventoryService.fold(scanned);
+        return new Chunk(scanned.size(), scanned.get(scanned.size() - 1), folded);
+    }
+}
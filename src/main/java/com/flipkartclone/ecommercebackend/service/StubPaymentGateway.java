@@ -0,0 +1,73 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import com.flipkartclone.ecommercebackend.dto.PaymentOrderResponse;
+import com.flipkartclone.ecommercebackend.model.OrderStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for Razorpay used by the load generator: orders are created in memory and webhooks are
+ * verified with the same HMAC-SHA256 scheme as Razorpay, keyed by payment.stub.webhook-secret. Every order the stub
+ * created reports as paid when looked up, so orders whose webhook the load generator drops are recovered by
+ * payment reconciliation.
+ * Never enable this in production.
+ */
+@Service
+@ConditionalOnProperty(name = "payment.gateway", havingValue = "stub")
+public class StubPaymentGateway implements PaymentGateway {
+
+    private static final String ORDER_ID_PREFIX = "order_stub_";
+
+    private final AtomicLong orderSequence = new AtomicLong();
+    private final byte[] webhookSecret;
+
+    public StubPaymentGateway(@Value("${payment.stub.webhook-secret}") String webhookSecret) {
+        this.webhookSecret = webhookSecret.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public PaymentOrderResponse createOrder(long amountMinor, String currency, String receipt, Map<String, String> notes) {
+        return new PaymentOrderResponse(ORDER_ID_PREFIX + orderSequence.incrementAndGet(), "order", (int) amountMinor, 0,
+                (int) amountMinor, currency, receipt, "created", 0, System.currentTimeMillis() / 1000);
+    }
+
+    @Override
+    public boolean verifyWebhookSignature(String payload, String signature) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(webhookSecret, "HmacSHA256"));
+            byte[] expected = HexFormat.of().formatHex(mac.doFinal(payload.getBytes(StandardCharsets.UTF_8)))
+                    .getBytes(StandardCharsets.UTF_8);
+            return signature != null && MessageDigest.isEqual(expected, signature.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public Map<String, OrderStatus> fetchOrderOutcomes(List<String> gatewayOrderIds) {
+        Map<String, OrderStatus> outcomes = new HashMap<>();
+        long lastCreated = orderSequence.get();
+        for (String gatewayOrderId : gatewayOrderIds) {
+            if (gatewayOrderId.startsWith(ORDER_ID_PREFIX)) {
+                long sequence = Long.parseLong(gatewayOrderId.substring(ORDER_ID_PREFIX.length()));
+                if (sequence <= lastCreated) {
+                    outcomes.put(gatewayOrderId, OrderStatus.PAID);
+                }
+            }
+        }
+        return outcomes;
+    }
+}
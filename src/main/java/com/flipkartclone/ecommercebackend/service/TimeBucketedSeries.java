@@ -0,0 +1,82 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import java.util.Arrays;
+
+/**
+ * Sparse, sorted series of (bucket, revenue, units) totals kept in parallel primitive arrays.
+ * Sales arrive roughly in time order, so updates almost always hit or append to the last bucket.
+ * Buckets older than the retention window are dropped as new ones are added.
+ */
+final class TimeBucketedSeries {
+
+    private final long retentionBuckets;
+    private long[] buckets = new long[4];
+    private long[] revenue = new long[4];
+    private long[] units = new long[4];
+    private int size;
+
+    TimeBucketedSeries(long retentionBuckets) {
+        this.retentionBuckets = retentionBuckets;
+    }
+
+    /**
+     * Raises a bucket to totals read from storage. Totals only grow, so an older read never lowers a bucket and
+     * the same read can be applied more than once.
+     */
+    synchronized void raiseTo(long bucket, long revenueMinor, long quantity) {
+        int index = Arrays.binarySearch(buckets, 0, size, bucket);
+        if (index < 0) {
+            index = insertAt(-index - 1, bucket);
+        }
+        revenue[index] = Math.max(revenue[index], revenueMinor);
+        units[index] = Math.max(units[index], quantity);
+        evictBefore(buckets[size - 1] - retentionBuckets);
+    }
+
+    /**
+     * @return Flattened (bucket, revenue, units) triplets for all buckets in [fromBucket, toBucket].
+     */
+    synchronized long[] range(long fromBucket, long toBucket) {
+        int from = lowerBound(fromBucket);
+        int to = lowerBound(toBucket + 1);
+        long[] result = new long[Math.max(0, to - from) * 3];
+        for (int i = from, j = 0; i < to; i++, j += 3) {
+            result[j] = buckets[i];
+            result[j + 1] = revenue[i];
+            result[j + 2] = units[i];
+        }
+        return result;
+    }
+
+    private int insertAt(int position, long bucket) {
+        if (size == buckets.length) {
+            buckets = Arrays.copyOf(buckets, size * 2);
+            revenue = Arrays.copyOf(revenue, size * 2);
+            units = Arrays.copyOf(units, size * 2);
+        }
+        System.arraycopy(buckets, position, buckets, position + 1, size - position);
+        System.arraycopy(revenue, position, revenue, position + 1, size - position);
+        System.arraycopy(units, position, units, position + 1, size - position);
+        buckets[position] = bucket;
+        revenue[position] = 0L;
+        units[position] = 0L;
+        size++;
+        return position;
+    }
+
+    private void evictBefore(long minBucket) {
+        int keepFrom = lowerBound(minBucket);
+        if (keepFrom == 0) {
+            return;
+        }
+        System.arraycopy(buckets, keepFrom, buckets, 0, size - keepFrom);
+        System.arraycopy(revenue, keepFrom, revenue, 0, size - keepFrom);
+        System.arraycopy(units, keepFrom, units, 0, size - keepFrom);
+        size -= keepFrom;
+    }
+
+    private int lowerBound(long bucket) {
+        int index = Arrays.binarySearch(buckets, 0, size, bucket);
+        return index < 0 ? -index - 1 : index;
+    }
+}
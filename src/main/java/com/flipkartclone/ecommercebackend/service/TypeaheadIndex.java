@@ -0,0 +1,351 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import com.flipkartclone.ecommercebackend.dto.TypeaheadSuggestion;
+import com.flipkartclone.ecommercebackend.util.LongIntHashMap;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.LongPredicate;
+
+/**
+ * Immutable prefix index over product and category names.
+ * <p>
+ * Normalized names live once in a shared char arena. Every word start of a name is an entry
+ * (name index << 8 | offset), and the entries are sorted by the text that follows, so all matches for a
+ * prefix form one contiguous range found by two binary searches. A max segment tree over entry scores then
+ * yields the k most popular matches in O(k log n) without visiting the rest of the range.
+ */
+final class TypeaheadIndex {
+
+    static final String PRODUCT = "PRODUCT";
+    static final String CATEGORY = "CATEGORY";
+
+    private static final int MAX_WORD_START = 255;
+    private static final int MAX_WORDS_PER_NAME = 8;
+    private static final int MAX_WEIGHT = 1 << 29;
+
+    private final char[] keyArena;
+    private final int[] keyOffsets;
+    private final byte[] displayArena;
+    private final int[] displayOffsets;
+    private final long[] typedIds;
+    private final int[] weights;
+    private final long[] entries;
+    private final int[] scores;
+    private final int[] tree;
+    private final LongIntHashMap nameByTypedId;
+
+    private TypeaheadIndex(char[] keyArena, int[] keyOffsets, byte[] displayArena, int[] displayOffsets,
+                           long[] typedIds, int[] weights, long[] entries) {
+        this.keyArena = keyArena;
+        this.keyOffsets = keyOffsets;
+        this.displayArena = displayArena;
+        this.displayOffsets = displayOffsets;
+        this.typedIds = typedIds;
+        this.weights = weights;
+        this.entries = entries;
+
+        sortEntries(entries, new long[entries.length], 0, entries.length);
+
+        // Exact-start matches win ties against mid-name word matches.
+        this.scores = new int[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            scores[i] = Math.min(weights[nameOf(entries[i])], MAX_WEIGHT) * 2 + (startOf(entries[i]) == 0 ? 1 : 0);
+        }
+
+        int n = entries.length;
+        this.tree = new int[2 * n];
+        for (int i = 0; i < n; i++) {
+            tree[n + i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            tree[i] = better(tree[2 * i], tree[2 * i + 1]);
+        }
+
+        this.nameByTypedId = new LongIntHashMap(typedIds.length);
+        for (int i = 0; i < typedIds.length; i++) {
+            nameByTypedId.put(typedIds[i], i + 1);
+        }
+    }
+
+    static TypeaheadIndex empty() {
+        return new Builder().build();
+    }
+
+    static long typedId(String type, long id) {
+        return CATEGORY.equals(type) ? -id : id;
+    }
+
+    /**
+     * Lower-cases and reduces any run of non-alphanumeric characters to a single space.
+     */
+    static String normalize(String text) {
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && normalized.length() > 0) {
+                    normalized.append(' ');
+                }
+                pendingSpace = false;
+                normalized.append(c);
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return normalized.toString();
+    }
+
+    int nameCount() {
+        return typedIds.length;
+    }
+
+    int entryCount() {
+        return entries.length;
+    }
+
+    /**
+     * @return The popularity weight of a name, or -1 if it is not in this index.
+     */
+    int weightOf(long typedId) {
+        int name = nameByTypedId.get(typedId, 0);
+        return name == 0 ? -1 : weights[name - 1];
+    }
+
+    long estimatedBytes() {
+        return keyArena.length * 2L + keyOffsets.length * 4L + displayArena.length + displayOffsets.length * 4L
+                + typedIds.length * 8L + weights.length * 4L + entries.length * 8L + scores.length * 4L
+                + tree.length * 4L + nameByTypedId.estimatedBytes() + 10 * 16L;
+    }
+
+    /**
+     * Appends up to {@code limit} of the most popular names having a word that starts with {@code prefix}.
+     * @param prefix A normalized, non-empty prefix.
+     * @param hidden Names (by typed ID) to skip, e.g. because a newer version exists in the change overlay.
+     */
+    void top(String prefix, int limit, LongPredicate hidden, List<TypeaheadSuggestion> out) {
+        int lo = bound(prefix, false);
+        int hi = bound(prefix, true);
+        if (lo >= hi) {
+            return;
+        }
+
+        PriorityQueue<int[]> ranges = new PriorityQueue<>((a, b) -> a[2] == b[2] ? 0 : (better(a[2], b[2]) == a[2] ? -1 : 1));
+        ranges.add(new int[]{lo, hi, query(lo, hi)});
+        int[] emitted = new int[limit];
+        int emittedCount = 0;
+
+        while (!ranges.isEmpty() && emittedCount < limit) {
+            int[] range = ranges.poll();
+            int entry = range[2];
+            int name = nameOf(entries[entry]);
+
+            if (!hidden.test(typedIds[name]) && !contains(emitted, emittedCount, name)) {
+                emitted[emittedCount++] = name;
+                out.add(suggestion(name));
+            }
+            if (range[0] < entry) {
+                ranges.add(new int[]{range[0], entry, query(range[0], entry)});
+            }
+            if (entry + 1 < range[1]) {
+                ranges.add(new int[]{entry + 1, range[1], query(entry + 1, range[1])});
+            }
+        }
+    }
+
+    private TypeaheadSuggestion suggestion(int name) {
+        long typedId = typedIds[name];
+        String display = new String(displayArena, displayOffsets[name], displayOffsets[name + 1] - displayOffsets[name],
+                StandardCharsets.UTF_8);
+        return new TypeaheadSuggestion(typedId < 0 ? CATEGORY : PRODUCT, Math.abs(typedId), display, weights[name]);
+    }
+
+    private static boolean contains(int[] values, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return The first entry whose text is >= prefix (or > prefix when {@code upper}), comparing only prefix-length chars.
+     */
+    private int bound(String prefix, boolean upper) {
+        int lo = 0;
+        int hi = entries.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = comparePrefix(entries[mid], prefix);
+            if (cmp < 0 || (upper && cmp == 0)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private int comparePrefix(long entry, String prefix) {
+        int i = keyOffsets[nameOf(entry)] + startOf(entry);
+        int end = keyOffsets[nameOf(entry) + 1];
+        for (int j = 0; j < prefix.length(); j++, i++) {
+            if (i == end) {
+                return -1;
+            }
+            int diff = keyArena[i] - prefix.charAt(j);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return 0;
+    }
+
+    private int compareEntries(long a, long b) {
+        int ai = keyOffsets[nameOf(a)] + startOf(a);
+        int aEnd = keyOffsets[nameOf(a) + 1];
+        int bi = keyOffsets[nameOf(b)] + startOf(b);
+        int bEnd = keyOffsets[nameOf(b) + 1];
+        while (ai < aEnd && bi < bEnd) {
+            int diff = keyArena[ai++] - keyArena[bi++];
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        int diff = (aEnd - ai) - (bEnd - bi);
+        return diff != 0 ? diff : Long.compare(a, b);
+    }
+
+    // Merge sort on primitive longs; Arrays.sort has no comparator overload for long[].
+    private void sortEntries(long[] values, long[] scratch, int from, int to) {
+        if (to - from < 16) {
+            for (int i = from + 1; i < to; i++) {
+                long value = values[i];
+                int j = i - 1;
+                while (j >= from && compareEntries(values[j], value) > 0) {
+                    values[j + 1] = values[j];
+                    j--;
+                }
+                values[j + 1] = value;
+            }
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        sortEntries(values, scratch, from, middle);
+        sortEntries(values, scratch, middle, to);
+        if (compareEntries(values[middle - 1], values[middle]) <= 0) {
+            return;
+        }
+        System.arraycopy(values, from, scratch, from, to - from);
+        int i = from;
+        int j = middle;
+        int k = from;
+        while (i < middle && j < to) {
+            values[k++] = compareEntries(scratch[i], scratch[j]) <= 0 ? scratch[i++] : scratch[j++];
+        }
+        while (i < middle) {
+            values[k++] = scratch[i++];
+        }
+        while (j < to) {
+            values[k++] = scratch[j++];
+        }
+    }
+
+    private int query(int from, int to) {
+        int best = -1;
+        int n = entries.length;
+        for (int lo = from + n, hi = to + n; lo < hi; lo >>= 1, hi >>= 1) {
+            if ((lo & 1) == 1) {
+                best = better(best, tree[lo++]);
+            }
+            if ((hi & 1) == 1) {
+                best = better(best, tree[--hi]);
+            }
+        }
+        return best;
+    }
+
+    private int better(int a, int b) {
+        if (a < 0) {
+            return b;
+        }
+        if (b < 0) {
+            return a;
+        }
+        if (scores[a] != scores[b]) {
+            return scores[a] > scores[b] ? a : b;
+        }
+        return Math.min(a, b);
+    }
+
+    private static int nameOf(long entry) {
+        return (int) (entry >>> 8);
+    }
+
+    private static int startOf(long entry) {
+        return (int) (entry & 0xFF);
+    }
+
+    static final class Builder {
+        private char[] keyArena = new char[1024];
+        private int keyLength;
+        private final ByteArrayOutputStream displayArena = new ByteArrayOutputStream();
+        private int[] keyOffsets = new int[64];
+        private int[] displayOffsets = new int[64];
+        private long[] typedIds = new long[64];
+        private int[] weights = new int[64];
+        private int count;
+        private long[] entries = new long[128];
+        private int entryCount;
+
+        void add(String type, long id, String name, int weight) {
+            String key = normalize(name);
+            if (key.isEmpty()) {
+                return;
+            }
+            if (count + 2 > keyOffsets.length) {
+                int capacity = keyOffsets.length * 2;
+                keyOffsets = Arrays.copyOf(keyOffsets, capacity);
+                displayOffsets = Arrays.copyOf(displayOffsets, capacity);
+                typedIds = Arrays.copyOf(typedIds, capacity);
+                weights = Arrays.copyOf(weights, capacity);
+            }
+            if (keyLength + key.length() > keyArena.length) {
+                keyArena = Arrays.copyOf(keyArena, Math.max(keyArena.length * 2, keyLength + key.length()));
+            }
+
+            keyOffsets[count] = keyLength;
+            key.getChars(0, key.length(), keyArena, keyLength);
+            keyLength += key.length();
+            displayOffsets[count] = displayArena.size();
+            displayArena.writeBytes(name.getBytes(StandardCharsets.UTF_8));
+            typedIds[count] = typedId(type, id);
+            weights[count] = Math.max(0, weight);
+
+            int words = 0;
+            for (int p = 0; p < key.length() && p <= MAX_WORD_START && words < MAX_WORDS_PER_NAME; p++) {
+                if (p == 0 || key.charAt(p - 1) == ' ') {
+                    if (entryCount == entries.length) {
+                        entries = Arrays.copyOf(entries, entryCount * 2);
+                    }
+                    entries[entryCount++] = ((long) count << 8) | p;
+                    words++;
+                }
+            }
+            count++;
+        }
+
+        TypeaheadIndex build() {
+            keyOffsets[count] = keyLength;
+            displayOffsets[count] = displayArena.size();
+            return new TypeaheadIndex(Arrays.copyOf(keyArena, keyLength), Arrays.copyOf(keyOffsets, count + 1),
+                    displayArena.toByteArray(), Arrays.copyOf(displayOffsets, count + 1),
+                    Arrays.copyOf(typedIds, count), Arrays.copyOf(weights, count), Arrays.copyOf(entries, entryCount));
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import com.flipkartclone.ecommercebackend.dto.TypeaheadStatsResponse;
+import com.flipkartclone.ecommercebackend.dto.TypeaheadSuggestion;
+import com.flipkartclone.ecommercebackend.util.LongIntHashMap;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Search-as-you-type over product and category names, served entirely from memory.
+ * <p>
+ * The bulk of the data is an immutable TypeaheadIndex that is rebuilt off-thread and swapped in atomically.
+ * Creates, renames and deletes made since the last build are kept in a small overlay that hides the stale
+ * base entry and is merged into results, so changes are visible as soon as their transaction commits.
+ */
+@Service
+public class TypeaheadService {
+
+    private static final String PRODUCTS_SQL = "SELECT id, name FROM products";
+    private static final String CATEGORIES_SQL = "SELECT c.id, c.name, COUNT(p.id) FROM categories c " +
+            "LEFT JOIN products p ON p.category_id = c.id GROUP BY c.id, c.name";
+
+    private static final int MAX_LIMIT = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    // Not read-only, so rebuilds read the primary: overlay entries older than the scan are dropped on the
+    // assumption that the scan sees them, which a lagging replica would break.
+    private final TransactionTemplate primaryTransaction;
+    private final SalesAnalyticsService salesAnalyticsService;
+    private final int popularityDays;
+    private final int overlayRebuildThreshold;
+    private final Timer queryTimer;
+
+    private volatile TypeaheadIndex index = TypeaheadIndex.empty();
+    private final Map<Long, OverlayEntry> overlay = new ConcurrentHashMap<>();
+    private final AtomicLong overlaySequence = new AtomicLong();
+
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "typeahead-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean rebuildQueued = new AtomicBoolean();
+    private volatile long lastBuildMillis;
+    private volatile LocalDateTime lastBuildAt;
+
+    @Autowired
+    public TypeaheadService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                            SalesAnalyticsService salesAnalyticsService, MeterRegistry meterRegistry,
+                            @Value("${typeahead.popularity-days:90}") int popularityDays,
+                            @Value("${typeahead.overlay-rebuild-threshold:1000}") int overlayRebuildThreshold) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.primaryTransaction = new TransactionTemplate(transactionManager);
+        this.salesAnalyticsService = salesAnalyticsService;
+        this.popularityDays = popularityDays;
+        this.overlayRebuildThreshold = overlayRebuildThreshold;
+        this.queryTimer = Timer.builder("typeahead.query")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+
+    /**
+     * Suggests product and category names having a word that starts with the query.
+     * @param query Raw user input; case and punctuation are ignored.
+     * @param limit Maximum number of suggestions (at most 50).
+     * @return Suggestions, most popular first.
+     */
+    public List<TypeaheadSuggestion> suggest(String query, int limit) {
+        long started = System.nanoTime();
+        String prefix = TypeaheadIndex.normalize(query == null ? "" : query);
+        int max = Math.max(1, Math.min(limit, MAX_LIMIT));
+        List<TypeaheadSuggestion> results = new ArrayList<>(max);
+        if (prefix.isEmpty()) {
+            return results;
+        }
+
+        index.top(prefix, max, overlay::containsKey, results);
+
+        if (!overlay.isEmpty()) {
+            for (OverlayEntry entry : overlay.values()) {
+                if (entry.name != null && entry.matches(prefix)) {
+                    results.add(new TypeaheadSuggestion(entry.type, entry.id, entry.name, entry.weight));
+                }
+            }
+            results.sort(Comparator.comparingInt(TypeaheadSuggestion::getWeight).reversed());
+            if (results.size() > max) {
+                results.subList(max, results.size()).clear();
+            }
+        }
+
+        queryTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        return results;
+    }
+
+    public void productChanged(Long productId, String name) {
+        recordChange(TypeaheadIndex.PRODUCT, productId, name);
+    }
+
+    public void productDeleted(Long productId) {
+        recordChange(TypeaheadIndex.PRODUCT, productId, null);
+    }
+
+    public void categoryChanged(Long categoryId, String name) {
+        recordChange(TypeaheadIndex.CATEGORY, categoryId, name);
+    }
+
+    public void categoryDeleted(Long categoryId) {
+        recordChange(TypeaheadIndex.CATEGORY, categoryId, null);
+    }
+
+    // Applied after commit so a rolled-back rename never shows up in suggestions.
+    private void recordChange(String type, Long id, String name) {
+        Runnable apply = () -> {
+            long typedId = TypeaheadIndex.typedId(type, id);
+            int weight = Math.max(0, index.weightOf(typedId));
+            overlay.put(typedId, new OverlayEntry(type, id, name, weight, overlaySequence.incrementAndGet()));
+            if (overlay.size() >= overlayRebuildThreshold) {
+                requestRebuild();
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        requestRebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${typeahead.rebuild-interval-ms:600000}", initialDelayString = "${typeahead.rebuild-interval-ms:600000}")
+    public void scheduledRebuild() {
+        requestRebuild();
+    }
+
+    /**
+     * Queues a rebuild on the background thread; requests made while one is queued are coalesced.
+     */
+    public void requestRebuild() {
+        if (rebuildQueued.compareAndSet(false, true)) {
+            rebuildExecutor.execute(this::rebuild);
+        }
+    }
+
+    private void rebuild() {
+        rebuildQueued.set(false);
+        try {
+            long started = System.currentTimeMillis();
+            long sequenceAtStart = overlaySequence.get();
+            LongIntHashMap unitsSold = salesAnalyticsService.productUnitsSold(popularityDays);
+
+            TypeaheadIndex.Builder builder = new TypeaheadIndex.Builder();
+            primaryTransaction.executeWithoutResult(status -> {
+                jdbcTemplate.query(PRODUCTS_SQL, rs -> {
+                    long id = rs.getLong(1);
+                    builder.add(TypeaheadIndex.PRODUCT, id, rs.getString(2), unitsSold.get(id, 0));
+                });
+                jdbcTemplate.query(CATEGORIES_SQL, rs -> {
+                    builder.add(TypeaheadIndex.CATEGORY, rs.getLong(1), rs.getString(2), rs.getInt(3));
+                });
+            });
+            TypeaheadIndex rebuilt = builder.build();
+
+            index = rebuilt;
+            // Changes recorded after the scan started may be missing from the new index, so they stay.
+            overlay.values().removeIf(entry -> entry.sequence <= sequenceAtStart);
+
+            lastBuildMillis = System.currentTimeMillis() - started;
+            lastBuildAt = LocalDateTime.now();
+            System.out.println("Typeahead index rebuilt: " + rebuilt.nameCount() + " names, " + rebuilt.entryCount()
+                    + " prefixes, ~" + rebuilt.estimatedBytes() / 1024 + " KB in " + lastBuildMillis + " ms");
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * @return Size and approximate heap footprint of the current index.
+     */
+    public TypeaheadStatsResponse getStats() {
+        TypeaheadIndex current = index;
+        return new TypeaheadStatsResponse(current.nameCount(), current.entryCount(), current.estimatedBytes(),
+                overlay.size(), lastBuildMillis, lastBuildAt);
+    }
+
+    private static final class OverlayEntry {
+        final String type;
+        final long id;
+        final String name; // null when deleted
+        final String key;
+        final int weight;
+        final long sequence;
+
+        OverlayEntry(String type, long id, String name, int weight, long sequence) {
+            this.type = type;
+            this.id = id;
+            this.name = name;
+            this.key = name == null ? null : TypeaheadIndex.normalize(name);
+            this.weight = weight;
+            this.sequence = sequence;
+        }
+
+        boolean matches(String prefix) {
+            return key.startsWith(prefix) || key.contains(" " + prefix);
+        }
+    }
+}
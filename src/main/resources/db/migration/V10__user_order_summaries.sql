@@ -0,0 +1,18 @@
+-- Per-user order totals for account pages (see OrderSummaryService), kept up to date in the same transactions that
+-- place orders and mark them paid, so reading them is one primary-key lookup. Archived orders stay counted.
+-- lifetime_spend_minor and paid_order_count only cover PAID orders; order_count and last_order_at cover every order.
+CREATE TABLE user_order_summaries (
+    user_id              BIGINT       NOT NULL PRIMARY KEY REFERENCES users (id) ON DELETE CASCADE,
+    order_count          BIGINT       NOT NULL DEFAULT 0,
+    paid_order_count     BIGINT       NOT NULL DEFAULT 0,
+    lifetime_spend_minor BIGINT       NOT NULL DEFAULT 0,
+    last_order_at        TIMESTAMP(6)
+);
+
+INSERT INTO user_order_summaries (user_id, order_count, paid_order_count, lifetime_spend_minor, last_order_at)
+SELECT user_id, COUNT(*), COUNT(*) FILTER (WHERE status = 'PAID'),
+       COALESCE(SUM(total_amount_minor) FILTER (WHERE status = 'PAID'), 0), MAX(order_date)
+FROM (SELECT user_id, status, total_amount_minor, order_date FROM orders
+      UNION ALL
+      SELECT user_id, status, total_amount_minor, order_date FROM orders_archive) o
+GROUP BY user_id;
@@ -0,0 +1,5 @@
+-- Retry scheduling for the outbox relay: an event is only claimed once next_attempt_at has passed. Failed events are
+-- pushed back with exponential backoff, and claimed events are leased by pushing it to the end of the claim timeout.
+ALTER TABLE outbox_events ADD COLUMN next_attempt_at TIMESTAMP(6);
+UPDATE outbox_events SET next_attempt_at = created_at;
+ALTER TABLE outbox_events ALTER COLUMN next_attempt_at SET NOT NULL;
@@ -0,0 +1,4 @@
+-- When payment reconciliation last confirmed with the gateway that an unpaid order has not been paid. Orders with a
+-- gateway order are only expired once a check made after their payment deadline found them unpaid, so a payment
+-- whose webhook was lost isn't refunded just because reconciliation hadn't reached it yet.
+ALTER TABLE orders ADD COLUMN payment_checked_at TIMESTAMP(6);
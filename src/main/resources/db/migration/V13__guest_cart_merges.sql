@@ -0,0 +1,10 @@
+-- Guest carts already merged into a user's cart at login (see CartService#mergeGuestCart), keyed by the cart ID
+-- carried in the guest cart token, so a replayed token can't add its items again. Rows only need to outlive the
+-- tokens and are purged once they are older than guest-cart.max-age-days.
+CREATE TABLE guest_cart_merges (
+    guest_cart_id BIGINT       NOT NULL PRIMARY KEY,
+    user_id       BIGINT       NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    merged_at     TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX idx_guest_cart_merges_merged_at ON guest_cart_merges (merged_at);
@@ -0,0 +1,5 @@
+-- When each rollup row last changed, so every node's SalesAnalyticsService can merge the rows other nodes' relays
+-- incremented since its previous refresh instead of only re-reading them on restart.
+ALTER TABLE sales_rollups ADD COLUMN updated_at TIMESTAMP(6) NOT NULL DEFAULT now();
+
+CREATE INDEX idx_sales_rollups_updated_at ON sales_rollups (updated_at);
@@ -0,0 +1,14 @@
+-- Transactional outbox (see OutboxRelay). IF NOT EXISTS because ddl-auto=update may already have created it on
+-- databases that ran the outbox before the schema moved to Flyway.
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    event_type   VARCHAR(64) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    payload      TEXT NOT NULL,
+    created_at   TIMESTAMP(6) NOT NULL,
+    processed_at TIMESTAMP(6),
+    attempts     INTEGER NOT NULL,
+    last_error   TEXT
+);
+
+CREATE INDEX IF NOT EXISTS idx_outbox_events_pending ON outbox_events (processed_at, id);
@@ -0,0 +1,2 @@
+-- Order status is an OrderStatus name, the longest being CANCELLED; ddl-auto had created it as VARCHAR(255).
+ALTER TABLE orders ALTER COLUMN status TYPE VARCHAR(16);
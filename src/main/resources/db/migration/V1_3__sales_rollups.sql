@@ -0,0 +1,11 @@
+-- Hourly and daily revenue/units per dimension (see SalesAnalyticsService). IF NOT EXISTS for databases where
+-- ddl-auto=update created it before the schema moved to Flyway.
+CREATE TABLE IF NOT EXISTS sales_rollups (
+    dimension     VARCHAR(16) NOT NULL,
+    dimension_id  BIGINT NOT NULL,
+    granularity   VARCHAR(8) NOT NULL,
+    bucket_start  TIMESTAMP(6) NOT NULL,
+    revenue_minor BIGINT NOT NULL,
+    units         BIGINT NOT NULL,
+    PRIMARY KEY (dimension, dimension_id, granularity, bucket_start)
+);
@@ -0,0 +1,9 @@
+-- Catalog-wide price version for lazy cart repricing (see CatalogVersionService); a cart whose price_version is
+-- behind it is repriced on its next read. Seeded in V2. IF NOT EXISTS for databases where ddl-auto=update added
+-- these before the schema moved to Flyway.
+CREATE TABLE IF NOT EXISTS catalog_state (
+    id            BIGINT PRIMARY KEY,
+    price_version BIGINT NOT NULL
+);
+
+ALTER TABLE carts ADD COLUMN IF NOT EXISTS price_version BIGINT NOT NULL DEFAULT 0;
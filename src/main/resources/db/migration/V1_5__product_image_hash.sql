@@ -0,0 +1,3 @@
+-- SHA-256 of a product's uploaded image, from which the variant URLs are derived (see ImageService); null for external
+-- image URLs. IF NOT EXISTS for databases where ddl-auto=update added it before the schema moved to Flyway.
+ALTER TABLE products ADD COLUMN IF NOT EXISTS image_hash VARCHAR(64);
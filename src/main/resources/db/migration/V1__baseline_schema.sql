@@ -0,0 +1,62 @@
+-- Schema as previously generated by Hibernate (ddl-auto=update), before any of the later additions.
+-- Databases that already have these tables are baselined at version 1 and skip this script; everything added since
+-- lives in its own migration (V1_1 onwards), so baselined and new databases end up with the same schema.
+
+CREATE TABLE users (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email       VARCHAR(255) NOT NULL,
+    password    VARCHAR(255) NOT NULL,
+    first_name  VARCHAR(255) NOT NULL,
+    last_name   VARCHAR(255),
+    address     VARCHAR(255),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE categories (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name        VARCHAR(255) NOT NULL,
+    description TEXT,
+    CONSTRAINT uk_categories_name UNIQUE (name)
+);
+
+CREATE TABLE products (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name           VARCHAR(255) NOT NULL,
+    description    TEXT,
+    price          NUMERIC(38, 2) NOT NULL,
+    stock_quantity INTEGER NOT NULL,
+    image_url      VARCHAR(255),
+    category_id    BIGINT NOT NULL REFERENCES categories (id),
+    CONSTRAINT uk_products_name UNIQUE (name)
+);
+
+CREATE TABLE carts (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id       BIGINT NOT NULL REFERENCES users (id),
+    CONSTRAINT uk_carts_user_id UNIQUE (user_id)
+);
+
+CREATE TABLE cart_items (
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    cart_id           BIGINT NOT NULL REFERENCES carts (id),
+    product_id        BIGINT NOT NULL REFERENCES products (id),
+    quantity          INTEGER NOT NULL,
+    price_at_purchase NUMERIC(38, 2) NOT NULL
+);
+
+CREATE TABLE orders (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_id          BIGINT NOT NULL REFERENCES users (id),
+    order_date       TIMESTAMP(6) NOT NULL,
+    total_amount     NUMERIC(38, 2) NOT NULL,
+    status           VARCHAR(255) NOT NULL,
+    shipping_address VARCHAR(255)
+);
+
+CREATE TABLE order_items (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    order_id       BIGINT NOT NULL REFERENCES orders (id),
+    product_id     BIGINT NOT NULL REFERENCES products (id),
+    quantity       INTEGER NOT NULL,
+    price_at_order NUMERIC(38, 2) NOT NULL
+);
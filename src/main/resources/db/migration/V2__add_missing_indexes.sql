@@ -0,0 +1,27 @@
+-- Indexes that ddl-auto never created. Runs on baselined databases too, hence IF NOT EXISTS.
+
+-- A cart holds at most one line per product. Fold any duplicate lines into the oldest one first.
+UPDATE cart_items keep
+SET quantity = dup.total_quantity
+FROM (SELECT MIN(id) AS keep_id, SUM(quantity) AS total_quantity
+      FROM cart_items GROUP BY cart_id, product_id HAVING COUNT(*) > 1) dup
+WHERE keep.id = dup.keep_id;
+
+DELETE FROM cart_items ci
+USING cart_items older
+WHERE older.cart_id = ci.cart_id AND older.product_id = ci.product_id AND older.id < ci.id;
+
+CREATE UNIQUE INDEX IF NOT EXISTS uk_cart_items_cart_product ON cart_items (cart_id, product_id);
+
+-- Order history is read per user, newest first; this supersedes the user_id-only index.
+CREATE INDEX IF NOT EXISTS idx_orders_user_date ON orders (user_id, order_date);
+DROP INDEX IF EXISTS idx_orders_user_id;
+
+-- Only unpaid orders are ever scanned by the expiry job, so keep that index tiny.
+CREATE INDEX IF NOT EXISTS idx_orders_unpaid ON orders (id, order_date) WHERE status IN ('PENDING', 'FAILED');
+
+-- Foreign keys that are joined or filtered on but were never indexed.
+CREATE INDEX IF NOT EXISTS idx_order_items_order_id ON order_items (order_id);
+CREATE INDEX IF NOT EXISTS idx_products_category_id ON products (category_id);
+
+INSERT INTO catalog_state (id, price_version) VALUES (1, 1) ON CONFLICT (id) DO NOTHING;
@@ -0,0 +1,3 @@
+-- Payment-gateway order created for an order; webhooks are matched on it.
+ALTER TABLE orders ADD COLUMN gateway_order_id VARCHAR(64);
+CREATE UNIQUE INDEX uk_orders_gateway_order_id ON orders (gateway_order_id);
@@ -0,0 +1,13 @@
+-- Money is stored as BIGINT minor units (paise) instead of NUMERIC(38, 2); see Money.
+-- Existing values all have scale 2, so the conversion is exact.
+ALTER TABLE products ALTER COLUMN price TYPE BIGINT USING (price * 100)::BIGINT;
+ALTER TABLE products RENAME COLUMN price TO price_minor;
+
+ALTER TABLE cart_items ALTER COLUMN price_at_purchase TYPE BIGINT USING (price_at_purchase * 100)::BIGINT;
+ALTER TABLE cart_items RENAME COLUMN price_at_purchase TO price_at_purchase_minor;
+
+ALTER TABLE orders ALTER COLUMN total_amount TYPE BIGINT USING (total_amount * 100)::BIGINT;
+ALTER TABLE orders RENAME COLUMN total_amount TO total_amount_minor;
+
+ALTER TABLE order_items ALTER COLUMN price_at_order TYPE BIGINT USING (price_at_order * 100)::BIGINT;
+ALTER TABLE order_items RENAME COLUMN price_at_order TO price_at_order_minor;
@@ -0,0 +1,7 @@
+-- Progress of each JobScheduler job: the last key processed in the current pass (0 between passes).
+CREATE TABLE job_checkpoints (
+    job_name               VARCHAR(64) PRIMARY KEY,
+    last_key               BIGINT      NOT NULL DEFAULT 0,
+    updated_at             TIMESTAMP   NOT NULL,
+    last_pass_completed_at TIMESTAMP
+);
@@ -0,0 +1,6 @@
+-- Cart activity for abandoned-cart reminders and cleanup; existing carts count as touched now.
+ALTER TABLE carts ADD COLUMN updated_at TIMESTAMP NOT NULL DEFAULT now();
+ALTER TABLE carts ADD COLUMN reminder_sent_at TIMESTAMP;
+
+-- CartReminderJob walks carts not yet reminded in ID order; reminded carts drop out of the index.
+CREATE INDEX idx_carts_reminder_pending ON carts (id) WHERE reminder_sent_at IS NULL;
@@ -0,0 +1,31 @@
+-- Cold storage for old, settled orders, moved out of orders/order_items by OrderArchiveJob so the hot tables and
+-- their indexes stay bounded. Both tables are range-partitioned by order month; the job creates monthly partitions
+-- as it needs them (orders_archive_pYYYYMM, order_items_archive_pYYYYMM), and expired months can be dropped whole.
+CREATE TABLE orders_archive (
+    id                 BIGINT       NOT NULL,
+    user_id            BIGINT       NOT NULL,
+    order_date         TIMESTAMP(6) NOT NULL,
+    total_amount_minor BIGINT       NOT NULL,
+    status             VARCHAR(16)  NOT NULL,
+    shipping_address   VARCHAR(255),
+    gateway_order_id   VARCHAR(64),
+    archived_at        TIMESTAMP    NOT NULL DEFAULT now(),
+    PRIMARY KEY (id, order_date)
+) PARTITION BY RANGE (order_date);
+
+CREATE INDEX idx_orders_archive_user_date ON orders_archive (user_id, order_date);
+
+-- product_name is copied at archive time: archived lines keep no foreign key, so the product may be gone later.
+CREATE TABLE order_items_archive (
+    id                   BIGINT       NOT NULL,
+    order_id             BIGINT       NOT NULL,
+    order_date           TIMESTAMP(6) NOT NULL,
+    product_id           BIGINT       NOT NULL,
+    product_name         VARCHAR(255),
+    quantity             INTEGER      NOT NULL,
+    price_at_order_minor BIGINT       NOT NULL,
+    PRIMARY KEY (id, order_date)
+) PARTITION BY RANGE (order_date);
+
+CREATE INDEX idx_order_items_archive_order_id ON order_items_archive (order_id);
+
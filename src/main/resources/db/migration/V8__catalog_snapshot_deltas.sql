@@ -0,0 +1,34 @@
+-- Change tracking for the node-local catalog snapshot (CatalogSnapshotService): a node starting from an older
+-- snapshot file re-reads the products updated or deleted since the snapshot was taken instead of the whole table.
+-- Triggers rather than application code, since stock moves through several native UPDATEs.
+ALTER TABLE products ADD COLUMN updated_at TIMESTAMP NOT NULL DEFAULT now();
+
+CREATE INDEX idx_products_updated_at ON products (updated_at);
+
+CREATE FUNCTION products_touch_updated_at() RETURNS trigger AS $$
+BEGIN
+    NEW.updated_at := now();
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_products_updated_at BEFORE UPDATE ON products
+    FOR EACH ROW EXECUTE FUNCTION products_touch_updated_at();
+
+CREATE TABLE product_tombstones (
+    product_id BIGINT    PRIMARY KEY,
+    deleted_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_product_tombstones_deleted_at ON product_tombstones (deleted_at);
+
+CREATE FUNCTION products_record_tombstone() RETURNS trigger AS $$
+BEGIN
+    INSERT INTO product_tombstones (product_id, deleted_at) VALUES (OLD.id, now())
+        ON CONFLICT (product_id) DO UPDATE SET deleted_at = EXCLUDED.deleted_at;
+    RETURN OLD;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_products_tombstone AFTER DELETE ON products
+    FOR EACH ROW EXECUTE FUNCTION products_record_tombstone();
@@ -0,0 +1,41 @@
+-- Append-only stock ledger (see InventoryService). Each product's stock is split over 8 shards; every movement is
+-- appended to one shard's stream, and StockCompactionJob folds the streams into stock_shards.available.
+-- products.stock_quantity becomes the materialized total as of the last compaction.
+CREATE TABLE stock_shards (
+    product_id     BIGINT  NOT NULL REFERENCES products (id) ON DELETE CASCADE,
+    shard          INTEGER NOT NULL,
+    available      INTEGER NOT NULL,
+    folded_through BIGINT  NOT NULL DEFAULT 0,
+    PRIMARY KEY (product_id, shard)
+);
+
+CREATE TABLE stock_movements (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    product_id BIGINT      NOT NULL REFERENCES products (id) ON DELETE CASCADE,
+    shard      INTEGER     NOT NULL,
+    quantity   INTEGER     NOT NULL,
+    reason     VARCHAR(16) NOT NULL,
+    order_id   BIGINT,
+    created_at TIMESTAMP   NOT NULL
+);
+
+-- One stream per (product, shard); the unfolded tail is the range after stock_shards.folded_through.
+CREATE INDEX idx_stock_movements_stream ON stock_movements (product_id, shard, id);
+CREATE INDEX idx_stock_movements_order_id ON stock_movements (order_id) WHERE order_id IS NOT NULL;
+
+-- Shards with unfolded movements, i.e. the compaction work queue.
+CREATE TABLE stock_dirty (
+    product_id BIGINT  NOT NULL,
+    shard      INTEGER NOT NULL,
+    PRIMARY KEY (product_id, shard)
+);
+
+-- Opening balances: one movement per product, already folded and spread evenly over the shards.
+INSERT INTO stock_movements (product_id, shard, quantity, reason, created_at)
+SELECT id, 0, stock_quantity, 'OPENING', now() FROM products;
+
+INSERT INTO stock_shards (product_id, shard, available, folded_through)
+SELECT p.id, s.shard,
+       p.stock_quantity / 8 + CASE WHEN s.shard < p.stock_quantity % 8 THEN 1 ELSE 0 END,
+       COALESCE((SELECT MAX(id) FROM stock_movements), 0)
+FROM products p CROSS JOIN generate_series(0, 7) AS s(shard);
@@ -0,0 +1,81 @@
+package com.flipkartclone.ecommercebackend;
+
+import com.flipkartclone.ecommercebackend.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.data.jpa.JpaRepositoriesAutoConfiguration;
+import org.springframework.boot.autoconfigure.data.r2dbc.R2dbcDataAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.JdbcTemplateAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Wires JDBC, JPA and R2DBC the way the application does, without a database: pools connect lazily and Hibernate
+ * is told not to read JDBC metadata. Guards against the R2DBC starter's ConnectionFactory making
+ * DataSourceAutoConfiguration back off and taking the JPA repositories with it.
+ */
+class DataSourceConfigTests {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(DataSourceAutoConfiguration.class, JdbcTemplateAutoConfiguration.class,
+                    HibernateJpaAutoConfiguration.class, JpaRepositoriesAutoConfiguration.class,
+                    TransactionAutoConfiguration.class, R2dbcAutoConfiguration.class, R2dbcDataAutoConfiguration.class,
+                    R2dbcTransactionManagerAutoConfiguration.class))
+            .withUserConfiguration(ApplicationPackage.class, DataSourceConfig.class, ReactiveDataConfig.class)
+            .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+            .withPropertyValues(
+                    "spring.datasource.url=jdbc:postgresql://localhost:5432/flipkart_clone_db",
+                    "spring.datasource.username=postgres",
+                    "spring.r2dbc.url=r2dbc:postgresql://localhost:5432/flipkart_clone_db",
+                    "spring.r2dbc.username=postgres",
+                    "spring.jpa.hibernate.ddl-auto=none",
+                    "spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect",
+                    "spring.jpa.properties.hibernate.boot.allow_jdbc_metadata_access=false");
+
+    @Test
+    void jdbcJpaAndR2dbcLoadTogether() {
+        contextRunner.run(context -> {
+            assertThat(context).hasNotFailed();
+            assertThat(context).hasSingleBean(DataSource.class);
+            assertThat(context).hasSingleBean(JdbcTemplate.class);
+            assertThat(context).hasSingleBean(OutboxEventRepository.class);
+            assertThat(context).hasSingleBean(ConnectionFactory.class);
+            assertThat(context).hasSingleBean(DatabaseClient.class);
+            assertThat(context.getBean(PlatformTransactionManager.class)).isInstanceOf(JpaTransactionManager.class);
+        });
+    }
+
+    @Test
+    void replicasAreRoutedWhenConfigured() {
+        contextRunner
+                .withPropertyValues("app.datasource.replicas.urls=jdbc:postgresql://localhost:5433/flipkart_clone_db")
+                .run(context -> {
+                    assertThat(context).hasNotFailed();
+                    assertThat(context).hasSingleBean(ReplicaLagMonitor.class);
+                    assertThat(context.getBean(DataSource.class).isWrapperFor(ReplicaRoutingDataSource.class)).isTrue();
+                });
+    }
+
+    // Gives the JPA entity and repository scans the application's base package.
+    @Configuration(proxyBeanMethods = false)
+    @AutoConfigurationPackage(basePackageClasses = EcommerceBackendApplication.class)
+    static class ApplicationPackage {
+    }
+}
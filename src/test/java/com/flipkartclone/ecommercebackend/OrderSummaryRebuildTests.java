@@ -0,0 +1,100 @@
+package com.flipkartclone.ecommercebackend;
+
+import com.flipkartclone.ecommercebackend.dto.ProductRequest;
+import com.flipkartclone.ecommercebackend.model.Category;
+import com.flipkartclone.ecommercebackend.model.User;
+import com.flipkartclone.ecommercebackend.service.CartService;
+import com.flipkartclone.ecommercebackend.service.CategoryService;
+import com.flipkartclone.ecommercebackend.service.OrderService;
+import com.flipkartclone.ecommercebackend.service.OrderSummaryService;
+import com.flipkartclone.ecommercebackend.service.ProductService;
+import com.flipkartclone.ecommercebackend.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs an order summary rebuild against an order that is placed but not yet committed. Like the context test, this
+ * needs the database from application.properties. The rebuild has to wait for the order's transaction and then
+ * count it; recomputing from a snapshot taken before the commit would overwrite the order's bump with zero.
+ */
+@SpringBootTest
+class OrderSummaryRebuildTests {
+
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private CategoryService categoryService;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private CartService cartService;
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private OrderSummaryService orderSummaryService;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final String run = UUID.randomUUID().toString();
+
+    @Test
+    void rebuildCountsAnOrderCommittedWhileItWaits() throws Exception {
+        Long userId = newUser();
+        cartService.addOrUpdateCartItem(userId, newProduct(), 1);
+
+        CountDownLatch placed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> order = CompletableFuture.runAsync(() ->
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    orderService.placeOrder(userId, "1 Rebuild Street");
+                    placed.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }));
+        assertThat(placed.await(10, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<Long> rebuild = CompletableFuture.supplyAsync(orderSummaryService::rebuild);
+        Thread.sleep(500);
+        // Blocked on the summary row the uncommitted order has bumped.
+        assertThat(rebuild).isNotDone();
+
+        release.countDown();
+        order.get(10, TimeUnit.SECONDS);
+        rebuild.get(60, TimeUnit.SECONDS);
+
+        assertThat(orderSummaryService.getSummary(userId)).hasValueSatisfying(summary ->
+                assertThat(summary.getOrderCount()).isEqualTo(1));
+    }
+
+    private Long newUser() {
+        User user = new User();
+        user.setEmail("summary-rebuild-" + run + "@example.com");
+        user.setPassword("secret");
+        user.setFirstName("Rebuild");
+        return userService.registerUser(user).getId();
+    }
+
+    private Long newProduct() {
+        Category category = new Category();
+        category.setName("summary-rebuild-" + run);
+        ProductRequest request = new ProductRequest();
+        request.setName("summary-rebuild-" + run);
+        request.setPrice(1000L);
+        request.setStockQuantity(10);
+        request.setCategoryId(categoryService.addCategory(category).getId());
+        return productService.addProduct(request).getId();
+    }
+}
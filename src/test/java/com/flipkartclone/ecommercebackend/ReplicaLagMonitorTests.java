@@ -0,0 +1,78 @@
+package com.flipkartclone.ecommercebackend;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReplicaLagMonitorTests {
+
+    @Test
+    void replicaIsUnusableUntilChecked() {
+        ReplicaLagMonitor monitor = monitor(replica(0L, false));
+        assertThat(monitor.isUsable("replica1")).isFalse();
+    }
+
+    @Test
+    void streamingReplicaWithinMaxLagIsUsable() {
+        ReplicaLagMonitor monitor = monitor(replica(250L, false));
+        monitor.checkLag();
+        assertThat(monitor.isUsable("replica1")).isTrue();
+    }
+
+    @Test
+    void laggingReplicaIsUnusable() {
+        ReplicaLagMonitor monitor = monitor(replica(5000L, false));
+        monitor.checkLag();
+        assertThat(monitor.isUsable("replica1")).isFalse();
+    }
+
+    @Test
+    void replicaThatStoppedStreamingIsUnusable() {
+        // The lag query yields NULL (read as 0) when the WAL receiver is not streaming.
+        ReplicaLagMonitor monitor = monitor(replica(0L, true));
+        monitor.checkLag();
+        assertThat(monitor.isUsable("replica1")).isFalse();
+    }
+
+    @Test
+    void unreachableReplicaIsUnusable() throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenThrow(new SQLException("connection refused"));
+        ReplicaLagMonitor monitor = monitor(dataSource);
+        monitor.checkLag();
+        assertThat(monitor.isUsable("replica1")).isFalse();
+    }
+
+    private static ReplicaLagMonitor monitor(DataSource replica) {
+        return new ReplicaLagMonitor(Map.of("replica1", replica), 1000, new SimpleMeterRegistry());
+    }
+
+    private static DataSource replica(long lagMillis, boolean notStreaming) {
+        try {
+            ResultSet resultSet = mock(ResultSet.class);
+            when(resultSet.next()).thenReturn(true);
+            when(resultSet.getLong(1)).thenReturn(lagMillis);
+            when(resultSet.wasNull()).thenReturn(notStreaming);
+            Statement statement = mock(Statement.class);
+            when(statement.executeQuery(anyString())).thenReturn(resultSet);
+            Connection connection = mock(Connection.class);
+            when(connection.createStatement()).thenReturn(statement);
+            DataSource dataSource = mock(DataSource.class);
+            when(dataSource.getConnection()).thenReturn(connection);
+            return dataSource;
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
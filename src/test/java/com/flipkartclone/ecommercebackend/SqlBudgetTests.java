@@ -0,0 +1,154 @@
+package com.flipkartclone.ecommercebackend;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flipkartclone.ecommercebackend.dto.OrderRequest;
+import com.flipkartclone.ecommercebackend.dto.ProductRequest;
+import com.flipkartclone.ecommercebackend.model.Category;
+import com.flipkartclone.ecommercebackend.model.User;
+import com.flipkartclone.ecommercebackend.service.CartService;
+import com.flipkartclone.ecommercebackend.service.CategoryService;
+import com.flipkartclone.ecommercebackend.service.ProductService;
+import com.flipkartclone.ecommercebackend.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Statement budgets for the cart and order endpoints, counted with {@link SqlStats}. Like the context test, these
+ * need the database from application.properties. Reads must not grow with the number of lines (no N+1); placing
+ * an order may, but only by the fixed per-line writes.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class SqlBudgetTests {
+
+    // Order item insert, shard pick, stock movement append and cart item delete.
+    private static final int STATEMENTS_PER_ORDER_LINE = 4;
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private CategoryService categoryService;
+    @Autowired
+    private ProductService productService;
+    @Autowired
+    private CartService cartService;
+
+    private final String run = UUID.randomUUID().toString();
+    private final List<Long> productIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Category category = new Category();
+        category.setName("sql-budget-" + run);
+        Long categoryId = categoryService.addCategory(category).getId();
+        for (int i = 0; i < 5; i++) {
+            ProductRequest request = new ProductRequest();
+            request.setName("sql-budget-" + run + "-" + i);
+            request.setPrice(1000L + i);
+            request.setStockQuantity(100);
+            request.setCategoryId(categoryId);
+            productIds.add(productService.addProduct(request).getId());
+        }
+    }
+
+    @Test
+    void cartReadStaysWithinBudgetWhateverItsSize() throws Exception {
+        Long userId = newUser("cart");
+        cartService.addOrUpdateCartItem(userId, productIds.get(0), 1);
+        int oneLine = statements(get("/api/cart/" + userId));
+
+        for (int i = 1; i < productIds.size(); i++) {
+            cartService.addOrUpdateCartItem(userId, productIds.get(i), 1);
+        }
+        try (SqlStats stats = SqlStats.open()) {
+            perform(get("/api/cart/" + userId));
+            // User, its cart association and the cart with its lines and products.
+            stats.assertStatementsAtMost(3);
+            assertThat(stats.getStatements()).isEqualTo(oneLine);
+        }
+    }
+
+    @Test
+    void orderHistoryReadStaysWithinBudgetWhateverItsSize() throws Exception {
+        Long userId = newUser("orders");
+        placeOrder(userId, 1);
+        int oneOrder = statements(get("/api/orders/user/" + userId));
+
+        placeOrder(userId, 3);
+        placeOrder(userId, 2);
+        try (SqlStats stats = SqlStats.open()) {
+            perform(get("/api/orders/user/" + userId));
+            // User, its cart association, hot orders with lines and products, archived orders.
+            stats.assertStatementsAtMost(4);
+            assertThat(stats.getStatements()).isEqualTo(oneOrder);
+        }
+    }
+
+    @Test
+    void placingAnOrderOnlyAddsFixedWritesPerLine() throws Exception {
+        Long userId = newUser("place");
+        cartService.addOrUpdateCartItem(userId, productIds.get(0), 1);
+        int oneLine = statements(placeOrderRequest(userId));
+
+        for (int i = 0; i < 3; i++) {
+            cartService.addOrUpdateCartItem(userId, productIds.get(i), 1);
+        }
+        try (SqlStats stats = SqlStats.open()) {
+            perform(placeOrderRequest(userId));
+            stats.assertStatementsAtMost(oneLine + 2 * STATEMENTS_PER_ORDER_LINE);
+        }
+    }
+
+    private Long newUser(String purpose) {
+        User user = new User();
+        user.setEmail("sql-budget-" + purpose + "-" + run + "@example.com");
+        user.setPassword("secret");
+        user.setFirstName("Budget");
+        return userService.registerUser(user).getId();
+    }
+
+    private void placeOrder(Long userId, int lines) throws Exception {
+        for (int i = 0; i < lines; i++) {
+            cartService.addOrUpdateCartItem(userId, productIds.get(i), 1);
+        }
+        perform(placeOrderRequest(userId));
+    }
+
+    private RequestBuilder placeOrderRequest(Long userId) throws Exception {
+        OrderRequest request = new OrderRequest();
+        request.setUserId(userId);
+        request.setShippingAddress("1 Budget Street");
+        return post("/api/orders").contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request));
+    }
+
+    private int statements(RequestBuilder request) throws Exception {
+        try (SqlStats stats = SqlStats.open()) {
+            perform(request);
+            return stats.getStatements();
+        }
+    }
+
+    private void perform(RequestBuilder request) throws Exception {
+        mockMvc.perform(request).andExpect(status().is2xxSuccessful());
+    }
+}
@@ -0,0 +1,56 @@
+package com.flipkartclone.ecommercebackend;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SqlStatsTests {
+
+    @Test
+    void nestedCapturesEachSeeWhatRanWhileTheyWereOpen() {
+        try (SqlStats outer = SqlStats.open()) {
+            SqlStats.recordStatement("SELECT 1", 1_000_000, 0);
+            try (SqlStats inner = SqlStats.open()) {
+                SqlStats.recordStatement("UPDATE products SET stock_quantity = 3 WHERE id = 7", 2_000_000, 1);
+                SqlStats.recordRows(4);
+                assertThat(inner.getStatements()).isEqualTo(1);
+                assertThat(inner.getRows()).isEqualTo(5);
+            }
+            assertThat(outer.getStatements()).isEqualTo(2);
+            assertThat(outer.getRows()).isEqualTo(5);
+            assertThat(outer.getDbMillis()).isEqualTo(3.0);
+        }
+        assertThat(SqlStats.isActive()).isFalse();
+    }
+
+    @Test
+    void budgetAssertionListsTheStatements() {
+        try (SqlStats stats = SqlStats.open()) {
+            SqlStats.recordStatement("SELECT * FROM products WHERE id = 1", 0, 0);
+            SqlStats.recordStatement("SELECT * FROM products WHERE id = 2", 0, 0);
+            stats.assertStatementsAtMost(2);
+            assertThatThrownBy(() -> stats.assertStatementsAtMost(1))
+                    .isInstanceOf(AssertionError.class)
+                    .hasMessageContaining("but 2 were executed")
+                    .hasMessageContaining("SELECT * FROM products WHERE id = ?=2");
+        }
+    }
+
+    @Test
+    void shapesFoldLiteralsAndInLists() {
+        assertThat(SqlStats.shapeOf("SELECT *  FROM users\n WHERE email = 'a''b' AND id IN (?, ?, ?) LIMIT 10"))
+                .isEqualTo("SELECT * FROM users WHERE email = ? AND id IN (?) LIMIT ?");
+    }
+
+    @Test
+    void repeatedShapesAreReportedAtTheThreshold() {
+        try (SqlStats stats = SqlStats.open()) {
+            for (long id = 1; id <= 5; id++) {
+                SqlStats.recordStatement("SELECT * FROM categories WHERE id = " + id, 0, 0);
+            }
+            SqlStats.recordStatement("SELECT * FROM users WHERE id = 1", 0, 0);
+            assertThat(stats.repeatedShapes(5)).containsExactly("5x SELECT * FROM categories WHERE id = ?");
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.flipkartclone.ecommercebackend.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTests {
+
+    @Test
+    void parsesToMinorUnitsPaddingShortFractions() {
+        assertThat(Money.parse("199")).isEqualTo(19900);
+        assertThat(Money.parse("199.5")).isEqualTo(19950);
+        assertThat(Money.parse("199.99")).isEqualTo(19999);
+        assertThat(Money.parse("+1.05")).isEqualTo(105);
+        assertThat(Money.parse(".5")).isEqualTo(50);
+        assertThat(Money.parse("5.")).isEqualTo(500);
+        assertThat(Money.parse("0")).isEqualTo(0);
+    }
+
+    @Test
+    void neverRoundsExtraDecimalPlaces() {
+        assertThat(Money.parse("1.990")).isEqualTo(199);
+        assertThat(Money.parse("1.99000")).isEqualTo(199);
+        assertThatThrownBy(() -> Money.parse("1.999")).isInstanceOf(NumberFormatException.class);
+        assertThatThrownBy(() -> Money.parse("0.001")).isInstanceOf(NumberFormatException.class);
+    }
+
+    @Test
+    void parsesNegatives() {
+        assertThat(Money.parse("-0.99")).isEqualTo(-99);
+        assertThat(Money.parse("-12")).isEqualTo(-1200);
+        assertThat(Money.parse("-0")).isEqualTo(0);
+    }
+
+    @Test
+    void parsesTheFullLongRange() {
+        assertThat(Money.parse("92233720368547758.07")).isEqualTo(Long.MAX_VALUE);
+        assertThat(Money.parse("-92233720368547758.08")).isEqualTo(Long.MIN_VALUE);
+        char[] buffer = new char[Money.MAX_CHARS];
+        for (long minor : new long[]{Long.MIN_VALUE, Long.MAX_VALUE, -1, 0, 19999}) {
+            int length = Money.format(minor, buffer);
+            assertThat(Money.parse(new String(buffer, 0, length))).isEqualTo(minor);
+        }
+    }
+
+    @Test
+    void overflowIsANumberFormatException() {
+        assertThatThrownBy(() -> Money.parse("92233720368547758.08"))
+                .isInstanceOf(NumberFormatException.class).hasMessageContaining("out of range");
+        assertThatThrownBy(() -> Money.parse("-92233720368547758.09"))
+                .isInstanceOf(NumberFormatException.class).hasMessageContaining("out of range");
+        assertThatThrownBy(() -> Money.parse("99999999999999999999999"))
+                .isInstanceOf(NumberFormatException.class).hasMessageContaining("out of range");
+    }
+
+    @Test
+    void rejectsMalformedAmounts() {
+        for (String text : new String[]{"", "-", "+", ".", "1.2.3", "1,00", "abc", " 1", "1e3", "--1", "1-"}) {
+            assertThatThrownBy(() -> Money.parse(text)).as(text).isInstanceOf(NumberFormatException.class);
+        }
+    }
+
+    @Test
+    void arithmeticOverflowThrows() {
+        assertThatThrownBy(() -> Money.times(Long.MAX_VALUE / 2, 3)).isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> Money.plus(Long.MAX_VALUE, 1)).isInstanceOf(ArithmeticException.class);
+        assertThat(Money.times(1999, 3)).isEqualTo(5997);
+    }
+}
@@ -0,0 +1,53 @@
+package com.flipkartclone.ecommercebackend.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.flipkartclone.ecommercebackend.model.OrderStatus.CANCELLED;
+import static com.flipkartclone.ecommercebackend.model.OrderStatus.EXPIRED;
+import static com.flipkartclone.ecommercebackend.model.OrderStatus.FAILED;
+import static com.flipkartclone.ecommercebackend.model.OrderStatus.PAID;
+import static com.flipkartclone.ecommercebackend.model.OrderStatus.PENDING;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrderStatusTests {
+
+    // Row: current status; columns in declaration order: PENDING, PAID, FAILED, EXPIRED, CANCELLED.
+    private static final Map<OrderStatus, boolean[]> TRANSITIONS = new EnumMap<>(Map.of(
+            PENDING, new boolean[]{false, true, true, true, true},
+            PAID, new boolean[]{false, false, false, false, false},
+            FAILED, new boolean[]{false, true, false, true, true},
+            EXPIRED, new boolean[]{false, false, false, false, false},
+            CANCELLED, new boolean[]{false, false, false, false, false}));
+
+    @Test
+    void everyPairFollowsTheTransitionTable() {
+        assertThat(TRANSITIONS.keySet()).containsExactly(OrderStatus.values());
+        for (OrderStatus from : OrderStatus.values()) {
+            for (OrderStatus to : OrderStatus.values()) {
+                assertThat(from.canTransitionTo(to)).as(from + " -> " + to).isEqualTo(TRANSITIONS.get(from)[to.ordinal()]);
+            }
+        }
+    }
+
+    @Test
+    void sourcesAreExactlyTheStatusesThatMayMoveToTheTarget() {
+        assertThat(OrderStatus.sourcesOf(PENDING)).isEmpty();
+        assertThat(OrderStatus.sourcesOf(PAID)).containsExactly(PENDING, FAILED);
+        assertThat(OrderStatus.sourcesOf(FAILED)).containsExactly(PENDING);
+        assertThat(OrderStatus.sourcesOf(EXPIRED)).containsExactly(PENDING, FAILED);
+        assertThat(OrderStatus.sourcesOf(CANCELLED)).containsExactly(PENDING, FAILED);
+    }
+
+    @Test
+    void onlyUnpaidStatusesMoveAndTerminalOnesStayPut() {
+        for (OrderStatus status : OrderStatus.values()) {
+            boolean moves = List.of(OrderStatus.values()).stream().anyMatch(status::canTransitionTo);
+            assertThat(status.isUnpaid()).as(status.toString()).isEqualTo(moves);
+        }
+        assertThat(List.of(OrderStatus.values())).filteredOn(OrderStatus::isClosedUnpaid).containsExactly(EXPIRED, CANCELLED);
+    }
+}
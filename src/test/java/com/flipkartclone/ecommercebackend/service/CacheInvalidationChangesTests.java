@@ -0,0 +1,120 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheInvalidationChangesTests {
+
+    @Test
+    void encodeAndDecodeRoundTrip() {
+        CacheInvalidationService.Changes changes = new CacheInvalidationService.Changes();
+        changes.addProducts(List.of(3L, 1L, 2L));
+        changes.addCategories(List.of(7L));
+        changes.addStock(List.of(9L, 8L));
+        changes.priceVersion = 42;
+
+        String message = changes.encode("node-a");
+        CacheInvalidationService.Changes decoded = new CacheInvalidationService.Changes();
+        decoded.decodeAndMerge(message);
+
+        assertThat(message).isEqualTo("node-a|p:1,2,3|c:7|s:8,9|v:42");
+        assertThat(decoded.productIds).containsExactly(1L, 2L, 3L);
+        assertThat(decoded.categoryIds).containsExactly(7L);
+        assertThat(decoded.stockProductIds).containsExactly(8L, 9L);
+        assertThat(decoded.allProducts).isFalse();
+        assertThat(decoded.allCategories).isFalse();
+        assertThat(decoded.allStock).isFalse();
+        assertThat(decoded.priceVersion).isEqualTo(42);
+    }
+
+    @Test
+    void stockOnlyChangesStayOutOfTheProductIds() {
+        CacheInvalidationService.Changes changes = new CacheInvalidationService.Changes();
+        changes.addStock(List.of(4L));
+
+        CacheInvalidationService.Changes decoded = new CacheInvalidationService.Changes();
+        decoded.decodeAndMerge(changes.encode("node-a"));
+
+        assertThat(changes.isEmpty()).isFalse();
+        assertThat(decoded.isEmpty()).isFalse();
+        assertThat(decoded.stockProductIds).containsExactly(4L);
+        assertThat(decoded.productIds).isEmpty();
+        assertThat(decoded.allProducts).isFalse();
+    }
+
+    @Test
+    void emptyChangesEncodeToTheNodeIdOnly() {
+        CacheInvalidationService.Changes changes = new CacheInvalidationService.Changes();
+        CacheInvalidationService.Changes decoded = new CacheInvalidationService.Changes();
+        decoded.decodeAndMerge(changes.encode("node-a"));
+
+        assertThat(changes.isEmpty()).isTrue();
+        assertThat(changes.encode("node-a")).isEqualTo("node-a");
+        assertThat(decoded.isEmpty()).isTrue();
+    }
+
+    @Test
+    void tooManyIdsCollapseToAWildcard() {
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= CacheInvalidationService.MAX_IDS + 1; id++) {
+            ids.add(id);
+        }
+        CacheInvalidationService.Changes changes = new CacheInvalidationService.Changes();
+        changes.addProducts(ids);
+        changes.addProducts(List.of(1_000L));
+
+        CacheInvalidationService.Changes decoded = new CacheInvalidationService.Changes();
+        decoded.decodeAndMerge(changes.encode("node-a"));
+
+        assertThat(changes.encode("node-a")).isEqualTo("node-a|p:*");
+        assertThat(decoded.allProducts).isTrue();
+        assertThat(decoded.productIds).isEmpty();
+        assertThat(decoded.allCategories).isFalse();
+    }
+
+    @Test
+    void mergingMessagesUnionsIdsAndKeepsTheNewestPriceVersion() {
+        CacheInvalidationService.Changes merged = new CacheInvalidationService.Changes();
+        merged.decodeAndMerge("node-a|p:1,2|v:9");
+        merged.decodeAndMerge("node-b|p:2,5|c:4|v:7");
+        merged.decodeAndMerge("node-c|c:*");
+        merged.decodeAndMerge("node-c|c:8|x:ignored");
+        merged.decodeAndMerge("node-d|s:3");
+        merged.decodeAndMerge("node-e|s:*");
+        merged.decodeAndMerge("node-e|s:6");
+
+        assertThat(merged.productIds).containsExactly(1L, 2L, 5L);
+        assertThat(merged.allCategories).isTrue();
+        assertThat(merged.categoryIds).isEmpty();
+        assertThat(merged.allStock).isTrue();
+        assertThat(merged.stockProductIds).isEmpty();
+        assertThat(merged.priceVersion).isEqualTo(9);
+    }
+
+    @Test
+    void fullMessageStaysUnderTheTransportLimit() {
+        CacheInvalidationService.Changes changes = new CacheInvalidationService.Changes();
+        List<Long> ids = new ArrayList<>();
+        for (long i = 0; i < CacheInvalidationService.MAX_IDS; i++) {
+            ids.add(Long.MIN_VALUE + i);
+        }
+        changes.addProducts(ids);
+        changes.addCategories(ids);
+        changes.addStock(ids);
+        changes.priceVersion = Long.MAX_VALUE;
+
+        String message = changes.encode("node-" + "x".repeat(36));
+
+        assertThat(message.getBytes(StandardCharsets.UTF_8).length).isLessThanOrEqualTo(InvalidationTransport.MAX_MESSAGE_BYTES);
+        CacheInvalidationService.Changes decoded = new CacheInvalidationService.Changes();
+        decoded.decodeAndMerge(message);
+        assertThat(decoded.productIds).containsExactlyElementsOf(ids);
+        assertThat(decoded.stockProductIds).containsExactlyElementsOf(ids);
+        assertThat(decoded.priceVersion).isEqualTo(Long.MAX_VALUE);
+    }
+}
@@ -0,0 +1,149 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import com.flipkartclone.ecommercebackend.repository.CartRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class CartReminderJobTests {
+
+    private CartRepository cartRepository;
+    private JavaMailSender mailSender;
+    private SimpleMeterRegistry meterRegistry;
+    private CartReminderJob job;
+    // Stands in for the reminder query: cart ID, email, first name, product, quantity, unit price.
+    private final List<Object[]> lines = new ArrayList<>();
+    private final List<List<SimpleMailMessage>> batches = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        cartRepository = mock(CartRepository.class);
+        mailSender = mock(JavaMailSender.class);
+        EmailService emailService = new EmailService();
+        ReflectionTestUtils.setField(emailService, "emailSender", mailSender);
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        meterRegistry = new SimpleMeterRegistry();
+        job = new CartReminderJob(cartRepository, emailService, jdbcTemplate, transactionManager, meterRegistry,
+                24, 100, 60000, 2, 1000);
+
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (Object[] line : lines) {
+                handler.processRow(resultSet(line));
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+        doAnswer(invocation -> batches.add(List.of((SimpleMailMessage[]) invocation.getRawArguments()[0])))
+                .when(mailSender).send(any(SimpleMailMessage[].class));
+    }
+
+    @Test
+    void eachClaimedCartGetsOneMessageWithItsLines() {
+        cartsScanned(List.of(1L, 2L, 3L), List.of(1L, 2L));
+        lines.add(new Object[]{1L, "asha@example.com", "Asha", "Pen", 2, 1000L});
+        lines.add(new Object[]{1L, "asha@example.com", "Asha", "Notebook", 1, 1550L});
+        lines.add(new Object[]{2L, "ravi@example.com", "Ravi", "Lamp", 1, 99900L});
+
+        BackgroundJob.Chunk chunk = job.processChunk(0, 100);
+
+        assertThat(chunk).isEqualTo(new BackgroundJob.Chunk(3, 3L, 2));
+        assertThat(batches).singleElement().satisfies(batch -> {
+            assertThat(batch).extracting(message -> message.getTo()[0]).containsExactly("asha@example.com", "ravi@example.com");
+            assertThat(batch.get(0).getText()).startsWith("Hi Asha,")
+                    .contains("  Pen x 2 - Rs. 20.00\n  Notebook x 1 - Rs. 15.50\n")
+                    .contains("Cart total: Rs. 35.50")
+                    .doesNotContain("Lamp");
+            assertThat(batch.get(1).getText()).startsWith("Hi Ravi,").contains("Cart total: Rs. 999.00");
+        });
+    }
+
+    @Test
+    void longCartListsTheFirstLinesAndCountsTheRest() {
+        cartsScanned(List.of(1L), List.of(1L));
+        for (int i = 1; i <= 7; i++) {
+            lines.add(new Object[]{1L, "asha@example.com", "Asha", "Item " + i, 1, 100L});
+        }
+
+        job.processChunk(0, 100);
+
+        String text = batches.get(0).get(0).getText();
+        assertThat(text).contains("  Item 5 x 1").doesNotContain("Item 6").doesNotContain("Item 7")
+                .contains("  and 2 more\n")
+                .contains("Cart total: Rs. 7.00");
+    }
+
+    @Test
+    void messagesRejectedByTheServerAreCountedAsFailed() {
+        cartsScanned(List.of(1L, 2L, 3L), List.of(1L, 2L, 3L));
+        lines.add(new Object[]{1L, "asha@example.com", "Asha", "Pen", 1, 1000L});
+        lines.add(new Object[]{2L, "ravi@example.com", "Ravi", "Lamp", 1, 1000L});
+        lines.add(new Object[]{3L, "meera@example.com", "Meera", "Mug", 1, 1000L});
+        // The first batch of two has one recipient refused; the second batch of one goes through.
+        doAnswer(invocation -> {
+            SimpleMailMessage[] batch = (SimpleMailMessage[]) invocation.getRawArguments()[0];
+            batches.add(List.of(batch));
+            if (batches.size() == 1) {
+                throw new MailSendException(Map.of(batch[1], new IllegalStateException("550 mailbox unavailable")));
+            }
+            return null;
+        }).when(mailSender).send(any(SimpleMailMessage[].class));
+
+        BackgroundJob.Chunk chunk = job.processChunk(0, 100);
+
+        assertThat(batches).extracting(List::size).containsExactly(2, 1);
+        assertThat(chunk.processed()).isEqualTo(2);
+        assertThat(meterRegistry.counter("cart.reminders.sent").count()).isEqualTo(2);
+        assertThat(meterRegistry.counter("cart.reminders.failed").count()).isEqualTo(1);
+    }
+
+    @Test
+    void nothingIsSentWhenNoCartCouldBeClaimed() {
+        cartsScanned(List.of(1L, 2L), List.of());
+
+        assertThat(job.processChunk(0, 100)).isEqualTo(new BackgroundJob.Chunk(2, 2L, 0));
+        verifyNoInteractions(mailSender);
+    }
+
+    private void cartsScanned(List<Long> scanned, List<Long> claimed) {
+        when(cartRepository.findUnremindedIdsAfter(anyLong(), anyInt())).thenReturn(scanned);
+        when(cartRepository.claimIdleCartsForReminder(anyList(), any())).thenReturn(claimed);
+    }
+
+    private static ResultSet resultSet(Object[] line) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong(1)).thenReturn((Long) line[0]);
+        when(rs.getString(2)).thenReturn((String) line[1]);
+        when(rs.getString(3)).thenReturn((String) line[2]);
+        when(rs.getString(4)).thenReturn((String) line[3]);
+        when(rs.getInt(5)).thenReturn((Integer) line[4]);
+        when(rs.getLong(6)).thenReturn((Long) line[5]);
+        return rs;
+    }
+}
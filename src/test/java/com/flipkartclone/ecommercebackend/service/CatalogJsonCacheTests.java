@@ -0,0 +1,130 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flipkartclone.ecommercebackend.model.Category;
+import com.flipkartclone.ecommercebackend.model.product.Product;
+import com.flipkartclone.ecommercebackend.repository.CategoryRepository;
+import com.flipkartclone.ecommercebackend.repository.ProductRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CatalogJsonCacheTests {
+
+    private ProductService productService;
+    private CategoryService categoryService;
+    private CacheInvalidationService cacheInvalidationService;
+    private CatalogJsonCache catalogJsonCache;
+    private Cache productJson;
+    private Cache categoryJson;
+
+    @BeforeEach
+    void setUp() {
+        productService = mock(ProductService.class);
+        categoryService = mock(CategoryService.class);
+        InventoryService inventoryService = mock(InventoryService.class);
+        when(inventoryService.availableQuantities(anyCollection())).thenReturn(Map.of(1L, 5));
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
+        cacheInvalidationService = new CacheInvalidationService(mock(InvalidationTransport.class), cacheManager,
+                mock(ProductRepository.class), mock(CategoryRepository.class), mock(ProductFacetService.class),
+                mock(TypeaheadService.class), mock(CatalogVersionService.class), mock(CatalogSnapshotService.class),
+                inventoryService, mock(PlatformTransactionManager.class), new SimpleMeterRegistry());
+        catalogJsonCache = new CatalogJsonCache(productService, categoryService, inventoryService,
+                cacheInvalidationService, new ObjectMapper(), cacheManager);
+        productJson = cacheManager.getCache(CacheInvalidationService.PRODUCT_JSON_CACHE);
+        categoryJson = cacheManager.getCache(CacheInvalidationService.CATEGORY_JSON_CACHE);
+    }
+
+    @Test
+    void productJsonIsCachedOnAMiss() {
+        when(productService.getProductById(1L)).thenReturn(Optional.of(product("Phone")));
+
+        Optional<byte[]> json = catalogJsonCache.productJson(1L);
+
+        assertThat(json).isPresent();
+        assertThat(new String(json.get())).contains("\"name\":\"Phone\"").contains("\"stockQuantity\":5");
+        assertThat(productJson.get(1L, byte[].class)).isEqualTo(json.get());
+    }
+
+    @Test
+    void fillThatLoadedTheOldProductBeforeAnEvictionIsNotCached() {
+        // The writer commits and evicts between the reader's load and its put.
+        when(productService.getProductById(1L)).thenAnswer(invocation -> {
+            Product old = product("Phone");
+            cacheInvalidationService.productsChanged(List.of(1L));
+            return Optional.of(old);
+        });
+
+        assertThat(catalogJsonCache.productJson(1L)).isPresent();
+        assertThat(productJson.get(1L)).isNull();
+
+        when(productService.getProductById(1L)).thenReturn(Optional.of(product("Phone 2")));
+        assertThat(new String(catalogJsonCache.productJson(1L).get())).contains("Phone 2");
+        assertThat(productJson.get(1L)).isNotNull();
+    }
+
+    @Test
+    void stockOnlyEvictionAlsoDropsARacingFill() {
+        when(productService.getProductById(1L)).thenAnswer(invocation -> {
+            cacheInvalidationService.stockChanged(List.of(1L));
+            return Optional.of(product("Phone"));
+        });
+
+        catalogJsonCache.productJson(1L);
+
+        assertThat(productJson.get(1L)).isNull();
+    }
+
+    @Test
+    void evictionOfAnotherProductDoesNotDropTheFill() {
+        when(productService.getProductById(1L)).thenAnswer(invocation -> {
+            cacheInvalidationService.productsChanged(List.of(2L));
+            return Optional.of(product("Phone"));
+        });
+
+        catalogJsonCache.productJson(1L);
+
+        assertThat(productJson.get(1L)).isNotNull();
+    }
+
+    @Test
+    void categoryListLoadedBeforeARenameIsNotCached() {
+        Category category = new Category();
+        category.setId(3L);
+        category.setName("Phones");
+        when(categoryService.getAllCategories()).thenAnswer(invocation -> {
+            cacheInvalidationService.categoriesChanged(List.of(3L));
+            return List.of(category);
+        });
+
+        assertThat(new String(catalogJsonCache.categoryListJson())).contains("Phones");
+
+        assertThat(categoryJson.get(CacheInvalidationService.ALL_CATEGORIES_KEY)).isNull();
+        assertThat(categoryJson.get(3L)).isNull();
+    }
+
+    private static Product product(String name) {
+        Category category = new Category();
+        category.setId(3L);
+        category.setName("Phones");
+        Product product = new Product();
+        product.setId(1L);
+        product.setName(name);
+        product.setPriceMinor(1000);
+        product.setStockQuantity(0);
+        product.setCategory(category);
+        return product;
+    }
+}
@@ -0,0 +1,71 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogSnapshotTests {
+
+    private Path directory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("catalog-snapshot-tests");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @Test
+    void writersSharingATargetDoNotClobberEachOther() throws IOException {
+        Path target = directory.resolve("catalog.snapshot");
+        try (CatalogSnapshot.Writer first = new CatalogSnapshot.Writer(target);
+             CatalogSnapshot.Writer second = new CatalogSnapshot.Writer(target)) {
+            first.add(1, 7, 1000, 3, "first", null, null, null, "phones");
+            second.add(1, 7, 2000, 5, "second", null, null, null, "phones");
+            second.add(2, 7, 3000, 1, "other", null, null, null, "phones");
+            first.finish(100);
+
+            CatalogSnapshot snapshot = CatalogSnapshot.open(target);
+            assertThat(snapshot.version()).isEqualTo(100);
+            assertThat(snapshot.find(1).orElseThrow().getName()).isEqualTo("first");
+
+            second.finish(200);
+        }
+
+        CatalogSnapshot snapshot = CatalogSnapshot.open(target);
+        assertThat(snapshot.version()).isEqualTo(200);
+        assertThat(snapshot.size()).isEqualTo(2);
+        assertThat(snapshot.find(1).orElseThrow().getPriceMinor()).isEqualTo(2000);
+        assertThat(snapshot.find(2).orElseThrow().getName()).isEqualTo("other");
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files).containsExactly(target);
+        }
+    }
+
+    @Test
+    void abandonedWriterLeavesNoTempFiles() throws IOException {
+        Path target = directory.resolve("catalog.snapshot");
+        try (CatalogSnapshot.Writer writer = new CatalogSnapshot.Writer(target)) {
+            writer.add(1, 7, 1000, 3, "first", null, null, null, "phones");
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+}
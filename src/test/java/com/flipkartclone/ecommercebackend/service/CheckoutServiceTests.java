@@ -0,0 +1,116 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import com.flipkartclone.ecommercebackend.dto.CheckoutResponse;
+import com.flipkartclone.ecommercebackend.dto.PaymentOrderResponse;
+import com.flipkartclone.ecommercebackend.model.Order;
+import com.flipkartclone.ecommercebackend.model.OrderStatus;
+import com.flipkartclone.ecommercebackend.repository.CartRepository;
+import com.flipkartclone.ecommercebackend.repository.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CheckoutServiceTests {
+
+    private CartRepository cartRepository;
+    private OrderRepository orderRepository;
+    private OrderService orderService;
+    private PaymentGateway paymentGateway;
+    private CheckoutService checkoutService;
+
+    @BeforeEach
+    void setUp() {
+        cartRepository = mock(CartRepository.class);
+        orderRepository = mock(OrderRepository.class);
+        orderService = mock(OrderService.class);
+        paymentGateway = mock(PaymentGateway.class);
+        checkoutService = new CheckoutService(cartRepository, orderRepository, orderService, paymentGateway,
+                new SimpleMeterRegistry(), 2, 2, 200);
+    }
+
+    @AfterEach
+    void tearDown() {
+        checkoutService.shutdown();
+    }
+
+    @Test
+    void gatewayOrderIsCreatedForTheQuotedTotal() {
+        quote(new Object[]{"a@example.com", 3L, 2L, 2500L});
+        when(orderService.placeOrder(1L, "addr")).thenReturn(order(2500L));
+        when(paymentGateway.createOrder(eq(2500L), eq("INR"), anyString(), any())).thenReturn(payment(2500));
+
+        CheckoutResponse response = checkoutService.checkout(1L, "addr", "INR");
+
+        assertThat(response.getPayment().getId()).isEqualTo("order_g");
+        verify(orderRepository).setGatewayOrderId(10L, "order_g");
+    }
+
+    @Test
+    void slowGatewayIsAbandonedAndTheOrderReturnedWithoutPayment() {
+        quote(new Object[]{"a@example.com", 3L, 2L, 2500L});
+        when(orderService.placeOrder(1L, "addr")).thenReturn(order(2500L));
+        when(paymentGateway.createOrder(anyLong(), anyString(), anyString(), any())).thenAnswer(invocation -> {
+            Thread.sleep(2000);
+            return payment(2500);
+        });
+
+        long started = System.nanoTime();
+        CheckoutResponse response = checkoutService.checkout(1L, "addr", "INR");
+
+        assertThat(response.getOrderId()).isEqualTo(10L);
+        assertThat(response.getPayment()).isNull();
+        assertThat(System.nanoTime() - started).isLessThan(1_500_000_000L);
+        verify(orderRepository, never()).setGatewayOrderId(any(), any());
+    }
+
+    @Test
+    void missingUserCartAndEmptyCartAreRejectedBeforeAnythingIsPlaced() {
+        when(cartRepository.findCheckoutQuote(1L)).thenReturn(List.of());
+        assertThatThrownBy(() -> checkoutService.checkout(1L, "addr", "INR")).hasMessageContaining("User not found");
+
+        quote(new Object[]{"a@example.com", null, 0L, 0L});
+        assertThatThrownBy(() -> checkoutService.checkout(1L, "addr", "INR")).hasMessageContaining("Cart not found");
+
+        quote(new Object[]{"a@example.com", 3L, 0L, 0L});
+        assertThatThrownBy(() -> checkoutService.checkout(1L, "addr", "INR")).hasMessageContaining("empty cart");
+
+        verify(orderService, never()).placeOrder(any(), any());
+        verify(paymentGateway, never()).createOrder(anyLong(), anyString(), anyString(), any());
+    }
+
+    private void quote(Object[] row) {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(row);
+        when(cartRepository.findCheckoutQuote(1L)).thenReturn(rows);
+    }
+
+    private static Order order(long totalMinor) {
+        Order order = new Order();
+        order.setId(10L);
+        order.setTotalAmountMinor(totalMinor);
+        order.setStatus(OrderStatus.PENDING);
+        return order;
+    }
+
+    private static PaymentOrderResponse payment(int amount) {
+        PaymentOrderResponse payment = new PaymentOrderResponse();
+        payment.setId("order_g");
+        payment.setAmount(amount);
+        return payment;
+    }
+}
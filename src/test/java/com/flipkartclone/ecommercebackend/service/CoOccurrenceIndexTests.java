@@ -0,0 +1,93 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CoOccurrenceIndexTests {
+
+    @Test
+    void countsArePerSharedOrderAndSymmetric() {
+        CoOccurrenceIndex index = new CoOccurrenceIndex();
+        index.addOrder(new long[]{1, 2, 3}, 3);
+        index.addOrder(new long[]{1, 2}, 2);
+
+        assertThat(index.topPartners(1, 10)).containsExactly(2, 2, 3, 1);
+        assertThat(index.topPartners(2, 10)).containsExactly(1, 2, 3, 1);
+        assertThat(index.topPartners(3, 10)).containsExactly(1, 1, 2, 1);
+        assertThat(index.pairCount()).isEqualTo(6);
+        assertThat(index.productCount()).isEqualTo(3);
+    }
+
+    @Test
+    void ignoresRepeatsOfTheSameProductAndUnusedBufferTail() {
+        CoOccurrenceIndex index = new CoOccurrenceIndex();
+        index.addOrder(new long[]{4, 4, 5, 99}, 3);
+
+        assertThat(index.topPartners(4, 10)).containsExactly(5, 2);
+        assertThat(index.topPartners(99, 10)).isEmpty();
+    }
+
+    @Test
+    void topPartnersAreCappedAndTiesGoToTheLowerId() {
+        CoOccurrenceIndex index = new CoOccurrenceIndex();
+        for (long partner = 100; partner < 130; partner++) {
+            index.addOrder(new long[]{1, partner}, 2);
+        }
+        index.addOrder(new long[]{1, 129}, 2);
+
+        long[] top = index.topPartners(1, 100);
+        assertThat(top).hasSize(CoOccurrenceIndex.MAX_TOP * 2);
+        assertThat(top[0]).isEqualTo(129);
+        assertThat(top[1]).isEqualTo(2);
+        assertThat(top[2]).isEqualTo(100);
+        assertThat(top[top.length - 2]).isEqualTo(118);
+        assertThat(index.topPartners(1, 3)).containsExactly(129, 2, 100, 1, 101, 1);
+    }
+
+    @Test
+    void cachedTopIsRecomputedAfterNewOrders() {
+        CoOccurrenceIndex index = new CoOccurrenceIndex();
+        index.addOrder(new long[]{1, 2}, 2);
+        assertThat(index.topPartners(1, 1)).containsExactly(2, 1);
+
+        index.addOrder(new long[]{1, 3}, 2);
+        index.addOrder(new long[]{1, 3}, 2);
+
+        assertThat(index.topPartners(1, 1)).containsExactly(3, 2);
+    }
+
+    @Test
+    void mergeAddsCountsLikeOneIndexBuiltFromAllOrders() {
+        CoOccurrenceIndex left = new CoOccurrenceIndex(4);
+        CoOccurrenceIndex right = new CoOccurrenceIndex(4);
+        CoOccurrenceIndex whole = new CoOccurrenceIndex(4);
+        long[][] orders = {{1, 2, 3}, {2, 3}, {3, 4}, {1, 2}, {5, 6, 1}};
+        for (int i = 0; i < orders.length; i++) {
+            (i % 2 == 0 ? left : right).addOrder(orders[i], orders[i].length);
+            whole.addOrder(orders[i], orders[i].length);
+        }
+
+        left.merge(right);
+
+        assertThat(left.pairCount()).isEqualTo(whole.pairCount());
+        assertThat(left.productCount()).isEqualTo(whole.productCount());
+        for (long product = 1; product <= 6; product++) {
+            assertThat(left.topPartners(product, 20)).containsExactly(whole.topPartners(product, 20));
+        }
+    }
+
+    @Test
+    void onlyTheFirstFiftyItemsOfAnOrderArePaired() {
+        CoOccurrenceIndex index = new CoOccurrenceIndex();
+        long[] order = new long[60];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i + 1;
+        }
+        index.addOrder(order, order.length);
+
+        assertThat(index.productCount()).isEqualTo(50);
+        assertThat(index.pairCount()).isEqualTo(50L * 49);
+        assertThat(index.topPartners(60, 10)).isEmpty();
+    }
+}
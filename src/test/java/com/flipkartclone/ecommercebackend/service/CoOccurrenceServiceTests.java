@@ -0,0 +1,45 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CoOccurrenceServiceTests {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final CoOccurrenceService service =
+            new CoOccurrenceService(mock(OutboxService.class), jdbcTemplate, 2, 50_000);
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    void scheduledRebuildDoesNotHoldTheSchedulerThread() throws InterruptedException {
+        CountDownLatch scanning = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(jdbcTemplate.queryForObject(anyString(), any(RowMapper.class))).thenAnswer(invocation -> {
+            scanning.countDown();
+            release.await();
+            return new long[]{0L, 0L};
+        });
+
+        service.scheduledRebuild();
+
+        assertThat(scanning.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(service.getStats().isRebuilding()).isTrue();
+        assertThat(service.startRebuild()).isFalse();
+        release.countDown();
+    }
+}
@@ -0,0 +1,66 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class EmailServiceTests {
+
+    private JavaMailSender mailSender;
+    private EmailService emailService;
+
+    @BeforeEach
+    void setUp() {
+        mailSender = mock(JavaMailSender.class);
+        emailService = new EmailService();
+        ReflectionTestUtils.setField(emailService, "emailSender", mailSender);
+    }
+
+    @Test
+    void batchIsSentInOneCall() {
+        List<SimpleMailMessage> batch = List.of(message("a"), message("b"), message("c"));
+
+        assertThat(emailService.sendBatch(batch)).isEqualTo(3);
+        verify(mailSender).send(batch.toArray(new SimpleMailMessage[0]));
+    }
+
+    @Test
+    void onlyTheMessagesListedAsFailedAreSubtracted() {
+        List<SimpleMailMessage> batch = List.of(message("a"), message("b"), message("c"));
+        doThrow(new MailSendException(Map.of(batch.get(1), new IllegalStateException("550 mailbox unavailable"))))
+                .when(mailSender).send(any(SimpleMailMessage[].class));
+
+        assertThat(emailService.sendBatch(batch)).isEqualTo(2);
+    }
+
+    @Test
+    void batchThatNeverReachedTheServerCountsNothing() {
+        doThrow(new MailAuthenticationException("535 authentication failed")).when(mailSender).send(any(SimpleMailMessage[].class));
+
+        assertThat(emailService.sendBatch(List.of(message("a"), message("b")))).isZero();
+    }
+
+    @Test
+    void emptyBatchDoesNotConnect() {
+        assertThat(emailService.sendBatch(List.of())).isZero();
+        verifyNoInteractions(mailSender);
+    }
+
+    private SimpleMailMessage message(String user) {
+        return emailService.message(user + "@example.com", "Subject", "Body");
+    }
+}
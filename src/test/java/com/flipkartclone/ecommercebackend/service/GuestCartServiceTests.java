@@ -0,0 +1,53 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import com.flipkartclone.ecommercebackend.dto.GuestCartResponse;
+import com.flipkartclone.ecommercebackend.model.product.Product;
+import com.flipkartclone.ecommercebackend.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class GuestCartServiceTests {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final CartService cartService = mock(CartService.class);
+    private final GuestCartService guestCartService = new GuestCartService(productRepository, cartService, "secret", 30, 50, 99);
+    private final GuestCartTokenCodec codec = new GuestCartTokenCodec("secret".getBytes(StandardCharsets.UTF_8));
+
+    @Test
+    void expiredTokenIsRejected() {
+        long issuedAt = Instant.now().minus(Duration.ofDays(31)).getEpochSecond();
+        String token = codec.encode(42L, Map.of(7L, 1), issuedAt);
+
+        assertThatThrownBy(() -> guestCartService.getCart(token)).hasMessageContaining("expired");
+    }
+
+    @Test
+    void cartKeepsItsIdAcrossTokensAndIsMergedUnderIt() {
+        Product product = new Product();
+        product.setId(7L);
+        product.setPriceMinor(500);
+        when(productRepository.existsById(anyLong())).thenReturn(true);
+        when(productRepository.findAllById(any())).thenReturn(List.of(product));
+
+        GuestCartResponse first = guestCartService.addItem(null, 7L, 1);
+        GuestCartResponse second = guestCartService.addItem(first.getToken(), 7L, 2);
+        long cartId = codec.decode(first.getToken()).cartId;
+
+        assertThat(codec.decode(second.getToken()).cartId).isEqualTo(cartId);
+        guestCartService.mergeIntoUserCart(1L, second.getToken());
+        verify(cartService).mergeGuestCart(1L, cartId, Map.of(7L, 3));
+    }
+}
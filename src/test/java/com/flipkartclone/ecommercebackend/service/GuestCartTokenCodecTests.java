@@ -0,0 +1,66 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GuestCartTokenCodecTests {
+
+    private final GuestCartTokenCodec codec = new GuestCartTokenCodec("secret".getBytes(StandardCharsets.UTF_8));
+
+    @Test
+    void roundTripKeepsCartIdIssueTimeAndItemOrder() {
+        Map<Long, Integer> items = new LinkedHashMap<>();
+        items.put(300_000L, 2);
+        items.put(7L, 1);
+        items.put(Long.MAX_VALUE, Integer.MAX_VALUE);
+
+        GuestCartTokenCodec.Decoded decoded = codec.decode(codec.encode(42L, items, 1_700_000_000L));
+
+        assertThat(decoded.issuedAt).isEqualTo(1_700_000_000L);
+        assertThat(decoded.cartId).isEqualTo(42L);
+        assertThat(decoded.items).containsExactly(Map.entry(300_000L, 2), Map.entry(7L, 1),
+                Map.entry(Long.MAX_VALUE, Integer.MAX_VALUE));
+    }
+
+    @Test
+    void emptyCartRoundTrips() {
+        GuestCartTokenCodec.Decoded decoded = codec.decode(codec.encode(9L, Map.of(), 1L));
+
+        assertThat(decoded.cartId).isEqualTo(9L);
+        assertThat(decoded.items).isEmpty();
+    }
+
+    @Test
+    void tamperedPayloadIsRejected() {
+        String token = codec.encode(42L, Map.of(7L, 1), 1_700_000_000L);
+        int dot = token.indexOf('.');
+        byte[] payload = Base64.getUrlDecoder().decode(token.substring(0, dot));
+        payload[payload.length - 1] = 99; // quantity 1 -> 99
+        String tampered = Base64.getUrlEncoder().withoutPadding().encodeToString(payload) + token.substring(dot);
+
+        assertThat(codec.decode(tampered)).isNull();
+    }
+
+    @Test
+    void tokenSignedWithAnotherKeyIsRejected() {
+        GuestCartTokenCodec other = new GuestCartTokenCodec("other".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(codec.decode(other.encode(42L, Map.of(7L, 1), 1_700_000_000L))).isNull();
+    }
+
+    @Test
+    void malformedTokensAreRejected() {
+        String token = codec.encode(42L, Map.of(7L, 1), 1_700_000_000L);
+
+        assertThat(codec.decode("no-dot")).isNull();
+        assertThat(codec.decode(".abc")).isNull();
+        assertThat(codec.decode("!!!." + token.substring(token.indexOf('.') + 1))).isNull();
+        assertThat(codec.decode(token.substring(0, token.indexOf('.') + 3))).isNull();
+    }
+}
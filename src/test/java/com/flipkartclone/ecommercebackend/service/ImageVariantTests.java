@@ -0,0 +1,22 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageVariantTests {
+
+    @Test
+    void pathSegmentsDoNotDependOnTheDefaultLocale() {
+        Locale original = Locale.getDefault();
+        Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+        try {
+            assertThat(ImageVariant.THUMBNAIL.pathSegment()).isEqualTo("thumbnail");
+            assertThat(ImageVariant.fromPathSegment("thumbnail")).isEqualTo(ImageVariant.THUMBNAIL);
+        } finally {
+            Locale.setDefault(original);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JobSchedulerTests {
+
+    private static final String JOB = "test-job";
+
+    private DataSource dataSource;
+    private Connection connection;
+    private JdbcTemplate jdbcTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private JobScheduler scheduler;
+    private final List<Long> afterKeys = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataSource = mock(DataSource.class);
+        connection = mock(Connection.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        lockResult("pg_try_advisory_lock", true);
+        lockResult("pg_advisory_unlock", true);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    void runResumesFromTheCheckpointAndResetsItWhenThePassEnds() throws Exception {
+        checkpoint(500L);
+        // Two full chunks, then a short one that ends the pass.
+        BackgroundJob job = job(10, new BackgroundJob.Chunk(10, 510, 4), new BackgroundJob.Chunk(10, 520, 0),
+                new BackgroundJob.Chunk(3, 523, 1));
+
+        assertThat(scheduler(60_000).run(job)).isTrue();
+
+        assertThat(afterKeys).containsExactly(500L, 510L, 520L);
+        InOrder order = inOrder(jdbcTemplate);
+        order.verify(jdbcTemplate).update(contains("INSERT INTO job_checkpoints"), eq(JOB), eq(510L), eq(false));
+        order.verify(jdbcTemplate).update(contains("INSERT INTO job_checkpoints"), eq(JOB), eq(520L), eq(false));
+        order.verify(jdbcTemplate).update(contains("INSERT INTO job_checkpoints"), eq(JOB), eq(0L), eq(true));
+        assertThat(meterRegistry.counter("jobs.rows.processed", "job", JOB).count()).isEqualTo(5);
+        verify(connection).prepareStatement(contains("pg_advisory_unlock"));
+        verify(connection).close();
+    }
+
+    @Test
+    void firstRunStartsAtKeyZero() throws Exception {
+        checkpoint();
+        BackgroundJob job = job(10, new BackgroundJob.Chunk(0, 0, 0));
+
+        scheduler(60_000).run(job);
+
+        assertThat(afterKeys).containsExactly(0L);
+        verify(jdbcTemplate).update(contains("INSERT INTO job_checkpoints"), eq(JOB), eq(0L), eq(true));
+    }
+
+    @Test
+    void runStopsWhenTheTimeBudgetIsSpentAndKeepsItsPlace() throws Exception {
+        checkpoint(100L);
+        // The pass would go on, but a zero budget allows exactly one chunk.
+        BackgroundJob job = job(10, new BackgroundJob.Chunk(10, 110, 10), new BackgroundJob.Chunk(10, 120, 10));
+
+        assertThat(scheduler(0).run(job)).isTrue();
+
+        assertThat(afterKeys).containsExactly(100L);
+        verify(jdbcTemplate).update(contains("INSERT INTO job_checkpoints"), eq(JOB), eq(110L), eq(false));
+        verify(jdbcTemplate, never()).update(contains("INSERT INTO job_checkpoints"), eq(JOB), eq(0L), eq(true));
+        verify(connection).prepareStatement(contains("pg_advisory_unlock"));
+    }
+
+    @Test
+    void runIsSkippedWhenAnotherNodeHoldsTheLock() throws Exception {
+        lockResult("pg_try_advisory_lock", false);
+        BackgroundJob job = job(10, new BackgroundJob.Chunk(0, 0, 0));
+
+        assertThat(scheduler(60_000).run(job)).isFalse();
+
+        assertThat(afterKeys).isEmpty();
+        verify(jdbcTemplate, never()).queryForList(anyString(), eq(Long.class), eq(JOB));
+        verify(connection, never()).prepareStatement(contains("pg_advisory_unlock"));
+        verify(connection).close();
+        assertThat(meterRegistry.counter("jobs.lock.skipped", "job", JOB).count()).isEqualTo(1);
+    }
+
+    @Test
+    void failingChunkReleasesTheLockAndKeepsEarlierCheckpoints() throws Exception {
+        checkpoint();
+        BackgroundJob job = new ScriptedJob(10, List.of(new BackgroundJob.Chunk(10, 10, 10))) {
+            @Override
+            public Chunk processChunk(long afterKey, int limit) {
+                if (afterKey == 10) {
+                    throw new IllegalStateException("deadlock detected");
+                }
+                return super.processChunk(afterKey, limit);
+            }
+        };
+
+        assertThat(scheduler(60_000).run(job)).isTrue();
+
+        verify(jdbcTemplate).update(contains("INSERT INTO job_checkpoints"), eq(JOB), eq(10L), eq(false));
+        verify(connection).prepareStatement(contains("pg_advisory_unlock"));
+        verify(connection).close();
+        assertThat(meterRegistry.counter("jobs.failures", "job", JOB).count()).isEqualTo(1);
+    }
+
+    private JobScheduler scheduler(long timeBudgetMillis) {
+        scheduler = new JobScheduler(List.of(), dataSource, jdbcTemplate, meterRegistry, true, 1, timeBudgetMillis);
+        return scheduler;
+    }
+
+    private void checkpoint(Long... lastKey) {
+        when(jdbcTemplate.queryForList(contains("FROM job_checkpoints"), eq(Long.class), eq(JOB))).thenReturn(List.of(lastKey));
+    }
+
+    private void lockResult(String function, boolean result) throws Exception {
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(connection.prepareStatement(contains(function))).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getBoolean(1)).thenReturn(result);
+    }
+
+    private BackgroundJob job(int chunkSize, BackgroundJob.Chunk... chunks) {
+        return new ScriptedJob(chunkSize, List.of(chunks));
+    }
+
+    // Hands out the scripted chunks in order and records the key each one was asked to start after.
+    private class ScriptedJob implements BackgroundJob {
+        private final int chunkSize;
+        private final List<Chunk> chunks;
+
+        ScriptedJob(int chunkSize, List<Chunk> chunks) {
+            this.chunkSize = chunkSize;
+            this.chunks = chunks;
+        }
+
+        @Override
+        public String name() {
+            return JOB;
+        }
+
+        @Override
+        public long intervalMillis() {
+            return 1000;
+        }
+
+        @Override
+        public int chunkSize() {
+            return chunkSize;
+        }
+
+        @Override
+        public Chunk processChunk(long afterKey, int limit) {
+            assertThat(limit).isEqualTo(chunkSize);
+            afterKeys.add(afterKey);
+            return chunks.get(afterKeys.size() - 1);
+        }
+    }
+}
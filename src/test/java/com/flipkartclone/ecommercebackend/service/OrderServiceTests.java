@@ -0,0 +1,197 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import com.flipkartclone.ecommercebackend.model.Cart;
+import com.flipkartclone.ecommercebackend.model.CartItem;
+import com.flipkartclone.ecommercebackend.model.Order;
+import com.flipkartclone.ecommercebackend.model.User;
+import com.flipkartclone.ecommercebackend.model.product.Product;
+import com.flipkartclone.ecommercebackend.repository.CartItemRepository;
+import com.flipkartclone.ecommercebackend.repository.CartRepository;
+import com.flipkartclone.ecommercebackend.repository.OrderItemRepository;
+import com.flipkartclone.ecommercebackend.repository.OrderRepository;
+import com.flipkartclone.ecommercebackend.repository.ProductRepository;
+import com.flipkartclone.ecommercebackend.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderServiceTests {
+
+    @Test
+    void orderIsChargedAtCurrentPricesEvenIfTheCartLooksFresh() {
+        OrderRepository orderRepository = mock(OrderRepository.class);
+        UserRepository userRepository = mock(UserRepository.class);
+        CartRepository cartRepository = mock(CartRepository.class);
+        InventoryService inventoryService = mock(InventoryService.class);
+        CatalogVersionService catalogVersionService = mock(CatalogVersionService.class);
+        CartService cartService = new CartService(cartRepository, mock(CartItemRepository.class), userRepository,
+                mock(ProductRepository.class), catalogVersionService, mock(JdbcTemplate.class), 99, 30);
+        OrderService orderService = new OrderService(orderRepository, mock(OrderItemRepository.class), userRepository,
+                cartRepository, mock(OutboxService.class), mock(ProductFacetService.class),
+                mock(CacheInvalidationService.class), mock(OrderArchiveService.class), inventoryService,
+                mock(OrderSummaryService.class), cartService, transactionManager(), 3);
+
+        User user = new User();
+        user.setId(1L);
+        Product product = new Product();
+        product.setId(5L);
+        product.setPriceMinor(1200);
+        Cart cart = new Cart();
+        // The price changed on another node; this node's price version hasn't caught up yet.
+        cart.setPriceVersion(7L);
+        when(catalogVersionService.getPriceVersion()).thenReturn(7L);
+        CartItem line = new CartItem();
+        line.setCart(cart);
+        line.setProduct(product);
+        line.setQuantity(2);
+        line.setPriceAtPurchaseMinor(1000);
+        cart.getCartItems().add(line);
+
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(cartRepository.findByUserIdWithItems(1L)).thenReturn(Optional.of(cart));
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
+            Order order = invocation.getArgument(0);
+            order.setId(10L);
+            return order;
+        });
+        when(inventoryService.reserve(anyLong(), anyInt(), any())).thenReturn(true);
+
+        Order order = orderService.placeOrder(1L, "addr");
+
+        assertThat(order.getTotalAmountMinor()).isEqualTo(2400);
+        assertThat(order.getOrderItems().get(0).getPriceAtOrderMinor()).isEqualTo(1200);
+    }
+
+    @Test
+    void orderArchivedBetweenTheTwoReadsIsListedOnce() {
+        OrderRepository orderRepository = mock(OrderRepository.class);
+        UserRepository userRepository = mock(UserRepository.class);
+        OrderArchiveService orderArchiveService = mock(OrderArchiveService.class);
+        OrderService orderService = new OrderService(orderRepository, mock(OrderItemRepository.class), userRepository,
+                mock(CartRepository.class), mock(OutboxService.class), mock(ProductFacetService.class),
+                mock(CacheInvalidationService.class), orderArchiveService, mock(InventoryService.class),
+                mock(OrderSummaryService.class), mock(CartService.class), transactionManager(), 3);
+
+        when(userRepository.findById(1L)).thenReturn(Optional.of(new User()));
+        // Order 2 was still hot for the first read and had been archived by the second.
+        when(orderRepository.findByUserIdWithItems(1L)).thenReturn(List.of(order(2L), order(3L)));
+        when(orderArchiveService.findOrdersByUserId(1L)).thenReturn(List.of(order(1L), order(2L)));
+
+        List<Order> orders = orderService.getOrdersByUserId(1L);
+
+        assertThat(orders).extracting(Order::getId).containsExactly(1L, 2L, 3L);
+        InOrder reads = inOrder(orderRepository, orderArchiveService);
+        reads.verify(orderRepository).findByUserIdWithItems(1L);
+        reads.verify(orderArchiveService).findOrdersByUserId(1L);
+    }
+
+    @Test
+    void productsAreReservedOncePerProductInAscendingIdOrder() {
+        Fixture fixture = new Fixture(3);
+        fixture.addLine(9L, 1);
+        fixture.addLine(4L, 2);
+        fixture.addLine(9L, 3);
+        when(fixture.inventoryService.reserve(anyLong(), anyInt(), any())).thenReturn(true);
+
+        fixture.orderService.placeOrder(1L, "addr");
+
+        InOrder reservations = inOrder(fixture.inventoryService);
+        reservations.verify(fixture.inventoryService).reserve(4L, 2, 10L);
+        reservations.verify(fixture.inventoryService).reserve(9L, 4, 10L);
+    }
+
+    @Test
+    void lockConflictIsRetriedInAFreshTransaction() {
+        Fixture fixture = new Fixture(3);
+        fixture.addLine(4L, 1);
+        when(fixture.inventoryService.reserve(anyLong(), anyInt(), any()))
+                .thenThrow(new CannotAcquireLockException("could not obtain lock"))
+                .thenReturn(true);
+
+        Order order = fixture.orderService.placeOrder(1L, "addr");
+
+        assertThat(order.getId()).isEqualTo(10L);
+        verify(fixture.inventoryService, times(2)).reserve(eq(4L), eq(1), any());
+        verify(fixture.transactionManager, times(2)).getTransaction(any());
+    }
+
+    @Test
+    void persistentLockConflictGivesUpAfterMaxAttempts() {
+        Fixture fixture = new Fixture(2);
+        fixture.addLine(4L, 1);
+        when(fixture.inventoryService.reserve(anyLong(), anyInt(), any()))
+                .thenThrow(new CannotAcquireLockException("could not obtain lock"));
+
+        assertThatThrownBy(() -> fixture.orderService.placeOrder(1L, "addr"))
+                .hasMessageContaining("Stock is contended")
+                .hasCauseInstanceOf(CannotAcquireLockException.class);
+        verify(fixture.inventoryService, times(2)).reserve(eq(4L), eq(1), any());
+    }
+
+    private static PlatformTransactionManager transactionManager() {
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        return transactionManager;
+    }
+
+    // An order service over mocks whose cart lines keep their price, so only the reservations vary.
+    private static class Fixture {
+        final InventoryService inventoryService = mock(InventoryService.class);
+        final PlatformTransactionManager transactionManager = transactionManager();
+        final Cart cart = new Cart();
+        final OrderService orderService;
+
+        Fixture(int maxAttempts) {
+            OrderRepository orderRepository = mock(OrderRepository.class);
+            UserRepository userRepository = mock(UserRepository.class);
+            CartRepository cartRepository = mock(CartRepository.class);
+            orderService = new OrderService(orderRepository, mock(OrderItemRepository.class), userRepository,
+                    cartRepository, mock(OutboxService.class), mock(ProductFacetService.class),
+                    mock(CacheInvalidationService.class), mock(OrderArchiveService.class), inventoryService,
+                    mock(OrderSummaryService.class), mock(CartService.class), transactionManager, maxAttempts);
+            when(userRepository.findById(1L)).thenReturn(Optional.of(new User()));
+            when(cartRepository.findByUserIdWithItems(1L)).thenReturn(Optional.of(cart));
+            when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
+                Order order = invocation.getArgument(0);
+                order.setId(10L);
+                return order;
+            });
+        }
+
+        void addLine(Long productId, int quantity) {
+            Product product = new Product();
+            product.setId(productId);
+            product.setPriceMinor(100);
+            CartItem line = new CartItem();
+            line.setCart(cart);
+            line.setProduct(product);
+            line.setQuantity(quantity);
+            line.setPriceAtPurchaseMinor(100);
+            cart.getCartItems().add(line);
+        }
+    }
+
+    private static Order order(Long id) {
+        Order order = new Order();
+        order.setId(id);
+        return order;
+    }
+}
@@ -0,0 +1,148 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class OrderSummaryServiceTests {
+
+    private JdbcTemplate jdbcTemplate;
+    private PlatformTransactionManager transactionManager;
+    private Connection connection;
+    private OrderSummaryService service;
+    // Transaction boundaries and statements, in the order they were issued.
+    private final List<String> events = new ArrayList<>();
+    private final List<Long[]> boundIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        connection = mock(Connection.class);
+        service = new OrderSummaryService(jdbcTemplate, transactionManager, 2);
+
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> {
+            events.add("begin");
+            return new SimpleTransactionStatus();
+        });
+        doAnswer(invocation -> events.add("commit")).when(transactionManager).commit(any());
+        when(connection.prepareStatement(anyString())).thenAnswer(invocation -> {
+            events.add(invocation.getArgument(0));
+            return mock(PreparedStatement.class);
+        });
+        when(connection.createArrayOf(eq("bigint"), any())).thenAnswer(invocation -> {
+            boundIds.add(invocation.getArgument(1));
+            return null;
+        });
+        doAnswer(invocation -> {
+            invocation.<PreparedStatementCreator>getArgument(0).createPreparedStatement(connection);
+            return 0;
+        }).when(jdbcTemplate).update(any(PreparedStatementCreator.class));
+        doAnswer(invocation -> {
+            invocation.<PreparedStatementCreator>getArgument(0).createPreparedStatement(connection);
+            return List.of();
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowMapper.class));
+    }
+
+    @Test
+    void rebuildWalksUsersInKeysetChunksUntilAShortOne() {
+        users(0L, 1L, 2L);
+        users(2L, 3L, 4L);
+        users(4L, 5L);
+
+        assertThat(service.rebuild()).isEqualTo(5);
+        verify(transactionManager, times(3)).commit(any());
+        // A short chunk is the last one, so no further page is asked for.
+        verify(jdbcTemplate, never()).queryForList(anyString(), eq(Long.class), eq(5L), anyInt());
+        assertThat(boundIds).first().isEqualTo(new Long[]{1L, 2L});
+        assertThat(boundIds).last().isEqualTo(new Long[]{5L});
+    }
+
+    @Test
+    void rebuildStopsOnAnEmptyChunkAfterAnExactMultiple() {
+        users(0L, 1L, 2L);
+        users(2L);
+
+        assertThat(service.rebuild()).isEqualTo(2);
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    void rebuildOfNoUsersOpensNoTransaction() {
+        users(0L);
+
+        assertThat(service.rebuild()).isZero();
+        verify(transactionManager, never()).getTransaction(any());
+    }
+
+    @Test
+    void eachChunkLocksItsRowsBeforeRecomputingThemInTheSameTransaction() {
+        users(0L, 1L, 2L);
+        users(2L, 3L);
+
+        service.rebuild();
+
+        List<String> chunk = List.of("begin", "ensure", "lock", "recompute", "commit");
+        List<String> expected = new ArrayList<>(chunk);
+        expected.addAll(chunk);
+        assertThat(events.stream().map(OrderSummaryServiceTests::step).toList()).isEqualTo(expected);
+        // The recompute reads each chunk's orders and archived orders for exactly the locked users.
+        assertThat(boundIds).containsExactly(new Long[]{1L, 2L}, new Long[]{1L, 2L}, new Long[]{1L, 2L},
+                new Long[]{1L, 2L}, new Long[]{1L, 2L}, new Long[]{3L}, new Long[]{3L}, new Long[]{3L},
+                new Long[]{3L}, new Long[]{3L});
+    }
+
+    @Test
+    void ordersPaidAddsOnlyTheGivenOrders() {
+        service.ordersPaid(List.of(7L, 9L));
+
+        assertThat(events).singleElement().asString().contains("paid_order_count + EXCLUDED.paid_order_count");
+        assertThat(boundIds).containsExactly(new Long[]{7L, 9L});
+    }
+
+    @Test
+    void ordersPaidWithNoOrdersIssuesNoStatement() {
+        service.ordersPaid(List.of());
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private void users(long afterUserId, Long... ids) {
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(afterUserId), eq(2))).thenReturn(List.of(ids));
+    }
+
+    private static String step(String event) {
+        if (event.startsWith("INSERT INTO user_order_summaries (user_id) ")) {
+            return "ensure";
+        }
+        if (event.endsWith("FOR UPDATE")) {
+            return "lock";
+        }
+        if (event.startsWith("UPDATE user_order_summaries ")) {
+            return "recompute";
+        }
+        return event;
+    }
+}
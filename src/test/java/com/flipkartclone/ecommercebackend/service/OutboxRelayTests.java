@@ -0,0 +1,144 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import com.flipkartclone.ecommercebackend.model.OutboxEvent;
+import com.flipkartclone.ecommercebackend.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboxRelayTests {
+
+    private OutboxEventRepository repository;
+    private PlatformTransactionManager transactionManager;
+    private List<String> handled;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(OutboxEventRepository.class);
+        when(repository.findOldestPendingCreatedAt(anyInt())).thenReturn(Optional.empty());
+        when(repository.markProcessed(any(), any())).thenAnswer(invocation -> invocation.<List<Long>>getArgument(0).size());
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        handled = new ArrayList<>();
+    }
+
+    @Test
+    void failedBatchIsBackedOffAndEndsThePoll() {
+        when(repository.claimNextBatch(anyInt(), anyInt(), any(), any())).thenReturn(new ArrayList<>(List.of(event(1L, 2))));
+
+        relay(2, subscriber(false, true)).relay();
+
+        // The batch was full, but it had a failure, so it is not re-claimed in the same poll.
+        verify(repository, times(1)).claimNextBatch(anyInt(), anyInt(), any(), any());
+        ArgumentCaptor<LocalDateTime> nextAttempt = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(repository).markFailed(eq(1L), eq("smtp down"), nextAttempt.capture());
+        // Third attempt: 1000 ms << 2.
+        assertThat(nextAttempt.getValue()).isAfter(LocalDateTime.now().plusSeconds(3));
+        assertThat(nextAttempt.getValue()).isBefore(LocalDateTime.now().plusSeconds(5));
+        verify(repository, never()).markProcessed(any(), any());
+    }
+
+    @Test
+    void backoffIsCappedAtRetryMax() {
+        when(repository.claimNextBatch(anyInt(), anyInt(), any(), any())).thenReturn(new ArrayList<>(List.of(event(1L, 40))));
+
+        relay(1, subscriber(false, true)).relay();
+
+        ArgumentCaptor<LocalDateTime> nextAttempt = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(repository).markFailed(eq(1L), anyString(), nextAttempt.capture());
+        assertThat(nextAttempt.getValue()).isBefore(LocalDateTime.now().plusMinutes(10).plusSeconds(1));
+    }
+
+    @Test
+    void successfulEventsAreMarkedProcessedTogether() {
+        when(repository.claimNextBatch(anyInt(), anyInt(), any(), any()))
+                .thenReturn(new ArrayList<>(List.of(event(2L, 0), event(1L, 0))))
+                .thenReturn(new ArrayList<>());
+
+        relay(2, subscriber(false, false)).relay();
+
+        assertThat(handled).containsExactly("1", "2");
+        verify(repository).markProcessed(eq(List.of(1L, 2L)), any());
+        verify(repository, times(2)).claimNextBatch(anyInt(), anyInt(), any(), any());
+    }
+
+    @Test
+    void transactionalSubscribersAreAcknowledgedPerEvent() {
+        when(repository.claimNextBatch(anyInt(), anyInt(), any(), any())).thenReturn(new ArrayList<>(List.of(event(1L, 0))));
+
+        relay(10, subscriber(true, false)).relay();
+
+        assertThat(handled).containsExactly("1");
+        verify(repository).markProcessed(eq(List.of(1L)), any());
+        verify(transactionManager, never()).commit(argThat(TransactionStatus::isRollbackOnly));
+    }
+
+    @Test
+    void transactionalDeliveryOfAnAlreadyAcknowledgedEventIsRolledBack() {
+        when(repository.claimNextBatch(anyInt(), anyInt(), any(), any())).thenReturn(new ArrayList<>(List.of(event(1L, 0))));
+        doReturn(0).when(repository).markProcessed(any(), any());
+
+        relay(10, subscriber(true, false)).relay();
+
+        verify(transactionManager).commit(argThat(TransactionStatus::isRollbackOnly));
+        verify(repository, never()).markFailed(any(), any(), any());
+    }
+
+    private OutboxRelay relay(int batchSize, OutboxSubscriber subscriber) {
+        return new OutboxRelay(repository, List.of(subscriber), transactionManager,
+                new SimpleMeterRegistry(), batchSize, 10, 1000, 600_000, 300_000);
+    }
+
+    private OutboxSubscriber subscriber(boolean transactional, boolean failing) {
+        return new OutboxSubscriber() {
+            @Override
+            public boolean supports(String eventType) {
+                return true;
+            }
+
+            @Override
+            public void handle(OutboxEvent event) {
+                if (failing) {
+                    throw new RuntimeException("smtp down");
+                }
+                handled.add(String.valueOf(event.getId()));
+            }
+
+            @Override
+            public boolean transactional() {
+                return transactional;
+            }
+        };
+    }
+
+    private static OutboxEvent event(Long id, int attempts) {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(id);
+        event.setEventType(OutboxService.ORDER_PAID);
+        event.setAttempts(attempts);
+        event.setCreatedAt(LocalDateTime.now());
+        return event;
+    }
+}
@@ -0,0 +1,170 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import com.flipkartclone.ecommercebackend.model.Order;
+import com.flipkartclone.ecommercebackend.model.OrderStatus;
+import com.flipkartclone.ecommercebackend.repository.OrderRepository;
+import com.flipkartclone.ecommercebackend.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PaymentServiceTests {
+
+    private OrderRepository orderRepository;
+    private OutboxService outboxService;
+    private PaymentGateway paymentGateway;
+    private OrderSummaryService orderSummaryService;
+    private PaymentService paymentService;
+
+    @BeforeEach
+    void setUp() {
+        orderRepository = mock(OrderRepository.class);
+        outboxService = mock(OutboxService.class);
+        paymentGateway = mock(PaymentGateway.class);
+        orderSummaryService = mock(OrderSummaryService.class);
+        paymentService = new PaymentService(orderRepository, mock(UserRepository.class), outboxService, paymentGateway,
+                orderSummaryService, mock(PlatformTransactionManager.class), new SimpleMeterRegistry(),
+                50, 0, 4, 5000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        paymentService.shutdown();
+    }
+
+    @Test
+    void onlyOrdersTheGatewayAnsweredForAreMarkedChecked() {
+        Map<String, OrderStatus> gateway = Map.of("g1", OrderStatus.PAID, "g2", OrderStatus.FAILED, "g3", OrderStatus.PENDING);
+        when(paymentGateway.fetchOrderOutcomes(anyList())).thenAnswer(invocation -> {
+            Map<String, OrderStatus> outcomes = new LinkedHashMap<>();
+            for (String id : invocation.<List<String>>getArgument(0)) {
+                if (gateway.containsKey(id)) {
+                    outcomes.put(id, gateway.get(id));
+                }
+            }
+            return outcomes;
+        });
+        when(orderRepository.markPaid(anyCollection())).thenReturn(List.of(1L));
+        when(orderRepository.markFailed(anyCollection())).thenReturn(List.of(2L));
+        when(orderRepository.findAllByIdWithItems(anyCollection())).thenReturn(List.of(order(1L, OrderStatus.PAID),
+                order(2L, OrderStatus.FAILED)));
+
+        Map<Long, String> pending = new LinkedHashMap<>();
+        pending.put(1L, "g1");
+        pending.put(2L, "g2");
+        pending.put(3L, "g3");
+        pending.put(4L, "g4");
+
+        assertThat(paymentService.reconcilePendingOrders(pending)).isEqualTo(2);
+        verify(orderRepository).markPaid(List.of(1L));
+        verify(orderRepository).markFailed(List.of(2L));
+        // g4's lookup failed, so it stays unchecked and can't be expired on the strength of this pass.
+        verify(orderRepository).markPaymentChecked(eq(List.of(1L, 2L, 3L)), any());
+        verify(outboxService).publishOrderEvent(eq(OutboxService.ORDER_PAID), any());
+        verify(outboxService).publishOrderEvent(eq(OutboxService.ORDER_PAYMENT_FAILED), any());
+    }
+
+    @Test
+    void lookupsOfOneBatchRunConcurrently() {
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        when(paymentGateway.fetchOrderOutcomes(anyList())).thenAnswer(invocation -> {
+            threads.add(Thread.currentThread().getName());
+            Thread.sleep(200);
+            return Map.of();
+        });
+
+        Map<Long, String> pending = new LinkedHashMap<>();
+        for (long id = 1; id <= 8; id++) {
+            pending.put(id, "g" + id);
+        }
+        paymentService.reconcilePendingOrders(pending);
+
+        assertThat(threads).hasSize(4);
+        verify(orderRepository, never()).markPaymentChecked(anyCollection(), any());
+    }
+
+    @Test
+    void paymentForAnOrderExpiredMeanwhileRequiresARefund() {
+        when(paymentGateway.fetchOrderOutcomes(anyList())).thenReturn(Map.of("g1", OrderStatus.PAID));
+        when(orderRepository.markPaid(anyCollection())).thenReturn(List.of());
+        when(orderRepository.findAllByIdWithItems(List.of(1L))).thenReturn(List.of(order(1L, OrderStatus.EXPIRED)));
+
+        assertThat(paymentService.reconcilePendingOrders(Map.of(1L, "g1"))).isZero();
+        verify(outboxService).publishOrderEvent(eq(OutboxService.ORDER_REFUND_REQUIRED), any());
+    }
+
+    @Test
+    void reconciledOrdersCountTowardsSpendOnlyIfTheyBecamePaid() {
+        when(paymentGateway.fetchOrderOutcomes(anyList())).thenReturn(Map.of("g1", OrderStatus.PAID, "g2", OrderStatus.PAID));
+        // Order 1 expired while the gateway was being asked.
+        when(orderRepository.markPaid(List.of(1L, 2L))).thenReturn(List.of(2L));
+        when(orderRepository.findAllByIdWithItems(List.of(1L))).thenReturn(List.of(order(1L, OrderStatus.EXPIRED)));
+        when(orderRepository.findAllByIdWithItems(List.of(2L))).thenReturn(List.of(order(2L, OrderStatus.PAID)));
+
+        Map<Long, String> pending = new LinkedHashMap<>();
+        pending.put(1L, "g1");
+        pending.put(2L, "g2");
+
+        assertThat(paymentService.reconcilePendingOrders(pending)).isEqualTo(1);
+        verify(orderSummaryService).ordersPaid(List.of(2L));
+    }
+
+    @Test
+    void webhookCountsTheOrderTowardsSpendWhenItBecomesPaid() throws Exception {
+        when(paymentGateway.verifyWebhookSignature(any(), any())).thenReturn(true);
+        when(orderRepository.findByGatewayOrderIdWithItems("g1")).thenReturn(Optional.of(order(1L, OrderStatus.PENDING)));
+        when(orderRepository.transitionStatus(eq(1L), any(), eq(OrderStatus.PAID))).thenReturn(1);
+        when(orderRepository.findAllByIdWithItems(List.of(1L))).thenReturn(List.of(order(1L, OrderStatus.PAID)));
+
+        assertThat(paymentService.handleWebhook(capturedWebhook("g1"), "signature")).isTrue();
+        verify(orderSummaryService).ordersPaid(List.of(1L));
+        verify(outboxService).publishOrderEvent(eq(OutboxService.ORDER_PAID), any());
+    }
+
+    @Test
+    void webhookForAnOrderReconciledMeanwhileIsNotCountedAgain() throws Exception {
+        when(paymentGateway.verifyWebhookSignature(any(), any())).thenReturn(true);
+        // Read as PENDING, but reconciliation marked it PAID before the conditional update ran.
+        when(orderRepository.findByGatewayOrderIdWithItems("g1")).thenReturn(Optional.of(order(1L, OrderStatus.PENDING)));
+        when(orderRepository.transitionStatus(eq(1L), any(), eq(OrderStatus.PAID))).thenReturn(0);
+        when(orderRepository.findAllByIdWithItems(List.of(1L))).thenReturn(List.of(order(1L, OrderStatus.PAID)));
+
+        assertThat(paymentService.handleWebhook(capturedWebhook("g1"), "signature")).isTrue();
+        verify(orderSummaryService, never()).ordersPaid(anyCollection());
+        verify(outboxService, never()).publishOrderEvent(any(), any());
+    }
+
+    private static String capturedWebhook(String gatewayOrderId) throws Exception {
+        JSONObject entity = new JSONObject().put("order_id", gatewayOrderId).put("status", "captured");
+        return new JSONObject().put("event", "payment.captured")
+                .put("payload", new JSONObject().put("payment", new JSONObject().put("entity", entity)))
+                .toString();
+    }
+
+    private static Order order(Long id, OrderStatus status) {
+        Order order = new Order();
+        order.setId(id);
+        order.setStatus(status);
+        return order;
+    }
+}
@@ -0,0 +1,160 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import com.flipkartclone.ecommercebackend.dto.FacetCount;
+import com.flipkartclone.ecommercebackend.dto.FacetSearchResponse;
+import com.flipkartclone.ecommercebackend.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class ProductFacetServiceTests {
+
+    private static final BigDecimal[] BOUNDS = {new BigDecimal("500"), new BigDecimal("1000"), new BigDecimal("5000"),
+            new BigDecimal("10000"), new BigDecimal("50000")};
+
+    private ProductFacetService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ProductFacetService(mock(ProductRepository.class), mock(PlatformTransactionManager.class), BOUNDS);
+        // Sparse IDs, so paging has to select by rank rather than by ID.
+        service.productsChanged(List.of(
+                new Object[]{3L, 10L, 10_000L, 5},       // 100.00, bucket 0
+                new Object[]{17L, 10L, 70_000L, 0},      // 700.00, bucket 1, out of stock
+                new Object[]{40L, 20L, 20_000L, 3},      // 200.00, bucket 0
+                new Object[]{41L, 20L, 200_000L, 1},     // 2000.00, bucket 2
+                new Object[]{1000L, 30L, 6_000_000L, 2}  // 60000.00, bucket 5
+        ));
+    }
+
+    @Test
+    void priceBucketsFollowTheConfiguredBounds() {
+        assertThat(service.priceBucketOf(0)).isZero();
+        assertThat(service.priceBucketOf(49_999)).isZero();
+        assertThat(service.priceBucketOf(50_000)).isEqualTo(1);
+        assertThat(service.priceBucketOf(5_000_000)).isEqualTo(5);
+    }
+
+    @Test
+    void unfilteredSearchCountsEveryValue() {
+        FacetSearchResponse response = search(Set.of(), Set.of(), false, 0, 10);
+
+        assertThat(response.getTotalMatches()).isEqualTo(5);
+        assertThat(response.getProductIds()).containsExactly(3L, 17L, 40L, 41L, 1000L);
+        assertThat(counts(response.getCategories())).containsExactly(Map.entry("10", 2), Map.entry("20", 2), Map.entry("30", 1));
+        assertThat(response.getPriceBuckets()).extracting(FacetCount::getCount).containsExactly(2, 1, 1, 0, 0, 1);
+        assertThat(response.getPriceBuckets()).extracting(FacetCount::getLabel)
+                .containsExactly("0-500", "500-1000", "1000-5000", "5000-10000", "10000-50000", "50000+");
+        assertThat(counts(response.getAvailability()))
+                .containsEntry(ProductFacetService.IN_STOCK, 4).containsEntry(ProductFacetService.OUT_OF_STOCK, 1);
+    }
+
+    @Test
+    void eachFacetIsCountedAgainstTheOtherFacetsOnly() {
+        FacetSearchResponse response = search(Set.of(10L), Set.of(), true, 0, 10);
+
+        assertThat(response.getProductIds()).containsExactly(3L);
+        // Categories ignore the category selection but respect the stock filter.
+        assertThat(counts(response.getCategories())).containsExactly(Map.entry("10", 1), Map.entry("20", 2), Map.entry("30", 1));
+        assertThat(response.getCategories()).filteredOn(FacetCount::isSelected).extracting(FacetCount::getValue).containsExactly("10");
+        // Prices respect both, availability only the category.
+        assertThat(response.getPriceBuckets()).extracting(FacetCount::getCount).containsExactly(1, 0, 0, 0, 0, 0);
+        assertThat(counts(response.getAvailability()))
+                .containsEntry(ProductFacetService.IN_STOCK, 1).containsEntry(ProductFacetService.OUT_OF_STOCK, 1);
+    }
+
+    @Test
+    void valuesWithinAFacetAreOredAndFacetsAnded() {
+        FacetSearchResponse response = search(Set.of(10L, 20L), Set.of(0), false, 0, 10);
+
+        assertThat(response.getProductIds()).containsExactly(3L, 40L);
+        assertThat(counts(response.getCategories())).containsExactly(Map.entry("10", 1), Map.entry("20", 1), Map.entry("30", 0));
+        assertThat(response.getPriceBuckets()).extracting(FacetCount::getCount).containsExactly(2, 1, 1, 0, 0, 0);
+    }
+
+    @Test
+    void unknownCategoriesAndBucketsMatchNothing() {
+        FacetSearchResponse unknownCategory = search(Set.of(99L), Set.of(), false, 0, 10);
+        assertThat(unknownCategory.getTotalMatches()).isZero();
+        assertThat(unknownCategory.getProductIds()).isEmpty();
+        assertThat(counts(unknownCategory.getCategories())).doesNotContainKey("99").containsEntry("10", 2);
+
+        assertThat(search(Set.of(), Set.of(42), false, 0, 10).getTotalMatches()).isZero();
+        assertThat(search(Set.of(), Set.of(-1), false, 0, 10).getTotalMatches()).isZero();
+        // Known values still match next to unknown ones.
+        assertThat(search(Set.of(10L, 99L), Set.of(1, 42), false, 0, 10).getProductIds()).containsExactly(17L);
+    }
+
+    @Test
+    void pagesSelectByRankOverSparseIds() {
+        assertThat(search(Set.of(), Set.of(), false, 0, 2).getProductIds()).containsExactly(3L, 17L);
+        assertThat(search(Set.of(), Set.of(), false, 1, 2).getProductIds()).containsExactly(40L, 41L);
+        assertThat(search(Set.of(), Set.of(), false, 2, 2).getProductIds()).containsExactly(1000L);
+        assertThat(search(Set.of(), Set.of(), false, 3, 2).getProductIds()).isEmpty();
+        assertThat(search(Set.of(), Set.of(), false, -1, 2).getProductIds()).isEmpty();
+        assertThat(search(Set.of(), Set.of(), false, 0, 0).getProductIds()).isEmpty();
+        FacetSearchResponse filtered = search(Set.of(20L, 30L), Set.of(), false, 1, 1);
+        assertThat(filtered.getTotalMatches()).isEqualTo(3);
+        assertThat(filtered.getProductIds()).containsExactly(41L);
+    }
+
+    @Test
+    void recategorisedProductLeavesItsOldCategoryAndBucket() {
+        service.productChanged(3L, 20L, 80_000L, 5);
+
+        FacetSearchResponse response = search(Set.of(), Set.of(), false, 0, 10);
+        assertThat(counts(response.getCategories())).containsExactly(Map.entry("10", 1), Map.entry("20", 3), Map.entry("30", 1));
+        assertThat(response.getPriceBuckets()).extracting(FacetCount::getCount).containsExactly(1, 2, 1, 0, 0, 1);
+        assertThat(search(Set.of(10L), Set.of(), false, 0, 10).getProductIds()).containsExactly(17L);
+        assertThat(search(Set.of(20L), Set.of(), false, 0, 10).getProductIds()).containsExactly(3L, 40L, 41L);
+
+        // Moving the only product out of a category drops the category from the counts.
+        service.productChanged(1000L, 20L, 6_000_000L, 2);
+        assertThat(counts(search(Set.of(), Set.of(), false, 0, 10).getCategories())).doesNotContainKey("30");
+    }
+
+    @Test
+    void stockChangesOnlyFlipTheInStockBit() {
+        service.stockChanged(List.of(new Object[]{17L, 4}, new Object[]{3L, 0}, new Object[]{999L, 1}));
+
+        assertThat(search(Set.of(), Set.of(), true, 0, 10).getProductIds()).containsExactly(17L, 40L, 41L, 1000L);
+        FacetSearchResponse all = search(Set.of(), Set.of(), false, 0, 10);
+        // The unknown product is not added, and categories and buckets are unchanged.
+        assertThat(all.getTotalMatches()).isEqualTo(5);
+        assertThat(counts(all.getCategories())).containsExactly(Map.entry("10", 2), Map.entry("20", 2), Map.entry("30", 1));
+        assertThat(all.getPriceBuckets()).extracting(FacetCount::getCount).containsExactly(2, 1, 1, 0, 0, 1);
+    }
+
+    @Test
+    void deletedProductIsRemovedEverywhere() {
+        service.productDeleted(1000L);
+        service.productDeleted(12345L);
+
+        FacetSearchResponse response = search(Set.of(), Set.of(), false, 0, 10);
+        assertThat(response.getProductIds()).containsExactly(3L, 17L, 40L, 41L);
+        assertThat(counts(response.getCategories())).doesNotContainKey("30");
+        assertThat(response.getPriceBuckets()).extracting(FacetCount::getCount).containsExactly(2, 1, 1, 0, 0, 0);
+        assertThat(counts(response.getAvailability())).containsEntry(ProductFacetService.IN_STOCK, 3);
+    }
+
+    private FacetSearchResponse search(Set<Long> categoryIds, Set<Integer> priceBuckets, boolean inStockOnly, int page, int size) {
+        return service.search(categoryIds, priceBuckets, inStockOnly, page, size);
+    }
+
+    private static Map<String, Integer> counts(List<FacetCount> facetCounts) {
+        Map<String, Integer> counts = new TreeMap<>();
+        for (FacetCount facetCount : facetCounts) {
+            counts.put(facetCount.getValue(), facetCount.getCount());
+        }
+        return counts;
+    }
+}
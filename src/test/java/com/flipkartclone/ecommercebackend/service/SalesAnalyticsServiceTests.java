@@ -0,0 +1,154 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.flipkartclone.ecommercebackend.dto.SalesBucketResponse;
+import com.flipkartclone.ecommercebackend.model.OutboxEvent;
+import com.flipkartclone.ecommercebackend.repository.OutboxEventRepository;
+import com.flipkartclone.ecommercebackend.repository.SalesRollupBucketRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SalesAnalyticsServiceTests {
+
+    private static final LocalDateTime PAID_AT = LocalDateTime.of(2026, 3, 14, 15, 9, 26);
+
+    private JdbcTemplate jdbcTemplate;
+    private SalesAnalyticsService service;
+    private final List<Object[]> storedRows = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        service = new SalesAnalyticsService(new OutboxService(mock(OutboxEventRepository.class), new ObjectMapper()),
+                mock(SalesRollupBucketRepository.class), jdbcTemplate, 14, 730, 300);
+        // Stands in for sales_rollups: each refresh hands back whatever rows are currently stored.
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (Object[] row : storedRows) {
+                handler.processRow(resultSet(row));
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Timestamp.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void eventIsAddedToRollupsAsIncrements() {
+        service.handle(paidEvent());
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(sql.capture(), rows.capture());
+        assertThat(sql.getValue()).contains("revenue_minor = sales_rollups.revenue_minor + EXCLUDED.revenue_minor")
+                .contains("updated_at = now()");
+        // Two items, product and category, hourly and daily; sorted so category 7's buckets come first.
+        assertThat(rows.getValue()).hasSize(8);
+        assertThat(rows.getValue().get(0)).containsExactly(SalesAnalyticsService.CATEGORY, 7L, "DAY",
+                Timestamp.valueOf(PAID_AT.toLocalDate().atStartOfDay()), 2500L, 2L);
+        assertThat(rows.getValue().get(1)).containsExactly(SalesAnalyticsService.CATEGORY, 7L, "DAY",
+                Timestamp.valueOf(PAID_AT.toLocalDate().atStartOfDay()), 300L, 3L);
+
+        // Served only once a refresh reads the committed totals back.
+        assertThat(service.getCategorySales(7L, SalesGranularity.DAY, PAID_AT.minusDays(1), PAID_AT)).isEmpty();
+    }
+
+    @Test
+    void refreshMergesRowsWrittenByAnyNode() {
+        LocalDateTime day = PAID_AT.toLocalDate().atStartOfDay();
+        storedRows.add(new Object[]{SalesAnalyticsService.CATEGORY, 7L, "DAY", day, 2800L, 5L});
+        storedRows.add(new Object[]{SalesAnalyticsService.PRODUCT, 1L, "HOUR", PAID_AT.withMinute(0).withSecond(0), 2500L, 2L});
+
+        service.refresh();
+
+        assertThat(service.getCategorySales(7L, SalesGranularity.DAY, PAID_AT.minusDays(1), PAID_AT))
+                .extracting(SalesBucketResponse::getRevenue).containsExactly(2800L);
+        assertThat(service.getProductSales(1L, SalesGranularity.HOUR, PAID_AT.minusHours(1), PAID_AT))
+                .extracting(SalesBucketResponse::getUnits).containsExactly(2L);
+    }
+
+    @Test
+    void overlappingRefreshesNeverCountARowTwiceOrGoBackwards() {
+        LocalDateTime day = PAID_AT.toLocalDate().atStartOfDay();
+        storedRows.add(new Object[]{SalesAnalyticsService.CATEGORY, 7L, "DAY", day, 2800L, 5L});
+        service.refresh();
+        service.refresh();
+        assertThat(service.getCategorySales(7L, SalesGranularity.DAY, day, day))
+                .extracting(SalesBucketResponse::getRevenue).containsExactly(2800L);
+
+        // Another node's relay added an order.
+        storedRows.set(0, new Object[]{SalesAnalyticsService.CATEGORY, 7L, "DAY", day, 3800L, 6L});
+        service.refresh();
+        assertThat(service.getCategorySales(7L, SalesGranularity.DAY, day, day))
+                .extracting(SalesBucketResponse::getUnits).containsExactly(6L);
+
+        // A read of an older total, e.g. from before the overlap window moved on, is ignored.
+        storedRows.set(0, new Object[]{SalesAnalyticsService.CATEGORY, 7L, "DAY", day, 2800L, 5L});
+        service.refresh();
+        assertThat(service.getCategorySales(7L, SalesGranularity.DAY, day, day))
+                .extracting(SalesBucketResponse::getRevenue).containsExactly(3800L);
+    }
+
+    @Test
+    void refreshReachesBackByTheOverlap() {
+        LocalDateTime before = LocalDateTime.now();
+        service.refresh();
+
+        ArgumentCaptor<Timestamp> since = ArgumentCaptor.forClass(Timestamp.class);
+        verify(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), since.capture());
+        assertThat(since.getValue().toLocalDateTime()).isBefore(before.minusSeconds(299));
+    }
+
+    @Test
+    void eventWithoutItemsWritesNothing() {
+        OutboxEvent event = paidEvent();
+        event.setPayload("{\"orderId\":42,\"items\":[]}");
+
+        service.handle(event);
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+        assertThat(service.transactional()).isTrue();
+    }
+
+    private static ResultSet resultSet(Object[] row) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getString(1)).thenReturn((String) row[0]);
+        when(rs.getLong(2)).thenReturn((Long) row[1]);
+        when(rs.getString(3)).thenReturn((String) row[2]);
+        when(rs.getTimestamp(4)).thenReturn(Timestamp.valueOf((LocalDateTime) row[3]));
+        when(rs.getLong(5)).thenReturn((Long) row[4]);
+        when(rs.getLong(6)).thenReturn((Long) row[5]);
+        return rs;
+    }
+
+    private static OutboxEvent paidEvent() {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(1L);
+        event.setEventType(OutboxService.ORDER_PAID);
+        event.setCreatedAt(PAID_AT);
+        event.setPayload("{\"orderId\":42,\"items\":["
+                + "{\"productId\":1,\"categoryId\":7,\"quantity\":2,\"priceAtOrder\":\"12.50\"},"
+                + "{\"productId\":2,\"categoryId\":7,\"quantity\":3,\"priceAtOrder\":\"1.00\"}]}");
+        return event;
+    }
+}
@@ -0,0 +1,141 @@
+package com.flipkartclone.ecommercebackend.service;
+
+import com.flipkartclone.ecommercebackend.dto.TypeaheadSuggestion;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TypeaheadIndexTests {
+
+    private static final String[] WORDS = {"red", "read", "reader", "phone", "phones", "case", "cable", "cab",
+            "usb", "usb c", "charger", "char", "a", "ab", "abc", "b", "zz"};
+
+    @Test
+    void normalizeLowerCasesAndCollapsesSeparators() {
+        assertThat(TypeaheadIndex.normalize("  USB-C  Cable (2m)!")).isEqualTo("usb c cable 2m");
+        assertThat(TypeaheadIndex.normalize("---")).isEmpty();
+    }
+
+    @Test
+    void prefixRangeStopsAtTheNeighbouringKeys() {
+        TypeaheadIndex.Builder builder = new TypeaheadIndex.Builder();
+        builder.add(TypeaheadIndex.PRODUCT, 1, "ab", 1);
+        builder.add(TypeaheadIndex.PRODUCT, 2, "abc", 2);
+        builder.add(TypeaheadIndex.PRODUCT, 3, "abd", 3);
+        builder.add(TypeaheadIndex.PRODUCT, 4, "b", 4);
+        builder.add(TypeaheadIndex.PRODUCT, 5, "aa", 5);
+        TypeaheadIndex index = builder.build();
+
+        assertThat(ids(index, "ab", 10)).containsExactly(3L, 2L, 1L);
+        assertThat(ids(index, "abc", 10)).containsExactly(2L);
+        assertThat(ids(index, "abcd", 10)).isEmpty();
+        assertThat(ids(index, "a", 10)).containsExactly(5L, 3L, 2L, 1L);
+        assertThat(ids(index, "b", 10)).containsExactly(4L);
+        assertThat(ids(index, "c", 10)).isEmpty();
+        assertThat(ids(index, "0", 10)).isEmpty();
+    }
+
+    @Test
+    void everyWordStartMatchesButEachNameIsSuggestedOnce() {
+        TypeaheadIndex.Builder builder = new TypeaheadIndex.Builder();
+        builder.add(TypeaheadIndex.PRODUCT, 1, "Cable cable CABLE", 5);
+        builder.add(TypeaheadIndex.CATEGORY, 1, "Cables", 3);
+        TypeaheadIndex index = builder.build();
+
+        List<TypeaheadSuggestion> suggestions = new ArrayList<>();
+        index.top("cab", 10, typedId -> false, suggestions);
+
+        assertThat(suggestions).extracting(TypeaheadSuggestion::getType, TypeaheadSuggestion::getId,
+                TypeaheadSuggestion::getName).containsExactly(
+                org.assertj.core.groups.Tuple.tuple(TypeaheadIndex.PRODUCT, 1L, "Cable cable CABLE"),
+                org.assertj.core.groups.Tuple.tuple(TypeaheadIndex.CATEGORY, 1L, "Cables"));
+        assertThat(index.weightOf(TypeaheadIndex.typedId(TypeaheadIndex.CATEGORY, 1))).isEqualTo(3);
+        assertThat(index.weightOf(TypeaheadIndex.typedId(TypeaheadIndex.CATEGORY, 2))).isEqualTo(-1);
+    }
+
+    @Test
+    void nameStartingWithThePrefixWinsAWeightTie() {
+        TypeaheadIndex.Builder builder = new TypeaheadIndex.Builder();
+        builder.add(TypeaheadIndex.PRODUCT, 1, "red phone", 10);
+        builder.add(TypeaheadIndex.PRODUCT, 2, "phone case", 10);
+        TypeaheadIndex index = builder.build();
+
+        assertThat(ids(index, "pho", 10)).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void hiddenNamesAreSkippedWithoutShrinkingTheResult() {
+        TypeaheadIndex.Builder builder = new TypeaheadIndex.Builder();
+        for (long id = 1; id <= 5; id++) {
+            builder.add(TypeaheadIndex.PRODUCT, id, "phone " + id, (int) id);
+        }
+        TypeaheadIndex index = builder.build();
+
+        List<TypeaheadSuggestion> suggestions = new ArrayList<>();
+        index.top("phone", 2, typedId -> typedId == 5 || typedId == 3, suggestions);
+
+        assertThat(suggestions).extracting(TypeaheadSuggestion::getId).containsExactly(4L, 2L);
+    }
+
+    @Test
+    void topKMatchesABruteForceScanOverManyNames() {
+        Random random = new Random(11);
+        TypeaheadIndex.Builder builder = new TypeaheadIndex.Builder();
+        List<String> names = new ArrayList<>();
+        List<Integer> weights = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            StringBuilder name = new StringBuilder();
+            int words = 1 + random.nextInt(4);
+            for (int w = 0; w < words; w++) {
+                name.append(w == 0 ? "" : " ").append(WORDS[random.nextInt(WORDS.length)]);
+            }
+            // Distinct weights, so the expected order has no ties to break.
+            int weight = i * 7 % 2_003;
+            names.add(name.toString());
+            weights.add(weight);
+            builder.add(TypeaheadIndex.PRODUCT, i + 1, name.toString(), weight);
+        }
+        TypeaheadIndex index = builder.build();
+
+        for (String prefix : new String[]{"r", "rea", "reader", "ph", "phones", "ca", "cab", "usb c", "c", "a", "ab", "z", "q"}) {
+            List<Long> expected = new ArrayList<>();
+            List<Integer> order = new ArrayList<>();
+            for (int i = 0; i < names.size(); i++) {
+                if (hasWordStartingWith(names.get(i), prefix)) {
+                    order.add(i);
+                }
+            }
+            order.sort(Comparator.comparing((Integer i) -> weights.get(i)).reversed());
+            for (int i = 0; i < Math.min(10, order.size()); i++) {
+                expected.add(order.get(i) + 1L);
+            }
+
+            assertThat(ids(index, prefix, 10)).as(prefix).containsExactlyElementsOf(expected);
+        }
+    }
+
+    private static boolean hasWordStartingWith(String name, String prefix) {
+        String key = TypeaheadIndex.normalize(name);
+        for (int p = 0; p < key.length(); p++) {
+            if ((p == 0 || key.charAt(p - 1) == ' ') && key.startsWith(prefix, p)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<Long> ids(TypeaheadIndex index, String prefix, int limit) {
+        List<TypeaheadSuggestion> suggestions = new ArrayList<>();
+        index.top(prefix, limit, typedId -> false, suggestions);
+        List<Long> ids = new ArrayList<>();
+        for (TypeaheadSuggestion suggestion : suggestions) {
+            ids.add(suggestion.getId());
+        }
+        return ids;
+    }
+}
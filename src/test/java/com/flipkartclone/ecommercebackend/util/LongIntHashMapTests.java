@@ -0,0 +1,107 @@
+package com.flipkartclone.ecommercebackend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongIntHashMapTests {
+
+    @Test
+    void growsPastManyResizes() {
+        LongIntHashMap map = new LongIntHashMap(2);
+        for (long key = 1; key <= 10_000; key++) {
+            map.put(key, (int) key * 3);
+        }
+
+        assertThat(map.size()).isEqualTo(10_000);
+        for (long key = 1; key <= 10_000; key++) {
+            assertThat(map.get(key, -1)).isEqualTo((int) key * 3);
+        }
+        assertThat(map.get(10_001, -1)).isEqualTo(-1);
+    }
+
+    @Test
+    void addToStartsMissingKeysAtZero() {
+        LongIntHashMap map = new LongIntHashMap();
+
+        assertThat(map.addTo(5, 2)).isEqualTo(2);
+        assertThat(map.addTo(5, 3)).isEqualTo(5);
+        assertThat(map.addTo(-5, 1)).isEqualTo(1);
+        assertThat(map.size()).isEqualTo(2);
+    }
+
+    @Test
+    void removeKeepsCollidingKeysReachable() {
+        // Keys sharing a home slot in a 16-slot table probe into one cluster; removing from its middle must
+        // shift the later keys back rather than cut the chain.
+        LongIntHashMap map = new LongIntHashMap(8);
+        long[] colliding = new long[6];
+        int found = 0;
+        for (long key = 1; found < colliding.length; key++) {
+            if ((LongIntHashMap.mix(key) & 15) == 3) {
+                colliding[found++] = key;
+            }
+        }
+        for (long key : colliding) {
+            map.put(key, (int) key);
+        }
+
+        assertThat(map.remove(colliding[1])).isTrue();
+        assertThat(map.remove(colliding[1])).isFalse();
+        assertThat(map.containsKey(colliding[1])).isFalse();
+        for (long key : colliding) {
+            if (key != colliding[1]) {
+                assertThat(map.get(key, -1)).isEqualTo((int) key);
+            }
+        }
+        assertThat(map.size()).isEqualTo(5);
+    }
+
+    @Test
+    void matchesHashMapUnderRandomOperations() {
+        Random random = new Random(42);
+        LongIntHashMap map = new LongIntHashMap(4);
+        Map<Long, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            long key = random.nextInt(2_000) - 1_000;
+            if (key == 0) {
+                continue;
+            }
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    int value = random.nextInt();
+                    map.put(key, value);
+                    expected.put(key, value);
+                }
+                case 1 -> {
+                    int delta = random.nextInt(10) + 1;
+                    assertThat(map.addTo(key, delta)).isEqualTo(expected.merge(key, delta, Integer::sum));
+                }
+                default -> assertThat(map.remove(key)).isEqualTo(expected.remove(key) != null);
+            }
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        Map<Long, Integer> actual = new HashMap<>();
+        map.forEach(actual::put);
+        assertThat(actual).isEqualTo(expected);
+    }
+
+    @Test
+    void clearEmptiesTheMap() {
+        LongIntHashMap map = new LongIntHashMap();
+        map.put(1, 1);
+        map.put(2, 2);
+
+        map.clear();
+
+        assertThat(map.size()).isZero();
+        assertThat(map.containsKey(1)).isFalse();
+        map.put(1, 7);
+        assertThat(map.get(1, -1)).isEqualTo(7);
+    }
+}
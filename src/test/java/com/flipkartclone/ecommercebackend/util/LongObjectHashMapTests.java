@@ -0,0 +1,71 @@
+package com.flipkartclone.ecommercebackend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongObjectHashMapTests {
+
+    @Test
+    void growsPastManyResizes() {
+        LongObjectHashMap<String> map = new LongObjectHashMap<>(2);
+        for (long key = 1; key <= 10_000; key++) {
+            map.put(key, "v" + key);
+        }
+
+        assertThat(map.size()).isEqualTo(10_000);
+        for (long key = 1; key <= 10_000; key++) {
+            assertThat(map.get(key)).isEqualTo("v" + key);
+        }
+        assertThat(map.get(10_001)).isNull();
+    }
+
+    @Test
+    void putReplacesWithoutGrowing() {
+        LongObjectHashMap<String> map = new LongObjectHashMap<>();
+        map.put(7, "a");
+        map.put(7, "b");
+
+        assertThat(map.size()).isEqualTo(1);
+        assertThat(map.get(7)).isEqualTo("b");
+    }
+
+    @Test
+    void computeIfAbsentCallsTheFactoryOncePerKey() {
+        LongObjectHashMap<StringBuilder> map = new LongObjectHashMap<>(4);
+        int[] calls = {0};
+        for (int i = 0; i < 3; i++) {
+            for (long key = 1; key <= 100; key++) {
+                map.computeIfAbsent(key, k -> {
+                    calls[0]++;
+                    return new StringBuilder();
+                }).append('x');
+            }
+        }
+
+        assertThat(calls[0]).isEqualTo(100);
+        assertThat(map.get(50).toString()).isEqualTo("xxx");
+    }
+
+    @Test
+    void collidingKeysStayDistinct() {
+        LongObjectHashMap<Long> map = new LongObjectHashMap<>(8);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 5_000; i++) {
+            // Multiples of a large power of two differ only in high bits, which the mixer has to spread.
+            long key = (random.nextInt(500) + 1L) << 40;
+            map.put(key, (long) i);
+            expected.put(key, (long) i);
+        }
+
+        Map<Long, Long> actual = new HashMap<>();
+        map.forEach(actual::put);
+        assertThat(actual).isEqualTo(expected);
+        assertThat(map.size()).isEqualTo(expected.size());
+    }
+}